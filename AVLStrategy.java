@@ -0,0 +1,110 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Rebalances a BALST as an AVL tree: the heights of the two subtrees of every node differ by at
+ * most one. Each node's rank holds its height, with leaves at height 1.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+class AVLStrategy implements BalanceStrategy {
+
+  /**
+   * Returns height of node. Null nodes have height 0.
+   */
+  private static int height(BSTNode node) {
+    return node == null ? 0 : node.rank;
+  }
+
+  /**
+   * Recomputes height of node from its children.
+   */
+  private static void update(BSTNode node) {
+    node.rank = 1 + Math.max(height(node.getLeftChild()), height(node.getRightChild()));
+  }
+
+  @Override
+  public void inserted(BALST tree, BSTNode node) {
+    tree.recolor(node, "B");
+    node.rank = 1;
+    rebalanceUp(tree, node.getParent());
+  }
+
+  @Override
+  public void removed(BALST tree, BSTNode removed, BSTNode parent, Child side) {
+    rebalanceUp(tree, parent);
+  }
+
+  /**
+   * Recomputes heights from node up to the root, rotating wherever subtree heights differ by two.
+   * Stops once a subtree's height is unchanged, as nothing above it is affected.
+   * 
+   * @param tree being rebalanced
+   * @param node lowest node whose subtree has changed, or null
+   */
+  private void rebalanceUp(BALST tree, BSTNode node) {
+    while (node != null) {
+      int previousHeight = node.rank;
+      node = rebalance(tree, node);
+      if (node.rank == previousHeight) {
+        return;
+      }
+      node = node.getParent();
+    }
+  }
+
+  /**
+   * Recomputes height of node and rotates if it is out of balance.
+   * 
+   * @return root of the subtree after any rotation
+   */
+  private BSTNode rebalance(BALST tree, BSTNode node) {
+    update(node);
+    int balance = height(node.getLeftChild()) - height(node.getRightChild());
+    if (balance > 1) {
+      BSTNode left = node.getLeftChild();
+      // Left-right case is first rotated into the left-left case
+      if (height(left.getLeftChild()) < height(left.getRightChild())) {
+        tree.rotateLeft(left);
+        update(left);
+        update(left.getParent());
+      }
+      BSTNode root = tree.rotateRight(node);
+      update(node);
+      update(root);
+      return root;
+    } else if (balance < -1) {
+      BSTNode right = node.getRightChild();
+      // Right-left case is first rotated into the right-right case
+      if (height(right.getRightChild()) < height(right.getLeftChild())) {
+        tree.rotateRight(right);
+        update(right);
+        update(right.getParent());
+      }
+      BSTNode root = tree.rotateLeft(node);
+      update(node);
+      update(root);
+      return root;
+    }
+    return node;
+  }
+}
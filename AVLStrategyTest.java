@@ -0,0 +1,45 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Runs the BALSTTest suite against a BALST balanced as an AVL tree.
+ */
+public class AVLStrategyTest extends BALSTTest {
+
+  @Override
+  protected BALSTADT<String, String> createInstance() {
+    return new BALST<String, String>(BalanceStrategy.AVL);
+  }
+
+  @Override
+  protected BALSTADT<Integer, String> createInstance2() {
+    return new BALST<Integer, String>(BalanceStrategy.AVL);
+  }
+
+  /**
+   * Returns the height bound of an AVL tree, which is less than 1.4405 times the logarithm of
+   * numKeys + 2, less 0.3277.
+   */
+  @Override
+  protected double maxHeight(int numKeys) {
+    return 1.4405 * Math.log(numKeys + 2) / Math.log(2) - 0.3277;
+  }
+}
@@ -18,18 +18,20 @@
 // the intended use-case.
 //
 ///////////////////////////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.lang.Math;
-
-// Enumeration used for keeping track of whether an edge is pointing to a left or right child.
-enum Child {
-  LEFT, RIGHT
-};
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
 
 /**
  * 
- * Class to implement a Red-Black Tree and printing functionality.
+ * Class to implement a Red-Black Tree and printing functionality. The rebalancing is supplied by a
+ * BalanceStrategy, so that the same tree can instead be balanced as an AVL tree, weak AVL tree,
+ * treap, or left-leaning Red-Black tree.
  * 
  * @param <Key>   is the generic type of key
  * @param <Value> is the generic type of value
@@ -38,16 +40,440 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
 
   private BSTNode<Key, Value> root; // Root node of tree
 
+  // Nodes holding the smallest and largest keys, tombstones included, or null if tree is empty
+  private BSTNode<Key, Value> minNode;
+  private BSTNode<Key, Value> maxNode;
+
   private int numKeys; // Number for nodes in tree
 
+  int modCount; // Number of structural modifications, used by cursors to detect them
+
+  private final BalanceStrategy strategy; // Rules used to rebalance tree after inserts and removes
+
+  // Ways of comparing keys. Each tree compares its keys in one way, so that each comparison site
+  // only sees one class of key, rather than calling compareTo on keys of every class in the JVM.
+  private static final int UNDECIDED = 0; // Natural ordering, until the first key is inserted
+  private static final int NATURAL = 1; // Keys' compareTo
+  private static final int COMPARATOR = 2; // Tree's comparator
+  private static final int STRING = 3; // String keys, compared by prefix first
+  private static final int INTEGER = 4; // Integer keys, compared as primitives
+  private static final int LONG = 5; // Long keys, compared as primitives
+
+  // Fewest probes of a parallel getAll or containsAll which are split across threads by subtree
+  private static final int PARALLEL_BATCH = 1024;
+
+  // Most lines of a level rendered by one task of a parallel print
+  private static final int RENDER_CHUNK = 64;
+
+  private final Comparator<? super Key> comparator; // Ordering of keys, null for natural ordering
+  private int keyKind; // Way keys are compared
+
+  private final boolean keysOnly; // Whether nodes hold only keys, without a value slot
+  private long rotations; // Number of rotations performed, for comparing strategies
+
+  // Fraction of nodes which may be tombstones before the tree is compacted, 0 if tombstone mode is
+  // disabled and removes unlink nodes at once
+  private double tombstoneRatio;
+  private int deadCount; // Number of tombstones in tree
+
+  // Combines values into the aggregate cached in each node, null if aggregates are not kept
+  private Monoid<Value> monoid;
+
+  // Removed nodes kept for reuse by later inserts, chained through their right child references
+  private BSTNode<Key, Value> freeNodes;
+  private int freeCount; // Number of nodes in freeNodes
+  private int poolCapacity; // Maximum number of nodes kept in freeNodes, 0 if pooling is disabled
+
+  private LookupCache cache; // Nodes of recently looked up keys, null if caching is disabled
+
+  private EventRing<Key> events; // Ring structural changes are published to, null if disabled
+
+  // Filter over the keys, rebuilt after removes, null if lookups aren't filtered
+  private BloomFilter filter;
+  private double falsePositiveRate; // Target false positive probability of filter
+  private int filterStale; // Number of keys removed since filter was built
+  private long filterRejections; // Number of lookups answered by filter
+  private long filterFalsePositives; // Number of lookups passed by filter of keys not in tree
+
+  // Inserts and removes which can be undone, and undone ones which can be redone, oldest first;
+  // null if history is disabled
+  private ArrayDeque<HistoryEntry<Key, Value>> undoHistory;
+  private ArrayDeque<HistoryEntry<Key, Value>> redoHistory;
+  private int historyCapacity; // Maximum number of entries in undoHistory
+  private HistoryEntry<Key, Value> recording; // Insert or remove being recorded, or null
+
   /**
    * Default constructor sets instance variables to default value.
    */
   public BALST() {
+    this(null, BalanceStrategy.RED_BLACK);
+  }
+
+  /**
+   * Constructor for tree rebalanced by the given strategy, such as BalanceStrategy.AVL.
+   * 
+   * @param strategy used to rebalance tree after inserts and removes
+   */
+  public BALST(BalanceStrategy strategy) {
+    this(null, strategy);
+  }
+
+  /**
+   * Constructor for Red-Black tree whose keys are ordered by comparator.
+   * 
+   * @param comparator ordering of keys, or null for their natural ordering
+   */
+  public BALST(Comparator<? super Key> comparator) {
+    this(comparator, BalanceStrategy.RED_BLACK);
+  }
+
+  /**
+   * Constructor for tree whose keys are ordered by comparator, rebalanced by the given strategy.
+   * 
+   * @param comparator ordering of keys, or null for their natural ordering
+   * @param strategy   used to rebalance tree after inserts and removes
+   */
+  public BALST(Comparator<? super Key> comparator, BalanceStrategy strategy) {
+    this(comparator, strategy, false);
+  }
+
+  /**
+   * Constructor for tree whose nodes, if keysOnly, hold only keys, as used by BALSTSet. The values
+   * of such a tree are always null.
+   * 
+   * @param comparator ordering of keys, or null for their natural ordering
+   * @param strategy   used to rebalance tree after inserts and removes
+   * @param keysOnly   whether nodes are BSTNodes, rather than ValueNodes
+   */
+  BALST(Comparator<? super Key> comparator, BalanceStrategy strategy, boolean keysOnly) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("Balance strategy cannot be null");
+    }
+    this.strategy = strategy;
+    this.comparator = comparator;
+    this.keyKind = comparator == null ? UNDECIDED : COMPARATOR;
+    this.keysOnly = keysOnly;
     this.root = null;
     numKeys = 0;
   }
 
+  /**
+   * Constructor which adopts an already built tree, such as one read from a snapshot. The nodes are
+   * assumed to already satisfy the Red-Black tree properties.
+   * 
+   * @param root    root node of tree, whose parent must be null
+   * @param numKeys number of nodes in tree
+   */
+  BALST(BSTNode<Key, Value> root, int numKeys) {
+    this.strategy = BalanceStrategy.RED_BLACK;
+    this.comparator = null;
+    this.keysOnly = false;
+    this.root = root;
+    this.numKeys = numKeys;
+    if (root != null) {
+      this.keyKind = kindOf(root.key);
+      if (this.keyKind == STRING) {
+        this.root = withPrefixes(root, null);
+      }
+    }
+    findEnds();
+  }
+
+  /**
+   * Getter for root node. Used by classes which walk the tree's nodes directly.
+   * 
+   * @return root node, or null if tree is empty
+   */
+  BSTNode<Key, Value> getRoot() {
+    return this.root;
+  }
+
+  /**
+   * Finds the nodes holding the smallest and largest keys, after the tree has been rebuilt or one
+   * of them has been unlinked.
+   */
+  private void findEnds() {
+    this.minNode = this.root;
+    this.maxNode = this.root;
+    while (this.minNode != null && this.minNode.leftChild != null) {
+      this.minNode = this.minNode.leftChild;
+    }
+    while (this.maxNode != null && this.maxNode.rightChild != null) {
+      this.maxNode = this.maxNode.rightChild;
+    }
+  }
+
+  /**
+   * Getter for the node holding the smallest key, which may be a tombstone.
+   * 
+   * @return leftmost node, or null if tree is empty
+   */
+  BSTNode<Key, Value> getMinNode() {
+    return this.minNode;
+  }
+
+  /**
+   * Getter for the node holding the largest key, which may be a tombstone.
+   * 
+   * @return rightmost node, or null if tree is empty
+   */
+  BSTNode<Key, Value> getMaxNode() {
+    return this.maxNode;
+  }
+
+  /**
+   * Returns the smallest key in the tree, in constant time unless the smallest keys have been
+   * removed in tombstone mode.
+   * 
+   * @return smallest key, or null if tree is empty
+   */
+  public Key firstKey() {
+    if (this.minNode == null || !this.minNode.dead) {
+      return this.minNode == null ? null : this.minNode.key;
+    }
+    Cursor<Key, Value> cursor = cursor();
+    return cursor.first() ? cursor.getKey() : null;
+  }
+
+  /**
+   * Returns the largest key in the tree, in constant time unless the largest keys have been removed
+   * in tombstone mode.
+   * 
+   * @return largest key, or null if tree is empty
+   */
+  public Key lastKey() {
+    if (this.maxNode == null || !this.maxNode.dead) {
+      return this.maxNode == null ? null : this.maxNode.key;
+    }
+    Cursor<Key, Value> cursor = cursor();
+    return cursor.last() ? cursor.getKey() : null;
+  }
+
+  /**
+   * Getter for the strategy used to rebalance tree.
+   * 
+   * @return balance strategy
+   */
+  public BalanceStrategy getStrategy() {
+    return this.strategy;
+  }
+
+  /**
+   * Getter for the comparator ordering the tree's keys.
+   * 
+   * @return comparator, or null if keys are in their natural ordering
+   */
+  public Comparator<? super Key> comparator() {
+    return this.comparator;
+  }
+
+  /**
+   * Chooses how keys are compared in a tree with natural ordering, from the class of its first key.
+   * 
+   * @param key first key inserted
+   * @return way of comparing keys
+   */
+  private static int kindOf(Object key) {
+    if (key instanceof String) {
+      return STRING;
+    } else if (key instanceof Integer) {
+      return INTEGER;
+    } else if (key instanceof Long) {
+      return LONG;
+    }
+    return NATURAL;
+  }
+
+  /**
+   * Returns the prefix of key kept in nodes to speed up comparisons, which for String keys is its
+   * first 4 chars (8 bytes) packed into a long, and otherwise 0.
+   * 
+   * @param key whose prefix is returned
+   * @return prefix of key
+   */
+  long prefixOf(Object key) {
+    return this.keyKind == STRING ? FrozenBALST.stringPrefix((String) key) : 0;
+  }
+
+  /**
+   * Compares key to the key of node. For String keys, the prefixes are compared first, so that
+   * most comparisons don't need to follow the references to the keys.
+   * 
+   * @param key    being compared
+   * @param prefix of key, as returned by prefixOf()
+   * @param node   whose key key is compared to
+   * @return negative, zero or positive as key is less than, equal to or greater than node's key
+   */
+  int compare(Object key, long prefix, BSTNode node) {
+    switch (this.keyKind) {
+      case STRING:
+        long nodePrefix = node.getPrefix();
+        if (prefix != nodePrefix) {
+          return Long.compareUnsigned(prefix, nodePrefix);
+        }
+        return ((String) key).compareTo((String) node.key);
+      case INTEGER:
+        return Integer.compare((Integer) key, (Integer) node.key);
+      case LONG:
+        return Long.compare((Long) key, (Long) node.key);
+      case COMPARATOR:
+        return this.comparator.compare((Key) key, (Key) node.key);
+      default:
+        return ((Comparable) key).compareTo(node.key);
+    }
+  }
+
+  /**
+   * Compares two keys in the tree's ordering.
+   * 
+   * @return negative, zero or positive as first is less than, equal to or greater than second
+   */
+  private int compareKeys(Key first, Key second) {
+    return this.comparator != null ? this.comparator.compare(first, second)
+        : first.compareTo(second);
+  }
+
+  /**
+   * Returns a copy of a subtree of adopted nodes, made of nodes which keep the prefixes of their
+   * String keys, as adopted nodes have no room for them.
+   */
+  private BSTNode<Key, Value> withPrefixes(BSTNode<Key, Value> currentNode,
+      BSTNode<Key, Value> parent) {
+    if (currentNode == null) {
+      return null;
+    }
+    BSTNode<Key, Value> node =
+        new StringValueNode<Key, Value>(currentNode.key, currentNode.getValue(), parent);
+    node.setPrefix(prefixOf(currentNode.key));
+    node.color = currentNode.color;
+    node.rank = currentNode.rank;
+    node.dead = currentNode.dead;
+    node.leftChild = withPrefixes(currentNode.leftChild, node);
+    node.rightChild = withPrefixes(currentNode.rightChild, node);
+    return node;
+  }
+
+  /**
+   * Getter for the number of rotations performed since the tree was created.
+   * 
+   * @return number of rotations
+   */
+  public long rotationCount() {
+    return this.rotations;
+  }
+
+  /**
+   * Replaces child of parent with another node, or the root if parent is null, and sets the
+   * parent of the new node.
+   * 
+   * @param parent   whose child is replaced, or null if oldChild is the root
+   * @param oldChild being replaced
+   * @param newChild replacing it, which may be null
+   */
+  void replaceChild(BSTNode parent, BSTNode oldChild, BSTNode newChild) {
+    if (parent == null) {
+      this.root = newChild;
+    } else if (parent.leftChild == oldChild) {
+      parent.setLeftChild(newChild);
+    } else {
+      parent.setRightChild(newChild);
+    }
+    if (newChild != null) {
+      newChild.setParent(parent);
+    }
+  }
+
+  /**
+   * Returns the key of node, or null if node is null. Used to publish the keys of nodes which
+   * balance strategies hand to the tree as raw types.
+   * 
+   * @param node of the tree, or null
+   * @return key of node
+   */
+  @SuppressWarnings("unchecked")
+  private Key keyOf(BSTNode node) {
+    return node == null ? null : (Key) node.key;
+  }
+
+  /**
+   * Sets the color of node, publishing the change if events are enabled. Used by balance strategies
+   * for every recoloring.
+   * 
+   * @param node  being recolored
+   * @param color "R" or "B"
+   */
+  void recolor(BSTNode node, String color) {
+    if (this.recording != null) {
+      this.recording.touch(node);
+    }
+    if (this.events != null && !color.equals(node.getColor())) {
+      this.events.publish(TreeEvent.Type.RECOLORED, keyOf(node), null, false, color);
+    }
+    node.setColor(color);
+  }
+
+  /**
+   * Rotates subtree left, so that the right child of node takes its place and node becomes its left
+   * child. Colors and ranks are left to the caller.
+   * 
+   * @param node root of subtree, which must have a right child
+   * @return new root of subtree
+   */
+  BSTNode rotateLeft(BSTNode node) {
+    if (this.events != null) {
+      this.events.publish(TreeEvent.Type.ROTATED_LEFT, keyOf(node), null, false, null);
+    }
+    if (this.recording != null) {
+      this.recording.touch(node);
+      this.recording.touch(node.parent);
+      this.recording.touch(node.rightChild);
+      this.recording.touch(node.rightChild.leftChild);
+    }
+    BSTNode pivot = node.rightChild;
+    node.setRightChild(pivot.leftChild);
+    if (pivot.leftChild != null) {
+      pivot.leftChild.setParent(node);
+    }
+    replaceChild(node.parent, node, pivot);
+    pivot.setLeftChild(node);
+    node.setParent(pivot);
+    updateAggregate(node);
+    updateAggregate(pivot);
+    ++this.rotations;
+    return pivot;
+  }
+
+  /**
+   * Rotates subtree right, so that the left child of node takes its place and node becomes its
+   * right child. Colors and ranks are left to the caller.
+   * 
+   * @param node root of subtree, which must have a left child
+   * @return new root of subtree
+   */
+  BSTNode rotateRight(BSTNode node) {
+    if (this.events != null) {
+      this.events.publish(TreeEvent.Type.ROTATED_RIGHT, keyOf(node), null, false, null);
+    }
+    if (this.recording != null) {
+      this.recording.touch(node);
+      this.recording.touch(node.parent);
+      this.recording.touch(node.leftChild);
+      this.recording.touch(node.leftChild.rightChild);
+    }
+    BSTNode pivot = node.leftChild;
+    node.setLeftChild(pivot.rightChild);
+    if (pivot.rightChild != null) {
+      pivot.rightChild.setParent(node);
+    }
+    replaceChild(node.parent, node, pivot);
+    pivot.setRightChild(node);
+    node.setParent(pivot);
+    updateAggregate(node);
+    updateAggregate(pivot);
+    ++this.rotations;
+    return pivot;
+  }
+
   /**
    * Getter for key of root node.
    */
@@ -68,11 +494,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     if (key == null) {
       throw new IllegalNullKeyException();
     }
-    if (findNodeHelper(root, key) == null) {
-      throw new KeyNotFoundException();
-    } else {
-      return (Key) findNodeHelper(root, key).leftChild.key;
-    }
+    BSTNode child = findLiveNode(key).leftChild;
+    // Returns null if child is null, as specified by BALSTADT
+    return child == null ? null : (Key) child.key;
   }
 
   /**
@@ -83,11 +507,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     if (key == null) {
       throw new IllegalNullKeyException();
     }
-    if (findNodeHelper(root, key) == null) {
-      throw new KeyNotFoundException();
-    } else {
-      return (Key) findNodeHelper(root, key).rightChild.key;
-    }
+    BSTNode child = findLiveNode(key).rightChild;
+    // Returns null if child is null, as specified by BALSTADT
+    return child == null ? null : (Key) child.key;
   }
 
   /**
@@ -128,7 +550,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     }
     // Adds keys of left subtree, root, and then keys of right subtree:
     list.addAll(inOrderHelper(currentNode.leftChild));
-    list.add((Key) currentNode.key);
+    if (!currentNode.dead) {
+      list.add((Key) currentNode.key);
+    }
     list.addAll(inOrderHelper(currentNode.rightChild));
     return list;
   }
@@ -183,7 +607,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
       return list;
     }
     // Adds root, keys of left subtree, and then keys of right subtree:
-    list.add((Key) currentNode.key);
+    if (!currentNode.dead) {
+      list.add((Key) currentNode.key);
+    }
     list.addAll(preOrderHelper(currentNode.leftChild));
     list.addAll(preOrderHelper(currentNode.rightChild));
     return list;
@@ -212,7 +638,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     // Adds keys of left subtree, keys of right subtree, and then the root:
     list.addAll(postOrderHelper(currentNode.leftChild));
     list.addAll(postOrderHelper(currentNode.rightChild));
-    list.add((Key) currentNode.key);
+    if (!currentNode.dead) {
+      list.add((Key) currentNode.key);
+    }
     return list;
   }
 
@@ -237,7 +665,9 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
       return list;
     }
     if (level == 1) {
-      list.add((Key) currentNode.key);
+      if (!currentNode.dead) {
+        list.add((Key) currentNode.key);
+      }
       return list;
     } else {
       list.addAll(givenLevelKeys(currentNode.leftChild, level - 1));
@@ -246,28 +676,6 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     return list;
   }
 
-  /**
-   * Returns the nodes of a given level
-   * 
-   * @param currentNode node with respect to the levels are defined
-   * @param level       how many levels beneath currentNode is to be returned
-   * @return list of keys of the corresponding level
-   */
-  private List<BSTNode> givenLevelNodes(BSTNode currentNode, int level) {
-    List<BSTNode> list = new LinkedList<BSTNode>();
-    if (currentNode == null) {
-      return list;
-    }
-    if (level == 1) {
-      list.add(currentNode);
-      return list;
-    } else {
-      list.addAll(givenLevelNodes(currentNode.leftChild, level - 1));
-      list.addAll(givenLevelNodes(currentNode.rightChild, level - 1));
-    }
-    return list;
-  }
-
   /**
    * Returns keys in order corresponding to level order traversal.
    */
@@ -281,325 +689,1331 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
   }
 
   /**
-   * Helper method for inserting node to tree.
+   * Sets how many removed nodes are kept for reuse by later inserts, which avoids allocating a new
+   * node for each insert in workloads where removes and inserts alternate. Disabled (0) by default.
    * 
-   * @throws RuntTimeException if key is duplicate
-   * @param currentNode node method has been called on
-   * @param key         value of node's key to be inserted
-   * @param value       value of node's data to be inserted
-   * @return currentNode
+   * @param capacity maximum number of nodes kept, or 0 to disable pooling
    */
-  private BSTNode insertHelper(BSTNode currentNode, BSTNode parentNode, Comparable key, Value value)
-      throws DuplicateKeyException {
-    // if tree is empty, creates new Black Node and sets it to be the root
-    if (currentNode == null) {
-      BSTNode newNode = new BSTNode(key, value, parentNode);
-      if (this.root == null) {
-        this.root = newNode;
-      }
-      return newNode;
+  public void setNodePoolCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Pool capacity cannot be negative");
     }
-    // if key is less than currentNode.key, insertHelper is recursively called on currentNode's left
-    // child
-    else if (key.compareTo(currentNode.key) < 0) {
-      currentNode.setLeftChild(insertHelper(currentNode.getLeftChild(), currentNode, key, value));
+    this.poolCapacity = capacity;
+    // Drops nodes beyond the new capacity
+    while (freeCount > capacity) {
+      freeNodes = freeNodes.rightChild;
+      --freeCount;
     }
-    // if key is greater than currentNode.key, insertHelper is recursively called on currentNode's
-    // right child
-    else if (key.compareTo(currentNode.key) > 0) {
-      currentNode.setRightChild(insertHelper(currentNode.getRightChild(), currentNode, key, value));
-    } else {
-      // is only reached if key.compareTo(currentNode.key) == 0. Throws exception indicating
-      // duplicate key
-      throw new DuplicateKeyException();
+  }
+
+  /**
+   * Sets the number of keys whose nodes are cached, so that lookups of recently found keys (by get,
+   * contains and remove) skip the descent from the root. This pays off when a small set of keys
+   * receives most lookups. Entries are evicted by the CLOCK algorithm, and the cache is emptied by
+   * this call. Keys which are equal by equals() must be equal in the tree's ordering. Disabled (0)
+   * by default.
+   * 
+   * @param capacity maximum number of keys cached, or 0 to disable caching
+   */
+  public void setLookupCacheCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Cache capacity cannot be negative");
     }
-    return currentNode;
+    this.cache = capacity == 0 ? null : new LookupCache(capacity);
   }
 
   /**
-   * Used to adjust tree after insertion to preserve Red-Black tree properties.
+   * Maintains a Bloom filter over the keys, so that most lookups (by get, contains and remove) of
+   * keys not in the tree are answered without descending it. The filter is sized for twice the
+   * number of keys, and is rebuilt from the tree once that many keys have been inserted, or once
+   * more keys have been removed since it was built than remain, so the rate of false positives
+   * stays near falsePositiveRate. Lower rates cost more memory, about 1.44 * log2(1 /
+   * falsePositiveRate) bits per key, and more hashing per lookup. Keys which are equal in the
+   * tree's ordering must have equal hashCodes, so trees ordered by a comparator, which may treat
+   * keys with different hashCodes as equal, cannot be filtered. Disabled (0) by default.
    * 
-   * @param currentNode node where there is a potential Red-Black Tree property violation.
+   * @param falsePositiveRate probability that a lookup of a key not in tree passes the filter, or 0
+   *                          to disable the filter
+   * @throws IllegalArgumentException unless falsePositiveRate is at least 0 and less than 1
+   * @throws IllegalStateException    if falsePositiveRate isn't 0 and tree has a comparator
    */
-  private void fixInsert(BSTNode currentNode) {
-    // if node is null or is the root, return
-    if (currentNode == null || currentNode.getParent() == null) {
-      return;
+  public void setMembershipFilter(double falsePositiveRate) {
+    if (!(falsePositiveRate >= 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("False positive rate must be at least 0 and less than 1");
     }
-    // if parent is black, there is no possible violation, so return
-    else if (currentNode.getParent().getColor().equals("B")) {
-      return;
-    } // else parent is red
-    else {
-      // if parent is a left child and uncle is black/null:
-      if (currentNode.getParent().getParent().getLeftChild() == currentNode.getParent()
-          && (currentNode.getParent().getParent().getRightChild() == null
-              || currentNode.getParent().getParent().getRightChild().getColor().equals("B"))) {
-        // If currentNode is a left child (Left-left case), perform right rotation on grandparent
-        // and recolor nodes
-        if (currentNode.getParent().getLeftChild() == currentNode) {
-          // Perform right rotation on currentNode's grandparent:
-          BSTNode sibling = currentNode.getParent().getRightChild();
-          if (sibling != null) {
-            sibling.setParent(currentNode.getParent().getParent());
-          }
+    if (falsePositiveRate > 0 && this.comparator != null) {
+      throw new IllegalStateException("Trees ordered by a comparator cannot be filtered");
+    }
+    this.falsePositiveRate = falsePositiveRate;
+    this.filterRejections = 0;
+    this.filterFalsePositives = 0;
+    rebuildFilter();
+  }
 
-          currentNode.getParent().setRightChild(currentNode.getParent().getParent());
-          currentNode.getParent().getParent().setLeftChild(sibling);
-
-          // If currentNode's grandparent is the root
-          if (currentNode.getParent().getParent().getParent() == null) {
-            // Set new root to be currentNode's parent
-            this.root = currentNode.getParent();
-            currentNode.getParent().setParent(null);
-          } else { // If currentNode's grandparent is not the root
-            // Set parent of currentNode's parent to be currentNode's great-grandparent
-            currentNode.getParent().setParent(currentNode.getParent().getParent().getParent());
-            // If currentNode's old grandparent had been a left child
-            if (currentNode.getParent().getParent().getLeftChild() == currentNode.getParent()
-                .getRightChild()) {
-              // Set currentNode's new grandparent to be left child of currentNode's great
-              // grandparent
-              currentNode.getParent().getParent().setLeftChild(currentNode.getParent());
-            } else { // If currentNode's old grandparent had been a right child
-              // Set currentNode's new grandparent to be right child of currentNode's great
-              // grandparent
-              currentNode.getParent().getParent().setRightChild(currentNode.getParent());
-            }
-          }
-          // Set new sibling's parent to be currentNode's parent
-          currentNode.getParent().getRightChild().setParent(currentNode.getParent());
-          // Recolor nodes:
-          currentNode.getParent().setColor("B");
-          currentNode.getParent().getRightChild().setColor("R");
-        } // Else if currentNode is a right child (Left-right case), perform left rotate on parent
-          // of currentNode, and then call fixInsert again, which will perform Left-left case:
-        else if (currentNode.getParent().getRightChild() == currentNode) {
-          // Perform a left rotate on current node's parent:
-          // Set currentNode's left child as current node's sibling
-          currentNode.getParent().setRightChild(currentNode.getLeftChild());
-          // Likewise set parent of currentNode's left child to be currentNode's parent
-          if (currentNode.getLeftChild() != null) {
-            currentNode.getLeftChild().setParent(currentNode.getParent());
-          }
+  /**
+   * Getter for the number of lookups which the membership filter answered without searching the
+   * tree.
+   * 
+   * @return number of lookups rejected by the filter, 0 if it is disabled
+   */
+  public long membershipFilterRejections() {
+    return this.filterRejections;
+  }
 
-          currentNode.setLeftChild(currentNode.getParent());
-          currentNode.setParent(currentNode.getParent().getParent());
-          currentNode.getParent().setLeftChild(currentNode);
-          currentNode.getLeftChild().setParent(currentNode);
+  /**
+   * Getter for the number of lookups which the membership filter passed, but whose key was then not
+   * found in the tree.
+   * 
+   * @return number of false positives of the filter, 0 if it is disabled
+   */
+  public long membershipFilterFalsePositives() {
+    return this.filterFalsePositives;
+  }
 
-          // Call again on left child to perform Left-left case
-          fixInsert(currentNode.getLeftChild());
-        }
-      } // Else if parent is a left child and uncle is red perform recoloring
-      else if (currentNode.getParent().getParent().getLeftChild() == currentNode.getParent()
-          && currentNode.getParent().getParent().getRightChild().getColor().equals("R")) {
-        // Recolor nodes:
-        currentNode.getParent().setColor("B");
-        currentNode.getParent().getParent().getRightChild().setColor("B");
-
-        if (this.root != currentNode.getParent().getParent()) {
-          currentNode.getParent().getParent().setColor("R");
-        }
-        // Call again on grandparent to fix potential cascading effects
-        fixInsert(currentNode.getParent().getParent());
-
-      } // Else if parent is a right child and uncle is black/null
-      else if (currentNode.getParent().getParent().getRightChild() == currentNode.getParent()
-          && (currentNode.getParent().getParent().getLeftChild() == null
-              || currentNode.getParent().getParent().getLeftChild().getColor().equals("B"))) {
-        // If currentNode is a right child (Right-right case), perform right rotate on grandparent a
-        // recolor
-        if (currentNode.getParent().getRightChild() == currentNode) {
-          // Perform right rotate on grandparent:
-
-          BSTNode sibling = currentNode.getParent().getLeftChild();
-          if (sibling != null) {
-            sibling.setParent(currentNode.getParent().getParent());
-          }
+  /**
+   * Getter for the memory used by the membership filter's bit array.
+   * 
+   * @return size of the filter in bytes, 0 if it is disabled
+   */
+  public long membershipFilterBytes() {
+    return this.filter == null ? 0 : this.filter.sizeInBytes();
+  }
 
-          currentNode.getParent().setLeftChild(currentNode.getParent().getParent());
-          currentNode.getParent().getParent().setRightChild(sibling);
-
-          // If currentNode's grandparent is the root
-          if (currentNode.getParent().getParent().getParent() == null) {
-            // Set new root to be currentNode's parent
-            this.root = currentNode.getParent();
-            currentNode.getParent().setParent(null);
-          } else { // If currentNode's grandparent is not the root
-            // Set parent of currentNode's parent to be currentNode's great-grandparent
-            currentNode.getParent().setParent(currentNode.getParent().getParent().getParent());
-            // If currentNode's old grandparent had been a right child
-            if (currentNode.getParent().getParent().getRightChild() == currentNode.getParent()
-                .getLeftChild()) {
-              // Set currentNode's new grandparent to be left child of currentNode's great
-              // grandparent
-              currentNode.getParent().getParent().setRightChild(currentNode.getParent());
-            } else { // If currentNode's old grandparent had been a right child
-              // Set currentNode's new grandparent to be right child of currentNode's great
-              // grandparent
-              currentNode.getParent().getParent().setLeftChild(currentNode.getParent());
-            }
-          }
-          // Set new sibling's parent to be currentNode's parent
-          currentNode.getParent().getLeftChild().setParent(currentNode.getParent());
-          // Recolor node:
-          currentNode.getParent().setColor("B");
-          currentNode.getParent().getLeftChild().setColor("R");
-        } // If currentNode is a left child (Right-left case), perform right rotate on currentNode's
-          // parent, then call fixInsert() again which will perform Right-right case
-        else if (currentNode.getParent().getLeftChild() == currentNode) {
-          // Perform a right rotate on current node's parent:
-          // Set currentNode's right child as current node's sibling
-          currentNode.getParent().setLeftChild(currentNode.getRightChild());
-          // Likewise set parent of currentNode's right child to be currentNode's parent
-          if (currentNode.getRightChild() != null) {
-            currentNode.getRightChild().setParent(currentNode.getParent());
-          }
+  /**
+   * Replaces the membership filter with one built from the keys now in the tree, or drops it if the
+   * filter is disabled.
+   */
+  private void rebuildFilter() {
+    this.filterStale = 0;
+    if (this.falsePositiveRate == 0) {
+      this.filter = null;
+      return;
+    }
+    this.filter = new BloomFilter(Math.max(64, 2 * this.numKeys), this.falsePositiveRate);
+    addToFilter(this.root);
+  }
 
-          currentNode.setRightChild(currentNode.getParent());
-          currentNode.setParent(currentNode.getParent().getParent());
-          currentNode.getParent().setRightChild(currentNode);
-          currentNode.getRightChild().setParent(currentNode);
-          // Call again on right child to perform Right-right case
-          fixInsert(currentNode.getRightChild());
-        }
-      } // Else if parent is a right child and uncle is red perform recoloring
-      else if (currentNode.getParent().getParent().getRightChild() == currentNode.getParent()
-          && currentNode.getParent().getParent().getLeftChild().getColor().equals("R")) {
-        // Recolor node:
-        currentNode.getParent().setColor("B");
-        currentNode.getParent().getParent().getLeftChild().setColor("B");
-
-        if (this.root != currentNode.getParent().getParent()) {
-          currentNode.getParent().getParent().setColor("R");
-        }
-        // Call again on grandparent to fix potential cascading effects
-        fixInsert(currentNode.getParent().getParent());
-      }
+  /**
+   * Helper method for rebuildFilter. Adds the keys of the live nodes in subtree to filter.
+   * 
+   * @param currentNode root of subtree
+   */
+  private void addToFilter(BSTNode currentNode) {
+    if (currentNode == null) {
+      return;
+    }
+    if (!currentNode.dead) {
+      this.filter.add(currentNode.key);
     }
+    addToFilter(currentNode.leftChild);
+    addToFilter(currentNode.rightChild);
+  }
+
+  /**
+   * Records that key was inserted, rebuilding the membership filter if it is full.
+   * 
+   * @param key which was inserted
+   */
+  private void filterInserted(Object key) {
+    if (this.filter != null) {
+      this.filter.add(key);
+      if (this.filter.isFull()) {
+        rebuildFilter();
+      }
+    }
+  }
+
+  /**
+   * Records that count keys were removed, rebuilding the membership filter once more keys have been
+   * removed since it was built than remain.
+   * 
+   * @param count number of keys removed
+   */
+  private void filterRemoved(int count) {
+    if (this.filter != null) {
+      this.filterStale += count;
+      if (this.filterStale > this.numKeys) {
+        rebuildFilter();
+      }
+    }
+  }
+
+  /**
+   * Sets the number of structural events (inserted and removed nodes, recolorings and rotations)
+   * kept for readers, so that a view of the tree can be updated by replaying them instead of
+   * comparing renderings of the whole tree. Publishing never blocks the writer: readers which fall
+   * behind by more than capacity events lose them and are told to rebuild their view. Disabled (0)
+   * by default, in which case each publishing site costs one branch. Readers of a previous ring
+   * receive no more events.
+   * 
+   * @param capacity least number of events kept, or 0 to stop publishing events
+   */
+  public void setEventCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Event capacity cannot be negative");
+    }
+    this.events = capacity == 0 ? null : new EventRing<Key>(capacity);
+  }
+
+  /**
+   * Returns a reader of the structural events published after this call, which may be polled from
+   * another thread.
+   * 
+   * @return new reader of tree's events
+   * @throws IllegalStateException if events are disabled
+   */
+  public TreeEventReader<Key> eventReader() {
+    if (this.events == null) {
+      throw new IllegalStateException("Events are not enabled");
+    }
+    return new TreeEventReader<Key>(this.events);
+  }
+
+  /**
+   * Stops publishing events during a bulk operation whose steps aren't meaningful to readers.
+   * 
+   * @return ring events were published to, to be passed to resumeEvents
+   */
+  private EventRing<Key> suspendEvents() {
+    EventRing<Key> ring = this.events;
+    this.events = null;
+    return ring;
+  }
+
+  /**
+   * Resumes publishing events after a bulk operation, publishing a RESET event so that readers
+   * rebuild their views.
+   * 
+   * @param ring returned by suspendEvents
+   */
+  private void resumeEvents(EventRing<Key> ring) {
+    this.events = ring;
+    if (ring != null) {
+      ring.publish(TreeEvent.Type.RESET, null, null, false, null);
+    }
+  }
+
+  /**
+   * Sets the number of inserts and removes kept so that they can be undone, oldest first being
+   * dropped once there are more. Each is recorded as the earlier state of the O(log n) nodes it
+   * changed, so undo() and redo() take logarithmic time whatever the size of the tree. Operations
+   * changing many nodes at once (compacting, removing or computing a range, splitting, joining,
+   * setting a monoid or a value through a cursor) clear the history. Removed nodes aren't pooled
+   * while history is enabled. Disabled (0) by default; setting the capacity clears the history.
+   * 
+   * @param capacity maximum number of operations which can be undone, or 0 to disable history
+   */
+  public void setHistoryCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("History capacity cannot be negative");
+    }
+    this.historyCapacity = capacity;
+    this.undoHistory = capacity == 0 ? null : new ArrayDeque<HistoryEntry<Key, Value>>();
+    this.redoHistory = capacity == 0 ? null : new ArrayDeque<HistoryEntry<Key, Value>>();
+  }
+
+  /**
+   * Undoes the latest insert or remove which hasn't been undone, restoring the tree to exactly its
+   * state before it, including colors and shape.
+   * 
+   * @return true if an operation was undone, false if there was none to undo
+   */
+  public boolean undo() {
+    if (this.undoHistory == null || this.undoHistory.isEmpty()) {
+      return false;
+    }
+    HistoryEntry<Key, Value> entry = this.undoHistory.pollLast();
+    swapHistory(entry, !entry.insert);
+    this.redoHistory.addLast(entry);
+    return true;
+  }
+
+  /**
+   * Redoes the latest undone operation, unless another insert or remove has been made since.
+   * 
+   * @return true if an operation was redone, false if there was none to redo
+   */
+  public boolean redo() {
+    if (this.redoHistory == null || this.redoHistory.isEmpty()) {
+      return false;
+    }
+    HistoryEntry<Key, Value> entry = this.redoHistory.pollLast();
+    swapHistory(entry, entry.insert);
+    this.undoHistory.addLast(entry);
+    return true;
+  }
+
+  /**
+   * Swaps the state recorded by entry with the tree's current state, which is recorded in its
+   * place.
+   * 
+   * @param entry   of operation being undone or redone
+   * @param present whether entry's key is in the tree afterwards
+   */
+  private void swapHistory(HistoryEntry<Key, Value> entry, boolean present) {
+    if (this.cache != null) {
+      for (BSTNode<Key, Value> node : entry.nodes) {
+        this.cache.remove(node.key);
+      }
+    }
+    entry.swapNodes();
+    if (this.cache != null) {
+      for (BSTNode<Key, Value> node : entry.nodes) {
+        this.cache.remove(node.key);
+      }
+    }
+    BSTNode<Key, Value> root = this.root;
+    this.root = entry.root;
+    entry.root = root;
+    BSTNode<Key, Value> minNode = this.minNode;
+    this.minNode = entry.minNode;
+    entry.minNode = minNode;
+    BSTNode<Key, Value> maxNode = this.maxNode;
+    this.maxNode = entry.maxNode;
+    entry.maxNode = maxNode;
+    int numKeys = this.numKeys;
+    this.numKeys = entry.numKeys;
+    entry.numKeys = numKeys;
+    int deadCount = this.deadCount;
+    this.deadCount = entry.deadCount;
+    entry.deadCount = deadCount;
+    ++this.modCount;
+    if (present) {
+      filterInserted(entry.key);
+    } else {
+      filterRemoved(1);
+    }
+    if (this.events != null) {
+      this.events.publish(TreeEvent.Type.RESET, null, null, false, null);
+    }
+  }
+
+  /**
+   * Starts recording an insert or remove of key, along with the state of every node on its search
+   * path and their children, which are the nodes it may change besides those it rotates or
+   * recolors. A remove may also unlink the in-order successor of key's node, so its path is
+   * recorded too. Nothing is recorded for an insert of a key already in the tree, which fails.
+   * 
+   * @param key    being inserted or removed
+   * @param insert whether key is being inserted
+   */
+  private void beginChange(Key key, boolean insert) {
+    HistoryEntry<Key, Value> entry = new HistoryEntry<Key, Value>(key, insert);
+    long prefix = prefixOf(key);
+    BSTNode<Key, Value> node = this.root;
+    while (node != null) {
+      entry.touch(node);
+      entry.touch(node.leftChild);
+      entry.touch(node.rightChild);
+      int comparison = compare(key, prefix, node);
+      if (comparison == 0) {
+        break;
+      }
+      node = comparison < 0 ? node.leftChild : node.rightChild;
+    }
+    if (node != null) {
+      if (insert && !node.dead) {
+        return;
+      }
+      for (BSTNode<Key, Value> successor = node.rightChild; successor != null;
+          successor = successor.leftChild) {
+        entry.touch(successor.leftChild);
+        entry.touch(successor.rightChild);
+      }
+    }
+    entry.root = this.root;
+    entry.minNode = this.minNode;
+    entry.maxNode = this.maxNode;
+    entry.numKeys = this.numKeys;
+    entry.deadCount = this.deadCount;
+    this.recording = entry;
+  }
+
+  /**
+   * Adds the operation being recorded, if any, to the history, which can't be redone past it.
+   */
+  private void endChange() {
+    if (this.recording == null) {
+      return;
+    }
+    this.recording.finish();
+    this.undoHistory.addLast(this.recording);
+    if (this.undoHistory.size() > this.historyCapacity) {
+      this.undoHistory.pollFirst();
+    }
+    this.redoHistory.clear();
+    this.recording = null;
+  }
+
+  /**
+   * Discards every operation in the history, before the tree is changed in a way it doesn't record.
+   */
+  void clearHistory() {
+    if (this.undoHistory != null) {
+      this.undoHistory.clear();
+      this.redoHistory.clear();
+    }
+  }
+
+  /**
+   * Getter for the number of lookups which found their key in the lookup cache.
+   * 
+   * @return number of cache hits, 0 if caching is disabled
+   */
+  public long lookupCacheHits() {
+    return this.cache == null ? 0 : this.cache.hits();
+  }
+
+  /**
+   * Getter for the number of lookups which didn't find their key in the lookup cache, and so
+   * searched the tree.
+   * 
+   * @return number of cache misses, 0 if caching is disabled
+   */
+  public long lookupCacheMisses() {
+    return this.cache == null ? 0 : this.cache.misses();
+  }
+
+  /**
+   * Getter for number of removed nodes currently kept for reuse.
+   * 
+   * @return number of pooled nodes
+   */
+  public int nodePoolSize() {
+    return freeCount;
+  }
+
+  /**
+   * Returns a node for insertion, reusing a pooled node if one is available.
+   * 
+   * @param key    of new node
+   * @param value  of new node
+   * @param parent of new node
+   * @return node with the given fields, and all others set to their defaults
+   */
+  private BSTNode newNode(Comparable key, Value value, BSTNode parent) {
+    BSTNode node;
+    if (freeNodes == null) {
+      if (this.keyKind == STRING) {
+        node = this.keysOnly ? new StringNode(key, parent) : new StringValueNode(key, null, parent);
+      } else {
+        node = this.keysOnly ? new BSTNode(key, parent) : new ValueNode(key, null, parent);
+      }
+    } else {
+      node = freeNodes;
+      freeNodes = node.rightChild;
+      --freeCount;
+      node.reuse(key, parent);
+    }
+    node.setValue(value);
+    node.setPrefix(prefixOf(key));
+    return node;
+  }
+
+  /**
+   * Keeps a node which has been removed from the tree for reuse, if the pool has room. Its
+   * references are cleared, so that its key, value and former neighbors aren't kept reachable.
+   * 
+   * @param node removed from tree
+   */
+  private void releaseNode(BSTNode node) {
+    // Nodes removed while history is enabled may be restored by undo
+    if (freeCount >= poolCapacity || this.undoHistory != null) {
+      return;
+    }
+    node.reuse(null, null);
+    node.rightChild = freeNodes;
+    freeNodes = node;
+    ++freeCount;
+  }
+
+  /**
+   * Helper method for inserting node to tree.
+   * 
+   * @throws RuntTimeException if key is duplicate
+   * @param currentNode node method has been called on
+   * @param key         value of node's key to be inserted
+   * @param prefix      of key, as returned by prefixOf()
+   * @param value       value of node's data to be inserted
+   * @return currentNode
+   */
+  private BSTNode insertHelper(BSTNode currentNode, BSTNode parentNode, Comparable key,
+      long prefix, Value value) throws DuplicateKeyException {
+    // if tree is empty, creates new Black Node and sets it to be the root
+    if (currentNode == null) {
+      BSTNode newNode = newNode(key, value, parentNode);
+      if (this.root == null) {
+        this.root = newNode;
+      }
+      return newNode;
+    }
+    int comparison = compare(key, prefix, currentNode);
+    // if key is less than currentNode.key, insertHelper is recursively called on currentNode's left
+    // child
+    if (comparison < 0) {
+      currentNode.setLeftChild(
+          insertHelper(currentNode.getLeftChild(), currentNode, key, prefix, value));
+    }
+    // if key is greater than currentNode.key, insertHelper is recursively called on currentNode's
+    // right child
+    else if (comparison > 0) {
+      currentNode.setRightChild(
+          insertHelper(currentNode.getRightChild(), currentNode, key, prefix, value));
+    } else {
+      // is only reached if key is equal to currentNode.key. Throws exception indicating duplicate
+      // key
+      throw new DuplicateKeyException();
+    }
+    return currentNode;
+  }
+
+  /**
+   * Inserts nodes into tree.
+   * 
+   * @param key   of node to be inserted
+   * @param value of node to be inserted
+   * @throws IllegalNullKeyException if key is null
+   * @throws DuplicateKeyException   if key is already present in tree
+   */
+  @Override
+  public void insert(Key key, Value value) throws IllegalNullKeyException, DuplicateKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    if (this.undoHistory != null) {
+      beginChange(key, true);
+    }
+    // Key may be held by a tombstone, which is revived in place
+    if (this.deadCount > 0) {
+      try {
+        BSTNode node = findNodeHelper(this.root, key);
+        if (!node.dead) {
+          throw new DuplicateKeyException();
+        }
+        node.dead = false;
+        node.setValue(value);
+        updateAggregates(node);
+        --this.deadCount;
+        ++this.numKeys;
+        ++this.modCount;
+        filterInserted(key);
+        endChange();
+        return;
+      } catch (KeyNotFoundException e) {
+        // Key is absent, so is inserted as usual
+      }
+    }
+    if (this.keyKind == UNDECIDED) {
+      this.keyKind = kindOf(key);
+    }
+    long prefix = prefixOf(key);
+    BSTNode node;
+    if (this.maxNode != null && compare(key, prefix, this.maxNode) > 0) {
+      // Keys inserted in increasing order are attached to the largest node, without a descent
+      node = newNode(key, value, this.maxNode);
+      this.maxNode.setRightChild(node);
+      this.maxNode = node;
+    } else if (this.minNode != null && compare(key, prefix, this.minNode) < 0) {
+      node = newNode(key, value, this.minNode);
+      this.minNode.setLeftChild(node);
+      this.minNode = node;
+    } else {
+      // Inserts new node according to standard binary search tree algorithm
+      insertHelper(this.root, null, key, prefix, value);
+      try {
+        node = findNodeHelper(this.root, key);
+      } catch (KeyNotFoundException e) {
+        throw new IllegalStateException("Inserted key " + key + " not found");
+      }
+      if (this.minNode == null) {
+        this.minNode = node;
+        this.maxNode = node;
+      }
+    }
+    if (this.recording != null) {
+      this.recording.touch(node);
+    }
+    if (this.events != null) {
+      BSTNode parent = node.parent;
+      this.events.publish(TreeEvent.Type.INSERTED, key, keyOf(parent),
+          parent != null && parent.leftChild == node, node.getColor());
+    }
+    updateAggregates(node);
+    // Rebalances tree according to its strategy
+    strategy.inserted(this, node);
+    ++this.numKeys;
+    ++this.modCount;
+    filterInserted(key);
+    endChange();
+  }
+
+  /**
+   * Helper method for removeHelpter to find smallest node in subtree defined by a given node. Used
+   * to find in-order successor.
+   * 
+   * @param currentNode which forms the root of the subtree
+   * @return Node which is the smallest in the subtree
+   */
+  private BSTNode<Key, Value> minNodeInTree(BSTNode<Key, Value> currentNode) {
+    // if root has null left child, then the root is the smallest value, and it is returned
+    if (currentNode.leftChild == null) {
+      return currentNode;
+    } else {
+      // continues down the line of left children until a node is found whose left child is null
+      while (currentNode.leftChild != null) {
+        currentNode = currentNode.leftChild;
+      }
+      return currentNode;
+    }
+  }
+
+  /**
+   * Helper method for remove. Unlinks node from tree and rebalances it.
+   * 
+   * @param node Node holding the key to be removed
+   */
+  private void removeHelper(BSTNode<Key, Value> node) {
+    releaseNode(unlinkNode(node));
+  }
+
+  /**
+   * Helper method for removeHelper and removeRange. Unlinks node, or its in-order successor after
+   * moving the successor's key into node, from tree and rebalances it.
+   * 
+   * @param node Node holding the key to be removed
+   * @return node which was unlinked
+   */
+  private BSTNode<Key, Value> unlinkNode(BSTNode<Key, Value> node) {
+    if (this.cache != null) {
+      this.cache.remove(node.key);
+    }
+    strategy.removing(this, node);
+    Key removedKey = node.key; // Key of node before its successor's key is moved into it
+    // if neither right nor left child are null
+    if (node.getLeftChild() != null && node.getRightChild() != null) {
+      // in order successor is the minimum Node in the subtree defined by node's right child
+      BSTNode<Key, Value> inOrderSuccessor = minNodeInTree(node.getRightChild());
+      if (this.cache != null) {
+        this.cache.remove(inOrderSuccessor.key);
+      }
+      // replaces information of node with that of its in order successor, which is unlinked
+      // instead (its left child must be null)
+      node.key = inOrderSuccessor.key;
+      node.setPrefix(inOrderSuccessor.getPrefix());
+      node.setValue(inOrderSuccessor.getValue());
+      node.dead = inOrderSuccessor.dead;
+      node = inOrderSuccessor;
+    }
+    // node has at most one child, so it can be removed by replacing its reference with that child
+    BSTNode<Key, Value> parent = node.getParent();
+    Child side = parent == null ? null : parent.getLeftChild() == node ? Child.LEFT : Child.RIGHT;
+    BSTNode<Key, Value> replacement =
+        node.getLeftChild() != null ? node.getLeftChild() : node.getRightChild();
+    replaceChild(parent, node, replacement);
+    if (this.events != null) {
+      this.events.publish(TreeEvent.Type.REMOVED, node.key, null, false, null);
+      if (node.key != removedKey) {
+        this.events.publish(TreeEvent.Type.REPLACED, removedKey, node.key, false, null);
+      }
+    }
+    updateAggregates(parent);
+    strategy.removed(this, node, parent, side);
+    if (node == this.minNode || node == this.maxNode) {
+      findEnds();
+    }
+    return node;
+  }
+
+
+  /**
+   * Removes node with specified key.
+   * 
+   * @param key of node to be removed
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if no node with key is present in tree
+   * @return true if node is successfully removed
+   */
+  @Override
+  public boolean remove(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    BSTNode<Key, Value> node = findLiveNode(key);
+    if (this.undoHistory != null) {
+      beginChange(key, false);
+    }
+    if (this.tombstoneRatio > 0) {
+      // Marks node as a tombstone, dropping its value
+      if (this.cache != null) {
+        this.cache.remove(node.key);
+      }
+      node.dead = true;
+      node.setValue(null);
+      updateAggregates(node);
+      ++this.deadCount;
+    } else {
+      removeHelper(node);
+    }
+    --this.numKeys;
+    ++this.modCount;
+    filterRemoved(1);
+    endChange();
+    if (this.deadCount > this.tombstoneRatio * (this.numKeys + this.deadCount)) {
+      compact();
+    }
+    return true;
+  }
+
+  /**
+   * Enables tombstone mode, in which remove only marks the node holding the key as a tombstone
+   * instead of unlinking it and rebalancing. Lookups, traversals and cursors skip tombstones, an
+   * insert of the key revives the node, and once more than the given fraction of nodes are
+   * tombstones the tree is compacted. The structural queries (getKeyAtRoot, getHeight and the
+   * child keys), print() and BALSTExporter describe the tree as it is, tombstones included;
+   * BALSTExporter marks them as dead.
+   * 
+   * @param ratio fraction of nodes which may be tombstones, or 0 to disable tombstone mode, which
+   *              compacts the tree
+   * @throws IllegalArgumentException unless ratio is at least 0 and less than 1
+   */
+  public void setTombstoneRatio(double ratio) {
+    if (!(ratio >= 0 && ratio < 1)) {
+      throw new IllegalArgumentException("Tombstone ratio must be at least 0 and less than 1");
+    }
+    this.tombstoneRatio = ratio;
+    if (this.deadCount > ratio * (this.numKeys + this.deadCount)) {
+      compact();
+    }
+  }
+
+  /**
+   * Getter for the number of tombstones currently in the tree.
+   * 
+   * @return number of tombstones
+   */
+  public int tombstoneCount() {
+    return this.deadCount;
+  }
+
+  /**
+   * Removes every tombstone from the tree. A Red-Black tree is rebuilt from its live nodes in
+   * linear time, as a tree of minimum height whose bottom level is colored red; trees balanced by
+   * other strategies unlink each tombstone as remove would.
+   */
+  public void compact() {
+    if (this.deadCount == 0) {
+      return;
+    }
+    clearHistory();
+    if (this.strategy == BalanceStrategy.RED_BLACK) {
+      BSTNode[] live = new BSTNode[this.numKeys];
+      List<BSTNode> dead = new ArrayList<BSTNode>(this.deadCount);
+      collectNodes(this.root, live, 0, dead);
+      int height = balancedHeight(this.numKeys);
+      EventRing<Key> ring = suspendEvents();
+      this.root = buildBalanced(live, 0, this.numKeys, null, 0, height);
+      findEnds();
+      resumeEvents(ring);
+      for (BSTNode node : dead) {
+        releaseNode(node);
+      }
+    } else {
+      List<Key> deadKeys = new ArrayList<Key>(this.deadCount);
+      List<BSTNode> dead = new ArrayList<BSTNode>(this.deadCount);
+      collectNodes(this.root, new BSTNode[this.numKeys], 0, dead);
+      for (BSTNode node : dead) {
+        deadKeys.add((Key) node.key);
+      }
+      // Looked up by key, as unlinking a node may move another tombstone's key into it
+      for (Key key : deadKeys) {
+        try {
+          removeHelper(findNodeHelper(this.root, key));
+        } catch (KeyNotFoundException e) {
+          throw new IllegalStateException("Tombstone " + key + " not found");
+        }
+      }
+    }
+    this.deadCount = 0;
+    ++this.modCount;
+  }
+
+  /**
+   * Helper method for compact: gathers the live nodes of a subtree in order, and its tombstones.
+   * 
+   * @param currentNode root of subtree
+   * @param live        array live nodes are stored into
+   * @param index       position in live at which subtree's first live node goes
+   * @param dead        list tombstones are added to
+   * @return position in live after subtree's last live node
+   */
+  private int collectNodes(BSTNode currentNode, BSTNode[] live, int index, List<BSTNode> dead) {
+    if (currentNode == null) {
+      return index;
+    }
+    index = collectNodes(currentNode.leftChild, live, index, dead);
+    if (currentNode.dead) {
+      dead.add(currentNode);
+    } else {
+      live[index++] = currentNode;
+    }
+    return collectNodes(currentNode.rightChild, live, index, dead);
+  }
+
+  /**
+   * Helper method for compact: links nodes from (inclusive) to to (exclusive) into a tree of
+   * minimum height, each subtree rooted at its middle node. Every level but the bottom one is then
+   * full, so coloring the bottom level red (unless it is the root) satisfies the Red-Black
+   * properties.
+   * 
+   * @param nodes  in order
+   * @param parent of subtree's root
+   * @param depth  of subtree's root
+   * @param height of the whole tree
+   * @return root of subtree, or null if it is empty
+   */
+  private BSTNode buildBalanced(BSTNode[] nodes, int from, int to, BSTNode parent, int depth,
+      int height) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    BSTNode node = nodes[middle];
+    node.setParent(parent);
+    node.setLeftChild(buildBalanced(nodes, from, middle, node, depth + 1, height));
+    node.setRightChild(buildBalanced(nodes, middle + 1, to, node, depth + 1, height));
+    updateAggregate(node);
+    node.setColor(balancedRed(depth, height) ? "R" : "B");
+    return node;
+  }
+
+  /**
+   * Returns the height of the tree buildBalanced() links count nodes into. Used by writers which
+   * skip tombstones to lay out the live nodes as compact() would, without changing the tree.
+   * 
+   * @param count number of nodes
+   * @return height of tree of minimum height
+   */
+  static int balancedHeight(int count) {
+    return 32 - Integer.numberOfLeadingZeros(count);
+  }
+
+  /**
+   * Returns whether buildBalanced() colors a node at the given depth red.
+   * 
+   * @param depth  of node
+   * @param height of the whole tree, as returned by balancedHeight()
+   * @return true if node is red, false if it is black
+   */
+  static boolean balancedRed(int depth, int height) {
+    return depth > 0 && depth == height - 1;
+  }
+
+  /**
+   * Removes every key with lo <= key < hi. A Red-Black tree is split into the keys below the range,
+   * in the range and above it, which are each Red-Black trees, and the first and last are joined
+   * back together, so no key in the range is searched for or rebalanced on its own. Trees balanced
+   * by other strategies remove the keys in the range one at a time.
+   * 
+   * @param lo smallest key removed
+   * @param hi first key not removed
+   * @return number of keys removed
+   * @throws IllegalNullKeyException if lo or hi is null
+   */
+  public int removeRange(Key lo, Key hi) throws IllegalNullKeyException {
+    if (lo == null || hi == null) {
+      throw new IllegalNullKeyException();
+    }
+    if (compareKeys(lo, hi) >= 0) {
+      return 0;
+    }
+    clearHistory();
+    // Number of keys and of tombstones in range
+    int[] counts = new int[2];
+    if (this.strategy == BalanceStrategy.RED_BLACK) {
+      if (this.cache != null) {
+        this.cache.clear();
+      }
+      EventRing<Key> ring = suspendEvents();
+      BSTNode<Key, Value>[] below = split(detach(this.root), lo);
+      BSTNode<Key, Value>[] range = split(below[1], hi);
+      dropSubtree(range[0], counts);
+      this.root = join2(below[0], range[1]);
+      findEnds();
+      resumeEvents(ring);
+    } else {
+      List<Key> keys = new ArrayList<Key>();
+      List<BSTNode<Key, Value>> dead = new ArrayList<BSTNode<Key, Value>>();
+      collectRange(this.root, lo, hi, keys, dead);
+      counts[0] = keys.size() - dead.size();
+      counts[1] = dead.size();
+      // Looked up by key, as unlinking a node may move another key in range into it
+      for (Key key : keys) {
+        try {
+          removeHelper(findNodeHelper(this.root, key));
+        } catch (KeyNotFoundException e) {
+          throw new IllegalStateException("Key " + key + " not found");
+        }
+      }
+    }
+    if (counts[0] + counts[1] > 0) {
+      ++this.modCount;
+    }
+    this.numKeys -= counts[0];
+    this.deadCount -= counts[1];
+    filterRemoved(counts[0]);
+    return counts[0];
+  }
+
+  /**
+   * Replaces the value of every key with lo <= key < hi with the result of fn applied to the key
+   * and its value, in order. The tree's structure is unchanged, so cursors remain valid.
+   * 
+   * @param lo smallest key updated
+   * @param hi first key not updated
+   * @param fn computes new value from key and old value
+   * @return number of values replaced
+   * @throws IllegalNullKeyException if lo or hi is null
+   */
+  public int computeRange(Key lo, Key hi,
+      BiFunction<? super Key, ? super Value, ? extends Value> fn) throws IllegalNullKeyException {
+    if (lo == null || hi == null) {
+      throw new IllegalNullKeyException();
+    }
+    clearHistory();
+    return computeRangeHelper(this.root, lo, hi, fn);
+  }
+
+  /**
+   * Helper method for computeRange, which skips subtrees entirely outside of the range.
+   * 
+   * @param currentNode root of subtree
+   * @return number of values replaced in subtree
+   */
+  private int computeRangeHelper(BSTNode<Key, Value> currentNode, Key lo, Key hi,
+      BiFunction<? super Key, ? super Value, ? extends Value> fn) {
+    if (currentNode == null) {
+      return 0;
+    }
+    int count = 0;
+    boolean aboveLo = compare(lo, prefixOf(lo), currentNode) <= 0;
+    boolean belowHi = compare(hi, prefixOf(hi), currentNode) > 0;
+    if (aboveLo) {
+      count += computeRangeHelper(currentNode.leftChild, lo, hi, fn);
+    }
+    if (aboveLo && belowHi && !currentNode.dead) {
+      currentNode.setValue(fn.apply(currentNode.key, currentNode.getValue()));
+      ++count;
+    }
+    if (belowHi) {
+      count += computeRangeHelper(currentNode.rightChild, lo, hi, fn);
+    }
+    updateAggregate(currentNode);
+    return count;
+  }
+
+  /**
+   * Helper method for removeRange: gathers the keys in range of a subtree in order, tombstones
+   * included, and its tombstones in range.
+   */
+  private void collectRange(BSTNode<Key, Value> currentNode, Key lo, Key hi, List<Key> keys,
+      List<BSTNode<Key, Value>> dead) {
+    if (currentNode == null) {
+      return;
+    }
+    boolean aboveLo = compare(lo, prefixOf(lo), currentNode) <= 0;
+    boolean belowHi = compare(hi, prefixOf(hi), currentNode) > 0;
+    if (aboveLo) {
+      collectRange(currentNode.leftChild, lo, hi, keys, dead);
+    }
+    if (aboveLo && belowHi) {
+      keys.add(currentNode.key);
+      if (currentNode.dead) {
+        dead.add(currentNode);
+      }
+    }
+    if (belowHi) {
+      collectRange(currentNode.rightChild, lo, hi, keys, dead);
+    }
+  }
+
+  /**
+   * Helper method for removeRange: releases every node of a subtree to the pool, counting its keys
+   * in counts[0] and its tombstones in counts[1].
+   */
+  private void dropSubtree(BSTNode<Key, Value> currentNode, int[] counts) {
+    if (currentNode == null) {
+      return;
+    }
+    dropSubtree(currentNode.leftChild, counts);
+    dropSubtree(currentNode.rightChild, counts);
+    ++counts[currentNode.dead ? 1 : 0];
+    releaseNode(currentNode);
+  }
+
+  /**
+   * Detaches node from its parent, making it the root of a Red-Black tree of its own. A red node
+   * is colored black, which keeps the Red-Black properties.
+   * 
+   * @param node root of subtree, which may be null
+   * @return node
+   */
+  private BSTNode<Key, Value> detach(BSTNode<Key, Value> node) {
+    if (node != null) {
+      node.setParent(null);
+      node.setColor("B");
+    }
+    return node;
+  }
+
+  /**
+   * Returns the number of black nodes on each path from node down to a null child, including node.
+   */
+  private static int blackHeight(BSTNode<?, ?> node) {
+    int height = 0;
+    for (; node != null; node = node.leftChild) {
+      if (node.getColor().equals("B")) {
+        ++height;
+      }
+    }
+    return height;
+  }
+
+  /**
+   * Helper method for removeRange: splits a Red-Black tree into the keys less than key and the
+   * rest, which are each Red-Black trees. Each node on the search path for key is joined to the
+   * subtree on its other side.
+   * 
+   * @param node root of tree, whose parent is null and which is black
+   * @param key  at which tree is split
+   * @return roots of the tree of smaller keys and of the tree of the rest
+   */
+  @SuppressWarnings("unchecked") // Arrays of a generic type can only be created raw
+  private BSTNode<Key, Value>[] split(BSTNode<Key, Value> node, Key key) {
+    if (node == null) {
+      return new BSTNode[2];
+    }
+    BSTNode<Key, Value> left = detach(node.leftChild);
+    BSTNode<Key, Value> right = detach(node.rightChild);
+    node.setLeftChild(null);
+    node.setRightChild(null);
+    if (compare(key, prefixOf(key), node) <= 0) {
+      BSTNode<Key, Value>[] parts = split(left, key);
+      parts[1] = join(parts[1], node, right);
+      return parts;
+    } else {
+      BSTNode<Key, Value>[] parts = split(right, key);
+      parts[0] = join(left, node, parts[0]);
+      return parts;
+    }
+  }
+
+  /**
+   * Joins two Red-Black trees, whose keys are all less than and all greater than the key of middle,
+   * into one Red-Black tree. The shorter tree is hung, with middle as a red root, from the side of
+   * the taller tree at a black node of its black height, and rebalanced as after an insert of
+   * middle.
+   * 
+   * @param left   root of tree of smaller keys, which is black, or null
+   * @param middle node with no parent or children
+   * @param right  root of tree of greater keys, which is black, or null
+   * @return root of joined tree, which is black
+   */
+  private BSTNode<Key, Value> join(BSTNode<Key, Value> left, BSTNode<Key, Value> middle,
+      BSTNode<Key, Value> right) {
+    int leftHeight = blackHeight(left);
+    int rightHeight = blackHeight(right);
+    BSTNode<Key, Value> previousRoot = this.root;
+    if (leftHeight == rightHeight) {
+      middle.setLeftChild(left);
+      middle.setRightChild(right);
+      if (left != null) {
+        left.setParent(middle);
+      }
+      if (right != null) {
+        right.setParent(middle);
+      }
+      middle.setColor("B");
+      updateAggregate(middle);
+      return middle;
+    }
+    boolean leftTaller = leftHeight > rightHeight;
+    BSTNode<Key, Value> shorter = leftTaller ? right : left;
+    int targetHeight = Math.min(leftHeight, rightHeight);
+    // Descends the inner side of the taller tree to a black node with the shorter tree's height
+    BSTNode<Key, Value> parent = null;
+    BSTNode<Key, Value> currentNode = leftTaller ? left : right;
+    int height = Math.max(leftHeight, rightHeight);
+    while (currentNode != null && (currentNode.getColor().equals("R") || height > targetHeight)) {
+      if (currentNode.getColor().equals("B")) {
+        --height;
+      }
+      parent = currentNode;
+      currentNode = leftTaller ? currentNode.rightChild : currentNode.leftChild;
+    }
+    // Parent is present, as the taller tree's root is black and has a greater black height.
+    // Rebalancing rotates around the taller tree's root, so it is the tree's root meanwhile
+    this.root = leftTaller ? left : right;
+    if (leftTaller) {
+      parent.setRightChild(middle);
+    } else {
+      parent.setLeftChild(middle);
+    }
+    middle.setParent(parent);
+    middle.setLeftChild(leftTaller ? currentNode : shorter);
+    middle.setRightChild(leftTaller ? shorter : currentNode);
+    if (currentNode != null) {
+      currentNode.setParent(middle);
+    }
+    if (shorter != null) {
+      shorter.setParent(middle);
+    }
+    middle.setColor("R");
+    updateAggregates(middle);
+    strategy.inserted(this, middle);
+    BSTNode<Key, Value> joined = this.root;
+    this.root = previousRoot;
+    return joined;
+  }
+
+  /**
+   * Joins two Red-Black trees, whose keys are all less than those of the second, by unlinking the
+   * smallest node of the second and joining the trees with it in the middle.
+   * 
+   * @param left  root of tree of smaller keys, which is black, or null
+   * @param right root of tree of greater keys, which is black, or null
+   * @return root of joined tree, which is black
+   */
+  private BSTNode<Key, Value> join2(BSTNode<Key, Value> left, BSTNode<Key, Value> right) {
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    }
+    // Unlinking rebalances around the root, so right tree is the tree's root meanwhile
+    this.root = right;
+    BSTNode<Key, Value> middle = unlinkNode(minNodeInTree(right));
+    right = detach(this.root);
+    middle.setParent(null);
+    middle.setRightChild(null);
+    return join(left, middle, right);
+  }
+
+  /**
+   * Moves the keys at least key into a new tree, which is returned, by splitting the tree along the
+   * search path for key in logarithmic time (counting the keys moved takes time linear in their
+   * number). The new tree has the same comparator and monoid as this one, but none of its other
+   * optional features. Used by ShardedBALST to split shards.
+   * 
+   * @param key smallest key moved
+   * @return tree of the keys at least key
+   * @throws IllegalStateException if tree is not a Red-Black tree
+   */
+  BALST<Key, Value> splitFrom(Key key) {
+    if (this.strategy != BalanceStrategy.RED_BLACK) {
+      throw new IllegalStateException("Only Red-Black trees can be split");
+    }
+    EventRing<Key> ring = suspendEvents();
+    clearHistory();
+    compact();
+    if (this.cache != null) {
+      this.cache.clear();
+    }
+    BALST<Key, Value> upper = new BALST<Key, Value>(this.comparator, this.strategy, this.keysOnly);
+    upper.keyKind = this.keyKind;
+    upper.monoid = this.monoid;
+    BSTNode<Key, Value>[] parts = split(detach(this.root), key);
+    this.root = detach(parts[0]);
+    upper.root = detach(parts[1]);
+    upper.numKeys = countNodes(upper.root);
+    this.numKeys -= upper.numKeys;
+    findEnds();
+    upper.findEnds();
+    ++this.modCount;
+    rebuildFilter();
+    resumeEvents(ring);
+    return upper;
+  }
+
+  /**
+   * Moves every key of other, all of which must be greater than this tree's keys, into this tree,
+   * leaving other empty. The trees are joined in logarithmic time. Used by ShardedBALST to merge
+   * shards.
+   * 
+   * @param other tree of greater keys, with the same ordering
+   * @throws IllegalStateException if either tree is not a Red-Black tree
+   */
+  void absorb(BALST<Key, Value> other) {
+    if (this.strategy != BalanceStrategy.RED_BLACK
+        || other.strategy != BalanceStrategy.RED_BLACK) {
+      throw new IllegalStateException("Only Red-Black trees can be joined");
+    }
+    EventRing<Key> ring = suspendEvents();
+    EventRing<Key> otherRing = other.suspendEvents();
+    clearHistory();
+    other.clearHistory();
+    compact();
+    other.compact();
+    if (this.cache != null) {
+      this.cache.clear();
+    }
+    if (other.cache != null) {
+      other.cache.clear();
+    }
+    if (this.keyKind == UNDECIDED) {
+      this.keyKind = other.keyKind;
+    }
+    this.root = detach(join2(detach(this.root), detach(other.root)));
+    this.numKeys += other.numKeys;
+    other.root = null;
+    other.numKeys = 0;
+    other.findEnds();
+    ++other.modCount;
+    other.rebuildFilter();
+    other.resumeEvents(otherRing);
+    findEnds();
+    ++this.modCount;
+    rebuildFilter();
+    resumeEvents(ring);
+  }
+
+  /**
+   * Returns the number of nodes in subtree.
+   * 
+   * @param currentNode root of subtree
+   * @return number of nodes
+   */
+  private static int countNodes(BSTNode currentNode) {
+    return currentNode == null ? 0
+        : 1 + countNodes(currentNode.leftChild) + countNodes(currentNode.rightChild);
+  }
+
+  /**
+   * Sets the monoid whose aggregate of each subtree's values is cached in its root, so that
+   * aggregate() takes logarithmic time. Aggregates are kept up to date by every insert, remove,
+   * rotation and value update, at the cost of a call to combine() for each node along the way.
+   * 
+   * @param monoid combining values, or null to stop keeping aggregates
+   */
+  public void setMonoid(Monoid<Value> monoid) {
+    this.monoid = monoid;
+    clearHistory();
+    updateAllAggregates(this.root);
   }
 
   /**
-   * Inserts nodes into tree.
+   * Returns the values of the keys with lo <= key < hi combined in order by the tree's monoid.
+   * Only the search paths for lo and hi are visited, as the aggregates cached in the subtrees
+   * between them are combined whole.
    * 
-   * @param key   of node to be inserted
-   * @param value of node to be inserted
-   * @throws IllegalNullKeyException if key is null
-   * @throws DuplicateKeyException   if key is already present in tree
+   * @param lo smallest key included
+   * @param hi first key excluded
+   * @return aggregate of values in range, or the monoid's identity if there are none
+   * @throws IllegalNullKeyException if lo or hi is null
+   * @throws IllegalStateException   if no monoid has been set
    */
-  @Override
-  public void insert(Key key, Value value) throws IllegalNullKeyException, DuplicateKeyException {
-    if (key == null) {
+  public Value aggregate(Key lo, Key hi) throws IllegalNullKeyException {
+    if (lo == null || hi == null) {
       throw new IllegalNullKeyException();
     }
-    // Inserts new node according to standard binary search tree algorithm
-    insertHelper(this.root, null, key, value);
-    try {
-      // Rebalances tree to preserve Red-Black Tree properties
-      fixInsert(findNodeHelper(this.root, key));
-    } catch (Exception e) {
-      System.out.println(e.getMessage());
+    if (this.monoid == null) {
+      throw new IllegalStateException("No monoid has been set");
     }
-    ++this.numKeys;
+    long loPrefix = prefixOf(lo);
+    long hiPrefix = prefixOf(hi);
+    // Descends to the first node in range, below which the search paths for lo and hi diverge
+    BSTNode node = this.root;
+    while (node != null) {
+      if (compare(lo, loPrefix, node) > 0) {
+        node = node.rightChild;
+      } else if (compare(hi, hiPrefix, node) <= 0) {
+        node = node.leftChild;
+      } else {
+        break;
+      }
+    }
+    if (node == null) {
+      return this.monoid.identity();
+    }
+    // Values in range of node's left subtree are those from lo up, and of its right those below hi
+    Value from = this.monoid.identity();
+    for (BSTNode current = node.leftChild; current != null;) {
+      if (compare(lo, loPrefix, current) <= 0) {
+        from = this.monoid.combine(
+            this.monoid.combine(ownValue(current), aggregateOf(current.rightChild)), from);
+        current = current.leftChild;
+      } else {
+        current = current.rightChild;
+      }
+    }
+    Value below = this.monoid.identity();
+    for (BSTNode current = node.rightChild; current != null;) {
+      if (compare(hi, hiPrefix, current) > 0) {
+        below = this.monoid.combine(below,
+            this.monoid.combine(aggregateOf(current.leftChild), ownValue(current)));
+        current = current.rightChild;
+      } else {
+        current = current.leftChild;
+      }
+    }
+    return this.monoid.combine(this.monoid.combine(from, ownValue(node)), below);
   }
 
   /**
-   * Helper method for removeHelpter to find smallest node in subtree defined by a given node. Used
-   * to find in-order successor.
+   * Returns the value node contributes to aggregates, which is the identity for a tombstone.
+   */
+  private Value ownValue(BSTNode node) {
+    return node.dead ? this.monoid.identity() : (Value) node.getValue();
+  }
+
+  /**
+   * Returns the aggregate cached in the root of a subtree, which is the identity if it is empty.
+   */
+  private Value aggregateOf(BSTNode node) {
+    return node == null ? this.monoid.identity() : (Value) node.getAggregate();
+  }
+
+  /**
+   * Recomputes the aggregate of node from its value and the aggregates of its children, if the
+   * tree has a monoid.
    * 
-   * @param currentNode which forms the root of the subtree
-   * @return Node which is the smallest in the subtree
+   * @param node whose children's aggregates are up to date
    */
-  private BSTNode minNodeInTree(BSTNode currentNode) {
-    // if root has null left child, then the root is the smallest value, and it is returned
-    if (currentNode.leftChild == null) {
-      return currentNode;
-    } else {
-      // continues down the line of left children until a node is found whose left child is null
-      while (currentNode.leftChild != null) {
-        currentNode = currentNode.leftChild;
-      }
-      return currentNode;
+  private void updateAggregate(BSTNode node) {
+    if (this.monoid != null) {
+      node.setAggregate(this.monoid.combine(
+          this.monoid.combine(aggregateOf(node.leftChild), ownValue(node)),
+          aggregateOf(node.rightChild)));
     }
   }
 
   /**
-   * Helper method for remove. Removes node and decrements size if successful.
+   * Recomputes the aggregates of node and each of its ancestors, after its value or children have
+   * changed, if the tree has a monoid.
    * 
-   * @param currentNode Node which method has been called on
-   * @param key         key value of node to be removed
-   * @throws KeyNotFoundException if no node with key is present in tree
-   * @return Node which is to replace the spot of currentNode after Node is removed (will still be
-   *         currentNode if it was not the one removed)
+   * @param node lowest node whose aggregate is out of date, or null
    */
-  private BSTNode removeHelper(BSTNode currentNode, Comparable key) throws KeyNotFoundException {
-    // if currentNode is null, then Node with key is not present, so throw exception
-    if (currentNode == null) {
-      throw new KeyNotFoundException();
+  void updateAggregates(BSTNode node) {
+    if (this.monoid == null) {
+      return;
     }
-    // // if key is less than currentNode.key, removeHelper is recursively called on currentNode's
-    // left child
-    if (key.compareTo(currentNode.key) < 0) {
-      currentNode.setLeftChild(removeHelper(currentNode.leftChild, key));
+    for (; node != null; node = node.parent) {
+      updateAggregate(node);
     }
-    // if key is greater than currentNode.key, removeHelper is recursively called on currentNode's
-    // right child
-    else if (key.compareTo(currentNode.key) > 0) {
-      currentNode.setRightChild(removeHelper(currentNode.rightChild, key));
-    } // if currentNode is the Node to be removed
-    else {
-      // if currentNode has null left child, then it can be removed by replacing its reference with
-      // its right child
-      if (currentNode.getLeftChild() == null) {
-        --this.numKeys;
-        return currentNode.getRightChild();
-      } // if currentNode has null right child, then it can be removed by replacing its reference
-        // with its left child
-      else if (currentNode.getRightChild() == null) {
-        --this.numKeys;
-        return currentNode.getLeftChild();
-      } // if neither right nor left child are null
-      else {
-        // in order successor is the minimum Node in the subtree defined by currentNode's right
-        // child
-        BSTNode inOrderSuccessor = minNodeInTree(currentNode.getRightChild());
-        // replaces information of currentNode with that of its in order successor
-        currentNode.key = inOrderSuccessor.key;
-        currentNode.value = inOrderSuccessor.value;
-        // removes in order successor (whose left child must be null- therefore program will
-        // terminate)
-        currentNode.setRightChild(removeHelper(currentNode.rightChild, (Key) inOrderSuccessor.key));
-      }
-    }
-    // Returns node with updated instance fields
-    return currentNode;
   }
 
-
   /**
-   * Removes node with specified key.
-   * 
-   * @param key of node to be removed
-   * @throws IllegalNullKeyException if key is null
-   * @throws KeyNotFoundException    if no node with key is present in tree
-   * @return true if node is successfully removed, false otherwise.
+   * Recomputes the aggregate of every node of a subtree, or clears them if the tree has no monoid.
    */
-  @Override
-  public boolean remove(Comparable key) throws IllegalNullKeyException, KeyNotFoundException {
-    if (key == null) {
-      throw new IllegalNullKeyException();
+  private void updateAllAggregates(BSTNode currentNode) {
+    if (currentNode == null) {
+      return;
+    }
+    updateAllAggregates(currentNode.leftChild);
+    updateAllAggregates(currentNode.rightChild);
+    if (this.monoid == null) {
+      currentNode.setAggregate(null);
     } else {
-      // saves sizes before removeHelper is called
-      int beginningSize = this.numKeys;
-      // calls removeHelper on root Node
-      this.root = removeHelper(this.root, key);
-      // returns true if size was decremented, and false otherwise
-      if (this.numKeys < beginningSize) {
-        return true;
-      } else {
-        return false;
-      }
+      updateAggregate(currentNode);
     }
   }
 
@@ -611,25 +2025,98 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
    * @throws KeyNotFoundException if node with key value is not found
    * @return node being searched for, or null if not found
    */
-  private BSTNode findNodeHelper(BSTNode currentNode, Comparable key) throws KeyNotFoundException {
-    // return null if currentNode is null, which happens iff no Node with "key" value is present
+  private BSTNode<Key, Value> findNodeHelper(BSTNode<Key, Value> currentNode, Comparable key)
+      throws KeyNotFoundException {
+    return findNodeHelper(currentNode, key, prefixOf(key));
+  }
+
+  /**
+   * Helper method for finding node in tree, given the prefix of the key.
+   * 
+   * @param currentNode node currently being looked at
+   * @param key         key being searched for
+   * @param prefix      of key, as returned by prefixOf()
+   * @throws KeyNotFoundException if node with key value is not found
+   * @return node being searched for
+   */
+  private BSTNode<Key, Value> findNodeHelper(BSTNode<Key, Value> currentNode, Comparable key,
+      long prefix)
+      throws KeyNotFoundException {
+    // throws exception if currentNode is null, which happens iff no Node with "key" value is
+    // present
     if (currentNode == null) {
       throw new KeyNotFoundException();
-    } // if key is less than currentNode.key, findNodeHelper is recursively called on currentNode's
+    }
+    int comparison = compare(key, prefix, currentNode);
+    // if key is less than currentNode.key, findNodeHelper is recursively called on currentNode's
     // left child
-    else if (key.compareTo(currentNode.key) < 0) {
-      return findNodeHelper(currentNode.leftChild, key);
+    if (comparison < 0) {
+      return findNodeHelper(currentNode.leftChild, key, prefix);
     } // if key is greater than currentNode.key, findNodeHelper is recursively called on
-      // currentNode's
-    // right child
-    else if (key.compareTo(currentNode.key) > 0) {
-      return findNodeHelper(currentNode.rightChild, key);
+      // currentNode's right child
+    else if (comparison > 0) {
+      return findNodeHelper(currentNode.rightChild, key, prefix);
     } // reached iff currentNode's key is equal to key
     else {
       return currentNode; // returns current Node
     }
   }
 
+  /**
+   * Finds node holding key, which must not be a tombstone.
+   * 
+   * @param key being searched for
+   * @throws KeyNotFoundException if key is not present in tree
+   * @return node holding key
+   */
+  private BSTNode<Key, Value> findLiveNode(Comparable key) throws KeyNotFoundException {
+    BSTNode<Key, Value> node = lookupLiveNode(key);
+    if (node == null) {
+      throw new KeyNotFoundException();
+    }
+    return node;
+  }
+
+  /**
+   * Finds node holding key, which must not be a tombstone, consulting the lookup cache and the
+   * membership filter before descending the tree. Unlike findLiveNode, a missing key is reported
+   * without throwing, which is the common case for contains.
+   * 
+   * @param key being searched for
+   * @return node holding key, or null if key is not present in tree
+   */
+  private BSTNode<Key, Value> lookupLiveNode(Comparable key) {
+    if (this.cache != null) {
+      BSTNode<Key, Value> node = this.cache.get(key);
+      if (node != null) {
+        return node;
+      }
+    }
+    if (this.filter != null && !this.filter.mightContain(key)) {
+      ++this.filterRejections;
+      return null;
+    }
+    long prefix = prefixOf(key);
+    BSTNode<Key, Value> node = this.root;
+    while (node != null) {
+      int comparison = compare(key, prefix, node);
+      if (comparison == 0) {
+        break;
+      }
+      node = comparison < 0 ? node.leftChild : node.rightChild;
+    }
+    if (node == null || node.dead) {
+      if (this.filter != null) {
+        ++this.filterFalsePositives;
+      }
+      return null;
+    }
+    if (this.cache != null) {
+      this.cache.put(node.key, node);
+    }
+    return node;
+  }
+
   /**
    * Returns value associated with key
    * 
@@ -643,7 +2130,7 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     if (key == null) {
       throw new IllegalNullKeyException();
     }
-    return (Value) findNodeHelper(this.root, key).value;
+    return findLiveNode(key).getValue();
   }
 
   /**
@@ -657,12 +2144,229 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     if (key == null) {
       throw new IllegalNullKeyException();
     }
-    try {
-      findNodeHelper(this.root, key);
-    } catch (KeyNotFoundException e) {
-      return false;
+    return lookupLiveNode(key) != null;
+  }
+
+  /**
+   * Returns the values of a batch of keys, in the order of the keys. The keys are sorted and
+   * resolved together, so that the nodes on the paths shared by several keys are visited once
+   * rather than once per key.
+   * 
+   * @param keys whose values are returned
+   * @return value of each key, or null for keys not present in tree
+   * @throws IllegalNullKeyException if any key is null
+   */
+  public List<Value> getAll(Collection<? extends Key> keys) throws IllegalNullKeyException {
+    return getAll(keys, false);
+  }
+
+  /**
+   * Returns the values of a batch of keys as getAll(keys) does, resolving large batches in parallel
+   * on the common fork-join pool by splitting them between subtrees.
+   * 
+   * @param keys     whose values are returned
+   * @param parallel whether the batch may be resolved concurrently
+   * @return value of each key, or null for keys not present in tree
+   * @throws IllegalNullKeyException if any key is null
+   */
+  public List<Value> getAll(Collection<? extends Key> keys, boolean parallel)
+      throws IllegalNullKeyException {
+    Object[] values = new Object[keys.size()];
+    lookupAll(keys, values, parallel);
+    return (List<Value>) Arrays.asList(values);
+  }
+
+  /**
+   * Returns whether every key of a batch is present in the tree, resolving the keys together as
+   * getAll does.
+   * 
+   * @param keys being searched for
+   * @return true if every key is present, false otherwise
+   * @throws IllegalNullKeyException if any key is null
+   */
+  public boolean containsAll(Collection<? extends Key> keys) throws IllegalNullKeyException {
+    return containsAll(keys, false);
+  }
+
+  /**
+   * Returns whether every key of a batch is present in the tree, resolving large batches in
+   * parallel as getAll(keys, parallel) does.
+   * 
+   * @param keys     being searched for
+   * @param parallel whether the batch may be resolved concurrently
+   * @return true if every key is present, false otherwise
+   * @throws IllegalNullKeyException if any key is null
+   */
+  public boolean containsAll(Collection<? extends Key> keys, boolean parallel)
+      throws IllegalNullKeyException {
+    return lookupAll(keys, null, parallel) == keys.size();
+  }
+
+  /**
+   * Helper method for getAll and containsAll. Sorts the keys, keeping their positions in the batch,
+   * and resolves them against the tree.
+   * 
+   * @param keys     being searched for
+   * @param values   receives the value of each key found, at its position in the batch, or null
+   * @param parallel whether the batch may be resolved concurrently
+   * @return number of keys found, counting repeated keys each time
+   * @throws IllegalNullKeyException if any key is null
+   */
+  private int lookupAll(Collection<? extends Key> keys, Object[] values, boolean parallel)
+      throws IllegalNullKeyException {
+    final Object[] probes = keys.toArray();
+    Integer[] order = new Integer[probes.length];
+    for (int i = 0; i < probes.length; ++i) {
+      if (probes[i] == null) {
+        throw new IllegalNullKeyException();
+      }
+      order[i] = i;
     }
-    return true;
+    if (this.root == null) {
+      return 0;
+    }
+    Comparator<Integer> byKey =
+        (first, second) -> compareKeys((Key) probes[first], (Key) probes[second]);
+    if (parallel) {
+      Arrays.parallelSort(order, byKey);
+    } else {
+      Arrays.sort(order, byKey);
+    }
+    BatchLookup batch = new BatchLookup(probes.length, values, parallel);
+    for (int i = 0; i < probes.length; ++i) {
+      batch.keys[i] = probes[order[i]];
+      batch.prefixes[i] = prefixOf(batch.keys[i]);
+      batch.positions[i] = order[i];
+    }
+    batch.node = this.root;
+    batch.to = probes.length;
+    return parallel && probes.length >= PARALLEL_BATCH ? ForkJoinPool.commonPool().invoke(batch)
+        : batch.compute();
+  }
+
+  /**
+   * Resolves a run of sorted keys against a subtree, returning the number found. The keys less than
+   * the subtree's root are resolved against its left subtree and the greater ones against its right
+   * subtree, so that each node is compared only with the keys which reach it. Runs of at least
+   * PARALLEL_BATCH keys in a parallel batch are split into tasks for the two subtrees.
+   */
+  @SuppressWarnings("serial")
+  private class BatchLookup extends RecursiveTask<Integer> {
+
+    // Shared by every task of a batch
+    private final Object[] keys; // Keys of the batch, in sorted order
+    private final long[] prefixes; // Prefix of each key, as returned by prefixOf()
+    private final int[] positions; // Position of each key in the batch as given
+    private final Object[] values; // Value of each key found, by position, or null if not wanted
+    private final boolean parallel; // Whether runs may be split into tasks
+
+    private BSTNode node; // Root of subtree
+    private int from; // First key of run
+    private int to; // Key after the last of run
+
+    /**
+     * Constructor for the task resolving a whole batch, whose arrays are filled in by the caller.
+     */
+    BatchLookup(int size, Object[] values, boolean parallel) {
+      this.keys = new Object[size];
+      this.prefixes = new long[size];
+      this.positions = new int[size];
+      this.values = values;
+      this.parallel = parallel;
+    }
+
+    /**
+     * Constructor for a task resolving a run of another task's batch.
+     */
+    BatchLookup(BatchLookup batch, BSTNode node, int from, int to) {
+      this.keys = batch.keys;
+      this.prefixes = batch.prefixes;
+      this.positions = batch.positions;
+      this.values = batch.values;
+      this.parallel = batch.parallel;
+      this.node = node;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Integer compute() {
+      return resolve(node, from, to);
+    }
+
+    /**
+     * Resolves keys from through to - 1 against subtree rooted at currentNode, recursing into the
+     * left subtree and looping into the right one.
+     */
+    private int resolve(BSTNode currentNode, int from, int to) {
+      int found = 0;
+      while (currentNode != null && from < to) {
+        // Keys from lo through hi - 1 are equal to currentNode's key
+        int lo = boundary(currentNode, from, to, false);
+        int hi = boundary(currentNode, lo, to, true);
+        if (!currentNode.dead) {
+          found += hi - lo;
+          for (int i = lo; values != null && i < hi; ++i) {
+            values[positions[i]] = currentNode.getValue();
+          }
+        }
+        if (parallel && to - from >= PARALLEL_BATCH) {
+          BatchLookup left = new BatchLookup(this, currentNode.leftChild, from, lo);
+          left.fork();
+          found += new BatchLookup(this, currentNode.rightChild, hi, to).compute();
+          return found + left.join();
+        }
+        found += resolve(currentNode.leftChild, from, lo);
+        currentNode = currentNode.rightChild;
+        from = hi;
+      }
+      return found;
+    }
+
+    /**
+     * Returns the first of keys from through to - 1 which is at least currentNode's key, or greater
+     * than it if strict, or to if there is none.
+     */
+    private int boundary(BSTNode currentNode, int from, int to, boolean strict) {
+      int least = strict ? 1 : 0;
+      while (from < to) {
+        int middle = (from + to) >>> 1;
+        if (compare(keys[middle], prefixes[middle], currentNode) >= least) {
+          to = middle;
+        } else {
+          from = middle + 1;
+        }
+      }
+      return from;
+    }
+  }
+
+  /**
+   * Returns an immutable copy of the tree, laid out for fast lookups. Later changes to this tree do
+   * not affect the copy.
+   * 
+   * @return frozen copy of tree
+   */
+  public FrozenBALST<Key, Value> freeze() {
+    Object[] keys = new Object[this.numKeys];
+    Object[] values = new Object[this.numKeys];
+    int i = 0;
+    Cursor<Key, Value> cursor = cursor();
+    for (boolean valid = cursor.first(); valid; valid = cursor.next()) {
+      keys[i] = cursor.getKey();
+      values[i] = cursor.getValue();
+      ++i;
+    }
+    return new FrozenBALST<Key, Value>(keys, values, this.comparator);
+  }
+
+  /**
+   * Returns a cursor over the tree, which is not yet positioned at any node.
+   * 
+   * @return new cursor
+   */
+  public Cursor<Key, Value> cursor() {
+    return new Cursor<Key, Value>(this);
   }
 
   /**
@@ -675,24 +2379,70 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
     return this.numKeys;
   }
 
+  /**
+   * Layout of the printed tree, computed before each print. The spacing factor, left spacing and
+   * height of each node are kept in arrays indexed by the node's position in order, rather than in
+   * the nodes, so that nodes don't carry fields which are only used when printing.
+   */
+  private static final class Layout {
+
+    final int charsPerKey; // Length of String used to represent each node in tree
+    final BSTNode<?, ?>[] nodes; // Nodes in order
+    final int[] spacingFactor; // How much "space" is needed by each node when printing
+    final int[] leftSpacing; // Number of characters to the left of each node when printing
+    final int[] height; // Height of each node in tree
+    private final IdentityHashMap<BSTNode<?, ?>, Integer> positions; // Index of each node in nodes
+
+    /**
+     * Constructor for layout of nodes, whose spacing factors, left spacings and heights are 0 until
+     * they are filled in.
+     * 
+     * @param inOrderList nodes of tree in order
+     * @param charsPerKey length of String used to represent each node in tree
+     */
+    Layout(List<BSTNode> inOrderList, int charsPerKey) {
+      this.charsPerKey = charsPerKey;
+      this.nodes = inOrderList.toArray(new BSTNode<?, ?>[inOrderList.size()]);
+      this.spacingFactor = new int[this.nodes.length];
+      this.leftSpacing = new int[this.nodes.length];
+      this.height = new int[this.nodes.length];
+      this.positions = new IdentityHashMap<BSTNode<?, ?>, Integer>(this.nodes.length);
+      for (int i = 0; i < this.nodes.length; ++i) {
+        this.positions.put(this.nodes[i], i);
+      }
+    }
+
+    /**
+     * Returns the position of node in order, which indexes its spacing factor, left spacing and
+     * height.
+     * 
+     * @param node of tree
+     * @return index of node
+     */
+    int indexOf(BSTNode<?, ?> node) {
+      return this.positions.get(node);
+    }
+  }
+
   /**
    * Given that the spacing factor of descendants have been filled in, determines how many spaces to
    * the left descendants of the node go. Due to ordering property of representation of tree, this
    * is equal to summing the spacing factor of each left descendants.
    * 
    * @param currentNode node in question
+   * @param layout      holding spacing factors
    * @return right spacing factor of currentNode
    */
-  private int rightFactor(BSTNode currentNode, int charsPerKey) {
+  private int rightFactor(BSTNode currentNode, Layout layout) {
     // If the currentNode is null, then it has 0 right descendants
     if (currentNode == null) {
       return 0;
     }
-    int count = currentNode.spacingFactor + charsPerKey;
+    int count = layout.spacingFactor[layout.indexOf(currentNode)] + layout.charsPerKey;
     // For each right descendant, add spacing factor to count
     while (currentNode.rightChild != null && currentNode.rightChild.hasRightChild()) {
       currentNode = currentNode.rightChild;
-      count += currentNode.spacingFactor + charsPerKey;
+      count += layout.spacingFactor[layout.indexOf(currentNode)] + layout.charsPerKey;
     }
     return count;
   }
@@ -703,18 +2453,19 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
    * is equal to summing the spacing factor of each left descendants.
    * 
    * @param currentNode node in question
+   * @param layout      holding spacing factors
    * @return left spacing factor of currentNode
    */
-  private int leftFactor(BSTNode currentNode, int charsPerKey) {
+  private int leftFactor(BSTNode currentNode, Layout layout) {
     // If the currentNode is null, then it has 0 left descendants
     if (currentNode == null) {
       return 0;
     }
-    int count = currentNode.spacingFactor + charsPerKey;
+    int count = layout.spacingFactor[layout.indexOf(currentNode)] + layout.charsPerKey;
     // For each left descendant, add spacing factor plus number of characters printed to count
     while (currentNode.leftChild != null && currentNode.leftChild.hasLeftChild()) {
       currentNode = currentNode.leftChild;
-      count += currentNode.spacingFactor + charsPerKey;
+      count += layout.spacingFactor[layout.indexOf(currentNode)] + layout.charsPerKey;
     }
     return count;
   }
@@ -724,11 +2475,11 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
    * Determines length of String used to represent each node in tree. Equal the maximum length of
    * String representation of keys, plus 2 for the characters which will denote Red or Black.
    * 
+   * @param inOrderList nodes of tree in order
    * @return length of String used to represent each node in tree
    */
-  int charsPerKey() {
+  int charsPerKey(List<BSTNode> inOrderList) {
     final int NUM_OF_SPECIAL_CHARS = 2; // Number of chars used to indicate Red or Black
-    List<BSTNode> inOrderList = getInOrderTraversalNodes(); // List of nodes in order
     // Determines maximum length of keys
     int maxKeyLength = 0;
     for (BSTNode node : inOrderList) {
@@ -740,111 +2491,112 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
   }
 
   /**
-   * Updates the spacing factor for each node. "Spacing factor" refers to the minimal amount of
-   * horizontal/vertical space (these are equal by assumption) between the node and its children to
-   * prevent the node's descendant from crossing underneath the node. Furthermore, for pretty print,
-   * the spacing factor must be the same for each node on the same level, so the spacing factor is
-   * actually the maximum of each level.
+   * Builds the layout of the tree, and fills in the spacing factor of each node. "Spacing factor"
+   * refers to the minimal amount of horizontal/vertical space (these are equal by assumption)
+   * between the node and its children to prevent the node's descendant from crossing underneath the
+   * node. Furthermore, for pretty print, the spacing factor must be the same for each node on the
+   * same level, so the spacing factor is actually the maximum of each level.
    * 
-   * @return length of String used to represent each node in tree
+   * @return layout of tree, whose spacing factors and heights are filled in
    */
-  int fillSpacingFactors() {
-    int charsPerKey = this.charsPerKey(); // length of String used to represent each node in tree.
+  private Layout fillSpacingFactors() {
+    List<BSTNode> inOrderList = getInOrderTraversalNodes(); // List of nodes in order
+    Layout layout = new Layout(inOrderList, this.charsPerKey(inOrderList));
+    // Nodes of each level, gathered with a single pass, so that the number of levels is the height
+    List<List<BSTNode>> levels = levelNodes();
+    int height = levels.size();
     // Iterates through each level of tree, from bottom to root.
-    for (int level = this.getHeight(); level >= 1; --level) {
+    for (int level = height; level >= 1; --level) {
       // Puts current level into list
-      List<BSTNode> currentLevel = givenLevelNodes(this.root, level);
+      List<BSTNode> currentLevel = levels.get(level - 1);
       int maxSpacing = 0;
       // Iterates through each node in level:
       for (BSTNode node : currentLevel) {
+        int index = layout.indexOf(node);
         // If node is a leaf node, or has neither a left child with a right child nor a right child
         // with the a left child, automatically sets spacingFactor to 0. Ensures that spacing factor
         // is non zero only when necessary.
         if (node.noSpacing()) {
-          node.spacingFactor = 0;
+          layout.spacingFactor[index] = 0;
         } else {
           // Sets spacing factor to be maximum of rightFactor of leftChild and leftFactor of
           // rightChild. This is the minimum value which allows for symmetry (both children are
           // equally spaced from parent) while ensuring the no descendant from either side crosses
           // underneath.
-          node.spacingFactor = Math.max(rightFactor(node.leftChild, charsPerKey),
-              leftFactor(node.rightChild, charsPerKey));
+          layout.spacingFactor[index] =
+              Math.max(rightFactor(node.leftChild, layout), leftFactor(node.rightChild, layout));
         }
         // Keeps track of maximum spacing factor
-        if (node.spacingFactor > maxSpacing) {
-          maxSpacing = node.spacingFactor;
+        if (layout.spacingFactor[index] > maxSpacing) {
+          maxSpacing = layout.spacingFactor[index];
         }
-        node.height = this.getHeight() - level; // Updates height, be used to determine leftSpacing
+        layout.height[index] = height - level; // Updates height, be used to determine leftSpacing
       }
       // Sets the spacing factor of each node in level to be the maximum. Is the minimum value that
       // ensures both that no descendant crosses underneath and that all nodes on a given level are
       // the same distance from their parents.
       for (BSTNode node : currentLevel) {
-        node.spacingFactor = maxSpacing;
+        layout.spacingFactor[layout.indexOf(node)] = maxSpacing;
       }
     }
-    return charsPerKey;
+    return layout;
   }
 
   /**
-   * Updates the left spacing for each node. "Left spacing" of a node is how many characters to the
-   * left of the node there should be already be when the key is added to the appropriate line.
+   * Builds the layout of the tree, and fills in the left spacing of each node. "Left spacing" of a
+   * node is how many characters to the left of the node there should be already be when the key is
+   * added to the appropriate line.
    * 
-   * @return length of String used to represent each node in tree
+   * @return layout of tree, whose spacing factors, heights and left spacings are filled in
    */
-  int leftSpacing() {
-    int charsPerKey = this.fillSpacingFactors(); // Fills spacing factors of each node
-
-    List<BSTNode> inOrderList = getInOrderTraversalNodes(); // List of nodes in order
-    BSTNode<Key, Value> previous = null; // Previous node
-    BSTNode<Key, Value> current = null; // Current node
-    ListIterator<BSTNode> listIt = inOrderList.listIterator();
+  private Layout leftSpacing() {
+    Layout layout = this.fillSpacingFactors(); // Fills spacing factors of each node
+    int charsPerKey = layout.charsPerKey;
+    int[] spacingFactor = layout.spacingFactor;
+    int[] leftSpacing = layout.leftSpacing;
+    int[] height = layout.height;
     // Iterates through nodes in order
-    while (listIt.hasNext()) {
+    for (int i = 0; i < layout.nodes.length; ++i) {
+      BSTNode<?, ?> current = layout.nodes[i]; // Current node
       // If node is not the first in order
-      if (listIt.hasPrevious()) {
-        // Save reference to previous node, and continue iterating through list
-        previous = (BSTNode) listIt.previous();
-        listIt.next();
-        current = listIt.next();
+      if (i > 0) {
+        BSTNode<?, ?> previous = layout.nodes[i - 1]; // Previous node
         // Assign left spacing based upon relationship between current and previous node (note that
         // these four options are exhaustive if the tree is a valid binary search tree):
         if (previous.getParent() == current) {
           // If current node is parent of previous node, then set current's leftSpacing to be
           // previous's leftSpacing, plus current's spacingFactor, plus the number of characters per
           // key
-          current.leftSpacing = previous.leftSpacing + current.spacingFactor + charsPerKey;
+          leftSpacing[i] = leftSpacing[i - 1] + spacingFactor[i] + charsPerKey;
         } else if (current.getParent() == previous) {
           // If previous node is parent of current node, then set current's leftSpacing to be
           // previous's leftSpacing, plus previous's spacingFactor, plus the number of characters
           // per
           // key
-          current.leftSpacing = previous.leftSpacing + previous.spacingFactor + charsPerKey;
-        } else if (current.height < previous.height) {
+          leftSpacing[i] = leftSpacing[i - 1] + spacingFactor[i - 1] + charsPerKey;
+        } else if (height[i] < height[i - 1]) {
           // If previous and current are not parent and children and previous is higher in the tree
           // than current, then set current's leftSpacing to be previous's leftSpacing, plus the
           // difference between previous's spacingFactor and the leftFactor of previous's right
           // child, plus the number of characters per key
-          current.leftSpacing = previous.leftSpacing
-              + (previous.spacingFactor - leftFactor(previous.rightChild, charsPerKey))
-              + charsPerKey;
-        } else if (current.height > previous.height) {
+          leftSpacing[i] = leftSpacing[i - 1]
+              + (spacingFactor[i - 1] - leftFactor(previous.rightChild, layout)) + charsPerKey;
+        } else if (height[i] > height[i - 1]) {
           // If previous and current are not parent and children and current is higher in the tree
           // than previous, then set current's leftSpacing to be previous's leftSpacing, plus the
           // difference between previous's spacingFactor and the leftFactor of previous's right
           // child, plus the number of characters per key
-          current.leftSpacing = previous.leftSpacing + charsPerKey
-              + (current.spacingFactor - rightFactor(current.leftChild, charsPerKey));
+          leftSpacing[i] = leftSpacing[i - 1] + charsPerKey
+              + (spacingFactor[i] - rightFactor(current.leftChild, layout));
         } else {
           throw new RuntimeException("Failed filling left spacing: tree misstructured.");
         }
       } else {
         // If node is the first in order, then left spacing is 0. Continue to next node.
-        current = listIt.next();
-        current.leftSpacing = 0;
+        leftSpacing[i] = 0;
       }
     }
-    return charsPerKey;
+    return layout;
   }
 
 
@@ -872,117 +2624,208 @@ public class BALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key,
   }
 
   /**
-   * Prints the tree in the most compact possible way with the following properties: all nodes on
-   * the same level in the tree are printed on the same line, children of a given node are
-   * equidistant from it, parents are connected by as many dashes as they are spaced apart
-   * horizontally/vertically, and nodes can be read in order from left to right such that node A is
-   * displayed to the right of node B if and only if node A's key is greater than node B's key. This
-   * is achieved using a greedy algorithm.
+   * Returns the nodes of the tree grouped by level, beginning with the root. Built with a single
+   * breadth first pass, so the number of levels is the height of the tree.
+   * 
+   * @return list of levels, each a list of nodes from left to right
    */
-  @Override
-  public void print() {
-    // Prints key for interpreting results.
-    System.out.print("Note: \"*\" denotes Red node, while \"+\" denotes Black node.\n\n");
-
-    // Fills in leftSpacing of each node and saves length of String used to represent each node in
-    // tree
-    int charsPerKey = this.leftSpacing();
-
-    List<BSTNode> currentLevel; // Current level of nodes being printed
-    StringBuilder lineString; // StringBuilder to become current line
-    StringBuilder edgeLine; // StringBuilder of current line of dashes
-    BSTNode currentNode; // Current node to be added to lineString
-    BSTNode previousNode; // Previous node added to lineString
-    int prevLeftSpace; // Number of left spaces already printed
-    int levelSpacingFactor; // Spacing factor (spacing between node and its children) of given line
-    // List of edges currently being added, each represented as an array where the first index
-    // indicates if edge leads to a left or right child, and second index indicates the left spacing
-    ArrayList<Object[]> currentEdges;
-
-    // Iterates through levels, beginning at the top (root) and working down
-    for (int i = 1; i <= this.getHeight(); ++i) {
-      lineString = new StringBuilder(); // Clear and initialize lineString
-      currentLevel = givenLevelNodes(this.root, i);
-      // List to add edges coming from current level to
-      currentEdges = new ArrayList<Object[]>();
-      // Iterates through nodes in level
-      ListIterator listIt = currentLevel.listIterator();
-      while (listIt.hasNext()) {
-        currentNode = (BSTNode) listIt.next();
-        // Adds edges to currentEdges, including whether edge corresponds to a left or right child
-        // and the starting left spacing
-        if (currentNode.hasLeftChild()) {
-          currentEdges.add(new Object[] {Child.LEFT, currentNode.leftSpacing});
+  private List<List<BSTNode>> levelNodes() {
+    List<List<BSTNode>> levels = new ArrayList<List<BSTNode>>();
+    List<BSTNode> currentLevel = new ArrayList<BSTNode>();
+    if (this.root != null) {
+      currentLevel.add(this.root);
+    }
+    while (!currentLevel.isEmpty()) {
+      levels.add(currentLevel);
+      List<BSTNode> nextLevel = new ArrayList<BSTNode>();
+      for (BSTNode node : currentLevel) {
+        if (node.hasLeftChild()) {
+          nextLevel.add(node.leftChild);
         }
-        if (currentNode.hasRightChild()) {
-          currentEdges.add(new Object[] {Child.RIGHT, currentNode.leftSpacing + charsPerKey - 1});
+        if (node.hasRightChild()) {
+          nextLevel.add(node.rightChild);
         }
-        // If currentNode is not the first in the list
-        if (listIt.previousIndex() > 0) {
-          // Sets prevLeftSpace to be the leftSpacing of the previous node plus the number of
-          // characters printed
-          listIt.previous();
-          previousNode = (BSTNode) listIt.previous();
-          prevLeftSpace = previousNode.leftSpacing + charsPerKey;
-          listIt.next();
-          listIt.next();
+      }
+      currentLevel = nextLevel;
+    }
+    return levels;
+  }
+
+  /**
+   * Returns the number of lines in the printed text of one level: its line of nodes, followed by
+   * one line of edges for each unit of the level's spacing factor if any node has a child.
+   * 
+   * @param currentLevel nodes of the level, from left to right
+   * @param layout       holding spacing factors
+   * @return number of lines of level
+   */
+  private static int levelLines(List<BSTNode> currentLevel, Layout layout) {
+    for (BSTNode node : currentLevel) {
+      if (!node.isLeafNode()) {
+        // Spacing factor is constant in a given line, so choice of node is arbitrary.
+        return 1 + layout.spacingFactor[layout.indexOf(currentLevel.get(0))];
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Writes lines from (inclusive) to to (exclusive) of the text of one level of the printed tree,
+   * each as soon as it is built: line 0 is the line of nodes, and line j > 0 is the j-th line of
+   * edges leading to the next level. Each line only depends upon the nodes of the level and their
+   * leftSpacing and spacingFactor, so lines may be rendered independently once leftSpacing() has
+   * built the layout.
+   * 
+   * @param currentLevel nodes of the level, from left to right
+   * @param layout       holding left spacings, and the length of String used to represent each node
+   * @param from         first line written
+   * @param to           line after the last line written, at most levelLines(currentLevel, layout)
+   * @param out          lines are appended to, each terminated by a line separator
+   * @throws IOException if out cannot be written to
+   */
+  private void renderLevel(List<BSTNode> currentLevel, Layout layout, int from, int to,
+      Appendable out) throws IOException {
+    String newLine = System.lineSeparator();
+    int charsPerKey = layout.charsPerKey;
+    // Left spacing of each node of the level, from left to right
+    int[] leftSpacing = new int[currentLevel.size()];
+    for (int i = 0; i < leftSpacing.length; ++i) {
+      leftSpacing[i] = layout.leftSpacing[layout.indexOf(currentLevel.get(i))];
+    }
+    if (from == 0) {
+      StringBuilder lineString = new StringBuilder(); // StringBuilder to become line of nodes
+      int prevLeftSpace; // Number of left spaces already printed
+      // Iterates through nodes in level
+      for (int i = 0; i < currentLevel.size(); ++i) {
+        BSTNode currentNode = currentLevel.get(i); // Current node to be added to the line
+        // If currentNode is not the first in the list, sets prevLeftSpace to be the leftSpacing of
+        // the previous node plus the number of characters printed. Otherwise nothing has yet been
+        // printed, so sets prevLeftSpace to 0
+        if (i > 0) {
+          prevLeftSpace = leftSpacing[i - 1] + charsPerKey;
         } else {
-          // Nothing has yet been printed, so set prevLeftSpace to 0
           prevLeftSpace = 0;
         }
-        // Append the appropriate number of spaces such that currentNode.leftSpacing characters have
-        // been appended to the current line
-        for (int j = 1; j <= (currentNode.leftSpacing - prevLeftSpace); ++j) {
+        // Append the appropriate number of spaces such that currentNode.leftSpacing characters
+        // have been appended to the current line
+        for (int j = 1; j <= (leftSpacing[i] - prevLeftSpace); ++j) {
           lineString.append(" ");
         }
         // Append String representation of currentNode
         lineString.append(nodeToString(currentNode, charsPerKey));
       }
-      System.out.println(lineString); // Print line which has just been constructed
-
-      // Gets spacing factor of line to determine number of dashes to print to represent edges.
-      // Spacing factor is constant in a given line, so choice of node is arbitrary.
-      levelSpacingFactor = currentLevel.get(0).spacingFactor;
-      int currDashSpace; // Desired left spacing of current dash
-      int numLeftSpace; // Number of characters thus far printed on current line
-      // Iterates levelSpacingFactor number of times
-      for (int j = 0; j < levelSpacingFactor; ++j) {
-        edgeLine = new StringBuilder(); // Clear and initialize edge Line
-        if (!currentEdges.isEmpty()) {
-          // Iterates through edges determined from current line
-          for (Object[] child : currentEdges) {
-            // Decrements left children and increments right children, representing the direction
-            // which they are "traveling"
-            if (child[0] == Child.LEFT) {
-              child[1] = (Integer) child[1] - 1;
-            } else {
-              child[1] = (Integer) child[1] + 1;
-            }
+      out.append(lineString).append(newLine);
+      ++from;
+    }
+
+    // Iterates through the requested lines of edges. Edges leading to left children travel one
+    // character left on each line, and edges leading to right children one character right.
+    for (int line = from; line < to; ++line) {
+      StringBuilder edgeLine = new StringBuilder(); // StringBuilder of current line of dashes
+      int numLeftSpace = 0; // Number of characters thus far printed on current line
+      for (int i = 0; i < currentLevel.size(); ++i) {
+        BSTNode node = currentLevel.get(i);
+        if (node.hasLeftChild()) {
+          // Adds the appropriate number of spaces before dash, and then the dash
+          for (; numLeftSpace < leftSpacing[i] - line; ++numLeftSpace) {
+            edgeLine.append(" ");
           }
-          // Initializes numLeftSpace to 0, as nothing as yet been printed on the current line
-          numLeftSpace = 0;
-          // Iterates through edges again
-          for (Object[] child : currentEdges) {
-            // Sets currDashSpace to be the desired left spacing of the current dash
-            currDashSpace = (int) child[1];
-            // Adds the appropriate number of spaces before dash
-            while (numLeftSpace < currDashSpace) {
-              edgeLine.append(" ");
-              ++numLeftSpace;
-            }
-            // Adds the appropriate dash to represent given edge and increment numLeftSpace
-            if (child[0] == Child.LEFT) {
-              edgeLine.append("/");
-              ++numLeftSpace;
-            } else {
-              edgeLine.append("\\");
-              ++numLeftSpace;
-            }
+          edgeLine.append("/");
+          ++numLeftSpace;
+        }
+        if (node.hasRightChild()) {
+          for (; numLeftSpace < leftSpacing[i] + charsPerKey - 1 + line; ++numLeftSpace) {
+            edgeLine.append(" ");
           }
-          System.out.println(edgeLine); // Print the given edge line
+          edgeLine.append("\\");
+          ++numLeftSpace;
+        }
+      }
+      out.append(edgeLine).append(newLine); // Writes the given edge line
+    }
+  }
+
+  /**
+   * Computes the layout of the tree once, and then renders each level (its line of nodes and its
+   * lines of edges) to out in order. Sequential renders write each line as soon as it is built, as
+   * the levels of a large tree's rendering may not fit in memory. Parallel renders build chunks of
+   * a level's lines concurrently on the common fork-join pool, but no more chunks are rendered
+   * ahead of the one being written than the pool has threads.
+   * 
+   * @param parallel if true, levels are rendered concurrently
+   * @param out      rendered levels are appended to, beginning with the root's level
+   * @throws IOException if out cannot be written to
+   */
+  void renderLevels(boolean parallel, Appendable out) throws IOException {
+    // Computes the leftSpacing of each node and the length of String used to represent each node in
+    // tree
+    final Layout layout = this.leftSpacing();
+    List<List<BSTNode>> levels = levelNodes();
+    if (!parallel) {
+      for (List<BSTNode> level : levels) {
+        renderLevel(level, layout, 0, levelLines(level, layout), out);
+      }
+      return;
+    }
+    // Chunks of up to RENDER_CHUNK lines are rendered concurrently, and written in order as each
+    // finishes, while at most window chunks wait
+    int window = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+    ArrayDeque<ForkJoinTask<String>> pending = new ArrayDeque<ForkJoinTask<String>>();
+    for (final List<BSTNode> level : levels) {
+      int lines = levelLines(level, layout);
+      for (int from = 0; from < lines; from += RENDER_CHUNK) {
+        if (pending.size() == window) {
+          out.append(pending.pollFirst().join());
         }
+        final int chunkFrom = from;
+        final int chunkTo = Math.min(lines, from + RENDER_CHUNK);
+        pending.addLast(ForkJoinPool.commonPool().submit(() -> {
+          StringBuilder chunk = new StringBuilder();
+          renderLevel(level, layout, chunkFrom, chunkTo, chunk);
+          return chunk.toString();
+        }));
       }
     }
+    while (!pending.isEmpty()) {
+      out.append(pending.pollFirst().join());
+    }
+  }
+
+  /**
+   * Prints the tree in the most compact possible way with the following properties: all nodes on
+   * the same level in the tree are printed on the same line, children of a given node are
+   * equidistant from it, parents are connected by as many dashes as they are spaced apart
+   * horizontally/vertically, and nodes can be read in order from left to right such that node A is
+   * displayed to the right of node B if and only if node A's key is greater than node B's key. This
+   * is achieved using a greedy algorithm.
+   */
+  @Override
+  public void print() {
+    print(false);
+  }
+
+  /**
+   * Prints the tree as print() does, but builds the lines of each level in parallel once the layout
+   * has been computed.
+   */
+  public void printParallel() {
+    print(true);
+  }
+
+  /**
+   * Prints the tree, writing the rendered levels in order.
+   * 
+   * @param parallel whether levels are rendered concurrently
+   */
+  private void print(boolean parallel) {
+    // Prints key for interpreting results.
+    System.out.print("Note: \"*\" denotes Red node, while \"+\" denotes Black node.\n\n");
+    try {
+      renderLevels(parallel, System.out);
+    } catch (IOException e) {
+      // Unreachable, as PrintStream reports errors through checkError() rather than throwing
+      throw new UncheckedIOException(e);
+    }
   }
 
   /**
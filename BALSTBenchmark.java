@@ -0,0 +1,1122 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARKS: Main driver which times operations on BALST and the structures built upon it. Each
+ * scenario is run once to warm up and then timed; results are printed to console as throughput and
+ * time per operation.
+ * 
+ * Usage: java BALSTBenchmark [scenario], where scenario is one of the names listed in main, or
+ * omitted to run all of them.
+ * 
+ * @author Matthew Karrmann
+ */
+public class BALSTBenchmark {
+
+  private static final long SEED = 400; // Seed of random keys, so runs are comparable
+
+  /**
+   * Operation being timed.
+   */
+  private interface Scenario {
+    /**
+     * Runs the operations once.
+     * 
+     * @return number of operations performed
+     */
+    int run() throws Exception;
+  }
+
+  /**
+   * Runs the selected scenarios.
+   * 
+   * @param args optional name of single scenario to run
+   */
+  public static void main(String[] args) throws Exception {
+    String selected = args.length > 0 ? args[0] : null;
+    if (selected == null || selected.equals("durability")) {
+      durability();
+    }
+    if (selected == null || selected.equals("pool")) {
+      nodePool();
+    }
+    if (selected == null || selected.equals("freeze")) {
+      frozenLookups();
+    }
+    if (selected == null || selected.equals("btree")) {
+      bTree();
+    }
+    if (selected == null || selected.equals("strategies")) {
+      strategies();
+    }
+    if (selected == null || selected.equals("tombstones")) {
+      tombstones();
+    }
+    if (selected == null || selected.equals("expire")) {
+      expire();
+    }
+    if (selected == null || selected.equals("aggregate")) {
+      rangeSums();
+    }
+    if (selected == null || selected.equals("intervals")) {
+      intervals();
+    }
+    if (selected == null || selected.equals("multimap")) {
+      multimap();
+    }
+    if (selected == null || selected.equals("comparators")) {
+      comparators();
+    }
+    if (selected == null || selected.equals("set")) {
+      setMemory();
+    }
+    if (selected == null || selected.equals("cache")) {
+      lookupCache();
+    }
+    if (selected == null || selected.equals("filter")) {
+      membershipFilter();
+    }
+    if (selected == null || selected.equals("append")) {
+      append();
+    }
+    if (selected == null || selected.equals("multiget")) {
+      multiGet();
+    }
+    if (selected == null || selected.equals("shards")) {
+      shards();
+    }
+    if (selected == null || selected.equals("events")) {
+      events();
+    }
+    if (selected == null || selected.equals("undo")) {
+      undo();
+    }
+  }
+
+  /**
+   * Warms up and then times a scenario, printing the results.
+   * 
+   * @param name     printed with results
+   * @param scenario to be timed
+   */
+  static void time(String name, Scenario scenario) throws Exception {
+    scenario.run();
+    long start = System.nanoTime();
+    int operations = scenario.run();
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%-48s %12.0f ops/s %10.1f ns/op%n", name,
+        operations * 1e9 / elapsed, (double) elapsed / operations);
+  }
+
+  /**
+   * Warms up and then times a scenario as time() does, additionally printing the bytes allocated by
+   * the current thread and the number of garbage collections during the timed run.
+   * 
+   * @param name     printed with results
+   * @param scenario to be timed
+   */
+  static void timeAllocation(String name, Scenario scenario) throws Exception {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    scenario.run();
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long collectionsBefore = collectionCount();
+    long start = System.nanoTime();
+    int operations = scenario.run();
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    long collections = collectionCount() - collectionsBefore;
+    System.out.printf("%-48s %12.0f ops/s %10.1f ns/op %8.1f B/op %6d GCs%n", name,
+        operations * 1e9 / elapsed, (double) elapsed / operations, (double) allocated / operations,
+        collections);
+  }
+
+  /**
+   * Returns the total number of collections performed by every garbage collector.
+   */
+  private static long collectionCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, collector.getCollectionCount());
+    }
+    return count;
+  }
+
+  /**
+   * Returns n random keys from 0 through size - 1, drawn from a Zipfian distribution with the given
+   * exponent: the key of rank i is drawn in proportion to 1 / i^exponent, and ranks are assigned to
+   * keys in random order.
+   */
+  static int[] zipfianKeys(int n, int size, double exponent) {
+    double[] cumulative = new double[size];
+    double total = 0;
+    for (int rank = 0; rank < size; ++rank) {
+      total += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = total;
+    }
+    int[] keyOfRank = shuffledKeys(size);
+    Random random = new Random(SEED);
+    int[] keys = new int[n];
+    for (int i = 0; i < n; ++i) {
+      int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+      keys[i] = keyOfRank[rank < 0 ? -rank - 1 : rank];
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the number of bytes of heap in use, after collecting garbage.
+   */
+  static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; ++i) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Returns the keys 0 through n - 1 in random order.
+   */
+  static int[] shuffledKeys(int n) {
+    int[] keys = new int[n];
+    for (int i = 0; i < n; ++i) {
+      keys[i] = i;
+    }
+    Random random = new Random(SEED);
+    for (int i = n - 1; i > 0; --i) {
+      int j = random.nextInt(i + 1);
+      int swap = keys[i];
+      keys[i] = keys[j];
+      keys[j] = swap;
+    }
+    return keys;
+  }
+
+  /**
+   * Cost of logging inserts with DurableBALST, compared to an in-memory BALST, as the number of
+   * operations per force of the log varies.
+   */
+  static void durability() throws Exception {
+    System.out.println("Durability: inserts with and without write-ahead log");
+    final int[] keys = shuffledKeys(20000);
+    time("BALST insert (in memory)", () -> {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key : keys) {
+        tree.insert(key, key);
+      }
+      return keys.length;
+    });
+    for (int batch : new int[] {1, 16, 256, 4096}) {
+      // Forcing after every operation is slow, so fewer operations are timed
+      final int operations = batch == 1 ? 500 : keys.length;
+      time("DurableBALST insert, force every " + batch + " ops", () -> {
+        Path directory = Files.createTempDirectory("balst-bench");
+        try (DurableBALST<Integer, Integer> tree =
+            DurableBALST.open(directory, Codec.INTEGER, Codec.INTEGER, batch, 0)) {
+          for (int i = 0; i < operations; ++i) {
+            tree.insert(keys[i], keys[i]);
+          }
+        } finally {
+          deleteDirectory(directory);
+        }
+        return operations;
+      });
+    }
+    time("DurableBALST insert, force every 10 ms", () -> {
+      Path directory = Files.createTempDirectory("balst-bench");
+      try (DurableBALST<Integer, Integer> tree =
+          DurableBALST.open(directory, Codec.INTEGER, Codec.INTEGER, 0, 10)) {
+        for (int key : keys) {
+          tree.insert(key, key);
+        }
+      } finally {
+        deleteDirectory(directory);
+      }
+      return keys.length;
+    });
+  }
+
+  /**
+   * Allocation and collections of a sliding window workload (each insert of a new key is paired
+   * with the remove of the oldest key), with and without a node pool.
+   */
+  static void nodePool() throws Exception {
+    System.out.println("Node pool: sliding window of inserts and removes");
+    final int window = 100000;
+    final int operations = 2000000;
+    for (int capacity : new int[] {0, 64}) {
+      timeAllocation("BALST churn, pool capacity " + capacity, () -> {
+        BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+        tree.setNodePoolCapacity(capacity);
+        Integer[] keys = new Integer[window + operations];
+        for (int i = 0; i < keys.length; ++i) {
+          keys[i] = i; // Boxed beforehand, so only the tree's own allocation is measured
+        }
+        for (int i = 0; i < window; ++i) {
+          tree.insert(keys[i], keys[i]);
+        }
+        for (int i = window; i < window + operations; ++i) {
+          tree.insert(keys[i], keys[i]);
+          tree.remove(keys[i - window]);
+        }
+        return operations;
+      });
+    }
+  }
+
+  /**
+   * Random point lookups in a BALST, compared to its frozen copy, for Integer and String keys.
+   */
+  static void frozenLookups() throws Exception {
+    final int size = 4000000;
+    final int lookups = 4000000;
+    System.out.println("Frozen layout: random lookups among " + size + " keys");
+    final int[] keys = shuffledKeys(size);
+    BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    BALST<String, Integer> stringTree = new BALST<String, Integer>();
+    for (int key : keys) {
+      tree.insert(key, key);
+      stringTree.insert(Integer.toString(key), key);
+    }
+    final FrozenBALST<Integer, Integer> frozen = tree.freeze();
+    final FrozenBALST<String, Integer> frozenStrings = stringTree.freeze();
+    final Integer[] probes = new Integer[lookups];
+    final String[] stringProbes = new String[lookups];
+    Random random = new Random(SEED);
+    for (int i = 0; i < lookups; ++i) {
+      probes[i] = random.nextInt(size);
+      stringProbes[i] = probes[i].toString();
+    }
+    time("BALST get, Integer keys", () -> {
+      for (Integer probe : probes) {
+        tree.get(probe);
+      }
+      return lookups;
+    });
+    time("FrozenBALST get, Integer keys", () -> {
+      for (Integer probe : probes) {
+        frozen.get(probe);
+      }
+      return lookups;
+    });
+    time("BALST get, String keys", () -> {
+      for (String probe : stringProbes) {
+        stringTree.get(probe);
+      }
+      return lookups;
+    });
+    time("FrozenBALST get, String keys", () -> {
+      for (String probe : stringProbes) {
+        frozenStrings.get(probe);
+      }
+      return lookups;
+    });
+  }
+
+  /**
+   * Random inserts into, and then random lookups in, a BALST compared to B-trees of several
+   * fan-outs, at a size that fits in cache and one that doesn't.
+   */
+  static void bTree() throws Exception {
+    for (int size : new int[] {10000, 1000000}) {
+      System.out.println("B-tree: random inserts and lookups of " + size + " keys");
+      bTreeCase("BALST", size, () -> new BALST<Integer, Integer>());
+      for (int fanOut : new int[] {4, 16, 64, 256}) {
+        bTreeCase("BTree fan-out " + fanOut, size, () -> new BTree<Integer, Integer>(fanOut));
+      }
+    }
+  }
+
+  /**
+   * Times inserting size shuffled keys into a new tree, and then looking each of them up.
+   * 
+   * @param name    printed with results
+   * @param factory creates an empty tree
+   */
+  private static void bTreeCase(String name, int size,
+      Supplier<BALSTADT<Integer, Integer>> factory) throws Exception {
+    final Integer[] keys = new Integer[size];
+    int[] shuffled = shuffledKeys(size);
+    for (int i = 0; i < size; ++i) {
+      keys[i] = shuffled[i];
+    }
+    final List<BALSTADT<Integer, Integer>> built = new ArrayList<BALSTADT<Integer, Integer>>(1);
+    time(name + " insert", () -> {
+      BALSTADT<Integer, Integer> tree = factory.get();
+      for (Integer key : keys) {
+        tree.insert(key, key);
+      }
+      built.clear();
+      built.add(tree);
+      return size;
+    });
+    final BALSTADT<Integer, Integer> tree = built.get(0);
+    final Integer[] probes = keys.clone();
+    Collections.shuffle(Arrays.asList(probes), new Random(SEED));
+    time(name + " get", () -> {
+      for (Integer probe : probes) {
+        tree.get(probe);
+      }
+      return size;
+    });
+  }
+
+  /**
+   * Matrix of balance strategies against workloads: random inserts, sequential inserts, random
+   * lookups, and random removes each followed by an insert. Prints throughput, and the height and
+   * rotations per operation of the tree after the timed run.
+   */
+  static void strategies() throws Exception {
+    final int size = 1000000;
+    System.out.println("Balance strategies: " + size + " keys");
+    final int[] keys = shuffledKeys(size);
+    String[] names = {"Red-Black", "AVL", "WAVL", "Treap", "Left-leaning Red-Black"};
+    BalanceStrategy[] strategies = {BalanceStrategy.RED_BLACK, BalanceStrategy.AVL,
+        BalanceStrategy.WAVL, BalanceStrategy.TREAP, BalanceStrategy.LEFT_LEANING_RED_BLACK};
+    for (int s = 0; s < strategies.length; ++s) {
+      final BalanceStrategy strategy = strategies[s];
+      final List<BALST<Integer, Integer>> built = new ArrayList<BALST<Integer, Integer>>(1);
+      time(names[s] + " random insert", () -> {
+        BALST<Integer, Integer> tree = new BALST<Integer, Integer>(strategy);
+        for (int key : keys) {
+          tree.insert(key, key);
+        }
+        built.clear();
+        built.add(tree);
+        return size;
+      });
+      printShape(built.get(0), 0, size);
+      time(names[s] + " sequential insert", () -> {
+        BALST<Integer, Integer> tree = new BALST<Integer, Integer>(strategy);
+        for (int key = 0; key < size; ++key) {
+          tree.insert(key, key);
+        }
+        built.clear();
+        built.add(tree);
+        return size;
+      });
+      printShape(built.get(0), 0, size);
+      final BALST<Integer, Integer> tree = new BALST<Integer, Integer>(strategy);
+      for (int key : keys) {
+        tree.insert(key, key);
+      }
+      time(names[s] + " random get", () -> {
+        for (int key : keys) {
+          tree.get(key);
+        }
+        return size;
+      });
+      // Each run removes every key once, reinserting it as a key above all others
+      final int[] offset = {size};
+      long rotationsBefore = tree.rotationCount();
+      time(names[s] + " random remove and insert", () -> {
+        for (int key : keys) {
+          tree.remove(offset[0] - size + key);
+          tree.insert(offset[0] + key, key);
+        }
+        offset[0] += size;
+        return 2 * size;
+      });
+      printShape(tree, rotationsBefore, 4 * size);
+    }
+  }
+
+  /**
+   * Prints height of tree, and the rotations it has performed since rotationsBefore per operation.
+   */
+  private static void printShape(BALST<Integer, Integer> tree, long rotationsBefore,
+      int operations) {
+    System.out.printf("%-48s height %d, %.3f rotations/op%n", "", tree.getHeight(),
+        (double) (tree.rotationCount() - rotationsBefore) / operations);
+  }
+
+  /**
+   * Delete-bursty workload: repeatedly removes a burst of random keys and then looks up random
+   * keys, with removes unlinking nodes at once, compared to tombstone mode at two ratios.
+   */
+  static void tombstones() throws Exception {
+    final int size = 1000000;
+    final int burst = 100000;
+    System.out.println("Tombstones: bursts of " + burst + " removes, then " + burst
+        + " lookups, among " + size + " keys");
+    final int[] keys = shuffledKeys(size);
+    for (double ratio : new double[] {0, 0.1, 0.3}) {
+      final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key : keys) {
+        tree.insert(key, key);
+      }
+      tree.setTombstoneRatio(ratio);
+      final Random random = new Random(SEED);
+      // Each burst removes keys, and then reinserts them so that the tree keeps its size
+      final int[] next = {0};
+      time("tombstone ratio " + ratio, () -> {
+        for (int round = 0; round < 10; ++round) {
+          int start = next[0];
+          for (int i = 0; i < burst; ++i) {
+            tree.remove(keys[(start + i) % size]);
+          }
+          for (int i = 0; i < burst; ++i) {
+            tree.contains(random.nextInt(size));
+          }
+          for (int i = 0; i < burst; ++i) {
+            tree.insert(keys[(start + i) % size], 0);
+          }
+          next[0] = (start + burst) % size;
+        }
+        return 30 * burst;
+      });
+    }
+  }
+
+  /**
+   * Expiry of old data: a window of keys slides upward, each round inserting a batch of new keys
+   * and then deleting every key below a cutoff, either one remove at a time or with removeRange.
+   */
+  static void expire() throws Exception {
+    final int size = 1000000;
+    final int batch = 50000;
+    System.out.println("Expire: rounds of " + batch + " inserts, then expiring the oldest " + batch
+        + " of " + size + " keys");
+    for (boolean ranged : new boolean[] {false, true}) {
+      final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key = 0; key < size; ++key) {
+        tree.insert(key, key);
+      }
+      // Smallest key in window
+      final int[] oldest = {0};
+      time(ranged ? "removeRange" : "remove per key", () -> {
+        for (int round = 0; round < 10; ++round) {
+          int cutoff = oldest[0] + batch;
+          for (int key = oldest[0] + size; key < cutoff + size; ++key) {
+            tree.insert(key, key);
+          }
+          if (ranged) {
+            tree.removeRange(oldest[0], cutoff);
+          } else {
+            for (int key = oldest[0]; key < cutoff; ++key) {
+              tree.remove(key);
+            }
+          }
+          oldest[0] = cutoff;
+        }
+        return 20 * batch;
+      });
+    }
+  }
+
+  /**
+   * Sums of the values in random key ranges, by a cursor scan of each range and by aggregate() on a
+   * tree caching subtree sums, along with the cost of keeping the sums on insert.
+   */
+  static void rangeSums() throws Exception {
+    final int size = 1000000;
+    System.out.println("Aggregate: sums of random ranges among " + size + " keys");
+    final int[] keys = shuffledKeys(size);
+    for (boolean cached : new boolean[] {false, true}) {
+      final BALST<Integer, Long> tree = new BALST<Integer, Long>();
+      if (cached) {
+        tree.setMonoid(Monoid.of(0L, Long::sum));
+      }
+      time(cached ? "insert with sums" : "insert", () -> {
+        for (int key : keys) {
+          if (!tree.contains(key)) {
+            tree.insert(key, (long) key);
+          } else {
+            tree.remove(key);
+            tree.insert(key, (long) key);
+          }
+        }
+        return size;
+      });
+      final Random random = new Random(SEED);
+      // Scans visit a third of the tree on average, so far fewer of them are timed
+      final int queries = cached ? 100000 : 20;
+      time(cached ? "aggregate" : "cursor scan", () -> {
+        long total = 0;
+        for (int i = 0; i < queries; ++i) {
+          int lo = random.nextInt(size);
+          int hi = lo + random.nextInt(size - lo + 1);
+          if (cached) {
+            total += tree.aggregate(lo, hi);
+          } else {
+            Cursor<Integer, Long> cursor = tree.cursor();
+            cursor.seek(lo);
+            for (boolean valid = cursor.isValid(); valid && cursor.getKey() < hi;
+                valid = cursor.next()) {
+              total += cursor.getValue();
+            }
+          }
+        }
+        return total == 42 ? 0 : queries;
+      });
+    }
+  }
+
+  /**
+   * Stabbing and overlap queries over random time windows, by a linear scan of every window and by
+   * an IntervalTree.
+   */
+  static void intervals() throws Exception {
+    final int size = 200000;
+    final int span = 100000000;
+    final int queries = 2000;
+    System.out.println("Intervals: " + queries + " stabbing and overlap queries among " + size
+        + " windows");
+    final int[] starts = new int[size];
+    final int[] ends = new int[size];
+    final IntervalTree<Integer, Integer> tree = new IntervalTree<Integer, Integer>();
+    Random random = new Random(SEED);
+    for (int i = 0; i < size; ++i) {
+      starts[i] = random.nextInt(span);
+      ends[i] = starts[i] + 1 + random.nextInt(10000);
+      if (!tree.contains(starts[i], ends[i])) {
+        tree.insert(starts[i], ends[i], i);
+      }
+    }
+    final Random queryRandom = new Random(SEED);
+    time("linear scan", () -> {
+      int found = 0;
+      for (int i = 0; i < queries; ++i) {
+        int lo = queryRandom.nextInt(span);
+        int hi = lo + queryRandom.nextInt(10000);
+        for (int j = 0; j < size; ++j) {
+          if (starts[j] <= lo && ends[j] > lo) {
+            ++found;
+          }
+          if (starts[j] < hi && ends[j] > lo) {
+            ++found;
+          }
+        }
+      }
+      return found < 0 ? 0 : 2 * queries;
+    });
+    time("interval tree", () -> {
+      int found = 0;
+      for (int i = 0; i < queries; ++i) {
+        int lo = queryRandom.nextInt(span);
+        int hi = lo + queryRandom.nextInt(10000);
+        for (Iterator<?> results = tree.stabbing(lo); results.hasNext(); results.next()) {
+          ++found;
+        }
+        for (Iterator<?> results = tree.overlapping(lo, hi); results.hasNext(); results.next()) {
+          ++found;
+        }
+      }
+      return found < 0 ? 0 : 2 * queries;
+    });
+  }
+
+  /**
+   * Duplicate-heavy events, of a few distinct types, stored with wrapper keys which make each
+   * occurrence distinct (the type in the high bits of a Long and a sequence number in the low bits)
+   * and in a MultiBALST.
+   */
+  static void multimap() throws Exception {
+    final int size = 1000000;
+    final int types = 1000;
+    System.out.println("Multimap: " + size + " events of " + types + " types");
+    final Random random = new Random(SEED);
+    timeAllocation("wrapper keys", () -> {
+      BALST<Long, Integer> tree = new BALST<Long, Integer>();
+      for (int i = 0; i < size; ++i) {
+        tree.insert((long) random.nextInt(types) << 32 | i, i);
+      }
+      return size;
+    });
+    timeAllocation("MultiBALST", () -> {
+      MultiBALST<Integer, Integer> events = new MultiBALST<Integer, Integer>();
+      for (int i = 0; i < size; ++i) {
+        events.insert(random.nextInt(types), i);
+      }
+      return size;
+    });
+  }
+
+  /**
+   * Random lookups in trees of Integer, Long and String keys, all in one JVM so that comparisons
+   * through compareTo see every key class. Each tree is timed with its natural ordering, which
+   * compares primitives or String prefixes, and with Comparator.naturalOrder(), which calls
+   * compareTo.
+   */
+  static void comparators() throws Exception {
+    final int size = 1000000;
+    final int lookups = 2000000;
+    System.out.println("Comparators: random lookups among " + size + " keys");
+    final int[] keys = shuffledKeys(size);
+    final Random random = new Random(SEED);
+    final int[] probes = new int[lookups];
+    for (int i = 0; i < lookups; ++i) {
+      probes[i] = random.nextInt(size);
+    }
+    for (boolean natural : new boolean[] {true, false}) {
+      String suffix = natural ? " keys" : " keys, comparator";
+      comparatorCase("Integer" + suffix, keys, probes, key -> key, natural);
+      comparatorCase("Long" + suffix, keys, probes, key -> (long) key, natural);
+      comparatorCase("String" + suffix, keys, probes, key -> Integer.toString(key, 36), natural);
+    }
+  }
+
+  /**
+   * Times lookups of probes in a tree of keys, converted by toKey.
+   */
+  private static <K extends Comparable<K>> void comparatorCase(String name, int[] keys,
+      int[] probes, Function<Integer, K> toKey, boolean natural) throws Exception {
+    final BALST<K, Integer> tree = natural ? new BALST<K, Integer>()
+        : new BALST<K, Integer>(Comparator.<K>naturalOrder());
+    for (int key : keys) {
+      tree.insert(toKey.apply(key), key);
+    }
+    final List<K> keyProbes = new ArrayList<K>(probes.length);
+    for (int probe : probes) {
+      keyProbes.add(toKey.apply(probe));
+    }
+    time(name, () -> {
+      for (K probe : keyProbes) {
+        tree.get(probe);
+      }
+      return keyProbes.size();
+    });
+  }
+
+  /**
+   * Memory retained per key by a BALST mapping each key to null and by a BALSTSet, whose nodes have
+   * no value slots, along with their insert and lookup times. The Integer keys are created before
+   * measuring, so only the nodes are counted.
+   */
+  static void setMemory() throws Exception {
+    final int size = 1000000;
+    System.out.println("Set: " + size + " keys");
+    final Integer[] keys = new Integer[size];
+    int[] order = shuffledKeys(size);
+    for (int i = 0; i < size; ++i) {
+      keys[i] = order[i];
+    }
+    long before = usedMemory();
+    BALST<Integer, Object> tree = new BALST<Integer, Object>();
+    for (Integer key : keys) {
+      tree.insert(key, null);
+    }
+    long treeBytes = usedMemory() - before;
+    before = usedMemory();
+    BALSTSet<Integer> set = new BALSTSet<Integer>();
+    for (Integer key : keys) {
+      set.add(key);
+    }
+    long setBytes = usedMemory() - before;
+    System.out.printf("%-48s %12.1f B/key%n", "BALST with null values", (double) treeBytes / size);
+    System.out.printf("%-48s %12.1f B/key%n", "BALSTSet", (double) setBytes / size);
+    time("BALST contains", () -> {
+      for (Integer key : keys) {
+        tree.contains(key);
+      }
+      return size;
+    });
+    time("BALSTSet contains", () -> {
+      for (Integer key : keys) {
+        set.contains(key);
+      }
+      return size;
+    });
+  }
+
+  /**
+   * Random gets, uniform and Zipfian, from a tree without a lookup cache and with caches of a few
+   * sizes, printing each cache's hit rate.
+   */
+  static void lookupCache() throws Exception {
+    final int size = 1000000;
+    final int lookups = 2000000;
+    System.out.println("Lookup cache: gets among " + size + " keys");
+    final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    for (int key : shuffledKeys(size)) {
+      tree.insert(key, key);
+    }
+    Random random = new Random(SEED);
+    final Integer[] uniform = new Integer[lookups];
+    for (int i = 0; i < lookups; ++i) {
+      uniform[i] = random.nextInt(size);
+    }
+    final Integer[] zipfian = new Integer[lookups];
+    int[] keys = zipfianKeys(lookups, size, 1.0);
+    for (int i = 0; i < lookups; ++i) {
+      zipfian[i] = keys[i];
+    }
+    for (int capacity : new int[] {0, 1024, 65536}) {
+      tree.setLookupCacheCapacity(capacity);
+      for (Integer[] probes : Arrays.asList(uniform, zipfian)) {
+        String name = (capacity == 0 ? "no cache" : "cache of " + capacity)
+            + (probes == uniform ? ", uniform" : ", Zipfian");
+        long hitsBefore = tree.lookupCacheHits();
+        long missesBefore = tree.lookupCacheMisses();
+        time(name, () -> {
+          for (Integer probe : probes) {
+            tree.get(probe);
+          }
+          return lookups;
+        });
+        long hits = tree.lookupCacheHits() - hitsBefore;
+        long misses = tree.lookupCacheMisses() - missesBefore;
+        if (capacity > 0) {
+          System.out.printf("%-48s %12.1f %% hits%n", "", 100.0 * hits / (hits + misses));
+        }
+      }
+    }
+  }
+
+  /**
+   * Contains of absent and of present keys, without a membership filter and with filters of a few
+   * false positive rates, printing each filter's size and measured false positive rate.
+   */
+  static void membershipFilter() throws Exception {
+    final int size = 1000000;
+    final int lookups = 2000000;
+    System.out.println("Membership filter: contains among " + size + " keys");
+    final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    // Even keys are present and odd keys absent
+    for (int key : shuffledKeys(size)) {
+      tree.insert(2 * key, key);
+    }
+    Random random = new Random(SEED);
+    final Integer[] absent = new Integer[lookups];
+    final Integer[] present = new Integer[lookups];
+    for (int i = 0; i < lookups; ++i) {
+      absent[i] = 2 * random.nextInt(size) + 1;
+      present[i] = 2 * random.nextInt(size);
+    }
+    for (double rate : new double[] {0, 0.1, 0.01, 0.001}) {
+      tree.setMembershipFilter(rate);
+      String filter = rate == 0 ? "no filter" : "filter at " + rate;
+      time(filter + ", absent", () -> {
+        for (Integer probe : absent) {
+          tree.contains(probe);
+        }
+        return lookups;
+      });
+      time(filter + ", present", () -> {
+        for (Integer probe : present) {
+          tree.contains(probe);
+        }
+        return lookups;
+      });
+      if (rate > 0) {
+        System.out.printf("%-48s %12.2f B/key %8.3f %% false positives%n", "",
+            (double) tree.membershipFilterBytes() / size,
+            100.0 * tree.membershipFilterFalsePositives() / lookups);
+      }
+    }
+  }
+
+  /**
+   * Inserts in increasing and decreasing order, which attach to the largest or smallest node
+   * without a descent, against the same keys inserted in random order; then reads of the smallest
+   * and largest keys.
+   */
+  static void append() throws Exception {
+    final int size = 1000000;
+    System.out.println("Append: " + size + " inserts");
+    final int[] shuffled = shuffledKeys(size);
+    time("increasing insert", () -> {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key = 0; key < size; ++key) {
+        tree.insert(key, key);
+      }
+      return size;
+    });
+    time("decreasing insert", () -> {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key = size - 1; key >= 0; --key) {
+        tree.insert(key, key);
+      }
+      return size;
+    });
+    time("random insert", () -> {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (int key : shuffled) {
+        tree.insert(key, key);
+      }
+      return size;
+    });
+    final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    for (int key : shuffled) {
+      tree.insert(key, key);
+    }
+    time("firstKey and lastKey", () -> {
+      for (int i = 0; i < size; ++i) {
+        tree.firstKey();
+        tree.lastKey();
+      }
+      return size;
+    });
+  }
+
+  /**
+   * Batches of random lookups, one get per key against getAll, sequential and parallel, and one
+   * contains per key against containsAll.
+   */
+  static void multiGet() throws Exception {
+    final int size = 1000000;
+    final int batch = 10000;
+    final int batches = 200;
+    System.out.println("Multi-get: batches of " + batch + " among " + size + " keys");
+    final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    for (int key : shuffledKeys(size)) {
+      tree.insert(key, key);
+    }
+    Random random = new Random(SEED);
+    final List<List<Integer>> probes = new ArrayList<List<Integer>>();
+    for (int b = 0; b < batches; ++b) {
+      List<Integer> keys = new ArrayList<Integer>(batch);
+      for (int i = 0; i < batch; ++i) {
+        keys.add(random.nextInt(size));
+      }
+      probes.add(keys);
+    }
+    time("get per key", () -> {
+      for (List<Integer> keys : probes) {
+        for (Integer key : keys) {
+          tree.get(key);
+        }
+      }
+      return batches * batch;
+    });
+    time("getAll", () -> {
+      for (List<Integer> keys : probes) {
+        tree.getAll(keys);
+      }
+      return batches * batch;
+    });
+    time("getAll, parallel", () -> {
+      for (List<Integer> keys : probes) {
+        tree.getAll(keys, true);
+      }
+      return batches * batch;
+    });
+    time("contains per key", () -> {
+      for (List<Integer> keys : probes) {
+        for (Integer key : keys) {
+          tree.contains(key);
+        }
+      }
+      return batches * batch;
+    });
+    time("containsAll", () -> {
+      for (List<Integer> keys : probes) {
+        tree.containsAll(keys);
+      }
+      return batches * batch;
+    });
+  }
+
+  /**
+   * Random inserts followed by gets from several threads, into one BALST behind a lock against a
+   * ShardedBALST with a shard per thread, for increasing numbers of threads.
+   */
+  static void shards() throws Exception {
+    final int size = 1000000;
+    final int[] keys = shuffledKeys(size);
+    System.out.println("Shards: " + size + " inserts and gets, on "
+        + Runtime.getRuntime().availableProcessors() + " cores");
+    for (int threads = 1; threads <= 8; threads *= 2) {
+      final int count = threads;
+      time("locked BALST, " + threads + " threads", () -> {
+        final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+        runThreads(count, thread -> {
+          for (int i = thread; i < size; i += count) {
+            synchronized (tree) {
+              tree.insert(keys[i], i);
+            }
+          }
+          for (int i = thread; i < size; i += count) {
+            synchronized (tree) {
+              tree.get(keys[i]);
+            }
+          }
+        });
+        return 2 * size;
+      });
+      time("ShardedBALST, " + threads + " threads", () -> {
+        final ShardedBALST<Integer, Integer> tree = new ShardedBALST<Integer, Integer>(count);
+        runThreads(count, thread -> {
+          for (int i = thread; i < size; i += count) {
+            tree.insert(keys[i], i);
+          }
+          for (int i = thread; i < size; i += count) {
+            tree.get(keys[i]);
+          }
+        });
+        return 2 * size;
+      });
+    }
+  }
+
+  /**
+   * Random inserts and removes without structural events, with events but no reader, and with a
+   * reader draining them on another thread.
+   */
+  static void events() throws Exception {
+    final int size = 1000000;
+    final int[] keys = shuffledKeys(size);
+    System.out.println("Events: " + size + " inserts and removes");
+    for (int mode = 0; mode < 3; ++mode) {
+      final int selected = mode;
+      String name = mode == 0 ? "no events" : mode == 1 ? "events, no reader" : "events, reader";
+      final long[] read = new long[1];
+      time(name, () -> {
+        final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+        if (selected > 0) {
+          tree.setEventCapacity(65536);
+        }
+        Thread consumer = null;
+        final AtomicBoolean done = new AtomicBoolean();
+        if (selected == 2) {
+          final TreeEventReader<Integer> reader = tree.eventReader();
+          consumer = new Thread(() -> {
+            while (!done.get()) {
+              read[0] += reader.drain(event -> {
+              });
+              Thread.yield();
+            }
+          });
+          consumer.start();
+        }
+        for (int key : keys) {
+          tree.insert(key, key);
+        }
+        for (int key : keys) {
+          tree.remove(key);
+        }
+        if (consumer != null) {
+          done.set(true);
+          consumer.join();
+        }
+        return 2 * size;
+      });
+      if (mode == 2) {
+        System.out.printf("%-48s %12d events read%n", "", read[0]);
+      }
+    }
+  }
+
+  /**
+   * Stepping back and forth through the last operations on a large tree, by undoing and redoing
+   * them, and stepping back by rebuilding the tree from the keys inserted before each step, as a
+   * visualizer without history would.
+   */
+  static void undo() throws Exception {
+    final int size = 100000;
+    final int steps = 1000;
+    final int[] keys = shuffledKeys(size);
+    System.out.println("Undo: steps through the last " + steps + " inserts into " + size + " keys");
+    final BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+    tree.setHistoryCapacity(steps);
+    for (int key : keys) {
+      tree.insert(key, key);
+    }
+    time("undo and redo", () -> {
+      int operations = 0;
+      while (tree.undo()) {
+        ++operations;
+      }
+      while (tree.redo()) {
+        ++operations;
+      }
+      return operations;
+    });
+    time("rebuild", () -> {
+      final int rebuilds = 10;
+      for (int step = 1; step <= rebuilds; ++step) {
+        BALST<Integer, Integer> rebuilt = new BALST<Integer, Integer>();
+        for (int i = 0; i < size - step; ++i) {
+          rebuilt.insert(keys[i], keys[i]);
+        }
+      }
+      return rebuilds;
+    });
+  }
+
+  /**
+   * Work done by one of several threads.
+   */
+  private interface ThreadWork {
+    /**
+     * Runs the work of one thread.
+     * 
+     * @param thread index of the thread, from 0
+     */
+    void run(int thread) throws Exception;
+  }
+
+  /**
+   * Runs work on the given number of threads and waits for all of them to finish.
+   * 
+   * @param threads number of threads
+   * @param work    run by each thread, given its index
+   */
+  static void runThreads(int threads, ThreadWork work) throws Exception {
+    Thread[] running = new Thread[threads];
+    Exception[] failure = new Exception[1];
+    for (int t = 0; t < threads; ++t) {
+      final int thread = t;
+      running[t] = new Thread(() -> {
+        try {
+          work.run(thread);
+        } catch (Exception e) {
+          failure[0] = e;
+        }
+      });
+      running[t].start();
+    }
+    for (Thread thread : running) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+  }
+
+  /**
+   * Deletes directory and everything in it.
+   */
+  static void deleteDirectory(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+}
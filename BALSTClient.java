@@ -0,0 +1,282 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BiConsumer;
+
+/**
+ * Client of a BALSTServer. Each operation sends one request and waits for its response, and
+ * throws the same exceptions a BALST would.
+ * 
+ * Requests can also be pipelined: send() any number of requests, flush(), and then receive() their
+ * responses in the same order. The server applies requests which arrive together as one batch, so
+ * pipelining raises throughput well above one request per round trip.
+ * 
+ * A client is not safe for use by multiple threads at once; open one connection per thread.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class BALSTClient<Key extends Comparable<Key>, Value> implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 64 << 10;
+
+  private final SocketChannel channel;
+  private final Codec<Key> keyCodec;
+  private final Codec<Value> valueCodec;
+  private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE); // Requests not yet sent
+  private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE); // Responses received, not yet read
+  private byte status; // Status of the last response received
+  private ByteBuffer payload; // Payload of the last response received
+
+  /**
+   * Connects to a server.
+   * 
+   * @param address    the server listens on, an InetSocketAddress or UnixDomainSocketAddress
+   * @param keyCodec   converts keys to and from bytes, as the server's does
+   * @param valueCodec converts values to and from bytes, as the server's does
+   * @return connected client
+   * @throws IOException if connection fails
+   */
+  public static <K extends Comparable<K>, V> BALSTClient<K, V> connect(SocketAddress address,
+      Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    SocketChannel channel = SocketChannel.open(address);
+    if (address instanceof InetSocketAddress) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+    return new BALSTClient<K, V>(channel, keyCodec, valueCodec);
+  }
+
+  private BALSTClient(SocketChannel channel, Codec<Key> keyCodec, Codec<Value> valueCodec) {
+    this.channel = channel;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    in.flip(); // Nothing received yet
+  }
+
+  /**
+   * Inserts key and value.
+   * 
+   * @throws IllegalNullKeyException if key is null
+   * @throws DuplicateKeyException   if key is already present
+   * @throws IOException             if the connection fails
+   */
+  public void insert(Key key, Value value)
+      throws IllegalNullKeyException, DuplicateKeyException, IOException {
+    send(BALSTServer.INSERT, key, value, null);
+    flush();
+    if (receive() == BALSTServer.DUPLICATE) {
+      throw new DuplicateKeyException();
+    }
+  }
+
+  /**
+   * Returns value of key.
+   * 
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present
+   * @throws IOException             if the connection fails
+   */
+  public Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException, IOException {
+    send(BALSTServer.GET, key, null, null);
+    flush();
+    if (receive() == BALSTServer.NOT_FOUND) {
+      throw new KeyNotFoundException();
+    }
+    return getValue();
+  }
+
+  /**
+   * Removes key.
+   * 
+   * @return true, as key has been removed
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present
+   * @throws IOException             if the connection fails
+   */
+  public boolean remove(Key key) throws IllegalNullKeyException, KeyNotFoundException, IOException {
+    send(BALSTServer.REMOVE, key, null, null);
+    flush();
+    if (receive() == BALSTServer.NOT_FOUND) {
+      throw new KeyNotFoundException();
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether key is present.
+   * 
+   * @throws IllegalNullKeyException if key is null
+   * @throws IOException             if the connection fails
+   */
+  public boolean contains(Key key) throws IllegalNullKeyException, IOException {
+    send(BALSTServer.CONTAINS, key, null, null);
+    flush();
+    receive();
+    return payload.get() != 0;
+  }
+
+  /**
+   * Passes each key from lo (inclusive) to hi (exclusive), with its value, to action in order.
+   * 
+   * @throws IllegalNullKeyException if lo or hi is null
+   * @throws IOException             if the connection fails
+   */
+  public void rangeScan(Key lo, Key hi, BiConsumer<? super Key, ? super Value> action)
+      throws IllegalNullKeyException, IOException {
+    if (hi == null) {
+      throw new IllegalNullKeyException();
+    }
+    send(BALSTServer.RANGE, lo, null, hi);
+    flush();
+    receive();
+    int count = payload.getInt();
+    for (int i = 0; i < count; ++i) {
+      Key key = keyCodec.decode(getBytes());
+      action.accept(key, getValue());
+    }
+  }
+
+  /**
+   * Buffers a request, to be sent by flush().
+   * 
+   * @param op    operation, one of the operation constants of BALSTServer
+   * @param key   of request
+   * @param value of an insert, or null
+   * @param hi    upper bound of a range scan, or null
+   * @throws IllegalNullKeyException if key is null
+   * @throws IOException             if buffer fills and cannot be sent
+   */
+  void send(byte op, Key key, Value value, Key hi) throws IllegalNullKeyException, IOException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    byte[] keyBytes = BALSTServer.putBytes(keyCodec.encode(key));
+    byte[] valueBytes = op == BALSTServer.INSERT
+        ? BALSTServer.putBytes(value == null ? null : valueCodec.encode(value))
+        : new byte[0];
+    byte[] hiBytes = hi == null ? new byte[0] : BALSTServer.putBytes(keyCodec.encode(hi));
+    int length = 1 + keyBytes.length + valueBytes.length + hiBytes.length;
+    if (out.remaining() < Integer.BYTES + length) {
+      flush();
+      if (out.remaining() < Integer.BYTES + length) {
+        out = ByteBuffer.allocate(Integer.BYTES + length);
+      }
+    }
+    out.putInt(length).put(op).put(keyBytes).put(valueBytes).put(hiBytes);
+  }
+
+  /**
+   * Sends every buffered request.
+   * 
+   * @throws IOException if the connection fails
+   */
+  void flush() throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+
+  /**
+   * Reads the next response, whose payload is then available through getValue().
+   * 
+   * @return status of response, one of the status constants of BALSTServer
+   * @throws IOException if the connection fails, or the server rejected the request
+   */
+  byte receive() throws IOException {
+    fill(Integer.BYTES);
+    int length = in.getInt();
+    if (length <= 0) {
+      throw new StreamCorruptedException("Bad response length " + length);
+    }
+    fill(length);
+    status = in.get();
+    payload = in.slice();
+    payload.limit(length - 1);
+    in.position(in.position() + length - 1);
+    if (status == BALSTServer.BAD_REQUEST) {
+      throw new IOException("Server rejected request");
+    }
+    return status;
+  }
+
+  /**
+   * Returns the value in the payload of the last response.
+   */
+  Value getValue() {
+    byte[] bytes = getBytes();
+    return bytes == null ? null : valueCodec.decode(bytes);
+  }
+
+  /**
+   * Reads length-prefixed bytes from the payload of the last response, or null for a null length.
+   */
+  private byte[] getBytes() {
+    int length = payload.getInt();
+    if (length == BALSTServer.NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    payload.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads from the connection until at least needed bytes are available in the input buffer.
+   */
+  private void fill(int needed) throws IOException {
+    if (in.remaining() >= needed) {
+      return;
+    }
+    if (in.capacity() < needed) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(needed, 2 * in.capacity()));
+      grown.put(in);
+      in = grown;
+    } else {
+      in.compact();
+    }
+    while (in.position() < needed) {
+      if (channel.read(in) < 0) {
+        throw new EOFException("Server closed connection");
+      }
+    }
+    in.flip();
+  }
+
+  /**
+   * Closes the connection.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
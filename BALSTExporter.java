@@ -0,0 +1,349 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+
+/**
+ * Streams the structure of a BALST in formats understood by external viewers: Graphviz DOT, SVG,
+ * and JSON. Each export walks the tree iteratively using the parent references of its nodes, so
+ * only a constant amount of memory is used beyond the output itself, which is written to the given
+ * Appendable as the walk proceeds.
+ * 
+ * Tombstones left by a tree in tombstone mode are exported in place, marked as dead: unfilled and
+ * dashed in DOT and SVG, and with "dead":true in JSON.
+ * 
+ * @author Matthew Karrmann
+ */
+public class BALSTExporter {
+
+  private static final int CHAR_WIDTH = 10; // Width in pixels of one character of the layout
+  private static final int ROW_HEIGHT = 18; // Height in pixels of one line of the layout
+
+  /**
+   * Callbacks made while walking the tree.
+   */
+  private interface NodeVisitor {
+
+    /**
+     * Called when node is first reached, before either of its children.
+     */
+    void enter(BSTNode<?, ?> node) throws IOException;
+
+    /**
+     * Called after node's left subtree and before its right subtree.
+     */
+    void between(BSTNode<?, ?> node) throws IOException;
+
+    /**
+     * Called after both of node's subtrees.
+     */
+    void leave(BSTNode<?, ?> node) throws IOException;
+  }
+
+  /**
+   * Walks the subtree rooted at root without recursion or an explicit stack: the previously
+   * visited node tells whether the walk has just come down to a node, or come back up from its left
+   * or right child.
+   * 
+   * @param root    node to begin walk at
+   * @param visitor callbacks to be made
+   */
+  private static void walk(BSTNode<?, ?> root, NodeVisitor visitor) throws IOException {
+    BSTNode<?, ?> previous = root == null ? null : root.getParent();
+    BSTNode<?, ?> current = root;
+    while (current != null) {
+      BSTNode<?, ?> next;
+      if (previous == current.getParent()) {
+        // Arrived from above: enter node and go down to the first child present
+        visitor.enter(current);
+        if (current.hasLeftChild()) {
+          next = current.getLeftChild();
+        } else {
+          visitor.between(current);
+          next = current.hasRightChild() ? current.getRightChild() : null;
+        }
+      } else if (previous == current.getLeftChild()) {
+        // Back from left child: go down to the right child, if present
+        visitor.between(current);
+        next = current.hasRightChild() ? current.getRightChild() : null;
+      } else {
+        // Back from right child
+        next = null;
+      }
+      if (next == null) {
+        // Both subtrees are done, so go back up (stopping once the subtree has been left)
+        visitor.leave(current);
+        next = current == root ? null : current.getParent();
+      }
+      previous = current;
+      current = next;
+    }
+  }
+
+  /**
+   * Writes the tree as a Graphviz digraph. Nodes are filled with their color, tombstones are
+   * outlined in it with a dashed line instead, and each edge is labeled with the side of the child
+   * it leads to.
+   * 
+   * @param tree to be exported
+   * @param out  destination of the document
+   * @throws IOException if out cannot be written to
+   */
+  public static <K extends Comparable<K>, V> void writeDot(BALST<K, V> tree, Appendable out)
+      throws IOException {
+    out.append("digraph BALST {\n");
+    out.append("  node [shape=circle, style=filled, fontcolor=white];\n");
+    walk(tree.getRoot(), new NodeVisitor() {
+      @Override
+      public void enter(BSTNode<?, ?> node) throws IOException {
+        String id = dotId(node);
+        String color = node.getColor().equals("R") ? "red" : "black";
+        if (node.dead) {
+          out.append("  ").append(id).append(" [style=dashed, color=").append(color)
+              .append(", fontcolor=").append(color).append("];\n");
+        } else {
+          out.append("  ").append(id).append(" [fillcolor=").append(color).append("];\n");
+        }
+        if (node.hasLeftChild()) {
+          out.append("  ").append(id).append(" -> ").append(dotId(node.getLeftChild()))
+              .append(" [label=L];\n");
+        }
+        if (node.hasRightChild()) {
+          out.append("  ").append(id).append(" -> ").append(dotId(node.getRightChild()))
+              .append(" [label=R];\n");
+        }
+      }
+
+      @Override
+      public void between(BSTNode<?, ?> node) {}
+
+      @Override
+      public void leave(BSTNode<?, ?> node) {}
+    });
+    out.append("}\n");
+  }
+
+  /**
+   * Writes the tree as nested JSON objects, each of the form
+   * {"key":..., "value":..., "color":"R"|"B", "left":..., "right":...}, where missing children are
+   * null. Tombstones also have "dead":true after their color. An empty tree is written as null.
+   * 
+   * @param tree to be exported
+   * @param out  destination of the document
+   * @throws IOException if out cannot be written to
+   */
+  public static <K extends Comparable<K>, V> void writeJson(BALST<K, V> tree, Appendable out)
+      throws IOException {
+    if (tree.getRoot() == null) {
+      out.append("null\n");
+      return;
+    }
+    walk(tree.getRoot(), new NodeVisitor() {
+      @Override
+      public void enter(BSTNode<?, ?> node) throws IOException {
+        out.append("{\"key\":").append(jsonValue(node.key)).append(",\"value\":")
+            .append(jsonValue(node.getValue())).append(",\"color\":\"").append(node.getColor())
+            .append(node.dead ? "\",\"dead\":true,\"left\":" : "\",\"left\":");
+        if (!node.hasLeftChild()) {
+          out.append("null");
+        }
+      }
+
+      @Override
+      public void between(BSTNode<?, ?> node) throws IOException {
+        out.append(",\"right\":");
+        if (!node.hasRightChild()) {
+          out.append("null");
+        }
+      }
+
+      @Override
+      public void leave(BSTNode<?, ?> node) throws IOException {
+        out.append("}");
+      }
+    });
+    out.append("\n");
+  }
+
+  /**
+   * Writes the tree as an SVG image. Each node is placed in its own column, given by its position
+   * in order, and in the row given by its depth, with a gap of one row between levels for the
+   * edges. Both are found during the walk, so no layout is computed or stored beforehand. The
+   * position of a child in order is that of its parent offset by the size of the subtree between
+   * them, which is counted by a walk of its own, so the export takes O(n log n) time for a
+   * balanced tree.
+   * 
+   * @param tree to be exported
+   * @param out  destination of the document
+   * @throws IOException if out cannot be written to
+   */
+  public static <K extends Comparable<K>, V> void writeSvg(BALST<K, V> tree, Appendable out)
+      throws IOException {
+    // A first walk finds the size of the image: the number of nodes, the longest key, and the
+    // deepest level
+    final int[] depth = new int[1];
+    final int[] size = new int[3]; // Number of nodes, longest key, and greatest depth
+    walk(tree.getRoot(), new NodeVisitor() {
+      @Override
+      public void enter(BSTNode<?, ?> node) {
+        ++size[0];
+        size[1] = Math.max(size[1], node.key.toString().length());
+        size[2] = Math.max(size[2], depth[0]);
+        ++depth[0];
+      }
+
+      @Override
+      public void between(BSTNode<?, ?> node) {}
+
+      @Override
+      public void leave(BSTNode<?, ?> node) {
+        --depth[0];
+      }
+    });
+    // Each node is as wide as the longest key, plus a character of padding on either side
+    final int nodeWidth = (size[1] + 2) * CHAR_WIDTH;
+    int width = size[0] * nodeWidth;
+    int height = size[0] == 0 ? 0 : (2 * size[2] + 1) * ROW_HEIGHT;
+
+    out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(Integer.toString(width))
+        .append("\" height=\"").append(Integer.toString(height))
+        .append("\" font-family=\"monospace\" font-size=\"12\">\n");
+    // Position in order of the next node to be placed
+    final int[] next = new int[1];
+    walk(tree.getRoot(), new NodeVisitor() {
+      @Override
+      public void enter(BSTNode<?, ?> node) throws IOException {
+        BSTNode<?, ?> parent = node.getParent();
+        if (parent != null) {
+          // Edges run from the bottom middle of the parent to the top middle of the child. A right
+          // child is entered just after its parent is placed, while the parent of a left child
+          // follows the child's right subtree.
+          int column = next[0] + subtreeSize(node.getLeftChild());
+          int parentColumn = parent.getRightChild() == node ? next[0] - 1
+              : column + 1 + subtreeSize(node.getRightChild());
+          line(out, parentColumn * nodeWidth + nodeWidth / 2, (2 * depth[0] - 1) * ROW_HEIGHT,
+              column * nodeWidth + nodeWidth / 2, 2 * depth[0] * ROW_HEIGHT);
+        }
+        ++depth[0];
+      }
+
+      @Override
+      public void between(BSTNode<?, ?> node) throws IOException {
+        int x = next[0]++ * nodeWidth;
+        int y = 2 * (depth[0] - 1) * ROW_HEIGHT;
+        String color = node.getColor().equals("R") ? "red" : "black";
+        out.append("  <rect x=\"").append(Integer.toString(x)).append("\" y=\"")
+            .append(Integer.toString(y)).append("\" width=\"").append(Integer.toString(nodeWidth))
+            .append("\" height=\"").append(Integer.toString(ROW_HEIGHT)).append("\" rx=\"4\" ");
+        // Tombstones are outlined in their color with a dashed line, rather than filled
+        if (node.dead) {
+          out.append("fill=\"white\" stroke=\"").append(color)
+              .append("\" stroke-dasharray=\"4\"/>\n");
+        } else {
+          out.append("fill=\"").append(color).append("\"/>\n");
+        }
+        out.append("  <text x=\"").append(Integer.toString(x + nodeWidth / 2)).append("\" y=\"")
+            .append(Integer.toString(y + ROW_HEIGHT - 5)).append("\" fill=\"")
+            .append(node.dead ? color : "white").append("\" text-anchor=\"middle\">")
+            .append(xmlEscape(node.key)).append("</text>\n");
+      }
+
+      @Override
+      public void leave(BSTNode<?, ?> node) {
+        --depth[0];
+      }
+    });
+    out.append("</svg>\n");
+  }
+
+  /**
+   * Counts the nodes of a subtree with a walk of its own.
+   * 
+   * @param root of subtree, or null
+   * @return number of nodes in subtree
+   */
+  private static int subtreeSize(BSTNode<?, ?> root) throws IOException {
+    final int[] count = new int[1];
+    walk(root, new NodeVisitor() {
+      @Override
+      public void enter(BSTNode<?, ?> node) {
+        ++count[0];
+      }
+
+      @Override
+      public void between(BSTNode<?, ?> node) {}
+
+      @Override
+      public void leave(BSTNode<?, ?> node) {}
+    });
+    return count[0];
+  }
+
+  /**
+   * Writes an SVG line element.
+   */
+  private static void line(Appendable out, int x1, int y1, int x2, int y2) throws IOException {
+    out.append("  <line x1=\"").append(Integer.toString(x1)).append("\" y1=\"")
+        .append(Integer.toString(y1)).append("\" x2=\"").append(Integer.toString(x2))
+        .append("\" y2=\"").append(Integer.toString(y2)).append("\" stroke=\"gray\"/>\n");
+  }
+
+  /**
+   * Returns the quoted DOT identifier of a node, based upon its key.
+   */
+  private static String dotId(BSTNode<?, ?> node) {
+    return "\"" + node.key.toString().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  /**
+   * Returns JSON representation of a key or value: numbers and booleans as they are, null as null,
+   * and everything else as a string. NaN and infinite floating point numbers have no JSON number
+   * form, so they are written as strings too.
+   */
+  private static String jsonValue(Object object) {
+    if (object == null) {
+      return "null";
+    }
+    boolean nonFinite = (object instanceof Double && !Double.isFinite((Double) object))
+        || (object instanceof Float && !Float.isFinite((Float) object));
+    if ((object instanceof Number && !nonFinite) || object instanceof Boolean) {
+      return object.toString();
+    }
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : object.toString().toCharArray()) {
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append("\"").toString();
+  }
+
+  /**
+   * Returns String representation of a key with XML special characters escaped.
+   */
+  private static String xmlEscape(Object object) {
+    return object.toString().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+}
@@ -0,0 +1,1151 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of the features BALST offers beyond BALSTADT. BALSTTest holds the contract every balance
+ * strategy and BTree must meet and is rerun by their test classes, so these tests of a single
+ * Red-Black BALST live apart from it and run once.
+ */
+@SuppressWarnings("rawtypes")
+public class BALSTFeatureTest {
+
+  /**
+   * Returns the greatest height allowed for a Red-Black tree holding numKeys keys, which is twice
+   * the logarithm of numKeys + 1.
+   */
+  private static double maxHeight(int numKeys) {
+    return 2 * Math.log(numKeys + 1) / Math.log(2);
+  }
+
+  /**
+   * Returns the rendering print() writes for tree, without the leading note.
+   * 
+   * @param tree     to be rendered
+   * @param parallel whether levels are rendered concurrently
+   * @return rendered levels
+   */
+  private static String render(BALST tree, boolean parallel) throws IOException {
+    StringBuilder out = new StringBuilder();
+    tree.renderLevels(parallel, out);
+    return out.toString();
+  }
+
+  @Test
+  void testBALST_009_parallel_render_matches_sequential() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 1; i <= 200; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      Assert.assertEquals(render(tree, false), render(tree, true));
+      // Each level has one line of nodes, marked "*" or "+", followed by lines of edges
+      Assert.assertEquals(tree.getHeight(), render(tree, true).lines()
+          .filter(line -> line.contains("*") || line.contains("+")).count());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 009: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_010_export_json() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      tree.insert(10, "10");
+      tree.insert(20, "20");
+      tree.insert(30, "30");
+      StringBuilder json = new StringBuilder();
+      BALSTExporter.writeJson(tree, json);
+      Assert.assertEquals("{\"key\":20,\"value\":\"20\",\"color\":\"B\",\"left\":"
+          + "{\"key\":10,\"value\":\"10\",\"color\":\"R\",\"left\":null,\"right\":null},"
+          + "\"right\":{\"key\":30,\"value\":\"30\",\"color\":\"R\",\"left\":null,"
+          + "\"right\":null}}\n", json.toString());
+
+      // SVG places nodes in columns by position in order, and rows by depth
+      StringBuilder svg = new StringBuilder();
+      BALSTExporter.writeSvg(tree, svg);
+      Assert.assertTrue(svg.toString().startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" "
+          + "width=\"120\" height=\"54\""));
+      Assert.assertTrue(svg.toString().contains("<rect x=\"0\" y=\"36\""));
+      Assert.assertTrue(svg.toString().contains("<rect x=\"40\" y=\"0\""));
+      Assert.assertTrue(svg.toString().contains("<rect x=\"80\" y=\"36\""));
+      Assert.assertTrue(svg.toString().contains("<line x1=\"60\" y1=\"18\" x2=\"20\" y2=\"36\""));
+      Assert.assertTrue(svg.toString().contains("<line x1=\"60\" y1=\"18\" x2=\"100\" y2=\"36\""));
+
+      // Tombstones are exported in place, marked as dead
+      tree.setTombstoneRatio(0.9);
+      tree.remove(30);
+      json.setLength(0);
+      BALSTExporter.writeJson(tree, json);
+      Assert.assertTrue(json.toString().contains("{\"key\":10,\"value\":\"10\",\"color\":\"R\","
+          + "\"left\":null"));
+      Assert.assertTrue(json.toString().contains("{\"key\":30,\"value\":null,\"color\":\"R\","
+          + "\"dead\":true,\"left\":null"));
+      StringBuilder dot = new StringBuilder();
+      BALSTExporter.writeDot(tree, dot);
+      Assert.assertTrue(dot.toString().contains("\"10\" [fillcolor=red];"));
+      Assert.assertTrue(
+          dot.toString().contains("\"30\" [style=dashed, color=red, fontcolor=red];"));
+      svg.setLength(0);
+      BALSTExporter.writeSvg(tree, svg);
+      Assert.assertTrue(svg.toString().contains("<rect x=\"0\" y=\"36\" width=\"40\" "
+          + "height=\"18\" rx=\"4\" fill=\"red\"/>"));
+      Assert.assertTrue(svg.toString().contains("<rect x=\"80\" y=\"36\" width=\"40\" "
+          + "height=\"18\" rx=\"4\" fill=\"white\" stroke=\"red\" stroke-dasharray=\"4\"/>"));
+
+      // Numbers without a JSON form are written as strings
+      BALST<Integer, Double> numbers = new BALST<Integer, Double>();
+      numbers.insert(1, Double.NaN);
+      numbers.insert(2, 0.5);
+      numbers.insert(3, Double.NEGATIVE_INFINITY);
+      json.setLength(0);
+      BALSTExporter.writeJson(numbers, json);
+      Assert.assertTrue(json.toString().contains("\"key\":1,\"value\":\"NaN\""));
+      Assert.assertTrue(json.toString().contains("\"key\":2,\"value\":0.5,"));
+      Assert.assertTrue(json.toString().contains("\"key\":3,\"value\":\"-Infinity\""));
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 010: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_011_snapshot_round_trip_and_checksum() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 1; i <= 300; ++i) {
+        tree.insert((i * 37) % 1009, i % 7 == 0 ? null : Integer.toString(i));
+      }
+      tree.remove(37);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BALSTSnapshot.save(tree, Channels.newChannel(bytes), Codec.INTEGER, Codec.STRING);
+
+      BALST<Integer, String> loaded = BALSTSnapshot.load(
+          Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), Codec.INTEGER,
+          Codec.STRING);
+      Assert.assertEquals(tree.numKeys(), loaded.numKeys());
+      Assert.assertEquals(tree.getPreOrderTraversal(), loaded.getPreOrderTraversal());
+      Assert.assertEquals(tree.getInOrderTraversal(), loaded.getInOrderTraversal());
+      Assert.assertEquals(tree.get(74), loaded.get(74));
+      Assert.assertEquals(render(tree, false), render(loaded, false));
+
+      byte[] corrupted = bytes.toByteArray();
+      corrupted[corrupted.length / 2] ^= 1;
+      try {
+        BALSTSnapshot.load(Channels.newChannel(new ByteArrayInputStream(corrupted)),
+            Codec.INTEGER, Codec.STRING);
+        fail("Corrupted snapshot was loaded");
+      } catch (IOException expected) {
+      }
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 011: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_012_mapped_file_lookups() {
+    try {
+      BALST<String, String> strings = new BALST<String, String>();
+      for (Integer i = 10; i <= 99; ++i) {
+        strings.insert(i.toString(), "v" + i);
+      }
+      Path path = Files.createTempFile("balst", ".map");
+      MappedBALST.write(strings, path, Codec.STRING, Codec.STRING);
+      try (MappedBALST<String, String> mapped =
+          MappedBALST.open(path, Codec.STRING, Codec.STRING)) {
+        Assert.assertEquals(strings.getKeyAtRoot(), mapped.getKeyAtRoot());
+        Assert.assertEquals(strings.getPreOrderTraversal(), mapped.getPreOrderTraversal());
+        Assert.assertEquals("v42", mapped.get("42"));
+        Assert.assertFalse(mapped.contains("100"));
+        List<String> range = new ArrayList<String>();
+        mapped.rangeScan("20", "25", (key, value) -> range.add(key));
+        Assert.assertEquals(Arrays.asList("20", "21", "22", "23", "24"), range);
+      } finally {
+        Files.delete(path);
+      }
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 012: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_013_write_ahead_log_recovery() {
+    try {
+      Path directory = Files.createTempDirectory("balst-wal");
+      try {
+        DurableBALST<Integer, String> durable =
+            DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 4, 0);
+        for (int i = 0; i < 100; ++i) {
+          durable.insert(i, Integer.toString(i));
+        }
+        durable.compact().get();
+        for (int i = 0; i < 50; i += 2) {
+          durable.remove(i);
+        }
+        List<Integer> expected = durable.getPreOrderTraversal();
+        durable.close();
+
+        DurableBALST<Integer, String> recovered =
+            DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 4, 0);
+        Assert.assertEquals(expected, recovered.getPreOrderTraversal());
+        Assert.assertEquals(75, recovered.numKeys());
+        Assert.assertEquals("99", recovered.get(99));
+        recovered.close();
+      } finally {
+        try (Stream<Path> paths = Files.walk(directory)) {
+          paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+      }
+
+      // Only the last log may end with a torn record, which recovery cuts off
+      directory = Files.createTempDirectory("balst-wal");
+      try {
+        DurableBALST<Integer, String> durable =
+            DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 1, 0);
+        for (int i = 0; i < 10; ++i) {
+          durable.insert(i, Integer.toString(i));
+        }
+        durable.close();
+        Path firstLog = directory.resolve("wal-1.log");
+        Files.write(firstLog, new byte[] {0, 0, 0, 20, 1, 2}, StandardOpenOption.APPEND);
+        durable = DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 1, 0);
+        Assert.assertEquals(10, durable.numKeys());
+        durable.insert(10, "10");
+        durable.close();
+        durable = DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 1, 0);
+        Assert.assertEquals(11, durable.numKeys());
+        durable.close();
+        byte[] damaged = Files.readAllBytes(firstLog);
+        damaged[damaged.length / 2] ^= 1;
+        Files.write(firstLog, damaged);
+        try {
+          DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 1, 0);
+          fail("Damaged log which isn't the last was replayed");
+        } catch (IOException expected) {
+        }
+      } finally {
+        try (Stream<Path> paths = Files.walk(directory)) {
+          paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+      }
+
+      // Failures of automatic compactions are reported, here once the compactor has finished
+      directory = Files.createTempDirectory("balst-wal");
+      try {
+        // Compacting the first log writes the second snapshot, whose path is taken
+        Files.createDirectory(directory.resolve("snapshot-2.tmp"));
+        DurableBALST<Integer, String> durable =
+            DurableBALST.open(directory, Codec.INTEGER, Codec.STRING, 1, 0);
+        durable.setCompactionThreshold(100);
+        for (int i = 0; i < 10; ++i) {
+          durable.insert(i, Integer.toString(i));
+        }
+        try {
+          durable.close();
+          fail("Failed compaction was not reported");
+        } catch (IOException expected) {
+        }
+      } finally {
+        try (Stream<Path> paths = Files.walk(directory)) {
+          paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+      }
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 013: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_014_cursor_seek_next_prev() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 0; i < 200; i += 2) {
+        tree.insert(i, Integer.toString(i));
+      }
+      Cursor<Integer, String> cursor = tree.cursor();
+      Assert.assertTrue(cursor.seek(40));
+      Assert.assertTrue(cursor.next());
+      Assert.assertEquals(Integer.valueOf(42), cursor.getKey());
+      // Seeks from the current position, landing on the next key when absent
+      Assert.assertFalse(cursor.seek(47));
+      Assert.assertEquals(Integer.valueOf(48), cursor.getKey());
+      Assert.assertTrue(cursor.prev());
+      Assert.assertEquals(Integer.valueOf(46), cursor.getKey());
+      cursor.setValue("changed");
+      Assert.assertEquals("changed", tree.get(46));
+      Assert.assertFalse(cursor.seek(199));
+      Assert.assertFalse(cursor.isValid());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 014: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_015_node_pool_reuse() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      tree.setNodePoolCapacity(2);
+      for (int i = 1; i <= 10; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      for (int i = 1; i <= 5; ++i) {
+        tree.remove(i);
+      }
+      Assert.assertEquals(2, tree.nodePoolSize());
+      tree.insert(11, "11");
+      Assert.assertEquals(1, tree.nodePoolSize());
+      Assert.assertEquals("11", tree.get(11));
+      Assert.assertEquals(Arrays.asList(6, 7, 8, 9, 10, 11), tree.getInOrderTraversal());
+      tree.setNodePoolCapacity(0);
+      Assert.assertEquals(0, tree.nodePoolSize());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 015: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_016_freeze() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 1; i <= 7; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      FrozenBALST<Integer, String> frozen = tree.freeze();
+      tree.remove(3);
+      Assert.assertEquals(7, frozen.numKeys());
+      Assert.assertEquals("3", frozen.get(3));
+      Assert.assertFalse(frozen.contains(8));
+      // Frozen copy is a complete tree: 4 at the root, then 2 and 6
+      Assert.assertEquals(Integer.valueOf(4), frozen.getKeyAtRoot());
+      Assert.assertEquals(Integer.valueOf(2), frozen.getKeyOfLeftChildOf(4));
+      Assert.assertEquals(Integer.valueOf(6), frozen.getKeyOfRightChildOf(4));
+      Assert.assertEquals(3, frozen.getHeight());
+      Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), frozen.getInOrderTraversal());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 016: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_018_server_pipelined_requests() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      try (BALSTServer<Integer, String> server =
+          BALSTServer.start(tree, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+              Codec.INTEGER, Codec.STRING);
+          BALSTClient<Integer, String> client =
+              BALSTClient.connect(server.getAddress(), Codec.INTEGER, Codec.STRING)) {
+        // Pipelined inserts arrive out of order and are applied as one sorted batch
+        for (int i = 99; i >= 0; --i) {
+          client.send(BALSTServer.INSERT, i, Integer.toString(i), null);
+        }
+        client.send(BALSTServer.REMOVE, 50, null, null);
+        client.send(BALSTServer.GET, 50, null, null);
+        client.flush();
+        for (int i = 0; i < 101; ++i) {
+          Assert.assertEquals(BALSTServer.OK, client.receive());
+        }
+        Assert.assertEquals(BALSTServer.NOT_FOUND, client.receive());
+
+        Assert.assertEquals("42", client.get(42));
+        Assert.assertTrue(client.contains(99));
+        Assert.assertFalse(client.contains(50));
+        try {
+          client.insert(7, "again");
+          fail("Duplicate key was inserted");
+        } catch (DuplicateKeyException expected) {
+        }
+        List<Integer> range = new ArrayList<Integer>();
+        client.rangeScan(48, 53, (key, value) -> range.add(key));
+        Assert.assertEquals(Arrays.asList(48, 49, 51, 52), range);
+        Assert.assertTrue(client.remove(0));
+      }
+      Assert.assertEquals(98, tree.numKeys());
+
+      // A pipeline far larger than the socket buffers in both directions, sent before any
+      // response is read
+      char[] filler = new char[16 << 10];
+      Arrays.fill(filler, 'x');
+      String large = new String(filler);
+      try (BALSTServer<Integer, String> server =
+          BALSTServer.start(tree, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+              Codec.INTEGER, Codec.STRING);
+          BALSTClient<Integer, String> client =
+              BALSTClient.connect(server.getAddress(), Codec.INTEGER, Codec.STRING)) {
+        for (int i = 1000; i < 3000; ++i) {
+          client.send(BALSTServer.INSERT, i, large, null);
+          client.send(BALSTServer.GET, i, null, null);
+        }
+        client.flush();
+        for (int i = 1000; i < 3000; ++i) {
+          Assert.assertEquals(BALSTServer.OK, client.receive());
+          Assert.assertEquals(BALSTServer.OK, client.receive());
+          Assert.assertEquals(large, client.getValue());
+        }
+      }
+      Assert.assertEquals(2098, tree.numKeys());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 018: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_019_tombstones_and_compaction() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 0; i < 100; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      tree.setTombstoneRatio(0.5);
+      for (int i = 0; i < 100; i += 2) {
+        tree.remove(i);
+      }
+      // Half of the nodes are tombstones, which is not yet over the ratio
+      Assert.assertEquals(50, tree.tombstoneCount());
+      Assert.assertEquals(50, tree.numKeys());
+      Assert.assertFalse(tree.contains(10));
+      Assert.assertEquals(Arrays.asList(1, 3, 5), tree.getInOrderTraversal().subList(0, 3));
+      Cursor<Integer, String> cursor = tree.cursor();
+      Assert.assertFalse(cursor.seek(10));
+      Assert.assertEquals(Integer.valueOf(11), cursor.getKey());
+      try {
+        tree.remove(10);
+        fail("Tombstone was removed again");
+      } catch (KeyNotFoundException expected) {
+      }
+      // Inserting a removed key revives its node
+      tree.insert(10, "ten");
+      Assert.assertEquals("ten", tree.get(10));
+      Assert.assertEquals(49, tree.tombstoneCount());
+      // Saving skips tombstones without compacting the tree, so cursors stay valid
+      Assert.assertTrue(cursor.seek(11));
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BALSTSnapshot.save(tree, Channels.newChannel(bytes), Codec.INTEGER, Codec.STRING);
+      BALST<Integer, String> loaded = BALSTSnapshot.load(
+          Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), Codec.INTEGER,
+          Codec.STRING);
+      Assert.assertEquals(49, tree.tombstoneCount());
+      Assert.assertEquals(Integer.valueOf(11), cursor.getKey());
+      Assert.assertEquals(tree.getInOrderTraversal(), loaded.getInOrderTraversal());
+      Assert.assertEquals(0, loaded.tombstoneCount());
+      Assert.assertEquals(6, loaded.getHeight());
+      Path path = Files.createTempFile("balst", ".map");
+      MappedBALST.write(tree, path, Codec.INTEGER, Codec.STRING);
+      try (MappedBALST<Integer, String> mapped =
+          MappedBALST.open(path, Codec.INTEGER, Codec.STRING)) {
+        Assert.assertEquals(loaded.getPreOrderTraversal(), mapped.getPreOrderTraversal());
+        Assert.assertEquals("ten", mapped.get(10));
+        Assert.assertFalse(mapped.contains(12));
+      } finally {
+        Files.delete(path);
+      }
+      Assert.assertEquals(49, tree.tombstoneCount());
+
+      tree.remove(10);
+      tree.remove(1);
+      Assert.assertEquals(0, tree.tombstoneCount());
+      Assert.assertEquals(49, tree.numKeys());
+      Assert.assertEquals(6, tree.getHeight());
+      Assert.assertFalse(tree.contains(1));
+      Assert.assertEquals("99", tree.get(99));
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 019: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_020_remove_and_compute_range() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      for (int i = 0; i < 100; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      Assert.assertEquals(10, tree.computeRange(20, 30, (key, value) -> value + "!"));
+      Assert.assertEquals("25!", tree.get(25));
+      Assert.assertEquals("30", tree.get(30));
+
+      Assert.assertEquals(0, tree.removeRange(50, 50));
+      Assert.assertEquals(40, tree.removeRange(10, 50));
+      Assert.assertEquals(60, tree.numKeys());
+      Assert.assertFalse(tree.contains(10));
+      Assert.assertFalse(tree.contains(49));
+      Assert.assertEquals("9", tree.get(9));
+      Assert.assertEquals("50", tree.get(50));
+      Assert.assertEquals(Arrays.asList(8, 9, 50, 51), tree.getInOrderTraversal().subList(8, 12));
+      Assert.assertTrue(tree.getHeight() <= maxHeight(tree.numKeys()));
+
+      // Expires every key below a cutoff
+      Assert.assertEquals(20, tree.removeRange(-1, 60));
+      Assert.assertEquals(Integer.valueOf(60), tree.getInOrderTraversal().get(0));
+      Assert.assertEquals(40, tree.removeRange(0, 1000));
+      Assert.assertEquals(0, tree.numKeys());
+      Assert.assertNull(tree.getKeyAtRoot());
+      tree.insert(1, "1");
+      Assert.assertEquals("1", tree.get(1));
+
+      try {
+        tree.removeRange(null, 5);
+        fail("Null key was accepted");
+      } catch (IllegalNullKeyException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 020: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_021_range_aggregates() {
+    try {
+      BALST<Integer, Integer> sums = new BALST<Integer, Integer>();
+      sums.setMonoid(Monoid.of(0, Integer::sum));
+      for (int i = 1; i <= 100; ++i) {
+        sums.insert(i, i);
+      }
+      Assert.assertEquals(Integer.valueOf(5050), sums.aggregate(0, 1000));
+      Assert.assertEquals(Integer.valueOf(10 + 11 + 12), sums.aggregate(10, 13));
+      Assert.assertEquals(Integer.valueOf(0), sums.aggregate(13, 10));
+      sums.remove(11);
+      Cursor<Integer, Integer> cursor = sums.cursor();
+      cursor.seek(12);
+      cursor.setValue(100);
+      Assert.assertEquals(Integer.valueOf(10 + 100), sums.aggregate(10, 13));
+      sums.removeRange(1, 50);
+      Assert.assertEquals(Integer.valueOf(5050 - 49 * 50 / 2), sums.aggregate(0, 1000));
+
+      // The combiner need not be commutative, so values are combined in key order
+      BALST<Integer, String> strings = new BALST<Integer, String>();
+      for (int i = 0; i < 26; ++i) {
+        strings.insert(i, Character.toString((char) ('a' + i)));
+      }
+      strings.setMonoid(Monoid.of("", String::concat));
+      Assert.assertEquals("cdefg", strings.aggregate(2, 7));
+      strings.remove(4);
+      strings.computeRange(5, 7, (key, value) -> value.toUpperCase());
+      Assert.assertEquals("cdFG", strings.aggregate(2, 7));
+
+      try {
+        new BALST<Integer, String>().aggregate(0, 1);
+        fail("Aggregate without monoid was accepted");
+      } catch (IllegalStateException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 021: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_022_interval_tree() {
+    try {
+      IntervalTree<Integer, String> windows = new IntervalTree<Integer, String>();
+      windows.insert(0, 10, "a");
+      windows.insert(5, 15, "b");
+      windows.insert(5, 8, "c");
+      windows.insert(20, 30, "d");
+      windows.insert(12, 40, "e");
+      Assert.assertEquals(5, windows.numKeys());
+      Assert.assertEquals("c", windows.get(5, 8));
+
+      List<String> found = new ArrayList<String>();
+      windows.stabbing(7).forEachRemaining(entry -> found.add(entry.getValue()));
+      Assert.assertEquals(Arrays.asList("a", "c", "b"), found);
+      found.clear();
+      // Intervals are half-open, so [0, 10) does not contain 10
+      windows.stabbing(10).forEachRemaining(entry -> found.add(entry.getValue()));
+      Assert.assertEquals(Arrays.asList("b"), found);
+      found.clear();
+      windows.overlapping(15, 21).forEachRemaining(entry -> found.add(entry.getKey().toString()));
+      Assert.assertEquals(Arrays.asList("[12, 40)", "[20, 30)"), found);
+
+      windows.remove(12, 40);
+      Assert.assertFalse(windows.contains(12, 40));
+      Assert.assertFalse(windows.overlapping(15, 20).hasNext());
+
+      Iterator<Map.Entry<Interval<Integer>, String>> results = windows.stabbing(6);
+      windows.insert(100, 200, "f");
+      try {
+        results.hasNext();
+        fail("Modification during iteration was not detected");
+      } catch (ConcurrentModificationException expected) {
+      }
+      try {
+        windows.insert(3, 3, "empty");
+        fail("Empty interval was accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 022: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_023_multimap() {
+    try {
+      MultiBALST<String, Integer> events = new MultiBALST<String, Integer>();
+      events.insert("open", 1);
+      events.insert("close", 2);
+      events.insert("open", 3);
+      events.insert("open", 4);
+      Assert.assertEquals(4, events.numKeys());
+      Assert.assertEquals(2, events.numDistinctKeys());
+      Assert.assertEquals(3, events.count("open"));
+      Assert.assertEquals(Arrays.asList(1, 3, 4), events.get("open"));
+      Assert.assertEquals(Arrays.asList("close", "open", "open", "open"),
+          events.getInOrderTraversal());
+      List<String> keys = events.getInOrderTraversal();
+      Assert.assertEquals("open", keys.get(3));
+      Assert.assertEquals("close", keys.get(0));
+      events.insert("close", 5);
+      try {
+        keys.get(0);
+        fail("Traversal was read after the multimap was modified");
+      } catch (ConcurrentModificationException expected) {
+      }
+      Assert.assertEquals(Integer.valueOf(5), events.remove("close"));
+
+      Assert.assertEquals(Integer.valueOf(4), events.remove("open"));
+      Assert.assertEquals(1, events.removeAll("close"));
+      Assert.assertFalse(events.contains("close"));
+      List<String> entries = new ArrayList<String>();
+      events.iterator().forEachRemaining(entry -> entries.add(entry.toString()));
+      Assert.assertEquals(Arrays.asList("open=1", "open=3"), entries);
+
+      // Without values, a key's occurrences are only counted
+      MultiBALST<Integer, Void> counts = new MultiBALST<Integer, Void>();
+      for (int i = 0; i < 1000; ++i) {
+        counts.insert(i % 3, null);
+      }
+      Assert.assertEquals(334, counts.count(0));
+      Assert.assertEquals(3, counts.numDistinctKeys());
+      Assert.assertEquals(2, counts.getHeight());
+
+      try {
+        events.remove("close");
+        fail("Absent key was removed");
+      } catch (KeyNotFoundException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 023: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_024_comparators_and_string_prefixes() {
+    try {
+      BALST<Integer, String> reversed = new BALST<Integer, String>(Comparator.reverseOrder());
+      for (int i = 0; i < 10; ++i) {
+        reversed.insert(i, Integer.toString(i));
+      }
+      Assert.assertEquals(Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1, 0),
+          reversed.getInOrderTraversal());
+      reversed.remove(5);
+      Assert.assertEquals("4", reversed.get(4));
+      Assert.assertEquals(3, reversed.removeRange(8, 4));
+      Assert.assertEquals(Arrays.asList(9, 4, 3), reversed.getInOrderTraversal().subList(0, 3));
+      Assert.assertEquals("9", reversed.freeze().get(9));
+
+      BALST<String, Integer> caseless =
+          new BALST<String, Integer>(String.CASE_INSENSITIVE_ORDER, BalanceStrategy.AVL);
+      caseless.insert("Apple", 1);
+      try {
+        caseless.insert("APPLE", 2);
+        fail("Key equal under comparator was inserted");
+      } catch (DuplicateKeyException expected) {
+      }
+      Assert.assertEquals(Integer.valueOf(1), caseless.get("apple"));
+
+      // Keys sharing their first chars are ordered by the rest of the key
+      BALST<String, Integer> strings = new BALST<String, Integer>();
+      List<String> keys = Arrays.asList("abcdefgh", "abcd", "abcdz", "abc", "abc\0", "ab", "b",
+          "", "abcdefg\uffff");
+      for (String key : keys) {
+        strings.insert(key, key.length());
+      }
+      List<String> sorted = new ArrayList<String>(keys);
+      sorted.sort(null);
+      Assert.assertEquals(sorted, strings.getInOrderTraversal());
+      for (String key : keys) {
+        Assert.assertEquals(Integer.valueOf(key.length()), strings.get(key));
+      }
+      Assert.assertFalse(strings.contains("abcdefgi"));
+
+      // Loaded trees of String keys compare by prefix too, including with keys inserted later
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BALSTSnapshot.save(strings, Channels.newChannel(bytes), Codec.STRING, Codec.INTEGER);
+      BALST<String, Integer> loaded = BALSTSnapshot.load(
+          Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), Codec.STRING,
+          Codec.INTEGER);
+      loaded.insert("abcda", 5);
+      loaded.remove("abcd");
+      sorted.add("abcda");
+      sorted.remove("abcd");
+      sorted.sort(null);
+      Assert.assertEquals(sorted, loaded.getInOrderTraversal());
+      Assert.assertEquals(Integer.valueOf(8), loaded.get("abcdefgh"));
+
+      try {
+        BALSTSnapshot.save(reversed, Channels.newChannel(new ByteArrayOutputStream()),
+            Codec.INTEGER, Codec.STRING);
+        fail("Tree with comparator was saved");
+      } catch (IllegalArgumentException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 024: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_025_set() {
+    try {
+      BALSTSet<Integer> set = new BALSTSet<Integer>();
+      for (int i = 0; i < 20; i += 2) {
+        Assert.assertTrue(set.add(i));
+      }
+      Assert.assertFalse(set.add(4));
+      Assert.assertEquals(10, set.numKeys());
+      Assert.assertTrue(set.contains(6));
+      Assert.assertFalse(set.contains(7));
+      Assert.assertEquals(Integer.valueOf(8), set.ceiling(7));
+      Assert.assertEquals(Integer.valueOf(6), set.floor(7));
+      Assert.assertEquals(Integer.valueOf(6), set.floor(6));
+      Assert.assertEquals(Integer.valueOf(18), set.floor(100));
+      Assert.assertNull(set.floor(-1));
+      Assert.assertNull(set.ceiling(19));
+
+      Assert.assertTrue(set.remove(6));
+      Assert.assertFalse(set.remove(6));
+      List<Integer> keys = new ArrayList<Integer>();
+      for (Integer key : set) {
+        keys.add(key);
+      }
+      Assert.assertEquals(Arrays.asList(0, 2, 4, 8, 10, 12, 14, 16, 18), keys);
+      Assert.assertEquals(keys, set.getInOrderTraversal());
+      Assert.assertTrue(set.getHeight() <= maxHeight(set.numKeys()));
+
+      BALSTSet<String> reversed = new BALSTSet<String>(Comparator.reverseOrder());
+      reversed.add("a");
+      reversed.add("b");
+      Assert.assertEquals(Arrays.asList("b", "a"), reversed.getInOrderTraversal());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 025: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_026_lookup_cache() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      tree.setLookupCacheCapacity(4);
+      for (int i = 0; i < 100; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      for (int round = 0; round < 10; ++round) {
+        Assert.assertEquals("7", tree.get(7));
+      }
+      Assert.assertEquals(9, tree.lookupCacheHits());
+      Assert.assertEquals(1, tree.lookupCacheMisses());
+
+      // Cached nodes stay correct through rotations, and removed keys leave the cache
+      for (int i = 100; i < 200; ++i) {
+        tree.insert(i, Integer.toString(i));
+      }
+      Assert.assertEquals("7", tree.get(7));
+      tree.remove(7);
+      Assert.assertFalse(tree.contains(7));
+      tree.get(3);
+      // Removing 3 moves its successor 4 into its node, so the cached entry for 4 must be dropped
+      tree.get(4);
+      tree.remove(3);
+      Assert.assertEquals("4", tree.get(4));
+      Assert.assertFalse(tree.contains(3));
+      for (int i = 0; i < 50; ++i) {
+        tree.get(i + 10);
+      }
+      tree.removeRange(0, 50);
+      Assert.assertFalse(tree.contains(20));
+      Assert.assertEquals("50", tree.get(50));
+
+      tree.setLookupCacheCapacity(0);
+      Assert.assertEquals(0, tree.lookupCacheHits());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 026: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_027_membership_filter() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      tree.setMembershipFilter(0.01);
+      for (int i = 0; i < 1000; i += 2) {
+        tree.insert(i, Integer.toString(i));
+      }
+      // Present keys always pass the filter, through its rebuilds as the tree grew
+      for (int i = 0; i < 1000; i += 2) {
+        Assert.assertTrue(tree.contains(i));
+      }
+      Assert.assertEquals(0, tree.membershipFilterRejections());
+      for (int i = 1; i < 1000; i += 2) {
+        Assert.assertFalse(tree.contains(i));
+      }
+      Assert.assertEquals(500,
+          tree.membershipFilterRejections() + tree.membershipFilterFalsePositives());
+      Assert.assertTrue(tree.membershipFilterFalsePositives() < 50);
+
+      // Removed keys are not found, and reinserted keys are
+      for (int i = 0; i < 800; i += 2) {
+        tree.remove(i);
+      }
+      Assert.assertFalse(tree.contains(0));
+      Assert.assertEquals("800", tree.get(800));
+      tree.insert(0, "zero");
+      Assert.assertEquals("zero", tree.get(0));
+      tree.removeRange(0, 900);
+      Assert.assertFalse(tree.contains(0));
+      Assert.assertEquals(50, tree.numKeys());
+
+      try {
+        tree.setMembershipFilter(1);
+        fail("False positive rate of 1 was accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+      tree.setMembershipFilter(0);
+      Assert.assertEquals(0, tree.membershipFilterBytes());
+      Assert.assertTrue(tree.contains(998));
+
+      // Keys equal by a comparator may have different hashCodes, so such trees aren't filtered
+      BALST<String, String> names = new BALST<String, String>(String.CASE_INSENSITIVE_ORDER);
+      try {
+        names.setMembershipFilter(0.01);
+        fail("Filter of tree with comparator was accepted");
+      } catch (IllegalStateException expected) {
+      }
+      names.insert("Foo", "bar");
+      Assert.assertTrue(names.contains("foo"));
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 027: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_028_first_and_last_keys() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      Assert.assertNull(tree.firstKey());
+      Assert.assertNull(tree.lastKey());
+      // Increasing keys are appended at the largest node, and decreasing ones at the smallest
+      for (int i = 0; i < 100; ++i) {
+        tree.insert(i, Integer.toString(i));
+        tree.insert(-i - 1, Integer.toString(-i - 1));
+      }
+      Assert.assertEquals(-100, (int) tree.firstKey());
+      Assert.assertEquals(99, (int) tree.lastKey());
+      Assert.assertEquals(Integer.valueOf(-100), tree.getInOrderTraversal().get(0));
+      Assert.assertTrue(tree.getHeight() <= 2 * (32 - Integer.numberOfLeadingZeros(201)));
+      Assert.assertEquals("50", tree.get(50));
+
+      tree.remove(99);
+      tree.remove(-100);
+      Assert.assertEquals(-99, (int) tree.firstKey());
+      Assert.assertEquals(98, (int) tree.lastKey());
+      tree.removeRange(50, 200);
+      Assert.assertEquals(49, (int) tree.lastKey());
+      tree.insert(1000, "1000");
+      Assert.assertEquals(1000, (int) tree.lastKey());
+
+      // Removed ends are skipped while they are tombstones
+      tree.setTombstoneRatio(0.5);
+      tree.remove(1000);
+      tree.remove(-99);
+      Assert.assertEquals(-98, (int) tree.firstKey());
+      Assert.assertEquals(49, (int) tree.lastKey());
+      tree.removeRange(-200, 200);
+      Assert.assertNull(tree.firstKey());
+      Assert.assertNull(tree.lastKey());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 028: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_029_batch_lookups() {
+    try {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      Assert.assertEquals(Arrays.asList(null, null), tree.getAll(Arrays.asList(1, 2)));
+      for (int i = 0; i < 20000; i += 2) {
+        tree.insert(i, -i);
+      }
+      // Results are in probe order, with repeated keys and null for absent ones
+      Assert.assertEquals(Arrays.asList(-10, null, -4, -10, null, 0),
+          tree.getAll(Arrays.asList(10, 7, 4, 10, 20000, 0)));
+      Assert.assertTrue(tree.containsAll(Arrays.asList(18, 2, 18)));
+      Assert.assertFalse(tree.containsAll(Arrays.asList(18, 3)));
+      Assert.assertTrue(tree.containsAll(new ArrayList<Integer>()));
+
+      // Batches large enough to be split between threads
+      List<Integer> probes = new ArrayList<Integer>();
+      for (int i = 19999; i >= 0; --i) {
+        probes.add(i);
+      }
+      List<Integer> values = tree.getAll(probes, true);
+      for (int i = 0; i < probes.size(); ++i) {
+        int key = probes.get(i);
+        Assert.assertEquals(key % 2 == 0 ? Integer.valueOf(-key) : null, values.get(i));
+      }
+      Assert.assertFalse(tree.containsAll(probes, true));
+      probes.removeIf(key -> key % 2 == 1);
+      Assert.assertTrue(tree.containsAll(probes, true));
+
+      try {
+        tree.getAll(Arrays.asList(1, null));
+        fail("Null key in batch was accepted");
+      } catch (IllegalNullKeyException expected) {
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 029: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_030_sharded_tree() {
+    try {
+      ShardedBALST<Integer, Integer> sharded = new ShardedBALST<Integer, Integer>(4);
+      TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+      Random random = new Random(30);
+      // Increasing keys skew every insert to the last shard, which is split as it grows
+      for (int i = 0; i < 30000; ++i) {
+        int key = i < 15000 ? i : random.nextInt(1000000);
+        if (!expected.containsKey(key)) {
+          sharded.insert(key, -key);
+          expected.put(key, -key);
+        }
+      }
+      Assert.assertEquals(4, sharded.numShards());
+      Assert.assertEquals(expected.size(), sharded.numKeys());
+      Assert.assertEquals(new ArrayList<Integer>(expected.keySet()),
+          sharded.getInOrderTraversal());
+      int largest = 0;
+      for (int size : sharded.shardSizes()) {
+        largest = Math.max(largest, size);
+      }
+      Assert.assertTrue(largest <= 2 * expected.size() / 4 + 2 * ShardedBALST.MIN_SHARD_SIZE);
+      Assert.assertEquals(Integer.valueOf(-14999), sharded.get(14999));
+      Assert.assertFalse(sharded.contains(-1));
+
+      // Structural queries describe one Red-Black tree of every key
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+        tree.insert(entry.getKey(), entry.getValue());
+      }
+      Assert.assertEquals(tree.getKeyAtRoot(), sharded.getKeyAtRoot());
+      Assert.assertEquals(tree.getHeight(), sharded.getHeight());
+      Assert.assertEquals(tree.getLevelOrderTraversal(), sharded.getLevelOrderTraversal());
+
+      // Writers on several threads
+      ShardedBALST<Integer, Integer> concurrent = new ShardedBALST<Integer, Integer>(4);
+      Thread[] writers = new Thread[4];
+      for (int t = 0; t < writers.length; ++t) {
+        final int offset = t;
+        writers[t] = new Thread(() -> {
+          try {
+            for (int key = offset; key < 40000; key += 4) {
+              concurrent.insert(key, key);
+            }
+            for (int key = offset; key < 40000; key += 8) {
+              concurrent.remove(key);
+            }
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        });
+        writers[t].start();
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+      Assert.assertEquals(20000, concurrent.numKeys());
+      List<Integer> keys = concurrent.getInOrderTraversal();
+      Assert.assertEquals(20000, keys.size());
+      for (int i = 0; i < keys.size(); ++i) {
+        Assert.assertEquals(i / 4 * 8 + 4 + i % 4, (int) keys.get(i));
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 030: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void testBALST_031_structural_events() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      try {
+        tree.eventReader();
+        fail("Reader of disabled events was created");
+      } catch (IllegalStateException expected) {
+      }
+      tree.setEventCapacity(16);
+      TreeEventReader<Integer> reader = tree.eventReader();
+      tree.insert(1, "one");
+      tree.insert(2, "two");
+      tree.insert(3, "three");
+      List<String> events = new ArrayList<String>();
+      Assert.assertEquals(6, reader.drain(event -> events.add(event.toString())));
+      Assert.assertEquals(Arrays.asList("0 INSERTED 1 (B) as root",
+          "1 INSERTED 2 (R) as right child of 1", "2 INSERTED 3 (R) as right child of 2",
+          "3 ROTATED_LEFT 1", "4 RECOLORED 2 B", "5 RECOLORED 1 R"), events);
+      Assert.assertNull(reader.poll());
+
+      // Removing the root moves its successor's key into it
+      tree.remove(2);
+      TreeEvent<Integer> removed = reader.poll();
+      Assert.assertEquals(TreeEvent.Type.REMOVED, removed.getType());
+      Assert.assertEquals(3, (int) removed.getKey());
+      TreeEvent<Integer> replaced = reader.poll();
+      Assert.assertEquals(TreeEvent.Type.REPLACED, replaced.getType());
+      Assert.assertEquals(2, (int) replaced.getKey());
+      Assert.assertEquals(3, (int) replaced.getRelatedKey());
+      Assert.assertNull(reader.poll());
+
+      // Bulk operations, and readers falling behind, reset views
+      tree.removeRange(0, 2);
+      Assert.assertEquals(TreeEvent.Type.RESET, reader.poll().getType());
+      for (int i = 10; i < 100; ++i) {
+        tree.insert(i, "many");
+      }
+      Assert.assertEquals(TreeEvent.Type.RESET, reader.poll().getType());
+      Assert.assertNull(reader.poll());
+      tree.insert(5, "five");
+      Assert.assertEquals(TreeEvent.Type.INSERTED, reader.poll().getType());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 031: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Tests that inserts and removes can be undone and redone, restoring exactly the earlier
+   * renderings of the tree, that history is bounded, and that a new operation discards what could
+   * be redone.
+   */
+  @Test
+  void testBALST_032_undo_redo() {
+    try {
+      BALST<Integer, String> tree = new BALST<Integer, String>();
+      try {
+        tree.setHistoryCapacity(-1);
+        fail("Negative history capacity was accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+      Assert.assertFalse(tree.undo());
+      tree.setHistoryCapacity(3);
+      List<String> renderings = new ArrayList<String>();
+      renderings.add(render(tree, false));
+      for (int i = 1; i <= 3; ++i) {
+        tree.insert(i, "value " + i);
+        renderings.add(render(tree, false));
+      }
+      tree.remove(2);
+      renderings.add(render(tree, false));
+
+      // Only the last three operations can be undone
+      for (int i = 3; i >= 1; --i) {
+        Assert.assertTrue(tree.undo());
+        Assert.assertEquals(renderings.get(i), render(tree, false));
+      }
+      Assert.assertFalse(tree.undo());
+      Assert.assertEquals(1, tree.numKeys());
+      Assert.assertFalse(tree.contains(2));
+      Assert.assertTrue(tree.redo());
+      Assert.assertTrue(tree.redo());
+      Assert.assertEquals(renderings.get(3), render(tree, false));
+      Assert.assertEquals("value 2", tree.get(2));
+      Assert.assertEquals(3, (int) tree.lastKey());
+
+      // A new operation discards the undone remove
+      tree.insert(4, "value 4");
+      Assert.assertFalse(tree.redo());
+      Assert.assertTrue(tree.undo());
+      Assert.assertEquals(renderings.get(3), render(tree, false));
+
+      // Bulk operations clear the history
+      tree.removeRange(1, 3);
+      Assert.assertFalse(tree.undo());
+      Assert.assertEquals(1, tree.numKeys());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 032: " + e.getMessage());
+    }
+  }
+
+}
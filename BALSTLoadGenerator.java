@@ -0,0 +1,194 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * LOAD GENERATOR: Main driver which measures throughput and latency of a BALSTServer on one
+ * machine. Each connection runs on its own thread, and repeatedly sends a pipeline of random
+ * requests (gets, or else inserts and removes) over Integer keys and values, and waits for their
+ * responses. Latency is measured per round trip of a pipeline.
+ * 
+ * Usage: java BALSTLoadGenerator [address] [connections] [depth] [seconds] [keys] [read percent],
+ * where address is "tcp:port" or "unix:path" of a running server, or "local" (the default) or
+ * "local-unix" to start a server in this process, holding half of the keys to begin with. Defaults
+ * are 8 connections, depth 32, 10 seconds, 1000000 keys, and 90 percent reads.
+ * 
+ * @author Matthew Karrmann
+ */
+public class BALSTLoadGenerator {
+
+  /**
+   * Results of one connection.
+   */
+  private static class Results {
+    long operations;
+    long[] latencies = new long[1024]; // Nanoseconds per round trip
+    int rounds;
+
+    void record(long latency) {
+      if (rounds == latencies.length) {
+        latencies = Arrays.copyOf(latencies, 2 * rounds);
+      }
+      latencies[rounds++] = latency;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    String target = args.length > 0 ? args[0] : "local";
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int depth = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+    int keys = args.length > 4 ? Integer.parseInt(args[4]) : 1000000;
+    int readPercent = args.length > 5 ? Integer.parseInt(args[5]) : 90;
+
+    BALSTServer<Integer, Integer> server = null;
+    Path socketDirectory = null;
+    SocketAddress address;
+    if (target.startsWith("local")) {
+      BALST<Integer, Integer> tree = new BALST<Integer, Integer>();
+      Random random = new Random(400);
+      while (tree.numKeys() < keys / 2) {
+        int key = random.nextInt(keys);
+        if (!tree.contains(key)) {
+          tree.insert(key, key);
+        }
+      }
+      if (target.equals("local-unix")) {
+        socketDirectory = Files.createTempDirectory("balst-server");
+        address = UnixDomainSocketAddress.of(socketDirectory.resolve("balst.sock"));
+      } else {
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+      }
+      server = BALSTServer.start(tree, address, Codec.INTEGER, Codec.INTEGER);
+      address = server.getAddress();
+    } else if (target.startsWith("tcp:")) {
+      address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+          Integer.parseInt(target.substring(4)));
+    } else if (target.startsWith("unix:")) {
+      address = UnixDomainSocketAddress.of(target.substring(5));
+    } else {
+      throw new IllegalArgumentException("Unknown address " + target);
+    }
+
+    System.out.printf("%s: %d connections, pipeline depth %d, %d%% reads, %d keys%n", address,
+        connections, depth, readPercent, keys);
+    Results[] results = new Results[connections];
+    Thread[] threads = new Thread[connections];
+    long deadline = System.nanoTime() + seconds * 1000000000L;
+    for (int c = 0; c < connections; ++c) {
+      final Results result = results[c] = new Results();
+      final SocketAddress connectTo = address;
+      final long seed = 400 + c;
+      threads[c] = new Thread(() -> {
+        try {
+          run(connectTo, depth, keys, readPercent, seed, deadline, result);
+        } catch (Exception e) {
+          e.printStackTrace();
+        }
+      });
+      threads[c].start();
+    }
+    long start = System.nanoTime();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - start;
+    report(results, elapsed);
+
+    if (server != null) {
+      server.close();
+    }
+    if (socketDirectory != null) {
+      Files.deleteIfExists(socketDirectory);
+    }
+  }
+
+  /**
+   * Sends pipelines of random requests on one connection until deadline.
+   */
+  private static void run(SocketAddress address, int depth, int keys, int readPercent, long seed,
+      long deadline, Results result) throws Exception {
+    Random random = new Random(seed);
+    try (BALSTClient<Integer, Integer> client =
+        BALSTClient.connect(address, Codec.INTEGER, Codec.INTEGER)) {
+      while (System.nanoTime() < deadline) {
+        for (int i = 0; i < depth; ++i) {
+          Integer key = random.nextInt(keys);
+          if (random.nextInt(100) < readPercent) {
+            client.send(BALSTServer.GET, key, null, null);
+          } else if (random.nextBoolean()) {
+            client.send(BALSTServer.INSERT, key, key, null);
+          } else {
+            client.send(BALSTServer.REMOVE, key, null, null);
+          }
+        }
+        long sent = System.nanoTime();
+        client.flush();
+        for (int i = 0; i < depth; ++i) {
+          client.receive();
+        }
+        result.record(System.nanoTime() - sent);
+        result.operations += depth;
+      }
+    }
+  }
+
+  /**
+   * Prints throughput over every connection, and percentiles of round trip latency.
+   */
+  private static void report(Results[] results, long elapsed) {
+    long operations = 0;
+    int rounds = 0;
+    for (Results result : results) {
+      operations += result.operations;
+      rounds += result.rounds;
+    }
+    long[] latencies = new long[rounds];
+    int i = 0;
+    for (Results result : results) {
+      System.arraycopy(result.latencies, 0, latencies, i, result.rounds);
+      i += result.rounds;
+    }
+    Arrays.sort(latencies);
+    System.out.printf("%12.0f ops/s%n", operations * 1e9 / elapsed);
+    if (rounds > 0) {
+      System.out.printf(
+          "round trip latency: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+          percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+          latencies[rounds - 1] / 1e3);
+    }
+  }
+
+  /**
+   * Returns the given fraction's percentile of sorted latencies, in microseconds.
+   */
+  private static double percentile(long[] sorted, double fraction) {
+    return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))] / 1e3;
+  }
+}
@@ -0,0 +1,523 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Server which shares one BALST between processes on the same machine, over TCP on localhost or a
+ * Unix domain socket. Clients send requests in a compact binary protocol (see BALSTClient), and
+ * may pipeline them: send many before reading any responses.
+ * 
+ * Each connection is served by two threads. One parses every complete request it has received into
+ * a batch, hands the batch to a single writer thread, and goes back to reading; the other sends the
+ * responses of each batch once it has been applied. Reading never waits on responses, so a client
+ * may pipeline more requests than the socket buffers hold before reading any responses, which the
+ * server holds until they can be sent. The writer takes all batches waiting from every connection
+ * at once, sorts their requests by key, and applies them to the tree, so that consecutive
+ * operations follow nearby paths and the tree needs no locking. Requests on the same key keep
+ * their order, as the sort is stable, and range requests are applied in place, between the sorted
+ * runs before and after them. Responses are sent back in the order requests arrived on their
+ * connection.
+ * 
+ * Frames in both directions begin with their length in bytes, not counting the length itself.
+ * A request is an operation byte followed by its key; an insert adds its value, and a range scan
+ * its upper bound. A response is a status byte, followed by the value for a get, a boolean byte
+ * for contains, or the number of entries and then each key and value for a range scan. Keys and
+ * values are written as their length (-1 for a null value) followed by their bytes.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class BALSTServer<Key extends Comparable<Key>, Value> implements AutoCloseable {
+
+  // Operations
+  static final byte INSERT = 1;
+  static final byte GET = 2;
+  static final byte REMOVE = 3;
+  static final byte CONTAINS = 4;
+  static final byte RANGE = 5;
+
+  // Response statuses
+  static final byte OK = 0;
+  static final byte NOT_FOUND = 1;
+  static final byte DUPLICATE = 2;
+  static final byte BAD_REQUEST = 3;
+
+  static final int NULL_LENGTH = -1; // Length written in place of a null value
+  static final int MAX_FRAME = 64 << 20; // Largest frame accepted, guarding against bad lengths
+  private static final int BUFFER_SIZE = 64 << 10;
+
+  /**
+   * Request parsed from a connection, along with its response once applied.
+   */
+  private class Request {
+    byte op;
+    Key key;
+    byte[] value; // Encoded value of an insert, or null
+    Key hi; // Upper bound of a range scan
+    byte status = BAD_REQUEST;
+    byte[] response; // Encoded payload of response, or null if it has none
+  }
+
+  /**
+   * Requests parsed together from one connection. The connection's sender waits for the batch to be
+   * applied before sending its responses.
+   */
+  private class Batch {
+    final List<Request> requests;
+    final CountDownLatch applied = new CountDownLatch(1);
+
+    Batch(List<Request> requests) {
+      this.requests = requests;
+    }
+  }
+
+  private final BALST<Key, Value> tree;
+  private final Codec<Key> keyCodec;
+  private final Codec<Value> valueCodec;
+  private final ServerSocketChannel server;
+  private final SocketAddress address;
+  private final ExecutorService connections; // Runs one task per connection
+  private final BlockingQueue<Batch> batches = new LinkedBlockingQueue<Batch>();
+  // Queued to a connection's sender once its reader stops
+  private final Batch endOfRequests = new Batch(new ArrayList<Request>());
+  private final Thread writer; // Applies batches to tree
+  private final Thread acceptor; // Accepts connections
+  private volatile boolean closed;
+
+  /**
+   * Starts serving tree at address. The tree must not be used by anything else while it is served.
+   * 
+   * @param tree       to be served
+   * @param address    InetSocketAddress to listen on (port 0 picks a free port), or
+   *                   UnixDomainSocketAddress of a socket file to create
+   * @param keyCodec   converts keys to and from bytes
+   * @param valueCodec converts values to and from bytes
+   * @return running server
+   * @throws IOException if address cannot be bound
+   */
+  public static <K extends Comparable<K>, V> BALSTServer<K, V> start(BALST<K, V> tree,
+      SocketAddress address, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+        ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+        : ServerSocketChannel.open();
+    try {
+      server.bind(address);
+    } catch (IOException e) {
+      server.close();
+      throw e;
+    }
+    return new BALSTServer<K, V>(tree, server, keyCodec, valueCodec);
+  }
+
+  /**
+   * Starts the writer and acceptor threads.
+   */
+  private BALSTServer(BALST<Key, Value> tree, ServerSocketChannel server, Codec<Key> keyCodec,
+      Codec<Value> valueCodec) throws IOException {
+    this.tree = tree;
+    this.server = server;
+    this.address = server.getLocalAddress();
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.connections = newConnectionExecutor();
+    this.writer = new Thread(this::applyBatches, "BALST-server-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+    this.acceptor = new Thread(this::acceptConnections, "BALST-server-acceptor");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  /**
+   * Returns an executor which runs each connection on a virtual thread where the runtime has them
+   * (Java 21 and later), as connections spend most of their time blocked on the socket or waiting
+   * for the writer. Older runtimes fall back to a pool of daemon platform threads.
+   */
+  private static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "BALST-server-connection");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Getter for the address being listened on, including the chosen port if port 0 was given.
+   * 
+   * @return bound address
+   */
+  public SocketAddress getAddress() {
+    return this.address;
+  }
+
+  /**
+   * Stops accepting connections, closes those open, and stops the writer. Requests not yet applied
+   * are dropped. Removes the socket file of a Unix domain socket.
+   * 
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    server.close();
+    connections.shutdownNow();
+    writer.interrupt();
+    try {
+      acceptor.join();
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (address instanceof UnixDomainSocketAddress) {
+      Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+    }
+  }
+
+  /**
+   * Accepts connections until the server is closed, serving each on its own thread.
+   */
+  private void acceptConnections() {
+    while (!closed) {
+      try {
+        SocketChannel channel = server.accept();
+        if (address instanceof InetSocketAddress) {
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        connections.execute(() -> serve(channel));
+      } catch (IOException e) {
+        // Closing the server interrupts accept; other failures affect only that connection
+      } catch (RuntimeException e) {
+        // Executor rejects connections once shut down
+      }
+    }
+  }
+
+  /**
+   * Reads requests from a connection until it is closed, handing each group of requests which
+   * arrived together to the writer as one batch, and to the connection's sender, which sends their
+   * responses once applied.
+   */
+  private void serve(SocketChannel channel) {
+    BlockingQueue<Batch> sent = new LinkedBlockingQueue<Batch>();
+    try {
+      connections.execute(() -> sendResponses(channel, sent));
+    } catch (RuntimeException e) {
+      // Executor rejects tasks once shut down
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+      }
+      return;
+    }
+    try {
+      ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+      while (!closed && channel.read(in) >= 0) {
+        in.flip();
+        List<Request> requests = new ArrayList<Request>();
+        while (in.remaining() >= Integer.BYTES) {
+          int length = in.getInt(in.position());
+          if (length <= 0 || length > MAX_FRAME) {
+            throw new StreamCorruptedException("Bad request length " + length);
+          }
+          if (in.remaining() < Integer.BYTES + length) {
+            break;
+          }
+          in.getInt();
+          ByteBuffer frame = in.slice();
+          frame.limit(length);
+          in.position(in.position() + length);
+          requests.add(parse(frame));
+        }
+        in = compact(in);
+        if (requests.isEmpty()) {
+          continue;
+        }
+        Batch batch = new Batch(requests);
+        sent.put(batch);
+        batches.put(batch);
+      }
+    } catch (IOException | InterruptedException e) {
+      // Connection closed, broken, or sent a malformed frame, or server is closing
+    } finally {
+      sent.add(endOfRequests);
+    }
+  }
+
+  /**
+   * Sends the responses of each batch read from a connection, in order, as each is applied. Closes
+   * the connection once the responses of every batch read before it stopped have been sent.
+   */
+  private void sendResponses(SocketChannel channel, BlockingQueue<Batch> sent) {
+    try (channel) {
+      ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+      for (Batch batch = sent.take(); batch != endOfRequests; batch = sent.take()) {
+        batch.applied.await();
+        out = writeResponses(channel, batch.requests, out);
+      }
+    } catch (IOException | InterruptedException e) {
+      // Connection broken, or server is closing
+    }
+  }
+
+  /**
+   * Moves the unread part of in to its start, growing it if a frame too large for it has begun.
+   */
+  private static ByteBuffer compact(ByteBuffer in) {
+    if (in.remaining() >= Integer.BYTES && in.position() == 0 && in.limit() == in.capacity()) {
+      int needed = Integer.BYTES + in.getInt(0);
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(needed, 2 * in.capacity()));
+      grown.put(in);
+      return grown;
+    }
+    in.compact();
+    return in;
+  }
+
+  /**
+   * Parses one request frame. Requests whose key or bounds cannot be decoded are kept, with status
+   * BAD_REQUEST, so that their response is still sent in order.
+   */
+  private Request parse(ByteBuffer frame) {
+    Request request = new Request();
+    try {
+      request.op = frame.get();
+      request.key = keyCodec.decode(getBytes(frame));
+      if (request.op == INSERT) {
+        request.value = getBytes(frame);
+      } else if (request.op == RANGE) {
+        request.hi = keyCodec.decode(getBytes(frame));
+      }
+      if (request.key == null || (request.op == RANGE && request.hi == null)
+          || request.op < INSERT || request.op > RANGE) {
+        request.op = 0;
+      }
+    } catch (RuntimeException e) {
+      request.op = 0;
+    }
+    return request;
+  }
+
+  /**
+   * Reads length-prefixed bytes from frame, returning null for a null length.
+   */
+  private static byte[] getBytes(ByteBuffer frame) {
+    int length = frame.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    frame.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Writes response frames of requests to channel in one write, growing out if needed.
+   * 
+   * @return buffer used, to be reused for the next batch
+   */
+  private ByteBuffer writeResponses(SocketChannel channel, List<Request> requests, ByteBuffer out)
+      throws IOException {
+    int size = 0;
+    for (Request request : requests) {
+      size += Integer.BYTES + 1 + (request.response == null ? 0 : request.response.length);
+    }
+    if (size > out.capacity()) {
+      out = ByteBuffer.allocate(Math.max(size, 2 * out.capacity()));
+    }
+    out.clear();
+    for (Request request : requests) {
+      int length = request.response == null ? 0 : request.response.length;
+      out.putInt(1 + length).put(request.status);
+      if (length > 0) {
+        out.put(request.response);
+      }
+    }
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    return out;
+  }
+
+  /**
+   * Run by the writer thread: takes every waiting batch, applies their requests together, and
+   * releases the connections waiting on them.
+   */
+  private void applyBatches() {
+    List<Batch> taken = new ArrayList<Batch>();
+    List<Request> requests = new ArrayList<Request>();
+    while (!closed) {
+      try {
+        taken.add(batches.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      batches.drainTo(taken);
+      for (Batch batch : taken) {
+        requests.addAll(batch.requests);
+      }
+      apply(requests);
+      for (Batch batch : taken) {
+        batch.applied.countDown();
+      }
+      taken.clear();
+      requests.clear();
+    }
+  }
+
+  /**
+   * Applies requests to tree, sorting each run of point requests between range requests by key.
+   */
+  private void apply(List<Request> requests) {
+    // Bad requests have no key, and sort first
+    Comparator<Request> byKey = (a, b) -> a.key == null ? (b.key == null ? 0 : -1)
+        : b.key == null ? 1 : a.key.compareTo(b.key);
+    int start = 0;
+    for (int i = 0; i <= requests.size(); ++i) {
+      if (i == requests.size() || requests.get(i).op == RANGE) {
+        List<Request> run = requests.subList(start, i);
+        run.sort(byKey);
+        applyRun(run);
+        if (i < requests.size()) {
+          applyRange(requests.get(i));
+        }
+        start = i + 1;
+      }
+    }
+  }
+
+  /**
+   * Applies a run of point requests in key order. Consecutive reads share a cursor, whose seek
+   * searches from the previous key rather than the root.
+   */
+  private void applyRun(List<Request> run) {
+    Cursor<Key, Value> cursor = null;
+    for (Request request : run) {
+      try {
+        switch (request.op) {
+          case INSERT:
+            cursor = null;
+            tree.insert(request.key,
+                request.value == null ? null : valueCodec.decode(request.value));
+            request.status = OK;
+            break;
+          case REMOVE:
+            cursor = null;
+            tree.remove(request.key);
+            request.status = OK;
+            break;
+          case GET:
+          case CONTAINS:
+            if (cursor == null) {
+              cursor = tree.cursor();
+            }
+            boolean found = cursor.seek(request.key);
+            if (request.op == CONTAINS) {
+              request.status = OK;
+              request.response = new byte[] {found ? (byte) 1 : (byte) 0};
+            } else if (found) {
+              request.status = OK;
+              request.response = putBytes(cursor.getValue() == null ? null
+                  : valueCodec.encode(cursor.getValue()));
+            } else {
+              request.status = NOT_FOUND;
+            }
+            break;
+          default:
+            request.status = BAD_REQUEST;
+        }
+      } catch (DuplicateKeyException e) {
+        request.status = DUPLICATE;
+      } catch (KeyNotFoundException e) {
+        request.status = NOT_FOUND;
+      } catch (IllegalNullKeyException | RuntimeException e) {
+        request.status = BAD_REQUEST;
+      }
+    }
+  }
+
+  /**
+   * Applies a range request, encoding every entry with key from lo (inclusive) to hi (exclusive).
+   */
+  private void applyRange(Request request) {
+    try {
+      List<byte[]> encoded = new ArrayList<byte[]>();
+      int size = Integer.BYTES;
+      Cursor<Key, Value> cursor = tree.cursor();
+      cursor.seek(request.key);
+      for (boolean valid = cursor.isValid(); valid && cursor.getKey().compareTo(request.hi) < 0;
+          valid = cursor.next()) {
+        byte[] key = putBytes(keyCodec.encode(cursor.getKey()));
+        byte[] value =
+            putBytes(cursor.getValue() == null ? null : valueCodec.encode(cursor.getValue()));
+        encoded.add(key);
+        encoded.add(value);
+        size += key.length + value.length;
+      }
+      ByteBuffer response = ByteBuffer.allocate(size);
+      response.putInt(encoded.size() / 2);
+      for (byte[] bytes : encoded) {
+        response.put(bytes);
+      }
+      request.response = response.array();
+      request.status = OK;
+    } catch (IllegalNullKeyException | RuntimeException e) {
+      request.status = BAD_REQUEST;
+    }
+  }
+
+  /**
+   * Returns bytes prefixed by their length, or just NULL_LENGTH if bytes is null.
+   */
+  static byte[] putBytes(byte[] bytes) {
+    if (bytes == null) {
+      return ByteBuffer.allocate(Integer.BYTES).putInt(NULL_LENGTH).array();
+    }
+    return ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes)
+        .array();
+  }
+}
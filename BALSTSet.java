@@ -0,0 +1,196 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Ordered set of keys, kept in a Red-Black BALST whose nodes hold only keys: they have no value
+ * slot, nor the aggregate slot used for values, which saves two references per key compared to a
+ * BALST mapping every key to null. The rest of a node is its key, its links and its balance data,
+ * as the layout used by print() is kept outside of the nodes, so the saving is a tenth of the
+ * node rather than half of it.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key> is the generic type of key
+ */
+public class BALSTSet<Key extends Comparable<Key>> implements Iterable<Key> {
+
+  private final BALST<Key, Object> tree; // Tree holding the keys, whose values are all null
+
+  /**
+   * Default constructor creates empty set, ordering keys naturally.
+   */
+  public BALSTSet() {
+    this(null);
+  }
+
+  /**
+   * Constructor for empty set, whose keys are ordered by comparator.
+   * 
+   * @param comparator ordering of keys, or null for their natural ordering
+   */
+  public BALSTSet(Comparator<? super Key> comparator) {
+    this.tree = new BALST<Key, Object>(comparator, BalanceStrategy.RED_BLACK, true);
+  }
+
+  /**
+   * Adds key to set.
+   * 
+   * @param key to be added
+   * @return true if key was added, false if it was already present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public boolean add(Key key) throws IllegalNullKeyException {
+    try {
+      this.tree.insert(key, null);
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Removes key from set.
+   * 
+   * @param key to be removed
+   * @return true if key was removed, false if it was not present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public boolean remove(Key key) throws IllegalNullKeyException {
+    try {
+      return this.tree.remove(key);
+    } catch (KeyNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Determines whether key is in set.
+   * 
+   * @param key being searched for
+   * @return true if key is present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    return this.tree.contains(key);
+  }
+
+  /**
+   * Returns the smallest key greater than or equal to key.
+   * 
+   * @param key being searched for
+   * @return ceiling of key, or null if every key is smaller
+   * @throws IllegalNullKeyException if key is null
+   */
+  public Key ceiling(Key key) throws IllegalNullKeyException {
+    Cursor<Key, Object> cursor = this.tree.cursor();
+    cursor.seek(key);
+    return cursor.isValid() ? cursor.getKey() : null;
+  }
+
+  /**
+   * Returns the greatest key less than or equal to key.
+   * 
+   * @param key being searched for
+   * @return floor of key, or null if every key is greater
+   * @throws IllegalNullKeyException if key is null
+   */
+  public Key floor(Key key) throws IllegalNullKeyException {
+    Cursor<Key, Object> cursor = this.tree.cursor();
+    if (cursor.seek(key)) {
+      return key;
+    }
+    // Cursor is at the ceiling, so the floor precedes it, or is the last key if there is none
+    boolean valid = cursor.isValid() ? cursor.prev() : cursor.last();
+    return valid ? cursor.getKey() : null;
+  }
+
+  /**
+   * Getter for the number of keys in set.
+   * 
+   * @return number of keys
+   */
+  public int numKeys() {
+    return this.tree.numKeys();
+  }
+
+  /**
+   * Getter for the height of the underlying tree.
+   * 
+   * @return height of tree
+   */
+  public int getHeight() {
+    return this.tree.getHeight();
+  }
+
+  /**
+   * Returns the keys in order.
+   * 
+   * @return list of keys
+   */
+  public List<Key> getInOrderTraversal() {
+    return this.tree.getInOrderTraversal();
+  }
+
+  /**
+   * Returns an iterator over the keys in order, which throws ConcurrentModificationException once
+   * the set has been modified.
+   * 
+   * @return iterator over keys
+   */
+  @Override
+  public Iterator<Key> iterator() {
+    return new Iterator<Key>() {
+      private final Cursor<Key, Object> cursor = tree.cursor();
+      private boolean valid = cursor.first(); // Whether cursor is at the next key
+
+      @Override
+      public boolean hasNext() {
+        if (valid && !cursor.isValid()) {
+          throw new ConcurrentModificationException();
+        }
+        return valid;
+      }
+
+      @Override
+      public Key next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Key key = cursor.getKey();
+        valid = cursor.next();
+        return key;
+      }
+    };
+  }
+
+  /**
+   * Prints the underlying Red-Black tree, as BALST.print() does.
+   */
+  public void print() {
+    this.tree.print();
+  }
+}
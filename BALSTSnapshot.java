@@ -0,0 +1,436 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a BALST to, and loads a BALST from, a compact binary snapshot.
+ * 
+ * A snapshot consists of a header (magic number, version, and number of nodes), then one record per
+ * node in order, then a CRC32 checksum of everything before it. Each record holds the node's color,
+ * its depth in the tree, and the sizes and bytes of its key and value. The in order sequence of
+ * depths determines the shape of the tree exactly, so loading rebuilds the very same tree in linear
+ * time, without comparing keys or rebalancing.
+ * 
+ * @author Matthew Karrmann
+ */
+public class BALSTSnapshot {
+
+  static final int MAGIC = 0x42414C53; // "BALS"
+  static final int VERSION = 1;
+  private static final int BUFFER_SIZE = 1 << 16; // Bytes buffered between channel operations
+  private static final int NULL_LENGTH = -1; // Length written in place of a null value
+
+  /**
+   * Saves tree to the file at path, replacing any existing file.
+   * 
+   * @param tree       to be saved
+   * @param path       of file to be written
+   * @param keyCodec   converts keys to bytes
+   * @param valueCodec converts values to bytes
+   * @throws IOException if file cannot be written
+   */
+  public static <K extends Comparable<K>, V> void save(BALST<K, V> tree, Path path,
+      Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      save(tree, channel, keyCodec, valueCodec);
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Writes snapshot of tree to channel. Tombstones are not saved: the keys of a tree which has any
+   * are saved in the shape compact() would give them, which is the shape the snapshot loads as,
+   * while the tree itself is left unchanged.
+   * 
+   * @param tree       to be saved
+   * @param channel    to be written to
+   * @param keyCodec   converts keys to bytes
+   * @param valueCodec converts values to bytes
+   * @throws IOException if channel cannot be written to
+   */
+  public static <K extends Comparable<K>, V> void save(BALST<K, V> tree,
+      WritableByteChannel channel, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    checkStrategy(tree);
+    ChannelWriter out = new ChannelWriter(channel);
+    out.putInt(MAGIC);
+    out.putInt(VERSION);
+    out.putInt(tree.numKeys());
+    if (tree.tombstoneCount() > 0) {
+      Cursor<K, V> cursor = tree.cursor();
+      cursor.first();
+      saveBalanced(out, cursor, 0, tree.numKeys(), 0, BALST.balancedHeight(tree.numKeys()),
+          keyCodec, valueCodec);
+      out.finish();
+      return;
+    }
+
+    // Walks nodes in order through parent references, keeping track of depth
+    BSTNode<K, V> node = tree.getRoot();
+    int depth = 0;
+    while (node != null && node.hasLeftChild()) {
+      node = node.getLeftChild();
+      ++depth;
+    }
+    while (node != null) {
+      saveNode(out, node.getColor().equals("R"), depth, node.key, node.getValue(), keyCodec,
+          valueCodec);
+      // Moves to in order successor
+      if (node.hasRightChild()) {
+        node = node.getRightChild();
+        ++depth;
+        while (node.hasLeftChild()) {
+          node = node.getLeftChild();
+          ++depth;
+        }
+      } else {
+        while (node.getParent() != null && node.getParent().getRightChild() == node) {
+          node = node.getParent();
+          --depth;
+        }
+        node = node.getParent();
+        --depth;
+      }
+    }
+    out.finish();
+  }
+
+  /**
+   * Helper method for save: writes the keys from (inclusive) to to (exclusive) of a tree with
+   * tombstones, read in order from cursor, as the subtree compact() would build of them.
+   * 
+   * @param cursor at key from, which is left after key to - 1
+   * @param depth  of subtree's root
+   * @param height of the whole tree
+   */
+  private static <K extends Comparable<K>, V> void saveBalanced(ChannelWriter out,
+      Cursor<K, V> cursor, int from, int to, int depth, int height, Codec<K> keyCodec,
+      Codec<V> valueCodec) throws IOException {
+    if (from >= to) {
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    saveBalanced(out, cursor, from, middle, depth + 1, height, keyCodec, valueCodec);
+    saveNode(out, BALST.balancedRed(depth, height), depth, cursor.getKey(), cursor.getValue(),
+        keyCodec, valueCodec);
+    cursor.next();
+    saveBalanced(out, cursor, middle + 1, to, depth + 1, height, keyCodec, valueCodec);
+  }
+
+  /**
+   * Helper method for save: writes the color, depth, key and value of one node.
+   */
+  private static <K, V> void saveNode(ChannelWriter out, boolean red, int depth, K key, V value,
+      Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    out.putByte(red ? (byte) 1 : (byte) 0);
+    out.putInt(depth);
+    out.putBytes(keyCodec.encode(key));
+    if (value == null) {
+      out.putInt(NULL_LENGTH);
+    } else {
+      out.putBytes(valueCodec.encode(value));
+    }
+  }
+
+  /**
+   * Snapshots record node colors and are loaded as Red-Black trees, so only trees balanced by one
+   * of the Red-Black strategies can be saved; the ranks of other strategies would be lost. Loaded
+   * trees order their keys naturally, so neither can trees with a comparator be saved.
+   * 
+   * @throws IllegalArgumentException if tree uses another strategy, or has a comparator
+   */
+  private static void checkStrategy(BALST<?, ?> tree) {
+    if (tree.getStrategy() != BalanceStrategy.RED_BLACK
+        && tree.getStrategy() != BalanceStrategy.LEFT_LEANING_RED_BLACK) {
+      throw new IllegalArgumentException("Only Red-Black trees can be saved as snapshots");
+    }
+    if (tree.comparator() != null) {
+      throw new IllegalArgumentException("Only trees in natural key order can be saved");
+    }
+  }
+
+  /**
+   * Loads tree from the file at path.
+   * 
+   * @param path       of file to be read
+   * @param keyCodec   converts bytes to keys
+   * @param valueCodec converts bytes to values
+   * @return tree identical to the one which was saved
+   * @throws IOException if file cannot be read, or is not a valid snapshot
+   */
+  public static <K extends Comparable<K>, V> BALST<K, V> load(Path path, Codec<K> keyCodec,
+      Codec<V> valueCodec) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return load(channel, keyCodec, valueCodec);
+    }
+  }
+
+  /**
+   * Reads tree from a snapshot written to channel.
+   * 
+   * @param channel    to be read from
+   * @param keyCodec   converts bytes to keys
+   * @param valueCodec converts bytes to values
+   * @return tree identical to the one which was saved
+   * @throws IOException if channel cannot be read, or does not hold a valid snapshot
+   */
+  public static <K extends Comparable<K>, V> BALST<K, V> load(ReadableByteChannel channel,
+      Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    ChannelReader in = new ChannelReader(channel);
+    if (in.getInt() != MAGIC) {
+      throw new StreamCorruptedException("Not a BALST snapshot");
+    }
+    int version = in.getInt();
+    if (version != VERSION) {
+      throw new StreamCorruptedException("Unsupported snapshot version " + version);
+    }
+    int numKeys = in.getInt();
+    if (numKeys < 0) {
+      throw new StreamCorruptedException("Negative number of nodes");
+    }
+
+    // Rebuilds the tree from the in order sequence of depths, as a Cartesian tree: the stack holds
+    // the right spine of the tree built so far, along with the depth of each of its nodes.
+    BSTNode[] stack = new BSTNode[16];
+    int[] stackDepths = new int[16];
+    int stackSize = 0;
+    for (int i = 0; i < numKeys; ++i) {
+      boolean red = in.getByte() == 1;
+      int depth = in.getInt();
+      K key;
+      V value;
+      try {
+        key = keyCodec.decode(in.getBytes(in.getInt()));
+        int valueLength = in.getInt();
+        value = valueLength == NULL_LENGTH ? null : valueCodec.decode(in.getBytes(valueLength));
+      } catch (RuntimeException e) {
+        // Codecs may fail in any way on bytes which were not produced by encode
+        throw new StreamCorruptedException("Cannot decode node: " + e);
+      }
+
+      BSTNode<K, V> node = new ValueNode<K, V>(key, value);
+      node.color = red ? "R" : "B";
+      // Nodes deeper than the new node form its left subtree
+      BSTNode<K, V> last = null;
+      while (stackSize > 0 && stackDepths[stackSize - 1] > depth) {
+        last = stack[--stackSize];
+      }
+      node.leftChild = last;
+      if (last != null) {
+        last.parent = node;
+      }
+      // The new node is the right child of the remaining top of the stack
+      if (stackSize > 0) {
+        if (stackDepths[stackSize - 1] == depth) {
+          throw new StreamCorruptedException("Inconsistent node depths");
+        }
+        stack[stackSize - 1].rightChild = node;
+        node.parent = stack[stackSize - 1];
+      }
+      if (stackSize == stack.length) {
+        stack = Arrays.copyOf(stack, stackSize * 2);
+        stackDepths = Arrays.copyOf(stackDepths, stackSize * 2);
+      }
+      stack[stackSize] = node;
+      stackDepths[stackSize] = depth;
+      ++stackSize;
+    }
+    // The bottom of the stack is the root
+    if (stackSize > 0 && stackDepths[0] != 0) {
+      throw new StreamCorruptedException("Inconsistent node depths");
+    }
+    long expected = in.checksum();
+    if (in.getLong() != expected) {
+      throw new StreamCorruptedException("Snapshot checksum mismatch");
+    }
+    return new BALST<K, V>(stackSize == 0 ? null : stack[0], numKeys);
+  }
+
+  /**
+   * Buffers writes to a channel, keeping a checksum of everything written.
+   */
+  private static class ChannelWriter {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    ChannelWriter(WritableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Makes room for n bytes in buffer, flushing it if needed.
+     */
+    private void require(int n) throws IOException {
+      if (buffer.remaining() < n) {
+        flush();
+      }
+    }
+
+    /**
+     * Writes buffered bytes to channel.
+     */
+    private void flush() throws IOException {
+      buffer.flip();
+      crc.update(buffer.duplicate());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    void putByte(byte b) throws IOException {
+      require(1);
+      buffer.put(b);
+    }
+
+    void putInt(int i) throws IOException {
+      require(Integer.BYTES);
+      buffer.putInt(i);
+    }
+
+    /**
+     * Writes length of bytes, followed by bytes.
+     */
+    void putBytes(byte[] bytes) throws IOException {
+      putInt(bytes.length);
+      int offset = 0;
+      while (offset < bytes.length) {
+        require(1);
+        int length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    /**
+     * Flushes buffer and writes checksum of everything written before it.
+     */
+    void finish() throws IOException {
+      flush();
+      buffer.putLong(crc.getValue());
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Buffers reads from a channel, keeping a checksum of everything read.
+   */
+  private static class ChannelReader {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private int checked = 0; // Position in buffer up to which crc has been updated
+
+    ChannelReader(ReadableByteChannel channel) {
+      this.channel = channel;
+      buffer.limit(0);
+    }
+
+    /**
+     * Ensures at least n bytes are available in buffer, reading from channel if needed.
+     * 
+     * @throws EOFException if channel ends first
+     */
+    private void require(int n) throws IOException {
+      if (buffer.remaining() >= n) {
+        return;
+      }
+      updateChecksum();
+      buffer.compact();
+      while (buffer.position() < n) {
+        if (channel.read(buffer) < 0) {
+          throw new EOFException("Snapshot is truncated");
+        }
+      }
+      buffer.flip();
+      checked = 0;
+    }
+
+    /**
+     * Adds bytes consumed since last update to the checksum.
+     */
+    private void updateChecksum() {
+      ByteBuffer consumed = buffer.duplicate();
+      consumed.limit(buffer.position());
+      consumed.position(checked);
+      crc.update(consumed);
+      checked = buffer.position();
+    }
+
+    /**
+     * Returns checksum of everything read so far.
+     */
+    long checksum() {
+      updateChecksum();
+      return crc.getValue();
+    }
+
+    byte getByte() throws IOException {
+      require(1);
+      return buffer.get();
+    }
+
+    int getInt() throws IOException {
+      require(Integer.BYTES);
+      return buffer.getInt();
+    }
+
+    long getLong() throws IOException {
+      require(Long.BYTES);
+      return buffer.getLong();
+    }
+
+    byte[] getBytes(int length) throws IOException {
+      if (length < 0) {
+        throw new StreamCorruptedException("Negative length");
+      }
+      // Grows the array as bytes arrive, so that a corrupted length runs into the end of the
+      // channel rather than allocating an enormous array
+      byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+      int offset = 0;
+      while (offset < length) {
+        require(1);
+        if (offset == bytes.length) {
+          bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+        }
+        int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.get(bytes, offset, chunk);
+        offset += chunk;
+      }
+      return bytes;
+    }
+  }
+}
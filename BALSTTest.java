@@ -21,6 +21,9 @@
 
 
 import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,8 +33,8 @@ import org.junit.jupiter.api.Test;
 @SuppressWarnings("rawtypes")
 public class BALSTTest {
 
-  BALST<String, String> balst1;
-  BALST<Integer, String> balst2;
+  BALSTADT<String, String> balst1;
+  BALSTADT<Integer, String> balst2;
 
   /**
    * @throws java.lang.Exception
@@ -51,14 +54,22 @@ public class BALSTTest {
     balst2 = null;
   }
 
-  protected BALST<String, String> createInstance() {
+  protected BALSTADT<String, String> createInstance() {
     return new BALST<String, String>();
   }
 
-  protected BALST<Integer, String> createInstance2() {
+  protected BALSTADT<Integer, String> createInstance2() {
     return new BALST<Integer, String>();
   }
 
+  /**
+   * Returns the greatest height allowed for a tree holding numKeys keys, which for a Red-Black
+   * tree is twice the logarithm of numKeys + 1.
+   */
+  protected double maxHeight(int numKeys) {
+    return 2 * Math.log(numKeys + 1) / Math.log(2);
+  }
+
   /**
    * Insert three values in sorted order and then check the root, left, and right keys to see if
    * rebalancing occurred.
@@ -253,4 +264,36 @@ public class BALSTTest {
     }
   }
 
+  /**
+   * Inserts and removes random keys, comparing contents against TreeMap and checking that the
+   * height stays within the bound of the tree's balancing.
+   */
+  @Test
+  void testBALST_017_random_against_treemap() {
+    try {
+      Random random = new Random(400);
+      TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+      for (int i = 0; i < 5000; ++i) {
+        Integer key = random.nextInt(500);
+        if (expected.containsKey(key)) {
+          Assert.assertTrue(balst2.remove(key));
+          expected.remove(key);
+        } else {
+          balst2.insert(key, key.toString());
+          expected.put(key, key.toString());
+        }
+        Assert.assertTrue(balst2.getHeight() <= maxHeight(balst2.numKeys()));
+      }
+      Assert.assertEquals(new ArrayList<Integer>(expected.keySet()), balst2.getInOrderTraversal());
+      Assert.assertEquals(expected.size(), balst2.numKeys());
+      for (Integer key : expected.keySet()) {
+        Assert.assertEquals(key.toString(), balst2.get(key));
+      }
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Red-Black 017: " + e.getMessage());
+    }
+  }
+
 }
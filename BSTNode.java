@@ -20,7 +20,9 @@
 ///////////////////////////////////////////////////////////////////////////////////////////////////
 
 /**
- * Defines behavior and constructor of nodes for BST.
+ * Defines behavior and constructor of nodes for BST. A BSTNode holds only a key, as in a
+ * BALSTSet; nodes of trees which map keys to values are ValueNodes. Trees of String keys use
+ * StringNodes and StringValueNodes, which also keep the prefix of their key.
  * 
  * @author Matthew Karrmann
  *
@@ -31,40 +33,32 @@ class BSTNode<Key, Value> {
 
   // Instance variables:
   Key key; // Key used to order nodes
-  Value value; // Value held in node
   BSTNode<Key, Value> leftChild; // Left child of node
   BSTNode<Key, Value> rightChild; // Right child of node
   BSTNode<Key, Value> parent; // Parent node (null if node is root)
-  // How much "space" is needed by node when printing
-  int spacingFactor;
-  // Number of characters to the left of node when printing
-  int leftSpacing;
   String color; // Node color: Red ("R") or Black ("B")
-  int height; // Height of node in tree, updated before printing
+  int rank; // Balance information of strategies other than Red-Black, such as AVL height
+  boolean dead; // Whether node is a tombstone, left in place of a key removed in tombstone mode
 
 
   /**
    * Full constructor, which assigns instance values.
    * 
    * @param key
-   * @param value
+   * @param parent
    * @param leftChild
    * @param rightChild
    */
-  BSTNode(Key key, Value value, BSTNode<Key, Value> parent, BSTNode<Key, Value> leftChild,
+  BSTNode(Key key, BSTNode<Key, Value> parent, BSTNode<Key, Value> leftChild,
       BSTNode<Key, Value> rightChild) {
     // Assigns instance fields to corresponding values of constructor
     this.key = key;
-    this.value = value;
     this.parent = parent;
     this.leftChild = leftChild;
     this.rightChild = rightChild;
-    // Spacing factor is determined at time of printing, and is defaulted to 0.
-    this.spacingFactor = 0;
-    // Spacing factor is determined at time of printing, and is defaulted to 0.
-    this.leftSpacing = 0;
-    // Height is only updated at time of printing, and is defaulted to 0.
-    this.height = 0;
+    // Rank is assigned by the tree's balance strategy upon insertion, and is defaulted to 0.
+    this.rank = 0;
+    this.dead = false;
     // Sets color to red, unless parent is null (in which case node is the root, and it is set to
     // black)
     if (parent == null) {
@@ -75,24 +69,93 @@ class BSTNode<Key, Value> {
   }
 
   /**
-   * Bare constructor which only assigns key and value, and sets others to default value.
+   * Bare constructor which only assigns key and parent, and sets others to default value.
    * 
    * @param key
-   * @param value
+   * @param parent
    */
-  BSTNode(Key key, Value value) {
-    this(key, value, null, null, null);
+  BSTNode(Key key, BSTNode<Key, Value> parent) {
+    this(key, parent, null, null);
   }
 
   /**
-   * Bare constructor which only assigns key, value, and parent, and sets others to default value.
+   * Reassigns key and parent of a node being reused, and sets others to default value, as the
+   * constructor does.
    * 
    * @param key
-   * @param value
    * @param parent
    */
-  BSTNode(Key key, Value value, BSTNode<Key, Value> parent) {
-    this(key, value, parent, null, null);
+  void reuse(Key key, BSTNode<Key, Value> parent) {
+    this.key = key;
+    this.parent = parent;
+    this.leftChild = null;
+    this.rightChild = null;
+    this.rank = 0;
+    this.dead = false;
+    this.color = parent == null ? "B" : "R";
+  }
+
+  /**
+   * Getter for value held in node.
+   * 
+   * @return value, which is always null for a node holding only a key
+   */
+  Value getValue() {
+    return null;
+  }
+
+  /**
+   * Setter for value held in node.
+   * 
+   * @param value new value
+   * @throws UnsupportedOperationException if value is not null, as node holds only a key
+   */
+  void setValue(Value value) {
+    if (value != null) {
+      throw new UnsupportedOperationException("Node holds only a key");
+    }
+  }
+
+  /**
+   * Getter for aggregate of values in node's subtree, kept if the tree has a monoid.
+   * 
+   * @return aggregate, which is always null for a node holding only a key
+   */
+  Value getAggregate() {
+    return null;
+  }
+
+  /**
+   * Setter for aggregate of values in node's subtree.
+   * 
+   * @param aggregate new aggregate
+   * @throws UnsupportedOperationException if aggregate is not null, as node holds only a key
+   */
+  void setAggregate(Value aggregate) {
+    if (aggregate != null) {
+      throw new UnsupportedOperationException("Node holds only a key");
+    }
+  }
+
+  /**
+   * Getter for the leading chars of a String key, packed into a long for faster comparisons.
+   * 
+   * @return prefix, which is always 0 for a node of a tree whose keys aren't Strings
+   */
+  long getPrefix() {
+    return 0;
+  }
+
+  /**
+   * Setter for the leading chars of a String key.
+   * 
+   * @param prefix new prefix
+   * @throws UnsupportedOperationException if prefix is not 0, as node doesn't hold a String key
+   */
+  void setPrefix(long prefix) {
+    if (prefix != 0) {
+      throw new UnsupportedOperationException("Node doesn't hold a String key");
+    }
   }
 
   /**
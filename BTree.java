@@ -0,0 +1,686 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * B-tree implementation of BALSTADT. A Red-Black tree is a binary encoding of a 2-3-4 tree; a
+ * B-tree stores the wide nodes directly, so a lookup visits one node (a few cache lines of keys)
+ * per level instead of one node per key compared, and the tree is far shallower.
+ * 
+ * The fan-out is the maximum number of children of a node, so each node holds at most fanOut - 1
+ * keys and, other than the root, at least ceil(fanOut / 2) - 1 keys.
+ * 
+ * As a node may hold several keys, the structural queries of BALSTADT are defined as follows: the
+ * key at the root is the first key of the root node, and the left and right children of a key are
+ * the first keys of the child nodes immediately to the left and right of the key (null in a leaf).
+ * The height is the number of levels of nodes, and traversals visit the keys of a node together,
+ * in order.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class BTree<Key extends Comparable<Key>, Value> implements BALSTADT<Key, Value> {
+
+  /**
+   * Node holding up to fanOut - 1 keys. Arrays have room for one extra key (and child) so that an
+   * overflowing node can be split after the key has been added.
+   */
+  private static class Node {
+    Object[] keys;
+    Object[] values;
+    Node[] children; // Null if node is a leaf
+    int size; // Number of keys in node
+
+    Node(int fanOut, boolean leaf) {
+      this.keys = new Object[fanOut];
+      this.values = new Object[fanOut];
+      this.children = leaf ? null : new Node[fanOut + 1];
+      this.size = 0;
+    }
+
+    boolean isLeaf() {
+      return children == null;
+    }
+  }
+
+  /**
+   * Result of splitting a node: the median key and value, which move up to the parent, and the new
+   * node holding the keys above the median.
+   */
+  private static class Split {
+    Object key;
+    Object value;
+    Node right;
+  }
+
+  private final int fanOut; // Maximum number of children of a node
+  private final int minKeys; // Minimum number of keys of a node other than the root
+  private Node root; // Root node, which is an empty leaf if tree is empty
+  private int numKeys; // Number of keys in tree
+
+  /**
+   * Constructor for B-tree with given fan-out.
+   * 
+   * @param fanOut maximum number of children of a node, at least 3
+   */
+  public BTree(int fanOut) {
+    if (fanOut < 3) {
+      throw new IllegalArgumentException("Fan-out must be at least 3");
+    }
+    this.fanOut = fanOut;
+    this.minKeys = (fanOut + 1) / 2 - 1;
+    this.root = new Node(fanOut, true);
+    this.numKeys = 0;
+  }
+
+  /**
+   * Finds position of key within node by binary search.
+   * 
+   * @return index of key if present in node, or else -(index of child to descend into) - 1
+   */
+  @SuppressWarnings("unchecked")
+  private int search(Node node, Key key) {
+    int low = 0;
+    int high = node.size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = key.compareTo((Key) node.keys[middle]);
+      if (comparison < 0) {
+        high = middle - 1;
+      } else if (comparison > 0) {
+        low = middle + 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Finds node holding key.
+   * 
+   * @return array of node and index of key within it, or null if not present
+   */
+  private Object[] find(Key key) {
+    Node node = root;
+    while (true) {
+      int index = search(node, key);
+      if (index >= 0) {
+        return new Object[] {node, index};
+      }
+      if (node.isLeaf()) {
+        return null;
+      }
+      node = node.children[-(index + 1)];
+    }
+  }
+
+  /**
+   * Finds node holding key, throwing the exceptions required by BALSTADT.
+   */
+  private Object[] requireKey(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Object[] found = find(key);
+    if (found == null) {
+      throw new KeyNotFoundException();
+    }
+    return found;
+  }
+
+  /**
+   * Returns first key of node, or null if node is null.
+   */
+  @SuppressWarnings("unchecked")
+  private Key firstKey(Node node) {
+    return node == null || node.size == 0 ? null : (Key) node.keys[0];
+  }
+
+  /**
+   * Returns the first key of the root node.
+   */
+  @Override
+  public Key getKeyAtRoot() {
+    return firstKey(root);
+  }
+
+  /**
+   * Returns the first key of the child node to the left of key.
+   */
+  @Override
+  public Key getKeyOfLeftChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    Object[] found = requireKey(key);
+    Node node = (Node) found[0];
+    return node.isLeaf() ? null : firstKey(node.children[(int) found[1]]);
+  }
+
+  /**
+   * Returns the first key of the child node to the right of key.
+   */
+  @Override
+  public Key getKeyOfRightChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    Object[] found = requireKey(key);
+    Node node = (Node) found[0];
+    return node.isLeaf() ? null : firstKey(node.children[(int) found[1] + 1]);
+  }
+
+  /**
+   * Returns number of levels of nodes, which is the same along every path.
+   */
+  @Override
+  public int getHeight() {
+    if (numKeys == 0) {
+      return 0;
+    }
+    int height = 1;
+    for (Node node = root; !node.isLeaf(); node = node.children[0]) {
+      ++height;
+    }
+    return height;
+  }
+
+  @Override
+  public List<Key> getInOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    inOrderHelper(root, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree to list in order: each child's keys, followed by the key after it.
+   */
+  @SuppressWarnings("unchecked")
+  private void inOrderHelper(Node node, List<Key> list) {
+    for (int i = 0; i < node.size; ++i) {
+      if (!node.isLeaf()) {
+        inOrderHelper(node.children[i], list);
+      }
+      list.add((Key) node.keys[i]);
+    }
+    if (!node.isLeaf()) {
+      inOrderHelper(node.children[node.size], list);
+    }
+  }
+
+  @Override
+  public List<Key> getPreOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    preOrderHelper(root, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree to list in pre order: the node's keys, followed by each child's subtree.
+   */
+  @SuppressWarnings("unchecked")
+  private void preOrderHelper(Node node, List<Key> list) {
+    for (int i = 0; i < node.size; ++i) {
+      list.add((Key) node.keys[i]);
+    }
+    if (!node.isLeaf()) {
+      for (int i = 0; i <= node.size; ++i) {
+        preOrderHelper(node.children[i], list);
+      }
+    }
+  }
+
+  @Override
+  public List<Key> getPostOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    postOrderHelper(root, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree to list in post order: each child's subtree, followed by the node's keys.
+   */
+  @SuppressWarnings("unchecked")
+  private void postOrderHelper(Node node, List<Key> list) {
+    if (!node.isLeaf()) {
+      for (int i = 0; i <= node.size; ++i) {
+        postOrderHelper(node.children[i], list);
+      }
+    }
+    for (int i = 0; i < node.size; ++i) {
+      list.add((Key) node.keys[i]);
+    }
+  }
+
+  @Override
+  public List<Key> getLevelOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    for (List<Node> level : levels()) {
+      for (Node node : level) {
+        for (int i = 0; i < node.size; ++i) {
+          list.add(keyAt(node, i));
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns key at index of node.
+   */
+  @SuppressWarnings("unchecked")
+  private Key keyAt(Node node, int index) {
+    return (Key) node.keys[index];
+  }
+
+  /**
+   * Returns the nodes of the tree grouped by level, beginning with the root.
+   */
+  private List<List<Node>> levels() {
+    List<List<Node>> levels = new ArrayList<List<Node>>();
+    List<Node> level = new ArrayList<Node>();
+    if (numKeys > 0) {
+      level.add(root);
+    }
+    while (!level.isEmpty()) {
+      levels.add(level);
+      List<Node> next = new ArrayList<Node>();
+      for (Node node : level) {
+        if (!node.isLeaf()) {
+          for (int i = 0; i <= node.size; ++i) {
+            next.add(node.children[i]);
+          }
+        }
+      }
+      level = next;
+    }
+    return levels;
+  }
+
+  /**
+   * Inserts key and value, splitting full nodes on the way back up.
+   * 
+   * @throws IllegalNullKeyException if key is null
+   * @throws DuplicateKeyException   if key is already present in tree
+   */
+  @Override
+  public void insert(Key key, Value value) throws IllegalNullKeyException, DuplicateKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Split split = insertHelper(root, key, value);
+    if (split != null) {
+      // Root has split, so tree grows a level
+      Node newRoot = new Node(fanOut, false);
+      newRoot.keys[0] = split.key;
+      newRoot.values[0] = split.value;
+      newRoot.children[0] = root;
+      newRoot.children[1] = split.right;
+      newRoot.size = 1;
+      root = newRoot;
+    }
+    ++numKeys;
+  }
+
+  /**
+   * Helper method for inserting into subtree.
+   * 
+   * @return split of node if it overflowed, or null otherwise
+   */
+  private Split insertHelper(Node node, Key key, Value value) throws DuplicateKeyException {
+    int index = search(node, key);
+    if (index >= 0) {
+      throw new DuplicateKeyException();
+    }
+    index = -(index + 1);
+    if (node.isLeaf()) {
+      insertAt(node, index, key, value, null);
+    } else {
+      Split split = insertHelper(node.children[index], key, value);
+      if (split != null) {
+        insertAt(node, index, split.key, split.value, split.right);
+      }
+    }
+    return node.size == fanOut ? split(node) : null;
+  }
+
+  /**
+   * Inserts key and value at index of node, with right as the child after it (if not a leaf).
+   */
+  private void insertAt(Node node, int index, Object key, Object value, Node right) {
+    System.arraycopy(node.keys, index, node.keys, index + 1, node.size - index);
+    System.arraycopy(node.values, index, node.values, index + 1, node.size - index);
+    node.keys[index] = key;
+    node.values[index] = value;
+    if (!node.isLeaf()) {
+      System.arraycopy(node.children, index + 1, node.children, index + 2, node.size - index);
+      node.children[index + 1] = right;
+    }
+    ++node.size;
+  }
+
+  /**
+   * Splits an overflowing node around its median key.
+   */
+  private Split split(Node node) {
+    int middle = node.size / 2;
+    Split split = new Split();
+    split.key = node.keys[middle];
+    split.value = node.values[middle];
+    split.right = new Node(fanOut, node.isLeaf());
+    int rightSize = node.size - middle - 1;
+    System.arraycopy(node.keys, middle + 1, split.right.keys, 0, rightSize);
+    System.arraycopy(node.values, middle + 1, split.right.values, 0, rightSize);
+    if (!node.isLeaf()) {
+      System.arraycopy(node.children, middle + 1, split.right.children, 0, rightSize + 1);
+    }
+    split.right.size = rightSize;
+    clear(node, middle, node.size);
+    node.size = middle;
+    return split;
+  }
+
+  /**
+   * Clears references of node from index from (inclusive) to to (exclusive), and the children
+   * after them, so removed keys and values aren't kept reachable.
+   */
+  private void clear(Node node, int from, int to) {
+    for (int i = from; i < to; ++i) {
+      node.keys[i] = null;
+      node.values[i] = null;
+      if (!node.isLeaf()) {
+        node.children[i + 1] = null;
+      }
+    }
+  }
+
+  /**
+   * Removes key, merging or borrowing between nodes which fall below the minimum size.
+   * 
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present in tree
+   * @return true, as key has been removed
+   */
+  @Override
+  public boolean remove(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    removeHelper(root, key);
+    // Root left without keys is replaced by its only child, and the tree shrinks a level
+    if (root.size == 0 && !root.isLeaf()) {
+      root = root.children[0];
+    }
+    --numKeys;
+    return true;
+  }
+
+  /**
+   * Helper method for removing key from subtree.
+   */
+  private void removeHelper(Node node, Key key) throws KeyNotFoundException {
+    int index = search(node, key);
+    if (node.isLeaf()) {
+      if (index < 0) {
+        throw new KeyNotFoundException();
+      }
+      removeAt(node, index);
+    } else if (index >= 0) {
+      // Replaces key with its in order predecessor, the largest key of the child to its left
+      Object[] predecessor = removeMax(node.children[index]);
+      node.keys[index] = predecessor[0];
+      node.values[index] = predecessor[1];
+      fixChild(node, index);
+    } else {
+      index = -(index + 1);
+      removeHelper(node.children[index], key);
+      fixChild(node, index);
+    }
+  }
+
+  /**
+   * Removes largest key of subtree.
+   * 
+   * @return array of removed key and value
+   */
+  private Object[] removeMax(Node node) {
+    if (node.isLeaf()) {
+      Object[] max = {node.keys[node.size - 1], node.values[node.size - 1]};
+      removeAt(node, node.size - 1);
+      return max;
+    }
+    Object[] max = removeMax(node.children[node.size]);
+    fixChild(node, node.size);
+    return max;
+  }
+
+  /**
+   * Removes key at index of a leaf.
+   */
+  private void removeAt(Node node, int index) {
+    System.arraycopy(node.keys, index + 1, node.keys, index, node.size - index - 1);
+    System.arraycopy(node.values, index + 1, node.values, index, node.size - index - 1);
+    --node.size;
+    node.keys[node.size] = null;
+    node.values[node.size] = null;
+  }
+
+  /**
+   * Restores the minimum size of the child at index of node, after a key was removed below it:
+   * borrows a key through node from a sibling which has one to spare, or else merges the child with
+   * a sibling and the key between them.
+   */
+  private void fixChild(Node node, int index) {
+    Node child = node.children[index];
+    if (child.size >= minKeys) {
+      return;
+    }
+    Node left = index > 0 ? node.children[index - 1] : null;
+    Node right = index < node.size ? node.children[index + 1] : null;
+    if (left != null && left.size > minKeys) {
+      // Rotates right: separator moves down to child, and left's last key moves up
+      System.arraycopy(child.keys, 0, child.keys, 1, child.size);
+      System.arraycopy(child.values, 0, child.values, 1, child.size);
+      child.keys[0] = node.keys[index - 1];
+      child.values[0] = node.values[index - 1];
+      if (!child.isLeaf()) {
+        System.arraycopy(child.children, 0, child.children, 1, child.size + 1);
+        child.children[0] = left.children[left.size];
+        left.children[left.size] = null;
+      }
+      ++child.size;
+      node.keys[index - 1] = left.keys[left.size - 1];
+      node.values[index - 1] = left.values[left.size - 1];
+      left.keys[left.size - 1] = null;
+      left.values[left.size - 1] = null;
+      --left.size;
+    } else if (right != null && right.size > minKeys) {
+      // Rotates left: separator moves down to child, and right's first key moves up
+      child.keys[child.size] = node.keys[index];
+      child.values[child.size] = node.values[index];
+      if (!child.isLeaf()) {
+        child.children[child.size + 1] = right.children[0];
+        System.arraycopy(right.children, 1, right.children, 0, right.size);
+        right.children[right.size] = null;
+      }
+      ++child.size;
+      node.keys[index] = right.keys[0];
+      node.values[index] = right.values[0];
+      removeAt(right, 0);
+    } else if (left != null) {
+      merge(node, index - 1);
+    } else {
+      merge(node, index);
+    }
+  }
+
+  /**
+   * Merges the child at index of node, the key after it, and the following child into one node.
+   */
+  private void merge(Node node, int index) {
+    Node left = node.children[index];
+    Node right = node.children[index + 1];
+    left.keys[left.size] = node.keys[index];
+    left.values[left.size] = node.values[index];
+    System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+    System.arraycopy(right.values, 0, left.values, left.size + 1, right.size);
+    if (!left.isLeaf()) {
+      System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+    }
+    left.size += right.size + 1;
+    // Removes separator and right child from node
+    System.arraycopy(node.keys, index + 1, node.keys, index, node.size - index - 1);
+    System.arraycopy(node.values, index + 1, node.values, index, node.size - index - 1);
+    System.arraycopy(node.children, index + 2, node.children, index + 1, node.size - index - 1);
+    --node.size;
+    node.keys[node.size] = null;
+    node.values[node.size] = null;
+    node.children[node.size + 1] = null;
+  }
+
+  /**
+   * Searches for key one node at a time, without the allocation of find(), as this is the hot path.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Node node = root;
+    while (true) {
+      int index = search(node, key);
+      if (index >= 0) {
+        return (Value) node.values[index];
+      }
+      if (node.isLeaf()) {
+        throw new KeyNotFoundException();
+      }
+      node = node.children[-(index + 1)];
+    }
+  }
+
+  @Override
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    return find(key) != null;
+  }
+
+  @Override
+  public int numKeys() {
+    return numKeys;
+  }
+
+  /**
+   * Returns String representation of node: its keys separated by "|", enclosed in brackets.
+   */
+  private String nodeToString(Node node) {
+    StringBuilder string = new StringBuilder("[");
+    for (int i = 0; i < node.size; ++i) {
+      if (i > 0) {
+        string.append("|");
+      }
+      string.append(node.keys[i]);
+    }
+    return string.append("]").toString();
+  }
+
+  /**
+   * Determines width of the subtree's drawing: the wider of the node and its children side by
+   * side, separated by a space.
+   */
+  private int subtreeWidth(Node node) {
+    int width = 0;
+    if (!node.isLeaf()) {
+      for (int i = 0; i <= node.size; ++i) {
+        width += subtreeWidth(node.children[i]) + (i > 0 ? 1 : 0);
+      }
+    }
+    return Math.max(width, nodeToString(node).length());
+  }
+
+  /**
+   * Draws subtree within the columns beginning at left: node centered above its children, which
+   * are centered beneath it, and an edge to each child placed at the child's center: "/" for
+   * children to the left of the node's center, "\" for those to the right, and "|" for one beneath.
+   * 
+   * @param lines line of nodes of each level, followed by its line of edges
+   * @param depth level of node, beginning at 0 for the root
+   * @param left  leftmost column of the subtree
+   * @return center column of node
+   */
+  private int draw(Node node, List<StringBuilder> lines, int depth, int left) {
+    int width = subtreeWidth(node);
+    String box = nodeToString(node);
+    int childrenWidth = -1;
+    if (!node.isLeaf()) {
+      for (int i = 0; i <= node.size; ++i) {
+        childrenWidth += subtreeWidth(node.children[i]) + 1;
+      }
+    }
+    int boxLeft = left + (width - box.length()) / 2;
+    int center = boxLeft + box.length() / 2;
+    put(lines, 2 * depth, boxLeft, box);
+    if (!node.isLeaf()) {
+      int childLeft = left + (width - childrenWidth) / 2;
+      for (int i = 0; i <= node.size; ++i) {
+        int childCenter = draw(node.children[i], lines, depth + 1, childLeft);
+        String edge = childCenter < center ? "/" : childCenter > center ? "\\" : "|";
+        put(lines, 2 * depth + 1, childCenter, edge);
+        childLeft += subtreeWidth(node.children[i]) + 1;
+      }
+    }
+    return center;
+  }
+
+  /**
+   * Writes text into the given line at column, padding the line with spaces as needed.
+   */
+  private void put(List<StringBuilder> lines, int line, int column, String text) {
+    while (lines.size() <= line) {
+      lines.add(new StringBuilder());
+    }
+    StringBuilder builder = lines.get(line);
+    while (builder.length() < column + text.length()) {
+      builder.append(' ');
+    }
+    builder.replace(column, column + text.length(), text);
+  }
+
+  /**
+   * Prints the tree one level of nodes per line, each node shown as its keys in brackets, centered
+   * above its children and joined to them by a line of edges.
+   */
+  @Override
+  public void print() {
+    System.out.print("Note: each [ ] is one node, holding up to " + (fanOut - 1) + " keys.\n\n");
+    if (numKeys == 0) {
+      return;
+    }
+    List<StringBuilder> lines = new ArrayList<StringBuilder>();
+    draw(root, lines, 0, 0);
+    for (StringBuilder line : lines) {
+      System.out.println(line);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the BALSTTest suite against BTree. Fan-out 3 makes it a 2-3 tree, whose shape matches the
+ * Red-Black tree for most of the small cases; tests which depend on binary nodes are overridden.
+ */
+public class BTreeTest extends BALSTTest {
+
+  @Override
+  protected BALSTADT<String, String> createInstance() {
+    return new BTree<String, String>(3);
+  }
+
+  @Override
+  protected BALSTADT<Integer, String> createInstance2() {
+    return new BTree<Integer, String>(3);
+  }
+
+  /**
+   * Insert three values in sorted order; the first two share the root node until the third splits
+   * it.
+   */
+  @Test
+  @Override
+  void testBALST_001_insert_sorted_order_simple() {
+    try {
+      balst2.insert(10, "10");
+      Assert.assertEquals(Integer.valueOf(10), balst2.getKeyAtRoot());
+      balst2.insert(20, "20");
+      Assert.assertEquals(Integer.valueOf(10), balst2.getKeyAtRoot());
+      Assert.assertNull(balst2.getKeyOfRightChildOf(10));
+      balst2.insert(30, "30");
+
+      Assert.assertEquals(balst2.getKeyAtRoot(), Integer.valueOf(20));
+      Assert.assertEquals(balst2.getKeyOfLeftChildOf(20), Integer.valueOf(10));
+      Assert.assertEquals(balst2.getKeyOfRightChildOf(20), Integer.valueOf(30));
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception B-tree 001: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @Override
+  void testBALST_005_test_height() {
+    try {
+      balst2.insert(60, "60");
+      Assert.assertEquals(balst2.getHeight(), 1);
+      balst2.insert(20, "20");
+      Assert.assertEquals(balst2.getHeight(), 1);
+      balst2.insert(30, "30");
+      Assert.assertEquals(balst2.getHeight(), 2);
+      balst2.insert(10, "10");
+      Assert.assertEquals(balst2.getHeight(), 2);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception B-tree 005: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Inserts and removes random keys at several fan-outs, comparing contents against TreeMap and
+   * checking that all leaves stay at the same depth.
+   */
+  @Test
+  void testBTree_017_random_against_treemap() {
+    try {
+      Random random = new Random(400);
+      for (int fanOut : new int[] {3, 4, 5, 16}) {
+        BTree<Integer, String> tree = new BTree<Integer, String>(fanOut);
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        for (int i = 0; i < 5000; ++i) {
+          Integer key = random.nextInt(1000);
+          if (expected.containsKey(key)) {
+            Assert.assertTrue(tree.remove(key));
+            expected.remove(key);
+          } else {
+            tree.insert(key, key.toString());
+            expected.put(key, key.toString());
+          }
+        }
+        Assert.assertEquals(new ArrayList<Integer>(expected.keySet()), tree.getInOrderTraversal());
+        Assert.assertEquals(expected.size(), tree.numKeys());
+        for (Integer key : expected.keySet()) {
+          Assert.assertEquals(key.toString(), tree.get(key));
+        }
+        // Height of a B-tree with n keys is at most log base ceil(m / 2) of (n + 1) / 2, plus one
+        double minChildren = (fanOut + 1) / 2;
+        Assert.assertTrue(tree.getHeight()
+            <= 1 + Math.log((expected.size() + 1) / 2.0) / Math.log(minChildren));
+        // The child nodes on either side of each key are equally deep, so all leaves are at the
+        // depth of the root's leftmost leaf
+        for (Integer key : expected.keySet()) {
+          Integer left = tree.getKeyOfLeftChildOf(key);
+          Integer right = tree.getKeyOfRightChildOf(key);
+          Assert.assertEquals(left == null, right == null);
+          if (left != null) {
+            Assert.assertEquals(levelsBelow(tree, left), levelsBelow(tree, right));
+          }
+        }
+        Assert.assertEquals(tree.getHeight() - 1, levelsBelow(tree, tree.getKeyAtRoot()));
+
+        List<Integer> keys = new ArrayList<Integer>(expected.keySet());
+        Collections.shuffle(keys, random);
+        for (Integer key : keys) {
+          tree.remove(key);
+        }
+        Assert.assertEquals(0, tree.numKeys());
+        Assert.assertEquals(0, tree.getHeight());
+      }
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception B-tree 017: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the number of levels of nodes below the node holding key, following first children
+   * down to a leaf.
+   */
+  private static int levelsBelow(BTree<Integer, String> tree, Integer key) throws Exception {
+    int levels = 0;
+    for (Integer child = tree.getKeyOfLeftChildOf(key); child != null;
+        child = tree.getKeyOfLeftChildOf(child)) {
+      ++levels;
+    }
+    return levels;
+  }
+
+  @Test
+  void testBTree_018_missing_keys() {
+    try {
+      balst2.insert(1, "1");
+      try {
+        balst2.insert(1, "one");
+        fail("Duplicate key was inserted");
+      } catch (DuplicateKeyException expected) {
+      }
+      try {
+        balst2.remove(2);
+        fail("Missing key was removed");
+      } catch (KeyNotFoundException expected) {
+      }
+      try {
+        balst2.get(null);
+        fail("Null key was accepted");
+      } catch (IllegalNullKeyException expected) {
+      }
+      Assert.assertEquals(1, balst2.numKeys());
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception B-tree 018: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Rebalancing rules used by BALST. The tree performs the plain binary search tree insert and
+ * remove, and calls the strategy to restore its balance afterwards, using the tree's rotateLeft()
+ * and rotateRight() so that parent references and the root are kept up to date.
+ * 
+ * Strategies keep their bookkeeping in each node's color and rank fields. Strategies other than
+ * the Red-Black ones color every node black, so that print() shows no red nodes.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+public interface BalanceStrategy {
+
+  /** Red-Black tree, the default. */
+  BalanceStrategy RED_BLACK = new RedBlackStrategy();
+
+  /** AVL tree: shortest height, at the cost of more rotations on insert and remove. */
+  BalanceStrategy AVL = new AVLStrategy();
+
+  /**
+   * Weak AVL tree: AVL height when there are only inserts, and at most a constant number of
+   * rotations per insert or remove.
+   */
+  BalanceStrategy WAVL = new WAVLStrategy();
+
+  /** Randomized treap: expected logarithmic height, with simple updates. */
+  BalanceStrategy TREAP = new TreapStrategy();
+
+  /** Left-leaning Red-Black tree: a Red-Black tree in which red nodes are always left children. */
+  BalanceStrategy LEFT_LEANING_RED_BLACK = new LeftLeaningRedBlackStrategy();
+
+  /**
+   * Rebalances tree after a node has been inserted.
+   * 
+   * @param tree into which node was inserted
+   * @param node new leaf, colored black if it is the root and red otherwise, with rank 0
+   */
+  void inserted(BALST tree, BSTNode node);
+
+  /**
+   * Prepares to remove a node, before the tree unlinks it. The default does nothing.
+   * 
+   * The tree then unlinks the node itself if it has at most one child, or else copies the key and
+   * value of its in order successor into it and unlinks the successor.
+   * 
+   * @param tree from which node is being removed
+   * @param node holding the key being removed
+   */
+  default void removing(BALST tree, BSTNode node) {}
+
+  /**
+   * Rebalances tree after a node has been unlinked, and replaced by its only child (if any).
+   * 
+   * @param tree    from which node was removed
+   * @param removed node which was unlinked, with its color and rank unchanged
+   * @param parent  former parent of removed, or null if removed was the root
+   * @param side    which child of parent removed was, and its replacement now is, or null if
+   *                removed was the root
+   */
+  void removed(BALST tree, BSTNode removed, BSTNode parent, Child side);
+}
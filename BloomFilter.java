@@ -0,0 +1,124 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Bloom filter over the keys of a BALST, consulted before descending the tree so that most lookups
+ * of absent keys are answered without touching a node. Each key sets numHashes bits of a bit array,
+ * chosen by double hashing of its hashCode(). A key whose bits are not all set was never added, but
+ * a key whose bits are all set may still be absent, with about the probability given at
+ * construction while at most expectedKeys keys have been added.
+ * 
+ * Keys cannot be removed from the filter, so the tree rebuilds it once enough of its keys have been
+ * removed or once more keys than expected have been added.
+ * 
+ * @author Matthew Karrmann
+ */
+class BloomFilter {
+
+  private final long[] bits; // Bit array, 64 bits per long
+  private final long numBits; // Number of bits used, at most 64 times bits.length
+  private final int numHashes; // Number of bits set for each key
+  private final int expectedKeys; // Number of keys the filter is sized for
+  private int size; // Number of keys added
+
+  /**
+   * Constructor for empty filter whose false positive probability is falsePositiveRate once
+   * expectedKeys keys have been added.
+   * 
+   * @param expectedKeys      number of keys the filter is sized for, which must be positive
+   * @param falsePositiveRate probability of a false positive, greater than 0 and less than 1
+   */
+  BloomFilter(int expectedKeys, double falsePositiveRate) {
+    this.expectedKeys = expectedKeys;
+    // Optimal number of bits and of hashes, -n ln(p) / ln(2)^2 and (m / n) ln(2)
+    double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    this.numBits = Math.max(64, (long) Math.ceil(bitsPerKey * expectedKeys));
+    this.numHashes = Math.max(1, Math.min(30, (int) Math.round(bitsPerKey * Math.log(2))));
+    this.bits = new long[(int) ((numBits + 63) >>> 6)];
+  }
+
+  /**
+   * Returns a 64-bit hash of key, spreading its hashCode() over all bits.
+   */
+  private static long hash(Object key) {
+    long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * Returns the index of the bit for the ith hash, given the two halves of the key's hash. The sum
+   * is mapped onto the bit array by multiplication rather than modulo.
+   */
+  private long bitOf(int first, int second, int i) {
+    return ((first + i * second) & 0xFFFFFFFFL) * numBits >>> 32;
+  }
+
+  /**
+   * Adds key to the filter.
+   * 
+   * @param key being added
+   */
+  void add(Object key) {
+    long hash = hash(key);
+    int first = (int) hash;
+    int second = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < numHashes; ++i) {
+      long bit = bitOf(first, second, i);
+      bits[(int) (bit >>> 6)] |= 1L << bit;
+    }
+    ++size;
+  }
+
+  /**
+   * Returns whether key may have been added. False means key was definitely never added.
+   * 
+   * @param key being searched for
+   * @return false if key was never added, true if it probably was
+   */
+  boolean mightContain(Object key) {
+    long hash = hash(key);
+    int first = (int) hash;
+    int second = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < numHashes; ++i) {
+      long bit = bitOf(first, second, i);
+      if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether more keys have been added than the filter is sized for.
+   */
+  boolean isFull() {
+    return size > expectedKeys;
+  }
+
+  /**
+   * Getter for the number of bytes in the bit array.
+   */
+  long sizeInBytes() {
+    return 8L * bits.length;
+  }
+}
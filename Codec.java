@@ -0,0 +1,94 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to and from bytes, for storing trees outside of memory.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <T> type which is converted
+ */
+public interface Codec<T> {
+
+  /**
+   * Returns byte representation of object.
+   * 
+   * @param object to be encoded, never null
+   * @return bytes of object
+   */
+  byte[] encode(T object);
+
+  /**
+   * Returns the object represented by bytes, as produced by encode.
+   * 
+   * @param bytes to be decoded
+   * @return object represented by bytes
+   */
+  T decode(byte[] bytes);
+
+  /**
+   * Codec for Integers, as 4 big-endian bytes.
+   */
+  Codec<Integer> INTEGER = new Codec<Integer>() {
+    @Override
+    public byte[] encode(Integer object) {
+      return ByteBuffer.allocate(Integer.BYTES).putInt(object).array();
+    }
+
+    @Override
+    public Integer decode(byte[] bytes) {
+      return ByteBuffer.wrap(bytes).getInt();
+    }
+  };
+
+  /**
+   * Codec for Longs, as 8 big-endian bytes.
+   */
+  Codec<Long> LONG = new Codec<Long>() {
+    @Override
+    public byte[] encode(Long object) {
+      return ByteBuffer.allocate(Long.BYTES).putLong(object).array();
+    }
+
+    @Override
+    public Long decode(byte[] bytes) {
+      return ByteBuffer.wrap(bytes).getLong();
+    }
+  };
+
+  /**
+   * Codec for Strings, as UTF-8.
+   */
+  Codec<String> STRING = new Codec<String>() {
+    @Override
+    public byte[] encode(String object) {
+      return object.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  };
+}
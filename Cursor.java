@@ -0,0 +1,305 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Position within a BALST which is remembered between operations. Moving to the next or previous
+ * node takes amortized constant time, and seeking a key starts from the current position: the
+ * cursor climbs through parent references only until the key is within the subtree below, and then
+ * descends. A run of operations on nearby keys therefore costs O(log d) each, where d is the
+ * distance moved, rather than O(log n).
+ * 
+ * A cursor is invalidated by any insert or remove on its tree (other than through setValue), after
+ * which only seek(), first() and last() may be used. Tombstones left by removes in tombstone mode
+ * are skipped over.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class Cursor<Key extends Comparable<Key>, Value> {
+
+  private final BALST<Key, Value> tree; // Tree cursor moves within
+  private BSTNode<Key, Value> current; // Node cursor is positioned at, or null if none
+  private int expectedModCount; // modCount of tree when cursor was last positioned
+
+  /**
+   * Creates cursor which is not positioned at any node.
+   * 
+   * @param tree cursor moves within
+   */
+  Cursor(BALST<Key, Value> tree) {
+    this.tree = tree;
+    this.current = null;
+    this.expectedModCount = tree.modCount;
+  }
+
+  /**
+   * Determines if cursor is positioned at a node.
+   * 
+   * @return true if cursor is at a node, false otherwise
+   */
+  public boolean isValid() {
+    return current != null && expectedModCount == tree.modCount;
+  }
+
+  /**
+   * Throws exception unless the cursor is positioned at a node of the unmodified tree.
+   */
+  private void checkValid() {
+    if (expectedModCount != tree.modCount) {
+      throw new ConcurrentModificationException();
+    }
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+  }
+
+  /**
+   * Getter for key at cursor.
+   * 
+   * @return key of node at cursor
+   * @throws NoSuchElementException          if cursor is not at a node
+   * @throws ConcurrentModificationException if tree has been modified
+   */
+  public Key getKey() {
+    checkValid();
+    return current.key;
+  }
+
+  /**
+   * Getter for value at cursor.
+   * 
+   * @return value of node at cursor
+   * @throws NoSuchElementException          if cursor is not at a node
+   * @throws ConcurrentModificationException if tree has been modified
+   */
+  public Value getValue() {
+    checkValid();
+    return current.getValue();
+  }
+
+  /**
+   * Replaces value of node at cursor, without searching the tree again.
+   * 
+   * @param value new value of node at cursor
+   * @throws NoSuchElementException          if cursor is not at a node
+   * @throws ConcurrentModificationException if tree has been modified
+   */
+  public void setValue(Value value) {
+    checkValid();
+    tree.clearHistory();
+    current.setValue(value);
+    tree.updateAggregates(current);
+  }
+
+  /**
+   * Moves cursor to the smallest key in the tree.
+   * 
+   * @return true if cursor is at a node, false if the tree is empty
+   */
+  public boolean first() {
+    expectedModCount = tree.modCount;
+    current = tree.getMinNode();
+    skipForward();
+    return current != null;
+  }
+
+  /**
+   * Moves cursor to the largest key in the tree.
+   * 
+   * @return true if cursor is at a node, false if the tree is empty
+   */
+  public boolean last() {
+    expectedModCount = tree.modCount;
+    current = tree.getMaxNode();
+    skipBackward();
+    return current != null;
+  }
+
+  /**
+   * Moves cursor to the in order successor of its node.
+   * 
+   * @return true if cursor is at a node, false if it has moved past the largest key
+   * @throws NoSuchElementException          if cursor is not at a node
+   * @throws ConcurrentModificationException if tree has been modified
+   */
+  public boolean next() {
+    checkValid();
+    successor();
+    skipForward();
+    return current != null;
+  }
+
+  /**
+   * Moves current to its in order successor, or null if it has none.
+   */
+  private void successor() {
+    if (current.hasRightChild()) {
+      // Successor is the smallest node of the right subtree
+      current = current.getRightChild();
+      while (current.hasLeftChild()) {
+        current = current.getLeftChild();
+      }
+    } else {
+      // Successor is the first ancestor whose left subtree holds current
+      while (current.getParent() != null && current.getParent().getRightChild() == current) {
+        current = current.getParent();
+      }
+      current = current.getParent();
+    }
+  }
+
+  /**
+   * Moves current forward past any tombstones.
+   */
+  private void skipForward() {
+    while (current != null && current.dead) {
+      successor();
+    }
+  }
+
+  /**
+   * Moves cursor to the in order predecessor of its node.
+   * 
+   * @return true if cursor is at a node, false if it has moved before the smallest key
+   * @throws NoSuchElementException          if cursor is not at a node
+   * @throws ConcurrentModificationException if tree has been modified
+   */
+  public boolean prev() {
+    checkValid();
+    predecessor();
+    skipBackward();
+    return current != null;
+  }
+
+  /**
+   * Moves current to its in order predecessor, or null if it has none.
+   */
+  private void predecessor() {
+    if (current.hasLeftChild()) {
+      // Predecessor is the largest node of the left subtree
+      current = current.getLeftChild();
+      while (current.hasRightChild()) {
+        current = current.getRightChild();
+      }
+    } else {
+      // Predecessor is the first ancestor whose right subtree holds current
+      while (current.getParent() != null && current.getParent().getLeftChild() == current) {
+        current = current.getParent();
+      }
+      current = current.getParent();
+    }
+  }
+
+  /**
+   * Moves current backward past any tombstones.
+   */
+  private void skipBackward() {
+    while (current != null && current.dead) {
+      predecessor();
+    }
+  }
+
+  /**
+   * Moves cursor to key, starting from the cursor's current node if it has one. If key is not in
+   * the tree, the cursor is moved to the smallest key greater than key instead (or to no node, if
+   * every key is smaller).
+   * 
+   * @param key to be searched for
+   * @return true if cursor is at key, false otherwise
+   * @throws IllegalNullKeyException if key is null
+   */
+  public boolean seek(Key key) throws IllegalNullKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    BSTNode<Key, Value> node = isValid() ? current : tree.getRoot();
+    expectedModCount = tree.modCount;
+    long prefix = tree.prefixOf(key);
+    BSTNode<Key, Value> ceiling = null; // Smallest node seen with key greater than key
+    if (node != null) {
+      int comparison = tree.compare(key, prefix, node);
+      if (comparison == 0) {
+        current = node;
+        return found();
+      }
+      // Climbs until key is known to lie within the range of keys of node's subtree. Keys are
+      // bounded on one side by the node the cursor started at, so only the other side needs
+      // checking: a parent of which node is a left child bounds node's subtree from above, and a
+      // parent of which node is a right child bounds it from below.
+      while (node.getParent() != null) {
+        BSTNode<Key, Value> parent = node.getParent();
+        boolean isLeftChild = parent.getLeftChild() == node;
+        if (comparison > 0 && isLeftChild) {
+          int parentComparison = tree.compare(key, prefix, parent);
+          if (parentComparison < 0) {
+            ceiling = parent; // Key is below parent, so parent is the smallest greater key so far
+            break;
+          } else if (parentComparison == 0) {
+            current = parent;
+            return found();
+          }
+        } else if (comparison < 0 && !isLeftChild) {
+          int parentComparison = tree.compare(key, prefix, parent);
+          if (parentComparison > 0) {
+            break;
+          } else if (parentComparison == 0) {
+            current = parent;
+            return found();
+          }
+        }
+        node = parent;
+      }
+    }
+    // Descends from node, as findNodeHelper does from the root
+    while (node != null) {
+      int comparison = tree.compare(key, prefix, node);
+      if (comparison == 0) {
+        current = node;
+        return found();
+      } else if (comparison < 0) {
+        ceiling = node;
+        node = node.getLeftChild();
+      } else {
+        node = node.getRightChild();
+      }
+    }
+    current = ceiling;
+    skipForward();
+    return false;
+  }
+
+  /**
+   * Finishes a seek which reached a node holding the key: returns true, unless the node is a
+   * tombstone, in which case the cursor moves on to the next live key and returns false.
+   */
+  private boolean found() {
+    if (!current.dead) {
+      return true;
+    }
+    skipForward();
+    return false;
+  }
+}
@@ -0,0 +1,631 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * BALST whose inserts and removes are recorded in an append-only write-ahead log, so that the tree
+ * can be recovered after a crash. Recovery loads the latest snapshot and replays the logs written
+ * after it.
+ * 
+ * The log is forced to disk in groups: after every syncBatchSize operations, and/or every
+ * syncIntervalMillis milliseconds by a background thread. Operations since the last force may be
+ * lost in a crash, but the tree is always recovered to a prefix of the operations performed.
+ * 
+ * If the log cannot be written or forced, including by the background thread, every later insert
+ * and remove throws UncheckedIOException and sync() throws IOException, as operations since the
+ * last force may never reach the disk and forcing again may wrongly report success. Reopening the
+ * tree recovers the operations which did reach the disk.
+ * 
+ * The directory holds snapshot-N.bin, which holds every operation logged before generation N, and
+ * wal-N.log files. Compaction closes the current log, starts a new one, and then, on a background
+ * thread, replays the closed logs on top of the previous snapshot to write a new snapshot. The live
+ * tree is never touched by compaction, so it doesn't block operations.
+ * 
+ * All methods are synchronized, so the tree may be shared by multiple threads.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class DurableBALST<Key extends Comparable<Key>, Value>
+    implements BALSTADT<Key, Value>, AutoCloseable {
+
+  private static final byte INSERT = 1; // Operation code of logged insert
+  private static final byte REMOVE = 2; // Operation code of logged remove
+  private static final int NULL_LENGTH = -1; // Length logged in place of a null value
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".bin";
+  private static final String LOG_PREFIX = "wal-";
+  private static final String LOG_SUFFIX = ".log";
+
+  private final Path directory;
+  private final Codec<Key> keyCodec;
+  private final Codec<Value> valueCodec;
+  private final int syncBatchSize; // Operations between forces, or 0 to only force on interval
+  private final BALST<Key, Value> tree;
+
+  private FileChannel log; // Log currently appended to
+  private long logGeneration; // Generation of log currently appended to
+  private long logSize; // Bytes appended to current log
+  private int unsynced; // Operations appended since log was last forced
+  // Failure to write or force the log, reported by every later operation, or null
+  private IOException logFailure;
+  private long snapshotGeneration; // Generation of latest snapshot, or 0 if none
+  private long compactionThreshold; // Log size which triggers compaction, or 0 for never
+
+  private final ExecutorService compactor; // Runs compactions, one at a time
+  // Failure of a compaction started by the threshold, reported by the next sync(), or null
+  private Exception compactionFailure;
+  private final ScheduledExecutorService syncer; // Forces log on interval, or null
+
+  /**
+   * Opens the tree stored in directory, creating it if needed, and recovering it from its snapshot
+   * and logs.
+   * 
+   * @param directory          holding snapshot and logs
+   * @param keyCodec           converts keys to and from bytes
+   * @param valueCodec         converts values to and from bytes
+   * @param syncBatchSize      number of operations after which the log is forced to disk, or 0 to
+   *                           only force on the interval
+   * @param syncIntervalMillis milliseconds between forces of the log, or 0 for no interval
+   * @return recovered tree
+   * @throws IOException if the directory cannot be read or written
+   */
+  public static <K extends Comparable<K>, V> DurableBALST<K, V> open(Path directory,
+      Codec<K> keyCodec, Codec<V> valueCodec, int syncBatchSize, long syncIntervalMillis)
+      throws IOException {
+    if (syncBatchSize < 0 || syncIntervalMillis < 0
+        || (syncBatchSize == 0 && syncIntervalMillis == 0)) {
+      throw new IllegalArgumentException("Log must be forced by batch size or interval");
+    }
+    Files.createDirectories(directory);
+    return new DurableBALST<K, V>(directory, keyCodec, valueCodec, syncBatchSize,
+        syncIntervalMillis);
+  }
+
+  /**
+   * Recovers tree and starts a new log.
+   */
+  private DurableBALST(Path directory, Codec<Key> keyCodec, Codec<Value> valueCodec,
+      int syncBatchSize, long syncIntervalMillis) throws IOException {
+    this.directory = directory;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.syncBatchSize = syncBatchSize;
+
+    // Loads latest snapshot, and replays every log written since
+    List<Long> snapshots = generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    this.snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+    List<Long> logs = generations(LOG_PREFIX, LOG_SUFFIX);
+    this.tree =
+        replay(snapshotGeneration, logs.isEmpty() ? -1 : logs.get(logs.size() - 1), true);
+
+    // Removes files made obsolete by the latest snapshot
+    for (long generation : snapshots) {
+      if (generation < snapshotGeneration) {
+        Files.deleteIfExists(snapshotPath(generation));
+      }
+    }
+    for (long generation : logs) {
+      if (generation < snapshotGeneration) {
+        Files.deleteIfExists(logPath(generation));
+      }
+    }
+
+    // Appends to a new log, rather than after a possibly torn record
+    long lastGeneration = logs.isEmpty() ? snapshotGeneration : logs.get(logs.size() - 1);
+    openLog(Math.max(lastGeneration + 1, snapshotGeneration));
+
+    this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "BALST-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (syncIntervalMillis > 0) {
+      this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BALST-log-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      syncer.scheduleAtFixedRate(this::syncQuietly, syncIntervalMillis, syncIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.syncer = null;
+    }
+  }
+
+  /**
+   * Builds a tree from the snapshot of the given generation (if it exists) and the logs of
+   * generations from it through lastLog.
+   * 
+   * @param recovering whether lastLog is the log being written when the tree was last closed, or
+   *                   crashed, and so may end with a torn record
+   */
+  private BALST<Key, Value> replay(long snapshot, long lastLog, boolean recovering)
+      throws IOException {
+    BALST<Key, Value> replayed;
+    if (snapshot > 0 && Files.exists(snapshotPath(snapshot))) {
+      replayed = BALSTSnapshot.load(snapshotPath(snapshot), keyCodec, valueCodec);
+    } else {
+      replayed = new BALST<Key, Value>();
+    }
+    for (long generation = snapshot; generation <= lastLog; ++generation) {
+      if (Files.exists(logPath(generation))) {
+        replayLog(logPath(generation), replayed, recovering && generation == lastLog);
+      }
+    }
+    return replayed;
+  }
+
+  /**
+   * Applies each record of a log to target. Only the log being written during a crash may end with
+   * a torn record, which is cut off so that the log is intact once a newer log follows it. Any
+   * other damaged record means that operations after it would be replayed without it, so replay
+   * fails.
+   * 
+   * @param path    of log
+   * @param target  records are applied to
+   * @param tornEnd whether log may end with a torn record
+   * @throws IOException if log cannot be read, or is damaged other than at a torn end
+   */
+  private void replayLog(Path path, BALST<Key, Value> target, boolean tornEnd)
+      throws IOException {
+    ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path));
+    CRC32 crc = new CRC32();
+    while (contents.hasRemaining()) {
+      int start = contents.position();
+      ByteBuffer record = null;
+      boolean reachesEnd = true; // Whether a damaged record runs to the end of the log
+      if (contents.remaining() >= Integer.BYTES) {
+        int length = contents.getInt();
+        // Every record holds at least an operation and the length of a key
+        if (length < 1 + Integer.BYTES) {
+          reachesEnd = false;
+        } else if (contents.remaining() >= length + Long.BYTES) {
+          record = contents.slice();
+          record.limit(length);
+          contents.position(contents.position() + length);
+          crc.reset();
+          crc.update(record.duplicate());
+          if (contents.getLong() != crc.getValue()) {
+            record = null;
+            reachesEnd = !contents.hasRemaining();
+          }
+        }
+      }
+      if (record == null) {
+        if (!tornEnd || !(reachesEnd || zerosFrom(contents, start))) {
+          throw new StreamCorruptedException("Log " + path + " is damaged at byte " + start);
+        }
+        try (FileChannel torn = FileChannel.open(path, StandardOpenOption.WRITE)) {
+          torn.truncate(start);
+          torn.force(true);
+        }
+        return;
+      }
+      byte operation = record.get();
+      byte[] keyBytes = new byte[record.getInt()];
+      record.get(keyBytes);
+      Key key = keyCodec.decode(keyBytes);
+      try {
+        if (operation == INSERT) {
+          int valueLength = record.getInt();
+          Value value = null;
+          if (valueLength != NULL_LENGTH) {
+            byte[] valueBytes = new byte[valueLength];
+            record.get(valueBytes);
+            value = valueCodec.decode(valueBytes);
+          }
+          target.insert(key, value);
+        } else if (operation == REMOVE) {
+          target.remove(key);
+        }
+      } catch (IllegalNullKeyException | DuplicateKeyException | KeyNotFoundException e) {
+        // Only valid operations are logged, so the log doesn't match the snapshot
+        throw new IOException("Log " + path + " does not apply to its snapshot", e);
+      }
+    }
+  }
+
+  /**
+   * Determines whether a log holds only zeros from start on, as when the file grew before the
+   * records written at its end reached the disk.
+   * 
+   * @param contents of log
+   * @param start    of damaged record
+   * @return true if every byte from start is zero
+   */
+  private static boolean zerosFrom(ByteBuffer contents, int start) {
+    for (int i = start; i < contents.limit(); ++i) {
+      if (contents.get(i) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns sorted generations of the files in directory with the given prefix and suffix.
+   */
+  private List<Long> generations(String prefix, String suffix) throws IOException {
+    List<Long> generations = new ArrayList<Long>();
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          String generation = name.substring(prefix.length(), name.length() - suffix.length());
+          generations.add(Long.parseLong(generation));
+        } catch (NumberFormatException e) {
+          // Not one of ours (such as an unfinished snapshot), so ignore it
+        }
+      }
+    }
+    Collections.sort(generations);
+    return generations;
+  }
+
+  private Path snapshotPath(long generation) {
+    return directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+  }
+
+  private Path logPath(long generation) {
+    return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+  }
+
+  /**
+   * Starts appending to the log of the given generation.
+   */
+  private void openLog(long generation) throws IOException {
+    this.log = FileChannel.open(logPath(generation), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    this.logGeneration = generation;
+    this.logSize = log.size();
+    this.unsynced = 0;
+  }
+
+  /**
+   * Sets the size of the log after which a compaction is started automatically.
+   * 
+   * @param bytes size of log which triggers compaction, or 0 to only compact when compact() is
+   *              called
+   */
+  public synchronized void setCompactionThreshold(long bytes) {
+    this.compactionThreshold = bytes;
+  }
+
+  /**
+   * Appends a record to the log, forcing it to disk if the batch is complete.
+   */
+  private void append(byte operation, Key key, Value value) {
+    byte[] keyBytes = keyCodec.encode(key);
+    byte[] valueBytes = value == null ? null : valueCodec.encode(value);
+    int length = 1 + Integer.BYTES + keyBytes.length;
+    if (operation == INSERT) {
+      length += Integer.BYTES + (valueBytes == null ? 0 : valueBytes.length);
+    }
+    ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length + Long.BYTES);
+    record.putInt(length);
+    record.put(operation);
+    record.putInt(keyBytes.length).put(keyBytes);
+    if (operation == INSERT) {
+      if (valueBytes == null) {
+        record.putInt(NULL_LENGTH);
+      } else {
+        record.putInt(valueBytes.length).put(valueBytes);
+      }
+    }
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), Integer.BYTES, length);
+    record.putLong(crc.getValue());
+    record.flip();
+    long start = logSize;
+    try {
+      checkLog();
+      try {
+        while (record.hasRemaining()) {
+          logSize += log.write(record);
+        }
+      } catch (IOException e) {
+        truncateLog(start, e);
+        throw e;
+      }
+      ++unsynced;
+      if (syncBatchSize > 0 && unsynced >= syncBatchSize) {
+        forceLog();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (compactionThreshold > 0 && logSize >= compactionThreshold) {
+      startCompaction(true);
+    }
+  }
+
+  /**
+   * Cuts a record whose write failed off the end of the log, so that the next record follows the
+   * last complete one rather than damage which would stop recovery. If the log cannot be cut, it is
+   * marked as failed.
+   * 
+   * @param size  of log before the record
+   * @param cause failure of the write
+   */
+  private void truncateLog(long size, IOException cause) {
+    try {
+      log.truncate(size);
+      logSize = size;
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+      logFailure = cause;
+    }
+  }
+
+  /**
+   * Throws if the log has failed to be written or forced.
+   * 
+   * @throws IOException if the log has failed
+   */
+  private void checkLog() throws IOException {
+    if (logFailure != null) {
+      throw new IOException("Log failed, and must be reopened", logFailure);
+    }
+  }
+
+  /**
+   * Forces every operation performed so far to disk, and reports the failure of any compaction
+   * started automatically since the last call.
+   * 
+   * @throws IOException if log cannot be forced or has failed, or an automatic compaction failed
+   */
+  public synchronized void sync() throws IOException {
+    forceLog();
+    if (compactionFailure != null) {
+      Exception failure = compactionFailure;
+      compactionFailure = null;
+      throw new IOException("Background compaction failed", failure);
+    }
+  }
+
+  /**
+   * Forces the log to disk, if any operations have been appended since it was last forced. A failed
+   * force marks the log as failed, as the operations it held may have been dropped.
+   * 
+   * @throws IOException if log cannot be forced or has failed
+   */
+  private synchronized void forceLog() throws IOException {
+    checkLog();
+    if (unsynced > 0) {
+      try {
+        log.force(false);
+      } catch (IOException e) {
+        logFailure = e;
+        throw e;
+      }
+      unsynced = 0;
+    }
+  }
+
+  /**
+   * Forces log on interval. A failure marks the log as failed, to be reported by every later
+   * operation.
+   */
+  private void syncQuietly() {
+    try {
+      forceLog();
+    } catch (IOException e) {
+      // Recorded by forceLog()
+    }
+  }
+
+  /**
+   * Closes the current log and starts compacting it into a new snapshot in the background.
+   * 
+   * @return completes once the new snapshot has been written and obsolete files deleted
+   */
+  public synchronized Future<?> compact() {
+    return startCompaction(false);
+  }
+
+  /**
+   * Closes the current log and starts compacting it into a new snapshot in the background.
+   * 
+   * @param automatic whether compaction was started by the log reaching the threshold, in which
+   *                  case nobody waits for it and its failure is reported by the next sync()
+   * @return completes once the new snapshot has been written and obsolete files deleted
+   */
+  private synchronized Future<?> startCompaction(boolean automatic) {
+    final long closedGeneration = logGeneration;
+    try {
+      forceLog();
+      log.close();
+      openLog(closedGeneration + 1);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compactor.submit(() -> {
+      long previousSnapshot;
+      synchronized (this) {
+        previousSnapshot = snapshotGeneration;
+      }
+      long newSnapshot = closedGeneration + 1;
+      try {
+        BALST<Key, Value> compacted = replay(previousSnapshot, closedGeneration, false);
+        Path unfinished = directory.resolve(SNAPSHOT_PREFIX + newSnapshot + ".tmp");
+        BALSTSnapshot.save(compacted, unfinished, keyCodec, valueCodec);
+        Files.move(unfinished, snapshotPath(newSnapshot), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException | RuntimeException e) {
+        if (automatic) {
+          synchronized (this) {
+            compactionFailure = e;
+          }
+        }
+        throw e;
+      }
+      synchronized (this) {
+        snapshotGeneration = newSnapshot;
+      }
+      Files.deleteIfExists(snapshotPath(previousSnapshot));
+      for (long generation = previousSnapshot; generation <= closedGeneration; ++generation) {
+        Files.deleteIfExists(logPath(generation));
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Forces the log, closes it, and waits for running compactions.
+   * 
+   * @throws IOException if log cannot be forced or has failed, or an automatic compaction failed
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (syncer != null) {
+        syncer.shutdownNow();
+      }
+      compactor.shutdown();
+      try {
+        forceLog();
+      } finally {
+        log.close();
+      }
+    }
+    // Waits without holding the lock, which compactions take when they finish
+    try {
+      compactor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      if (compactionFailure != null) {
+        throw new IOException("Background compaction failed", compactionFailure);
+      }
+    }
+  }
+
+  /**
+   * Inserts node into tree, logging the insert first.
+   */
+  @Override
+  public synchronized void insert(Key key, Value value)
+      throws IllegalNullKeyException, DuplicateKeyException {
+    if (tree.contains(key)) {
+      throw new DuplicateKeyException();
+    }
+    append(INSERT, key, value);
+    tree.insert(key, value);
+  }
+
+  /**
+   * Removes node from tree, logging the remove first.
+   */
+  @Override
+  public synchronized boolean remove(Key key)
+      throws IllegalNullKeyException, KeyNotFoundException {
+    if (!tree.contains(key)) {
+      throw new KeyNotFoundException();
+    }
+    append(REMOVE, key, null);
+    return tree.remove(key);
+  }
+
+  @Override
+  public synchronized Key getKeyAtRoot() {
+    return tree.getKeyAtRoot();
+  }
+
+  @Override
+  public synchronized Key getKeyOfLeftChildOf(Key key)
+      throws IllegalNullKeyException, KeyNotFoundException {
+    return tree.getKeyOfLeftChildOf(key);
+  }
+
+  @Override
+  public synchronized Key getKeyOfRightChildOf(Key key)
+      throws IllegalNullKeyException, KeyNotFoundException {
+    return tree.getKeyOfRightChildOf(key);
+  }
+
+  @Override
+  public synchronized int getHeight() {
+    return tree.getHeight();
+  }
+
+  @Override
+  public synchronized List<Key> getInOrderTraversal() {
+    return tree.getInOrderTraversal();
+  }
+
+  @Override
+  public synchronized List<Key> getPreOrderTraversal() {
+    return tree.getPreOrderTraversal();
+  }
+
+  @Override
+  public synchronized List<Key> getPostOrderTraversal() {
+    return tree.getPostOrderTraversal();
+  }
+
+  @Override
+  public synchronized List<Key> getLevelOrderTraversal() {
+    return tree.getLevelOrderTraversal();
+  }
+
+  @Override
+  public synchronized Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return tree.get(key);
+  }
+
+  @Override
+  public synchronized boolean contains(Key key) throws IllegalNullKeyException {
+    return tree.contains(key);
+  }
+
+  @Override
+  public synchronized int numKeys() {
+    return tree.numKeys();
+  }
+
+  @Override
+  public synchronized void print() {
+    tree.print();
+  }
+}
@@ -0,0 +1,83 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring of the most recent events published by a BALST. The tree's writer publishes without
+ * locking or waiting: each event is stored in the slot of its sequence number modulo the capacity,
+ * overwriting the event a full ring earlier, and readers on other threads find each event by its
+ * sequence number. Events are immutable, and slots are written with release semantics, so a reader
+ * which sees an event sees all of it.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key> is the generic type of key
+ */
+class EventRing<Key> {
+
+  private final AtomicReferenceArray<TreeEvent<Key>> slots;
+  private final int mask; // Number of slots minus 1, the number of slots being a power of 2
+  private final AtomicLong next = new AtomicLong(); // Sequence number of the next event
+
+  /**
+   * Constructor for empty ring.
+   * 
+   * @param capacity least number of events kept, which must be positive
+   */
+  EventRing(int capacity) {
+    int size = Integer.highestOneBit(Math.max(1, 2 * capacity - 1));
+    this.slots = new AtomicReferenceArray<TreeEvent<Key>>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Publishes an event. Called only by the tree's writer.
+   * 
+   * @param type       of event
+   * @param key        of node changed
+   * @param relatedKey parent's key for INSERTED, moved key for REPLACED, else null
+   * @param left       whether an INSERTED node is a left child
+   * @param color      of an INSERTED or RECOLORED node, else null
+   */
+  void publish(TreeEvent.Type type, Key key, Key relatedKey, boolean left, String color) {
+    long sequence = this.next.get();
+    this.slots.lazySet((int) sequence & this.mask,
+        new TreeEvent<Key>(sequence, type, key, relatedKey, left, color));
+    this.next.lazySet(sequence + 1);
+  }
+
+  /**
+   * Returns the sequence number the next event will have.
+   */
+  long next() {
+    return this.next.get();
+  }
+
+  /**
+   * Returns the event stored in the slot for sequence, which is the event with that sequence
+   * number, an earlier one if it hasn't been published yet, or a later one if it was overwritten.
+   */
+  TreeEvent<Key> slot(long sequence) {
+    return this.slots.get((int) sequence & this.mask);
+  }
+}
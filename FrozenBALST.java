@@ -0,0 +1,360 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Immutable, read-optimized copy of a BALST, produced by BALST.freeze(). Keys are stored in an
+ * implicit array in Eytzinger (breadth first) order: the root is at index 1 and the children of
+ * index i are at 2i and 2i + 1. A lookup therefore moves through one array, rather than chasing
+ * references between nodes, and the nodes of the top levels (which every lookup visits) share
+ * cache lines. When every key is an Integer or a Long, the descent compares primitive copies of the
+ * keys rather than calling compareTo, and avoids branching on the comparison. When every key is a
+ * String, the first 4 chars of each are kept in the layout, so that most comparisons are decided
+ * without following the reference to the key.
+ * 
+ * The tree described by the array is a complete binary search tree, rather than the Red-Black tree
+ * it was copied from, and the structural queries (root, children, height, traversals and print)
+ * report this shape.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class FrozenBALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key, Value> {
+
+  private final int numKeys; // Number of keys, stored at indices 1 through numKeys
+  private final Object[] keys; // Keys in Eytzinger order, index 0 unused
+  private final Object[] values; // Values in the same order as keys
+  private final long[] numericKeys; // Primitive copies of keys if all are Integer or Long, or null
+  private final long[] stringPrefixes; // First 4 chars of each key if all are Strings, or null
+  private final Comparator<? super Key> comparator; // Ordering of keys, null for natural ordering
+
+  /**
+   * Builds the Eytzinger layout from keys and values in order.
+   * 
+   * @param sortedKeys   keys in increasing order
+   * @param sortedValues values in the same order as sortedKeys
+   */
+  FrozenBALST(Object[] sortedKeys, Object[] sortedValues) {
+    this(sortedKeys, sortedValues, null);
+  }
+
+  /**
+   * Builds the Eytzinger layout from keys and values in the order of comparator. The primitive and
+   * String comparisons are only used for keys in their natural ordering.
+   * 
+   * @param sortedKeys   keys in increasing order
+   * @param sortedValues values in the same order as sortedKeys
+   * @param comparator   ordering of keys, or null for their natural ordering
+   */
+  FrozenBALST(Object[] sortedKeys, Object[] sortedValues, Comparator<? super Key> comparator) {
+    this.comparator = comparator;
+    this.numKeys = sortedKeys.length;
+    this.keys = new Object[numKeys + 1];
+    this.values = new Object[numKeys + 1];
+    fill(sortedKeys, sortedValues, 1, 0);
+
+    // Uses primitive comparisons if every key is of the same integral type
+    boolean numeric = comparator == null && numKeys > 0
+        && (keys[1] instanceof Integer || keys[1] instanceof Long);
+    for (int i = 1; numeric && i <= numKeys; ++i) {
+      numeric = keys[i].getClass() == keys[1].getClass();
+    }
+    if (numeric) {
+      numericKeys = new long[numKeys + 1];
+      for (int i = 1; i <= numKeys; ++i) {
+        numericKeys[i] = ((Number) keys[i]).longValue();
+      }
+    } else {
+      numericKeys = null;
+    }
+    // For String keys, keeps the leading chars of each key alongside the layout, so that most
+    // comparisons don't need to follow the reference to the key
+    boolean strings = comparator == null && numKeys > 0;
+    for (int i = 1; strings && i <= numKeys; ++i) {
+      strings = keys[i] instanceof String;
+    }
+    if (strings) {
+      stringPrefixes = new long[numKeys + 1];
+      for (int i = 1; i <= numKeys; ++i) {
+        stringPrefixes[i] = stringPrefix((String) keys[i]);
+      }
+    } else {
+      stringPrefixes = null;
+    }
+  }
+
+  /**
+   * Packs the first 4 chars of a String into a long, padding with zeros. Comparing two prefixes as
+   * unsigned numbers orders them as String.compareTo orders the Strings, except that equal prefixes
+   * leave the order undecided.
+   * 
+   * @param string whose prefix is returned
+   * @return prefix of string
+   */
+  static long stringPrefix(String string) {
+    long prefix = 0;
+    for (int i = 0; i < 4; ++i) {
+      prefix = (prefix << 16) | (i < string.length() ? string.charAt(i) : 0);
+    }
+    return prefix;
+  }
+
+  /**
+   * Places the keys in order into the subtree at index, by an in order walk of the implicit tree.
+   * 
+   * @param next index in sortedKeys of the next key to be placed
+   * @return index in sortedKeys of the next key to be placed after the subtree is filled
+   */
+  private int fill(Object[] sortedKeys, Object[] sortedValues, int index, int next) {
+    if (index > numKeys) {
+      return next;
+    }
+    next = fill(sortedKeys, sortedValues, 2 * index, next);
+    keys[index] = sortedKeys[next];
+    values[index] = sortedValues[next];
+    ++next;
+    return fill(sortedKeys, sortedValues, 2 * index + 1, next);
+  }
+
+  /**
+   * Finds the index of key. For primitive keys, the descent always runs to the bottom of the tree,
+   * moving right exactly when the key at the current index is smaller than key; afterwards, the
+   * index of the smallest key not less than key is recovered from the trailing 1 bits of the index
+   * reached.
+   * 
+   * @return index of key, or 0 if not present
+   */
+  @SuppressWarnings("unchecked")
+  private int findIndex(Key key) {
+    int index = 1;
+    if (numericKeys != null && key.getClass() == keys[1].getClass()) {
+      long target = ((Number) key).longValue();
+      while (index <= numKeys) {
+        index = 2 * index + (numericKeys[index] < target ? 1 : 0);
+      }
+      index >>= Integer.numberOfTrailingZeros(~index) + 1;
+      return index != 0 && numericKeys[index] == target ? index : 0;
+    }
+    // Otherwise each comparison is costly enough that stopping early at a match pays for the
+    // branch
+    if (stringPrefixes != null && key instanceof String) {
+      long target = stringPrefix((String) key);
+      while (index <= numKeys) {
+        int comparison = Long.compareUnsigned(target, stringPrefixes[index]);
+        if (comparison == 0) {
+          comparison = key.compareTo((Key) keys[index]);
+          if (comparison == 0) {
+            return index;
+          }
+        }
+        index = 2 * index + (comparison > 0 ? 1 : 0);
+      }
+      return 0;
+    }
+    while (index <= numKeys) {
+      int comparison = comparator != null ? comparator.compare(key, (Key) keys[index])
+          : key.compareTo((Key) keys[index]);
+      if (comparison == 0) {
+        return index;
+      }
+      index = 2 * index + (comparison > 0 ? 1 : 0);
+    }
+    return 0;
+  }
+
+  /**
+   * Finds the index of key, throwing the exceptions required by BALSTADT.
+   */
+  private int requireIndex(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    int index = numKeys == 0 ? 0 : findIndex(key);
+    if (index == 0) {
+      throw new KeyNotFoundException();
+    }
+    return index;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Key keyAt(int index) {
+    return index <= numKeys ? (Key) keys[index] : null;
+  }
+
+  @Override
+  public Key getKeyAtRoot() {
+    return keyAt(1);
+  }
+
+  @Override
+  public Key getKeyOfLeftChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return keyAt(2 * requireIndex(key));
+  }
+
+  @Override
+  public Key getKeyOfRightChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return keyAt(2 * requireIndex(key) + 1);
+  }
+
+  /**
+   * Returns height of tree, which as the tree is complete is the number of bits of numKeys.
+   */
+  @Override
+  public int getHeight() {
+    return Integer.SIZE - Integer.numberOfLeadingZeros(numKeys);
+  }
+
+  @Override
+  public List<Key> getInOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    inOrderHelper(1, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree at index to list in order.
+   */
+  private void inOrderHelper(int index, List<Key> list) {
+    if (index > numKeys) {
+      return;
+    }
+    inOrderHelper(2 * index, list);
+    list.add(keyAt(index));
+    inOrderHelper(2 * index + 1, list);
+  }
+
+  @Override
+  public List<Key> getPreOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    preOrderHelper(1, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree at index to list in pre order.
+   */
+  private void preOrderHelper(int index, List<Key> list) {
+    if (index > numKeys) {
+      return;
+    }
+    list.add(keyAt(index));
+    preOrderHelper(2 * index, list);
+    preOrderHelper(2 * index + 1, list);
+  }
+
+  @Override
+  public List<Key> getPostOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    postOrderHelper(1, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree at index to list in post order.
+   */
+  private void postOrderHelper(int index, List<Key> list) {
+    if (index > numKeys) {
+      return;
+    }
+    postOrderHelper(2 * index, list);
+    postOrderHelper(2 * index + 1, list);
+    list.add(keyAt(index));
+  }
+
+  /**
+   * Returns keys in level order, which is the order in which they are stored.
+   */
+  @Override
+  public List<Key> getLevelOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    for (int index = 1; index <= numKeys; ++index) {
+      list.add(keyAt(index));
+    }
+    return list;
+  }
+
+  /**
+   * Not supported, as the tree is immutable.
+   */
+  @Override
+  public void insert(Key key, Value value) {
+    throw new UnsupportedOperationException("Frozen BALST is immutable");
+  }
+
+  /**
+   * Not supported, as the tree is immutable.
+   */
+  @Override
+  public boolean remove(Key key) {
+    throw new UnsupportedOperationException("Frozen BALST is immutable");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return (Value) values[requireIndex(key)];
+  }
+
+  @Override
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    return numKeys > 0 && findIndex(key) != 0;
+  }
+
+  @Override
+  public int numKeys() {
+    return numKeys;
+  }
+
+  /**
+   * Prints the complete tree as BALST.print() does. Every node is black, except that the nodes of
+   * the bottom level are red when it is not full, which is a valid Red-Black coloring.
+   */
+  @Override
+  public void print() {
+    new BALST<Key, Value>(toNode(1, null), numKeys).print();
+  }
+
+  /**
+   * Builds nodes for the subtree at index.
+   */
+  @SuppressWarnings("unchecked")
+  private BSTNode<Key, Value> toNode(int index, BSTNode<Key, Value> parent) {
+    if (index > numKeys) {
+      return null;
+    }
+    BSTNode<Key, Value> node =
+        new ValueNode<Key, Value>(keyAt(index), (Value) values[index], parent);
+    boolean bottomLevel = Integer.SIZE - Integer.numberOfLeadingZeros(index) == getHeight();
+    boolean bottomFull = Integer.bitCount(numKeys + 1) == 1;
+    node.color = bottomLevel && !bottomFull ? "R" : "B";
+    node.leftChild = toNode(2 * index, node);
+    node.rightChild = toNode(2 * index + 1, node);
+    return node;
+  }
+}
@@ -0,0 +1,151 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Insert or remove recorded in a BALST's history, as the state of every node it touched and of the
+ * tree's own fields, either before the operation (while it can be undone) or after it (once undone,
+ * while it can be redone). Undoing and redoing both swap the recorded state with the current one.
+ * 
+ * An insert or remove only touches the nodes on its search path, their children, and the nodes
+ * rotated or recolored while rebalancing, so each entry holds O(log n) node states.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+class HistoryEntry<Key, Value> {
+
+  final Key key; // Key inserted or removed
+  final boolean insert; // Whether operation was an insert, rather than a remove
+
+  // Nodes touched, with their recorded states at the same positions
+  final List<BSTNode<Key, Value>> nodes = new ArrayList<BSTNode<Key, Value>>();
+  final List<NodeState<Key, Value>> states = new ArrayList<NodeState<Key, Value>>();
+  // Nodes recorded so far, while the operation is in progress
+  private IdentityHashMap<BSTNode<Key, Value>, Boolean> touched =
+      new IdentityHashMap<BSTNode<Key, Value>, Boolean>();
+
+  // Recorded fields of the tree
+  BSTNode<Key, Value> root;
+  BSTNode<Key, Value> minNode;
+  BSTNode<Key, Value> maxNode;
+  int numKeys;
+  int deadCount;
+
+  /**
+   * Fields of a node which operations may change.
+   */
+  static final class NodeState<Key, Value> {
+
+    private final Key key;
+    private final Value value;
+    private final Value aggregate;
+    private final BSTNode<Key, Value> parent;
+    private final BSTNode<Key, Value> leftChild;
+    private final BSTNode<Key, Value> rightChild;
+    private final String color;
+    private final int rank;
+    private final boolean dead;
+    private final long prefix;
+
+    /**
+     * Constructor for the current state of node.
+     */
+    NodeState(BSTNode<Key, Value> node) {
+      this.key = node.key;
+      this.value = node.getValue();
+      this.aggregate = node.getAggregate();
+      this.parent = node.parent;
+      this.leftChild = node.leftChild;
+      this.rightChild = node.rightChild;
+      this.color = node.color;
+      this.rank = node.rank;
+      this.dead = node.dead;
+      this.prefix = node.getPrefix();
+    }
+
+    /**
+     * Sets the fields of node to this state.
+     */
+    void restore(BSTNode<Key, Value> node) {
+      node.key = this.key;
+      node.setValue(this.value);
+      node.setAggregate(this.aggregate);
+      node.parent = this.parent;
+      node.leftChild = this.leftChild;
+      node.rightChild = this.rightChild;
+      node.color = this.color;
+      node.rank = this.rank;
+      node.dead = this.dead;
+      node.setPrefix(this.prefix);
+    }
+  }
+
+  /**
+   * Constructor for entry of an operation about to start, whose caller records the tree's fields.
+   * 
+   * @param key    inserted or removed
+   * @param insert whether operation is an insert
+   */
+  HistoryEntry(Key key, boolean insert) {
+    this.key = key;
+    this.insert = insert;
+  }
+
+  /**
+   * Records the state of node, unless it has already been recorded, before it is first changed.
+   * Takes nodes of any type, as balance strategies hand the tree's nodes to it as raw types.
+   * 
+   * @param node of the tree, about to be changed, or null
+   */
+  @SuppressWarnings("unchecked")
+  void touch(BSTNode<?, ?> node) {
+    BSTNode<Key, Value> treeNode = (BSTNode<Key, Value>) node;
+    if (treeNode != null && this.touched.put(treeNode, Boolean.TRUE) == null) {
+      this.nodes.add(treeNode);
+      this.states.add(new NodeState<Key, Value>(treeNode));
+    }
+  }
+
+  /**
+   * Ends recording, once the operation has finished.
+   */
+  void finish() {
+    this.touched = null;
+  }
+
+  /**
+   * Swaps the recorded state of each node with its current state.
+   */
+  void swapNodes() {
+    for (int i = 0; i < this.nodes.size(); ++i) {
+      BSTNode<Key, Value> node = this.nodes.get(i);
+      NodeState<Key, Value> current = new NodeState<Key, Value>(node);
+      this.states.get(i).restore(node);
+      this.states.set(i, current);
+    }
+  }
+}
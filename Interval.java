@@ -0,0 +1,117 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Half-open interval [start, end) of keys, as stored in an IntervalTree. Intervals are ordered by
+ * start, and then by end.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key> is the generic type of the interval's endpoints
+ */
+public final class Interval<Key extends Comparable<Key>> implements Comparable<Interval<Key>> {
+
+  private final Key start; // Smallest key in interval
+  private final Key end; // First key after interval
+
+  /**
+   * Constructor for interval from start (inclusive) to end (exclusive).
+   * 
+   * @param start smallest key in interval
+   * @param end   first key after interval
+   * @throws IllegalNullKeyException  if start or end is null
+   * @throws IllegalArgumentException unless start is less than end
+   */
+  public Interval(Key start, Key end) throws IllegalNullKeyException {
+    if (start == null || end == null) {
+      throw new IllegalNullKeyException();
+    }
+    if (start.compareTo(end) >= 0) {
+      throw new IllegalArgumentException("Interval start must be less than its end");
+    }
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Getter for start of interval.
+   * 
+   * @return smallest key in interval
+   */
+  public Key getStart() {
+    return this.start;
+  }
+
+  /**
+   * Getter for end of interval.
+   * 
+   * @return first key after interval
+   */
+  public Key getEnd() {
+    return this.end;
+  }
+
+  /**
+   * Determines whether interval shares a key with [lo, hi).
+   * 
+   * @param lo smallest key of other interval
+   * @param hi first key after other interval
+   * @return true if the intervals overlap
+   */
+  public boolean overlaps(Key lo, Key hi) {
+    return this.start.compareTo(hi) < 0 && this.end.compareTo(lo) > 0;
+  }
+
+  /**
+   * Determines whether interval contains point.
+   * 
+   * @param point key being tested
+   * @return true if start <= point < end
+   */
+  public boolean contains(Key point) {
+    return this.start.compareTo(point) <= 0 && this.end.compareTo(point) > 0;
+  }
+
+  @Override
+  public int compareTo(Interval<Key> other) {
+    int comparison = this.start.compareTo(other.start);
+    return comparison != 0 ? comparison : this.end.compareTo(other.end);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Interval)) {
+      return false;
+    }
+    Interval<?> interval = (Interval<?>) other;
+    return this.start.equals(interval.start) && this.end.equals(interval.end);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.start.hashCode() + this.end.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "[" + this.start + ", " + this.end + ")";
+  }
+}
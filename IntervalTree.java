@@ -0,0 +1,297 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Interval tree: a BALST of half-open intervals keyed by start (and then end), in which each node
+ * caches the interval with the greatest end in its subtree, by way of the tree's monoid
+ * aggregates. The cached ends are kept up to date through every insert, remove and rotation, and
+ * let queries skip any subtree none of whose intervals reach the query, so finding the intervals
+ * which contain a point or overlap an interval visits few more nodes than it reports.
+ * 
+ * Query results are streamed by an iterator, which finds each interval as it is requested. Like a
+ * Cursor, the iterator throws ConcurrentModificationException once the tree has been modified.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of the intervals' endpoints
+ * @param <Value> is the generic type of value
+ */
+public class IntervalTree<Key extends Comparable<Key>, Value> {
+
+  private final BALST<Interval<Key>, Entry<Key, Value>> tree; // Entries keyed by their intervals
+
+  /**
+   * Interval and its value, stored as the value of the interval's node.
+   */
+  private static final class Entry<Key extends Comparable<Key>, Value>
+      implements Map.Entry<Interval<Key>, Value> {
+
+    private final Interval<Key> interval;
+    private Value value;
+
+    private Entry(Interval<Key> interval, Value value) {
+      this.interval = interval;
+      this.value = value;
+    }
+
+    @Override
+    public Interval<Key> getKey() {
+      return this.interval;
+    }
+
+    @Override
+    public Value getValue() {
+      return this.value;
+    }
+
+    /**
+     * Replaces value of entry, which leaves the tree's aggregates unchanged as they only depend on
+     * the intervals.
+     */
+    @Override
+    public Value setValue(Value value) {
+      Value old = this.value;
+      this.value = value;
+      return old;
+    }
+
+    @Override
+    public String toString() {
+      return this.interval + "=" + this.value;
+    }
+  }
+
+  /**
+   * Default constructor creates empty tree.
+   */
+  public IntervalTree() {
+    this.tree = new BALST<Interval<Key>, Entry<Key, Value>>();
+    // Aggregate of a subtree is its entry with the greatest end, or null if it is empty
+    this.tree.setMonoid(Monoid.of(null, (left, right) -> left == null ? right
+        : right == null || left.interval.getEnd().compareTo(right.interval.getEnd()) >= 0 ? left
+            : right));
+  }
+
+  /**
+   * Inserts interval [start, end) with value.
+   * 
+   * @param start smallest key in interval
+   * @param end   first key after interval
+   * @param value of interval
+   * @throws IllegalNullKeyException  if start or end is null
+   * @throws IllegalArgumentException unless start is less than end
+   * @throws DuplicateKeyException    if the same interval is already present
+   */
+  public void insert(Key start, Key end, Value value)
+      throws IllegalNullKeyException, DuplicateKeyException {
+    Interval<Key> interval = new Interval<Key>(start, end);
+    this.tree.insert(interval, new Entry<Key, Value>(interval, value));
+  }
+
+  /**
+   * Removes interval [start, end).
+   * 
+   * @param start smallest key in interval
+   * @param end   first key after interval
+   * @return true if interval is removed
+   * @throws IllegalNullKeyException if start or end is null
+   * @throws KeyNotFoundException    if interval is not present
+   */
+  public boolean remove(Key start, Key end) throws IllegalNullKeyException, KeyNotFoundException {
+    return this.tree.remove(interval(start, end));
+  }
+
+  /**
+   * Returns value of interval [start, end).
+   * 
+   * @param start smallest key in interval
+   * @param end   first key after interval
+   * @return value of interval
+   * @throws IllegalNullKeyException if start or end is null
+   * @throws KeyNotFoundException    if interval is not present
+   */
+  public Value get(Key start, Key end) throws IllegalNullKeyException, KeyNotFoundException {
+    return this.tree.get(interval(start, end)).value;
+  }
+
+  /**
+   * Determines whether interval [start, end) is present.
+   * 
+   * @param start smallest key in interval
+   * @param end   first key after interval
+   * @return true if interval is present
+   * @throws IllegalNullKeyException if start or end is null
+   */
+  public boolean contains(Key start, Key end) throws IllegalNullKeyException {
+    try {
+      return this.tree.contains(interval(start, end));
+    } catch (KeyNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Getter for the number of intervals in the tree.
+   * 
+   * @return number of intervals
+   */
+  public int numKeys() {
+    return this.tree.numKeys();
+  }
+
+  /**
+   * Getter for the height of the underlying Red-Black tree.
+   * 
+   * @return height of tree
+   */
+  public int getHeight() {
+    return this.tree.getHeight();
+  }
+
+  /**
+   * Returns the intervals which contain point, in order.
+   * 
+   * @param point key which reported intervals contain
+   * @return iterator over the intervals with start <= point < end, and their values
+   * @throws IllegalNullKeyException if point is null
+   */
+  public Iterator<Map.Entry<Interval<Key>, Value>> stabbing(Key point)
+      throws IllegalNullKeyException {
+    if (point == null) {
+      throw new IllegalNullKeyException();
+    }
+    return new QueryIterator(point, point, true);
+  }
+
+  /**
+   * Returns the intervals which overlap [lo, hi), in order.
+   * 
+   * @param lo smallest key of query interval
+   * @param hi first key after query interval
+   * @return iterator over the intervals with start < hi and end > lo, and their values
+   * @throws IllegalNullKeyException if lo or hi is null
+   */
+  public Iterator<Map.Entry<Interval<Key>, Value>> overlapping(Key lo, Key hi)
+      throws IllegalNullKeyException {
+    if (lo == null || hi == null) {
+      throw new IllegalNullKeyException();
+    }
+    return new QueryIterator(lo, hi, false);
+  }
+
+  /**
+   * Builds interval used to look up an exact interval, throwing KeyNotFoundException rather than
+   * IllegalArgumentException for an empty interval, which cannot be present.
+   */
+  private Interval<Key> interval(Key start, Key end)
+      throws IllegalNullKeyException, KeyNotFoundException {
+    if (start == null || end == null) {
+      throw new IllegalNullKeyException();
+    }
+    if (start.compareTo(end) >= 0) {
+      throw new KeyNotFoundException();
+    }
+    return new Interval<Key>(start, end);
+  }
+
+  /**
+   * In-order traversal of the nodes whose intervals end after lo and start before hi (or at hi,
+   * for a stabbing query). Subtrees whose greatest end is at most lo are skipped whole, and the
+   * traversal stops at the first node starting at or after hi.
+   */
+  private class QueryIterator implements Iterator<Map.Entry<Interval<Key>, Value>> {
+
+    private final Key lo; // Reported intervals end after lo
+    private final Key hi; // Reported intervals start before hi, or at hi if closed
+    private final boolean closed; // Whether intervals starting at hi are reported
+    // Nodes whose right subtrees are yet to be visited
+    private final ArrayDeque<BSTNode<Interval<Key>, Entry<Key, Value>>> stack;
+    private Entry<Key, Value> next; // Next entry to be returned, or null if there are no more
+    private final int expectedModCount; // modCount of tree when iterator was created
+
+    private QueryIterator(Key lo, Key hi, boolean closed) {
+      this.lo = lo;
+      this.hi = hi;
+      this.closed = closed;
+      this.stack = new ArrayDeque<BSTNode<Interval<Key>, Entry<Key, Value>>>();
+      this.expectedModCount = tree.modCount;
+      pushLeft(tree.getRoot());
+      advance();
+    }
+
+    /**
+     * Pushes node and its chain of left descendants, stopping at the first subtree with no
+     * interval ending after lo.
+     */
+    private void pushLeft(BSTNode<Interval<Key>, Entry<Key, Value>> node) {
+      while (node != null && node.getAggregate().interval.getEnd().compareTo(lo) > 0) {
+        stack.push(node);
+        node = node.leftChild;
+      }
+    }
+
+    /**
+     * Finds the next reported entry, or sets next to null if there are none.
+     */
+    private void advance() {
+      next = null;
+      while (!stack.isEmpty()) {
+        BSTNode<Interval<Key>, Entry<Key, Value>> node = stack.pop();
+        Interval<Key> interval = node.key;
+        int comparison = interval.getStart().compareTo(hi);
+        if (comparison > 0 || comparison == 0 && !closed) {
+          // Every later interval starts at least as late
+          stack.clear();
+          return;
+        }
+        pushLeft(node.rightChild);
+        if (interval.getEnd().compareTo(lo) > 0) {
+          next = node.getValue();
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (expectedModCount != tree.modCount) {
+        throw new ConcurrentModificationException();
+      }
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<Interval<Key>, Value> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Entry<Key, Value> entry = next;
+      advance();
+      return entry;
+    }
+  }
+}
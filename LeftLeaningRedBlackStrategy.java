@@ -0,0 +1,201 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Rebalances a BALST as a left-leaning Red-Black tree (Sedgewick, "Left-leaning Red-Black Trees"):
+ * a Red-Black tree which is additionally kept in one-to-one correspondence with a 2-3 tree, by
+ * only allowing red nodes as left children. Fewer cases need handling than in a Red-Black tree, at
+ * the cost of more rotations.
+ * 
+ * Sedgewick's recursive insert and remove are followed here by walking up parent references
+ * instead: removing() performs the top-down pass of remove, which moves a red node down the search
+ * path so that the node unlinked is a red leaf, and both inserted() and removed() perform the
+ * bottom-up pass, fixing right-leaning and consecutive red nodes on the path back to the root.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+class LeftLeaningRedBlackStrategy implements BalanceStrategy {
+
+  /**
+   * Returns whether node is red. Null nodes are black.
+   */
+  private static boolean isRed(BSTNode node) {
+    return node != null && node.getColor().equals("R");
+  }
+
+  /**
+   * Rotates a right-leaning red node to lean left.
+   */
+  private static BSTNode rotateLeft(BALST tree, BSTNode node) {
+    BSTNode root = tree.rotateLeft(node);
+    tree.recolor(root, node.getColor());
+    tree.recolor(node, "R");
+    return root;
+  }
+
+  /**
+   * Rotates a left-leaning red node to lean right.
+   */
+  private static BSTNode rotateRight(BALST tree, BSTNode node) {
+    BSTNode root = tree.rotateRight(node);
+    tree.recolor(root, node.getColor());
+    tree.recolor(node, "R");
+    return root;
+  }
+
+  /**
+   * Flips colors of node and its children, which splits a temporary 4-node, or combines a node
+   * with its children into one.
+   */
+  private static void flipColors(BALST tree, BSTNode node) {
+    flip(tree, node);
+    flip(tree, node.getLeftChild());
+    flip(tree, node.getRightChild());
+  }
+
+  private static void flip(BALST tree, BSTNode node) {
+    tree.recolor(node, isRed(node) ? "B" : "R");
+  }
+
+  /**
+   * Restores the left-leaning properties at node, given that they hold in its subtrees.
+   * 
+   * @return root of the subtree after any rotation
+   */
+  private static BSTNode balance(BALST tree, BSTNode node) {
+    if (isRed(node.getRightChild()) && !isRed(node.getLeftChild())) {
+      node = rotateLeft(tree, node);
+    }
+    if (isRed(node.getLeftChild()) && isRed(node.getLeftChild().getLeftChild())) {
+      node = rotateRight(tree, node);
+    }
+    if (isRed(node.getLeftChild()) && isRed(node.getRightChild())) {
+      flipColors(tree, node);
+    }
+    return node;
+  }
+
+  /**
+   * Balances every node from node up to the root, which is then colored black.
+   */
+  private static void balanceUp(BALST tree, BSTNode node) {
+    while (node != null) {
+      node = balance(tree, node).getParent();
+    }
+    if (tree.getRoot() != null) {
+      tree.recolor(tree.getRoot(), "B");
+    }
+  }
+
+  /**
+   * Makes the left child of node, or one of its children, red, borrowing from the right sibling.
+   */
+  private static BSTNode moveRedLeft(BALST tree, BSTNode node) {
+    flipColors(tree, node);
+    if (isRed(node.getRightChild().getLeftChild())) {
+      rotateRight(tree, node.getRightChild());
+      node = rotateLeft(tree, node);
+      flipColors(tree, node);
+    }
+    return node;
+  }
+
+  /**
+   * Makes the right child of node, or one of its children, red, borrowing from the left sibling.
+   */
+  private static BSTNode moveRedRight(BALST tree, BSTNode node) {
+    flipColors(tree, node);
+    if (isRed(node.getLeftChild().getLeftChild())) {
+      node = rotateRight(tree, node);
+      flipColors(tree, node);
+    }
+    return node;
+  }
+
+  @Override
+  public void inserted(BALST tree, BSTNode node) {
+    balanceUp(tree, node.getParent());
+  }
+
+  /**
+   * Descends from the root to the node holding the key (and then to its in order successor, if it
+   * has a right child), keeping the current node or its left child red, so that the node finally
+   * unlinked is a red leaf. As rotations keep keys in their nodes, reaching the key is tested by
+   * reaching target.
+   */
+  @Override
+  public void removing(BALST tree, BSTNode target) {
+    Object key = target.key;
+    long prefix = tree.prefixOf(key);
+    BSTNode node = tree.getRoot();
+    if (!isRed(node.getLeftChild()) && !isRed(node.getRightChild())) {
+      tree.recolor(node, "R");
+    }
+    while (true) {
+      if (tree.compare(key, prefix, node) < 0) {
+        if (!isRed(node.getLeftChild()) && !isRed(node.getLeftChild().getLeftChild())) {
+          node = moveRedLeft(tree, node);
+        }
+        node = node.getLeftChild();
+      } else {
+        if (isRed(node.getLeftChild())) {
+          node = rotateRight(tree, node);
+        }
+        if (node == target && node.getRightChild() == null) {
+          return; // Target is a red leaf, and is unlinked itself
+        }
+        if (!isRed(node.getRightChild()) && !isRed(node.getRightChild().getLeftChild())) {
+          node = moveRedRight(tree, node);
+        }
+        if (node == target) {
+          break;
+        }
+        node = node.getRightChild();
+      }
+    }
+    // Target's in order successor is unlinked instead, so descends to it
+    node = target.getRightChild();
+    while (node.getLeftChild() != null) {
+      if (!isRed(node.getLeftChild()) && !isRed(node.getLeftChild().getLeftChild())) {
+        node = moveRedLeft(tree, node);
+      }
+      node = node.getLeftChild();
+    }
+  }
+
+  /**
+   * The top-down pass can leave target with only a right child, its successor, in which case the
+   * tree unlinks target itself. The successor, a red leaf, then takes target's color, as if its key
+   * had been copied into target.
+   */
+  @Override
+  public void removed(BALST tree, BSTNode removed, BSTNode parent, Child side) {
+    BSTNode replacement = parent == null ? tree.getRoot()
+        : side == Child.LEFT ? parent.getLeftChild() : parent.getRightChild();
+    if (replacement != null) {
+      tree.recolor(replacement, removed.getColor());
+      balanceUp(tree, replacement);
+    } else {
+      balanceUp(tree, parent);
+    }
+  }
+}
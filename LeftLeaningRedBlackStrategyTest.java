@@ -0,0 +1,66 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import static org.junit.Assert.fail;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the BALSTTest suite against a BALST balanced as a left-leaning Red-Black tree.
+ */
+public class LeftLeaningRedBlackStrategyTest extends BALSTTest {
+
+  @Override
+  protected BALSTADT<String, String> createInstance() {
+    return new BALST<String, String>(BalanceStrategy.LEFT_LEANING_RED_BLACK);
+  }
+
+  @Override
+  protected BALSTADT<Integer, String> createInstance2() {
+    return new BALST<Integer, String>(BalanceStrategy.LEFT_LEANING_RED_BLACK);
+  }
+
+  /**
+   * Insert three values in sorted order. The second is rotated above the first at once, as red
+   * nodes may not be right children.
+   */
+  @Test
+  @Override
+  void testBALST_001_insert_sorted_order_simple() {
+    try {
+      balst2.insert(10, "10");
+      Assert.assertEquals(Integer.valueOf(10), balst2.getKeyAtRoot());
+      balst2.insert(20, "20");
+      Assert.assertEquals(Integer.valueOf(20), balst2.getKeyAtRoot());
+      Assert.assertEquals(Integer.valueOf(10), balst2.getKeyOfLeftChildOf(20));
+      Assert.assertNull(balst2.getKeyOfRightChildOf(20));
+      balst2.insert(30, "30");
+
+      Assert.assertEquals(balst2.getKeyAtRoot(), Integer.valueOf(20));
+      Assert.assertEquals(balst2.getKeyOfLeftChildOf(20), Integer.valueOf(10));
+      Assert.assertEquals(balst2.getKeyOfRightChildOf(20), Integer.valueOf(30));
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Left-leaning Red-Black 001: " + e.getMessage());
+    }
+  }
+}
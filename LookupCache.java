@@ -0,0 +1,186 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache from keys to the nodes holding them, consulted by BALST before descending the
+ * tree. Entries are kept in an open addressing table with linear probing, at most half full, and
+ * evicted by the CLOCK algorithm: a hit marks its entry as referenced, and to make room the hand
+ * sweeps the table, clearing marks, until it reaches an unmarked entry.
+ * 
+ * The cache points at nodes rather than positions in the tree, so rotations leave it correct; the
+ * tree removes a key's entry whenever the key leaves its node.
+ * 
+ * @author Matthew Karrmann
+ */
+class LookupCache {
+
+  private final int capacity; // Maximum number of entries
+  private final int mask; // Table size minus 1, the table size being a power of 2
+  private final Object[] keys; // Key of each entry, or null for empty slots
+  private final BSTNode[] nodes; // Node holding the key of each entry
+  private final boolean[] referenced; // Whether each entry has been hit since the hand passed it
+  private int size; // Number of entries
+  private int hand; // Slot at which the next eviction sweep starts
+  private long hits; // Number of lookups which found their key
+  private long misses; // Number of lookups which didn't
+
+  /**
+   * Constructor for empty cache.
+   * 
+   * @param capacity maximum number of entries, which must be positive
+   */
+  LookupCache(int capacity) {
+    this.capacity = capacity;
+    int tableSize = Integer.highestOneBit(Math.max(2, 2 * capacity - 1)) << 1;
+    this.mask = tableSize - 1;
+    this.keys = new Object[tableSize];
+    this.nodes = new BSTNode[tableSize];
+    this.referenced = new boolean[tableSize];
+  }
+
+  /**
+   * Returns the home slot of key.
+   */
+  private int slotOf(Object key) {
+    int hash = key.hashCode() * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * Returns the slot of key, or -1 if it has no entry.
+   */
+  private int find(Object key) {
+    for (int slot = slotOf(key); keys[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot].equals(key)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Looks up the node holding key, counting the hit or miss.
+   * 
+   * @param key being searched for
+   * @return node holding key, or null if key has no entry
+   */
+  BSTNode get(Object key) {
+    int slot = find(key);
+    if (slot < 0) {
+      ++misses;
+      return null;
+    }
+    ++hits;
+    referenced[slot] = true;
+    return nodes[slot];
+  }
+
+  /**
+   * Adds an entry for key, evicting another entry if the cache is full.
+   * 
+   * @param key  held by node
+   * @param node holding key
+   */
+  void put(Object key, BSTNode node) {
+    int slot = find(key);
+    if (slot >= 0) {
+      nodes[slot] = node;
+      return;
+    }
+    if (size == capacity) {
+      while (keys[hand] == null || referenced[hand]) {
+        referenced[hand] = false;
+        hand = (hand + 1) & mask;
+      }
+      delete(hand);
+    }
+    for (slot = slotOf(key); keys[slot] != null; slot = (slot + 1) & mask) {
+    }
+    keys[slot] = key;
+    nodes[slot] = node;
+    referenced[slot] = false;
+    ++size;
+  }
+
+  /**
+   * Removes the entry for key, if it has one.
+   * 
+   * @param key whose entry is removed
+   */
+  void remove(Object key) {
+    int slot = find(key);
+    if (slot >= 0) {
+      delete(slot);
+    }
+  }
+
+  /**
+   * Removes every entry.
+   */
+  void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(nodes, null);
+    Arrays.fill(referenced, false);
+    size = 0;
+  }
+
+  /**
+   * Empties slot, shifting back later entries of the same probe run whose home slots allow it, so
+   * that no lookup stops early at the emptied slot.
+   */
+  private void delete(int slot) {
+    int next = slot;
+    while (true) {
+      next = (next + 1) & mask;
+      if (keys[next] == null) {
+        break;
+      }
+      // Distance probed from each entry's home slot, to the emptied slot and to its own slot
+      int home = slotOf(keys[next]);
+      if (((slot - home) & mask) < ((next - home) & mask)) {
+        keys[slot] = keys[next];
+        nodes[slot] = nodes[next];
+        referenced[slot] = referenced[next];
+        slot = next;
+      }
+    }
+    keys[slot] = null;
+    nodes[slot] = null;
+    referenced[slot] = false;
+    --size;
+  }
+
+  /**
+   * Getter for the number of lookups which found their key.
+   */
+  long hits() {
+    return hits;
+  }
+
+  /**
+   * Getter for the number of lookups which didn't find their key.
+   */
+  long misses() {
+    return misses;
+  }
+}
@@ -0,0 +1,628 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only Red-Black tree which runs directly against a file mapped into memory. The file is
+ * written from a BALST by write(), and opening it only maps it: pages are read in by the operating
+ * system as lookups touch them, and are shared through the page cache by every process which maps
+ * the same file.
+ * 
+ * The file consists of a header, a table of fixed size entries (one per node, in order), and a data
+ * region holding the bytes of keys and values. Each entry holds the indices of the node's children,
+ * its color, and where its key and value lie in the data region. As the entries are in order,
+ * range scans read consecutive entries.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class MappedBALST<Key extends Comparable<Key>, Value>
+    implements BALSTADT<Key, Value>, AutoCloseable {
+
+  static final int MAGIC = 0x42414C4D; // "BALM"
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  // Entry layout: left child index, right child index, key length, value length (all int), offset
+  // of key in data region (long, value follows key), color (byte), padding to 32 bytes
+  static final int ENTRY_SIZE = 32;
+  private static final int NO_CHILD = -1; // Index written for a null child
+  private static final int NULL_LENGTH = -1; // Length written in place of a null value
+  // Sizes of the regions which are mapped separately, as a single mapping is limited to 2GB.
+  // Entries never straddle two table segments, while keys and values may straddle data segments.
+  private static final int ENTRIES_PER_SEGMENT = 1 << 25;
+  private static final long DATA_SEGMENT_SIZE = 1L << 30;
+
+  private final FileChannel channel;
+  private final Codec<Key> keyCodec;
+  private final Codec<Value> valueCodec;
+  private final int numKeys;
+  private final int rootIndex;
+  private final int height;
+  private final MappedByteBuffer[] table; // Segments of the entry table
+  private final MappedByteBuffer[] data; // Segments of the data region
+
+  /**
+   * Writes tree to the file at path in the format read by open(). Tombstones are not written: the
+   * keys of a tree which has any are written in the shape compact() would give them, while the tree
+   * itself is left unchanged.
+   * 
+   * @param tree       to be written
+   * @param path       of file to be written, replacing any existing file
+   * @param keyCodec   converts keys to bytes
+   * @param valueCodec converts values to bytes
+   * @throws IOException              if file cannot be written
+   * @throws IllegalArgumentException if tree has a comparator, as lookups in the file compare keys
+   *                                  by their natural ordering
+   */
+  public static <K extends Comparable<K>, V> void write(BALST<K, V> tree, Path path,
+      Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    if (tree.comparator() != null) {
+      throw new IllegalArgumentException("Only trees in natural key order can be written");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      TreeWriter<K, V> writer =
+          new TreeWriter<K, V>(channel, tree.numKeys(), keyCodec, valueCodec);
+      int rootIndex;
+      int height;
+      if (tree.tombstoneCount() > 0) {
+        Cursor<K, V> cursor = tree.cursor();
+        cursor.first();
+        height = BALST.balancedHeight(tree.numKeys());
+        rootIndex = writer.writeBalanced(cursor, 0, tree.numKeys(), 0, height);
+      } else {
+        height = tree.getHeight();
+        rootIndex = writer.writeSubtree(tree.getRoot());
+      }
+      writer.finishData();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).putInt(tree.numKeys()).putInt(rootIndex)
+          .putInt(height);
+      header.clear();
+      channel.write(header, 0);
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Maps the file at path, which must have been written by write().
+   * 
+   * @param path       of file to be opened
+   * @param keyCodec   converts bytes to keys
+   * @param valueCodec converts bytes to values
+   * @return tree backed by the file
+   * @throws IOException if file cannot be mapped, or was not written by write()
+   */
+  public static <K extends Comparable<K>, V> MappedBALST<K, V> open(Path path, Codec<K> keyCodec,
+      Codec<V> valueCodec) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new MappedBALST<K, V>(channel, keyCodec, valueCodec);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads header of the file and maps its regions.
+   */
+  private MappedBALST(FileChannel channel, Codec<Key> keyCodec, Codec<Value> valueCodec)
+      throws IOException {
+    this.channel = channel;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+    }
+    header.flip();
+    if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+      throw new StreamCorruptedException("Not a mapped BALST file");
+    }
+    if (header.getInt() != VERSION) {
+      throw new StreamCorruptedException("Unsupported mapped BALST version");
+    }
+    this.numKeys = header.getInt();
+    this.rootIndex = header.getInt();
+    this.height = header.getInt();
+
+    long tableSize = (long) numKeys * ENTRY_SIZE;
+    long dataStart = HEADER_SIZE + tableSize;
+    if (numKeys < 0 || channel.size() < dataStart) {
+      throw new StreamCorruptedException("Mapped BALST file is truncated");
+    }
+    this.table = map(channel, HEADER_SIZE, tableSize, (long) ENTRIES_PER_SEGMENT * ENTRY_SIZE);
+    this.data = map(channel, dataStart, channel.size() - dataStart, DATA_SEGMENT_SIZE);
+  }
+
+  /**
+   * Maps a region of the file as consecutive segments of at most segmentSize bytes.
+   */
+  private static MappedByteBuffer[] map(FileChannel channel, long start, long size,
+      long segmentSize) throws IOException {
+    int numSegments = (int) ((size + segmentSize - 1) / segmentSize);
+    MappedByteBuffer[] segments = new MappedByteBuffer[numSegments];
+    for (int i = 0; i < numSegments; ++i) {
+      long offset = i * segmentSize;
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset,
+          Math.min(segmentSize, size - offset));
+    }
+    return segments;
+  }
+
+  /**
+   * Unmaps nothing explicitly (mappings are released once unreachable), but closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  // Accessors for fields of the entry at a given index:
+
+  private ByteBuffer segmentOf(int index) {
+    return table[index / ENTRIES_PER_SEGMENT];
+  }
+
+  private int offsetOf(int index) {
+    return (index % ENTRIES_PER_SEGMENT) * ENTRY_SIZE;
+  }
+
+  private int leftOf(int index) {
+    return segmentOf(index).getInt(offsetOf(index));
+  }
+
+  private int rightOf(int index) {
+    return segmentOf(index).getInt(offsetOf(index) + 4);
+  }
+
+  private boolean isRed(int index) {
+    return segmentOf(index).get(offsetOf(index) + 24) == 1;
+  }
+
+  /**
+   * Decodes key of the entry at index.
+   */
+  private Key keyAt(int index) {
+    ByteBuffer segment = segmentOf(index);
+    int offset = offsetOf(index);
+    return keyCodec.decode(readData(segment.getLong(offset + 16), segment.getInt(offset + 8)));
+  }
+
+  /**
+   * Decodes value of the entry at index.
+   */
+  private Value valueAt(int index) {
+    ByteBuffer segment = segmentOf(index);
+    int offset = offsetOf(index);
+    int valueLength = segment.getInt(offset + 12);
+    if (valueLength == NULL_LENGTH) {
+      return null;
+    }
+    long position = segment.getLong(offset + 16) + segment.getInt(offset + 8);
+    return valueCodec.decode(readData(position, valueLength));
+  }
+
+  /**
+   * Copies bytes out of the data region, which may span two or more segments.
+   */
+  private byte[] readData(long position, int length) {
+    byte[] bytes = new byte[length];
+    int copied = 0;
+    while (copied < length) {
+      ByteBuffer segment = data[(int) (position / DATA_SEGMENT_SIZE)];
+      int offset = (int) (position % DATA_SEGMENT_SIZE);
+      int chunk = Math.min(length - copied, segment.limit() - offset);
+      segment.get(offset, bytes, copied, chunk);
+      copied += chunk;
+      position += chunk;
+    }
+    return bytes;
+  }
+
+  /**
+   * Finds the index of the entry with key, descending from the root.
+   * 
+   * @return index of entry, or NO_CHILD if not present
+   */
+  private int findIndex(Key key) {
+    int index = rootIndex;
+    while (index != NO_CHILD) {
+      int comparison = key.compareTo(keyAt(index));
+      if (comparison < 0) {
+        index = leftOf(index);
+      } else if (comparison > 0) {
+        index = rightOf(index);
+      } else {
+        return index;
+      }
+    }
+    return NO_CHILD;
+  }
+
+  /**
+   * Finds the index of the entry with the smallest key greater than or equal to key.
+   * 
+   * @return index of entry, or numKeys if every key is smaller
+   */
+  private int ceilingIndex(Key key) {
+    int index = rootIndex;
+    int ceiling = numKeys;
+    while (index != NO_CHILD) {
+      int comparison = key.compareTo(keyAt(index));
+      if (comparison <= 0) {
+        ceiling = index;
+        if (comparison == 0) {
+          break;
+        }
+        index = leftOf(index);
+      } else {
+        index = rightOf(index);
+      }
+    }
+    return ceiling;
+  }
+
+  /**
+   * Calls action on each key and value with lo <= key < hi, in order.
+   * 
+   * @param lo     smallest key included
+   * @param hi     first key excluded
+   * @param action called on each key and value in range
+   * @throws IllegalNullKeyException if lo or hi is null
+   */
+  public void rangeScan(Key lo, Key hi, BiConsumer<? super Key, ? super Value> action)
+      throws IllegalNullKeyException {
+    if (lo == null || hi == null) {
+      throw new IllegalNullKeyException();
+    }
+    // Entries are in order, so the scan continues through consecutive entries
+    for (int index = ceilingIndex(lo); index < numKeys; ++index) {
+      Key key = keyAt(index);
+      if (key.compareTo(hi) >= 0) {
+        break;
+      }
+      action.accept(key, valueAt(index));
+    }
+  }
+
+  @Override
+  public Key getKeyAtRoot() {
+    return rootIndex == NO_CHILD ? null : keyAt(rootIndex);
+  }
+
+  @Override
+  public Key getKeyOfLeftChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    int child = leftOf(requireIndex(key));
+    return child == NO_CHILD ? null : keyAt(child);
+  }
+
+  @Override
+  public Key getKeyOfRightChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    int child = rightOf(requireIndex(key));
+    return child == NO_CHILD ? null : keyAt(child);
+  }
+
+  /**
+   * Finds the index of the entry with key, throwing the exceptions required by BALSTADT.
+   */
+  private int requireIndex(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    int index = findIndex(key);
+    if (index == NO_CHILD) {
+      throw new KeyNotFoundException();
+    }
+    return index;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public List<Key> getInOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    for (int index = 0; index < numKeys; ++index) {
+      list.add(keyAt(index));
+    }
+    return list;
+  }
+
+  @Override
+  public List<Key> getPreOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    preOrderHelper(rootIndex, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree at index to list in pre order.
+   */
+  private void preOrderHelper(int index, List<Key> list) {
+    if (index == NO_CHILD) {
+      return;
+    }
+    list.add(keyAt(index));
+    preOrderHelper(leftOf(index), list);
+    preOrderHelper(rightOf(index), list);
+  }
+
+  @Override
+  public List<Key> getPostOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    postOrderHelper(rootIndex, list);
+    return list;
+  }
+
+  /**
+   * Adds keys of subtree at index to list in post order.
+   */
+  private void postOrderHelper(int index, List<Key> list) {
+    if (index == NO_CHILD) {
+      return;
+    }
+    postOrderHelper(leftOf(index), list);
+    postOrderHelper(rightOf(index), list);
+    list.add(keyAt(index));
+  }
+
+  @Override
+  public List<Key> getLevelOrderTraversal() {
+    List<Key> list = new LinkedList<Key>();
+    LinkedList<Integer> queue = new LinkedList<Integer>();
+    if (rootIndex != NO_CHILD) {
+      queue.add(rootIndex);
+    }
+    while (!queue.isEmpty()) {
+      int index = queue.remove();
+      list.add(keyAt(index));
+      if (leftOf(index) != NO_CHILD) {
+        queue.add(leftOf(index));
+      }
+      if (rightOf(index) != NO_CHILD) {
+        queue.add(rightOf(index));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Not supported, as the tree is read-only.
+   */
+  @Override
+  public void insert(Key key, Value value) {
+    throw new UnsupportedOperationException("Mapped BALST is read-only");
+  }
+
+  /**
+   * Not supported, as the tree is read-only.
+   */
+  @Override
+  public boolean remove(Key key) {
+    throw new UnsupportedOperationException("Mapped BALST is read-only");
+  }
+
+  @Override
+  public Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return valueAt(requireIndex(key));
+  }
+
+  @Override
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    return findIndex(key) != NO_CHILD;
+  }
+
+  @Override
+  public int numKeys() {
+    return numKeys;
+  }
+
+  /**
+   * Prints the tree as BALST.print() does. Reads the whole file, so is only intended for small
+   * trees.
+   */
+  @Override
+  public void print() {
+    new BALST<Key, Value>(toNode(rootIndex, null), numKeys).print();
+  }
+
+  /**
+   * Builds nodes for the subtree at index.
+   */
+  private BSTNode<Key, Value> toNode(int index, BSTNode<Key, Value> parent) {
+    if (index == NO_CHILD) {
+      return null;
+    }
+    BSTNode<Key, Value> node = new ValueNode<Key, Value>(keyAt(index), valueAt(index), parent);
+    node.color = isRed(index) ? "R" : "B";
+    node.leftChild = toNode(leftOf(index), node);
+    node.rightChild = toNode(rightOf(index), node);
+    return node;
+  }
+
+  /**
+   * Writes the entry table through a read-write mapping, as entries are completed out of order, and
+   * appends keys and values to the data region through a buffer.
+   */
+  private static class TreeWriter<K extends Comparable<K>, V> {
+    private final FileChannel channel;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final MappedByteBuffer[] table;
+    private final long dataStart; // Position of data region in file
+    private final ByteBuffer dataBuffer = ByteBuffer.allocate(1 << 16);
+    private long dataPosition = 0; // Bytes of data region completed, including those buffered
+    private long dataFlushed = 0; // Bytes of data region written to the file
+    private int nextIndex = 0; // Index of next node in order
+
+    TreeWriter(FileChannel channel, int numKeys, Codec<K> keyCodec, Codec<V> valueCodec)
+        throws IOException {
+      this.channel = channel;
+      this.keyCodec = keyCodec;
+      this.valueCodec = valueCodec;
+      long tableSize = (long) numKeys * ENTRY_SIZE;
+      long segmentSize = (long) ENTRIES_PER_SEGMENT * ENTRY_SIZE;
+      this.table = new MappedByteBuffer[(int) ((tableSize + segmentSize - 1) / segmentSize)];
+      for (int i = 0; i < table.length; ++i) {
+        table[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * segmentSize,
+            Math.min(segmentSize, tableSize - i * segmentSize));
+      }
+      this.dataStart = HEADER_SIZE + tableSize;
+    }
+
+    /**
+     * Writes subtree in order, assigning each node the next index.
+     * 
+     * @param node root of subtree
+     * @return index of node, or NO_CHILD if node is null
+     */
+    int writeSubtree(BSTNode<K, V> node) throws IOException {
+      if (node == null) {
+        return NO_CHILD;
+      }
+      int left = writeSubtree(node.leftChild);
+      int index = nextIndex++;
+      byte[] key = keyCodec.encode(node.key);
+      byte[] value = node.getValue() == null ? null : valueCodec.encode(node.getValue());
+      long offset = appendEntry(key, value);
+      int right = writeSubtree(node.rightChild);
+      writeEntry(index, left, right, key, value, offset, node.getColor().equals("R"));
+      return index;
+    }
+
+    /**
+     * Writes the keys from (inclusive) to to (exclusive) of a tree with tombstones, read in order
+     * from cursor, as the subtree compact() would build of them, assigning each the next index.
+     * 
+     * @param cursor at key from, which is left after key to - 1
+     * @param depth  of subtree's root
+     * @param height of the whole tree
+     * @return index of subtree's root, or NO_CHILD if it is empty
+     */
+    int writeBalanced(Cursor<K, V> cursor, int from, int to, int depth, int height)
+        throws IOException {
+      if (from >= to) {
+        return NO_CHILD;
+      }
+      int middle = (from + to) >>> 1;
+      int left = writeBalanced(cursor, from, middle, depth + 1, height);
+      int index = nextIndex++;
+      byte[] key = keyCodec.encode(cursor.getKey());
+      byte[] value = cursor.getValue() == null ? null : valueCodec.encode(cursor.getValue());
+      long offset = appendEntry(key, value);
+      cursor.next();
+      int right = writeBalanced(cursor, middle + 1, to, depth + 1, height);
+      writeEntry(index, left, right, key, value, offset, BALST.balancedRed(depth, height));
+      return index;
+    }
+
+    /**
+     * Appends the encoded key and value of the next node in order to the data region.
+     * 
+     * @param value encoded value, or null if value is null
+     * @return offset of key in data region
+     */
+    private long appendEntry(byte[] key, byte[] value) throws IOException {
+      long offset = dataPosition;
+      appendData(key);
+      if (value != null) {
+        appendData(value);
+      }
+      return offset;
+    }
+
+    /**
+     * Writes the table entry of the node at index.
+     * 
+     * @param key    encoded key of node
+     * @param value  encoded value of node, or null if value is null
+     * @param offset of key in data region
+     * @param red    whether node is red
+     */
+    private void writeEntry(int index, int left, int right, byte[] key, byte[] value, long offset,
+        boolean red) {
+      ByteBuffer segment = table[index / ENTRIES_PER_SEGMENT];
+      int position = (index % ENTRIES_PER_SEGMENT) * ENTRY_SIZE;
+      segment.putInt(position, left);
+      segment.putInt(position + 4, right);
+      segment.putInt(position + 8, key.length);
+      segment.putInt(position + 12, value == null ? NULL_LENGTH : value.length);
+      segment.putLong(position + 16, offset);
+      segment.put(position + 24, red ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Appends bytes to the data region.
+     */
+    private void appendData(byte[] bytes) throws IOException {
+      int offset = 0;
+      while (offset < bytes.length) {
+        if (!dataBuffer.hasRemaining()) {
+          flushData();
+        }
+        int chunk = Math.min(dataBuffer.remaining(), bytes.length - offset);
+        dataBuffer.put(bytes, offset, chunk);
+        offset += chunk;
+      }
+      dataPosition += bytes.length;
+    }
+
+    /**
+     * Writes buffered bytes of the data region to the file.
+     */
+    private void flushData() throws IOException {
+      dataBuffer.flip();
+      while (dataBuffer.hasRemaining()) {
+        dataFlushed += channel.write(dataBuffer, dataStart + dataFlushed);
+      }
+      dataBuffer.clear();
+    }
+
+    /**
+     * Flushes the data region and the entry table.
+     */
+    void finishData() throws IOException {
+      flushData();
+      for (MappedByteBuffer segment : table) {
+        segment.force();
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+import java.util.function.BinaryOperator;
+
+/**
+ * Associative way of combining values, with an identity, used by BALST to cache an aggregate of
+ * each subtree so that the aggregate of the values in any key range can be found in logarithmic
+ * time. The combiner need not be commutative: values are always combined in key order.
+ * 
+ * @param <T> type of values combined
+ * @author Matthew Karrmann
+ */
+public interface Monoid<T> {
+
+  /**
+   * Returns the identity, which is the aggregate of no values.
+   * 
+   * @return value which combine() leaves any other value unchanged with, on either side
+   */
+  T identity();
+
+  /**
+   * Combines the aggregates of two adjacent runs of values, the first of which has smaller keys.
+   * 
+   * @param left  aggregate of values with smaller keys
+   * @param right aggregate of values with greater keys
+   * @return aggregate of both runs
+   */
+  T combine(T left, T right);
+
+  /**
+   * Returns the monoid with the given identity and associative combiner, such as
+   * Monoid.of(0L, Long::sum) or Monoid.of(Integer.MIN_VALUE, Math::max).
+   * 
+   * @param <T>      type of values combined
+   * @param identity aggregate of no values
+   * @param combiner associative function combining two aggregates
+   * @return monoid
+   */
+  static <T> Monoid<T> of(T identity, BinaryOperator<T> combiner) {
+    return new Monoid<T>() {
+      @Override
+      public T identity() {
+        return identity;
+      }
+
+      @Override
+      public T combine(T left, T right) {
+        return combiner.apply(left, right);
+      }
+    };
+  }
+}
@@ -0,0 +1,334 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Multimap (or, with null values, multiset) built on a BALST: each distinct key has one node,
+ * whose value is a bucket of the values inserted with that key. A bucket whose values are all null
+ * is only a count, so a multiset costs memory proportional to its number of distinct keys. Insert
+ * and remove search the tree once for the key, whatever its number of occurrences, and traversals
+ * expand each bucket as it is reached rather than copying the duplicates.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class MultiBALST<Key extends Comparable<Key>, Value> {
+
+  private final BALST<Key, Bucket> tree; // Bucket of values of each distinct key
+  private final Cursor<Key, Bucket> lookup; // Cursor used to search for keys
+  private int numKeys; // Number of occurrences of all keys
+  private int modCount; // Number of modifications, used by iterators to detect them
+
+  /**
+   * Values inserted with one key, in insertion order.
+   */
+  private static final class Bucket {
+
+    private int count; // Number of occurrences of key
+    private Object[] values; // Values in insertion order, or null while every value is null
+
+    /**
+     * Adds value as the last occurrence of the key.
+     */
+    private void add(Object value) {
+      if (values == null && value != null) {
+        values = new Object[Math.max(4, count + 1)];
+      } else if (values != null && count == values.length) {
+        values = Arrays.copyOf(values, 2 * count);
+      }
+      if (values != null) {
+        values[count] = value;
+      }
+      ++count;
+    }
+
+    /**
+     * Removes and returns the last occurrence's value.
+     */
+    private Object removeLast() {
+      --count;
+      if (values == null) {
+        return null;
+      }
+      Object value = values[count];
+      values[count] = null;
+      return value;
+    }
+
+    /**
+     * Returns the value of the occurrence at index.
+     */
+    private Object get(int index) {
+      return values == null ? null : values[index];
+    }
+  }
+
+  /**
+   * Default constructor creates empty multimap.
+   */
+  public MultiBALST() {
+    this.tree = new BALST<Key, Bucket>();
+    this.lookup = this.tree.cursor();
+  }
+
+  /**
+   * Adds an occurrence of key with value, after any earlier occurrences of key.
+   * 
+   * @param key   of occurrence
+   * @param value of occurrence, which may be null
+   * @throws IllegalNullKeyException if key is null
+   */
+  public void insert(Key key, Value value) throws IllegalNullKeyException {
+    if (this.lookup.seek(key)) {
+      this.lookup.getValue().add(value);
+    } else {
+      Bucket bucket = new Bucket();
+      bucket.add(value);
+      try {
+        this.tree.insert(key, bucket);
+      } catch (DuplicateKeyException e) {
+        throw new IllegalStateException("Key " + key + " is already present");
+      }
+    }
+    ++this.numKeys;
+    ++this.modCount;
+  }
+
+  /**
+   * Removes the last occurrence of key, unlinking the key's node once no occurrences are left.
+   * 
+   * @param key of occurrence to be removed
+   * @return value of removed occurrence
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present
+   */
+  @SuppressWarnings("unchecked")
+  public Value remove(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (!this.lookup.seek(key)) {
+      throw new KeyNotFoundException();
+    }
+    Bucket bucket = this.lookup.getValue();
+    Value value = (Value) bucket.removeLast();
+    if (bucket.count == 0) {
+      this.tree.remove(key);
+    }
+    --this.numKeys;
+    ++this.modCount;
+    return value;
+  }
+
+  /**
+   * Removes every occurrence of key.
+   * 
+   * @param key to be removed
+   * @return number of occurrences removed, 0 if key is not present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public int removeAll(Key key) throws IllegalNullKeyException {
+    if (!this.lookup.seek(key)) {
+      return 0;
+    }
+    int count = this.lookup.getValue().count;
+    try {
+      this.tree.remove(key);
+    } catch (KeyNotFoundException e) {
+      throw new IllegalStateException("Key " + key + " not found");
+    }
+    this.numKeys -= count;
+    ++this.modCount;
+    return count;
+  }
+
+  /**
+   * Returns the number of occurrences of key.
+   * 
+   * @param key being counted
+   * @return number of occurrences, 0 if key is not present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public int count(Key key) throws IllegalNullKeyException {
+    return this.lookup.seek(key) ? this.lookup.getValue().count : 0;
+  }
+
+  /**
+   * Returns the values of key's occurrences in insertion order, as a read-only view which reflects
+   * later changes to them.
+   * 
+   * @param key whose values are returned
+   * @return values of key, empty if key is not present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public List<Value> get(Key key) throws IllegalNullKeyException {
+    if (!this.lookup.seek(key)) {
+      return Collections.emptyList();
+    }
+    final Bucket bucket = this.lookup.getValue();
+    return new AbstractList<Value>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Value get(int index) {
+        if (index < 0 || index >= bucket.count) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return (Value) bucket.get(index);
+      }
+
+      @Override
+      public int size() {
+        return bucket.count;
+      }
+    };
+  }
+
+  /**
+   * Determines whether key has any occurrences.
+   * 
+   * @param key being searched for
+   * @return true if key is present
+   * @throws IllegalNullKeyException if key is null
+   */
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    return this.tree.contains(key);
+  }
+
+  /**
+   * Getter for the number of occurrences of all keys.
+   * 
+   * @return number of occurrences
+   */
+  public int numKeys() {
+    return this.numKeys;
+  }
+
+  /**
+   * Getter for the number of distinct keys, which is the number of nodes in the tree.
+   * 
+   * @return number of distinct keys
+   */
+  public int numDistinctKeys() {
+    return this.tree.numKeys();
+  }
+
+  /**
+   * Getter for the height of the underlying tree, which only depends on the distinct keys.
+   * 
+   * @return height of tree
+   */
+  public int getHeight() {
+    return this.tree.getHeight();
+  }
+
+  /**
+   * Returns an iterator over every occurrence in order of key, and then of insertion. Each key
+   * appears once per occurrence, but its bucket is only expanded when the iterator reaches it.
+   * 
+   * @return iterator over occurrences, which throws ConcurrentModificationException once the
+   *         multimap has been modified
+   */
+  public Iterator<Map.Entry<Key, Value>> iterator() {
+    return new Iterator<Map.Entry<Key, Value>>() {
+      private final Cursor<Key, Bucket> cursor = tree.cursor();
+      private final int expectedModCount = modCount;
+      private boolean valid = cursor.first(); // Whether cursor is at the current key
+      private int index = 0; // Index of next occurrence within current key's bucket
+
+      @Override
+      public boolean hasNext() {
+        if (expectedModCount != modCount) {
+          throw new ConcurrentModificationException();
+        }
+        return valid;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Map.Entry<Key, Value> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Bucket bucket = cursor.getValue();
+        Map.Entry<Key, Value> entry = new AbstractMap.SimpleImmutableEntry<Key, Value>(
+            cursor.getKey(), (Value) bucket.get(index));
+        if (++index == bucket.count) {
+          index = 0;
+          valid = cursor.next();
+        }
+        return entry;
+      }
+    };
+  }
+
+  /**
+   * Returns every occurrence's key in order, each repeated once per occurrence, as a read-only view
+   * which expands each key's bucket when it is reached rather than copying the duplicates. Reading
+   * the view in order walks the tree once, while reading an index before the last one read restarts
+   * the walk from the first key.
+   * 
+   * @return list of keys, which throws ConcurrentModificationException once the multimap has been
+   *         modified
+   */
+  public List<Key> getInOrderTraversal() {
+    return new AbstractList<Key>() {
+      private final Cursor<Key, Bucket> cursor = tree.cursor();
+      // AbstractList has its own modCount, which hides the multimap's
+      private final int expectedModCount = MultiBALST.this.modCount;
+      private final int size = numKeys;
+      // Index of the first occurrence of the cursor's key, or MAX_VALUE until the walk begins
+      private int start = Integer.MAX_VALUE;
+
+      @Override
+      public Key get(int index) {
+        if (index < 0 || index >= size()) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        if (index < start) {
+          cursor.first();
+          start = 0;
+        }
+        // Skips the keys whose occurrences all come before index
+        while (index >= start + cursor.getValue().count) {
+          start += cursor.getValue().count;
+          cursor.next();
+        }
+        return cursor.getKey();
+      }
+
+      @Override
+      public int size() {
+        if (expectedModCount != MultiBALST.this.modCount) {
+          throw new ConcurrentModificationException();
+        }
+        return size;
+      }
+    };
+  }
+}
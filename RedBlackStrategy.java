@@ -0,0 +1,170 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Rebalances a BALST as a Red-Black tree: every path from a node down to a null child passes
+ * through the same number of black nodes, and red nodes have no red children.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+class RedBlackStrategy implements BalanceStrategy {
+
+  /**
+   * Returns whether node is red. Null nodes are black.
+   */
+  private static boolean isRed(BSTNode node) {
+    return node != null && node.getColor().equals("R");
+  }
+
+  /**
+   * Used to adjust tree after insertion to preserve Red-Black tree properties.
+   * 
+   * @param currentNode node where there is a potential Red-Black Tree property violation.
+   */
+  @Override
+  public void inserted(BALST tree, BSTNode currentNode) {
+    // if node is null or is the root, return
+    if (currentNode == null || currentNode.getParent() == null) {
+      return;
+    }
+    BSTNode parent = currentNode.getParent();
+    // if parent is black, there is no possible violation, so return
+    if (!isRed(parent)) {
+      return;
+    }
+    // else parent is red, so it isn't the root and grandparent is present
+    BSTNode grandparent = parent.getParent();
+    boolean parentIsLeft = grandparent.getLeftChild() == parent;
+    BSTNode uncle = parentIsLeft ? grandparent.getRightChild() : grandparent.getLeftChild();
+    // if uncle is red perform recoloring
+    if (isRed(uncle)) {
+      tree.recolor(parent, "B");
+      tree.recolor(uncle, "B");
+      if (tree.getRoot() != grandparent) {
+        tree.recolor(grandparent, "R");
+      }
+      // Call again on grandparent to fix potential cascading effects
+      inserted(tree, grandparent);
+    } // else uncle is black/null
+    else if (parentIsLeft) {
+      // If currentNode is a right child (Left-right case), perform left rotate on parent to reach
+      // Left-left case
+      if (parent.getRightChild() == currentNode) {
+        parent = tree.rotateLeft(parent);
+      }
+      // Left-left case: perform right rotation on grandparent and recolor nodes
+      tree.rotateRight(grandparent);
+      tree.recolor(parent, "B");
+      tree.recolor(grandparent, "R");
+    } else {
+      // If currentNode is a left child (Right-left case), perform right rotate on parent to reach
+      // Right-right case
+      if (parent.getLeftChild() == currentNode) {
+        parent = tree.rotateRight(parent);
+      }
+      // Right-right case: perform left rotation on grandparent and recolor nodes
+      tree.rotateLeft(grandparent);
+      tree.recolor(parent, "B");
+      tree.recolor(grandparent, "R");
+    }
+  }
+
+  /**
+   * Used to adjust tree after removal to preserve Red-Black tree properties. Removing a red node
+   * changes no black counts. Removing a black node whose replacement is red is fixed by coloring
+   * the replacement black. Otherwise paths through the replacement are one black node short, which
+   * is fixed by recoloring up the tree until a red node (or the root) absorbs it, or by borrowing a
+   * node from the sibling's subtree with at most three rotations.
+   */
+  @Override
+  public void removed(BALST tree, BSTNode removed, BSTNode parent, Child side) {
+    BSTNode currentNode = parent == null ? tree.getRoot()
+        : side == Child.LEFT ? parent.getLeftChild() : parent.getRightChild();
+    if (isRed(removed)) {
+      return;
+    }
+    while (parent != null && !isRed(currentNode)) {
+      if (side == Child.LEFT) {
+        // Sibling must be present, as paths through it have at least one black node
+        BSTNode sibling = parent.getRightChild();
+        // If sibling is red, rotate it above parent so that the new sibling is black
+        if (isRed(sibling)) {
+          tree.recolor(sibling, "B");
+          tree.recolor(parent, "R");
+          tree.rotateLeft(parent);
+          sibling = parent.getRightChild();
+        }
+        if (!isRed(sibling.getLeftChild()) && !isRed(sibling.getRightChild())) {
+          // Recolor sibling red, so paths through parent are short instead, and move up
+          tree.recolor(sibling, "R");
+          currentNode = parent;
+          parent = currentNode.getParent();
+          side = parent != null && parent.getLeftChild() == currentNode ? Child.LEFT : Child.RIGHT;
+        } else {
+          // Rotate sibling's red child to its right, if needed, and then rotate it above parent
+          if (!isRed(sibling.getRightChild())) {
+            tree.recolor(sibling.getLeftChild(), "B");
+            tree.recolor(sibling, "R");
+            sibling = tree.rotateRight(sibling);
+          }
+          tree.recolor(sibling, parent.getColor());
+          tree.recolor(parent, "B");
+          tree.recolor(sibling.getRightChild(), "B");
+          tree.rotateLeft(parent);
+          currentNode = tree.getRoot();
+          parent = null;
+        }
+      } else {
+        // Mirror image of the above
+        BSTNode sibling = parent.getLeftChild();
+        if (isRed(sibling)) {
+          tree.recolor(sibling, "B");
+          tree.recolor(parent, "R");
+          tree.rotateRight(parent);
+          sibling = parent.getLeftChild();
+        }
+        if (!isRed(sibling.getLeftChild()) && !isRed(sibling.getRightChild())) {
+          tree.recolor(sibling, "R");
+          currentNode = parent;
+          parent = currentNode.getParent();
+          side = parent != null && parent.getLeftChild() == currentNode ? Child.LEFT : Child.RIGHT;
+        } else {
+          if (!isRed(sibling.getLeftChild())) {
+            tree.recolor(sibling.getRightChild(), "B");
+            tree.recolor(sibling, "R");
+            sibling = tree.rotateLeft(sibling);
+          }
+          tree.recolor(sibling, parent.getColor());
+          tree.recolor(parent, "B");
+          tree.recolor(sibling.getLeftChild(), "B");
+          tree.rotateRight(parent);
+          currentNode = tree.getRoot();
+          parent = null;
+        }
+      }
+    }
+    // Red replacement (or the root) is colored black, restoring the missing black node
+    if (currentNode != null) {
+      tree.recolor(currentNode, "B");
+    }
+  }
+}
@@ -0,0 +1,500 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordered map which partitions its keys by range among several Red-Black trees, called shards, each
+ * guarded by its own lock, so that threads writing to different shards don't wait for each other.
+ * All methods may be called from multiple threads.
+ * 
+ * The shards are kept in a list ordered by range, which is replaced rather than changed. A lookup
+ * finds its shard in the current list, locks it, and starts over if the shard has meanwhile been
+ * retired by a split or merge. Once a shard holds more than twice its share of the keys, it is
+ * split at the key of its tree's root, and to keep the number of shards the two adjacent shards
+ * with the fewest keys are merged; both take logarithmic time, by splitting and joining the trees.
+ * Starting from a single shard, shards are split until there are as many as asked for.
+ * 
+ * The in-order traversal concatenates the shards' traversals. The other structural queries
+ * (getKeyAtRoot, getHeight, the child keys, the other traversals and print()) describe the
+ * Red-Black tree holding every key which is built from the shards for each call, so they take
+ * linear time and are meant for inspection rather than for heavy use.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>   is the generic type of key
+ * @param <Value> is the generic type of value
+ */
+public class ShardedBALST<Key extends Comparable<Key>, Value> implements BALSTADT<Key, Value> {
+
+  static final int MIN_SHARD_SIZE = 1024; // Fewest keys in each half of a shard which is split
+
+  private final Comparator<? super Key> comparator; // Ordering of keys, null for natural ordering
+  private final int shardCount; // Number of shards, once there are enough keys
+
+  private volatile List<Shard> shards; // Shards in order of their ranges, never changed once set
+  private final ReentrantLock layoutLock = new ReentrantLock(); // Held while shards are replaced
+  private final LongAdder numKeys = new LongAdder(); // Number of keys in all shards
+
+  // Sizes past which a write to a shard checks whether shards should be split or merged
+  private volatile int splitSize = 2 * MIN_SHARD_SIZE;
+  private volatile int mergeSize = -1;
+
+  /**
+   * Range of keys and the tree holding them. Ranges of live shards don't overlap and cover every
+   * key; a retired shard's keys have been moved to other shards.
+   */
+  private class Shard {
+
+    private final Key lo; // Smallest key in range, or null if unbounded
+    private final Key hi; // First key past range, or null if unbounded
+    private final BALST<Key, Value> tree;
+    private final ReentrantLock lock = new ReentrantLock(); // Held while tree is used
+    private boolean retired; // Whether shard has been replaced, guarded by lock
+    private volatile int size; // Number of keys in tree, updated while lock is held
+
+    private Shard(Key lo, Key hi, BALST<Key, Value> tree) {
+      this.lo = lo;
+      this.hi = hi;
+      this.tree = tree;
+      this.size = tree.numKeys();
+    }
+  }
+
+  /**
+   * Constructor for map spreading its keys over shardCount shards, in their natural ordering.
+   * 
+   * @param shardCount number of shards, such as the number of cores
+   * @throws IllegalArgumentException if shardCount is not positive
+   */
+  public ShardedBALST(int shardCount) {
+    this(null, shardCount);
+  }
+
+  /**
+   * Constructor for map spreading its keys over shardCount shards, ordered by comparator.
+   * 
+   * @param comparator ordering of keys, or null for their natural ordering
+   * @param shardCount number of shards, such as the number of cores
+   * @throws IllegalArgumentException if shardCount is not positive
+   */
+  public ShardedBALST(Comparator<? super Key> comparator, int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    this.comparator = comparator;
+    this.shardCount = shardCount;
+    this.shards = Collections.singletonList(new Shard(null, null, newTree()));
+  }
+
+  /**
+   * Returns an empty tree for a shard.
+   */
+  private BALST<Key, Value> newTree() {
+    return new BALST<Key, Value>(this.comparator);
+  }
+
+  /**
+   * Compares two keys in the map's ordering.
+   */
+  private int compare(Key first, Key second) {
+    return this.comparator != null ? this.comparator.compare(first, second)
+        : first.compareTo(second);
+  }
+
+  /**
+   * Finds the shard whose range holds key and locks it, starting over if the shard has been retired
+   * by the time its lock is held.
+   * 
+   * @param key whose shard is locked
+   * @return locked live shard holding key's range
+   */
+  private Shard lockShardFor(Key key) {
+    while (true) {
+      List<Shard> current = this.shards;
+      // Last shard whose lower bound is at most key; the first shard's bound is unbounded
+      int low = 0;
+      int high = current.size() - 1;
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (compare(current.get(middle).lo, key) <= 0) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+      Shard shard = current.get(low);
+      shard.lock.lock();
+      if (!shard.retired) {
+        return shard;
+      }
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Inserts key and value into the shard whose range holds key.
+   * 
+   * @param key   of node to be inserted
+   * @param value of node to be inserted
+   * @throws IllegalNullKeyException if key is null
+   * @throws DuplicateKeyException   if key is already present
+   */
+  @Override
+  public void insert(Key key, Value value) throws IllegalNullKeyException, DuplicateKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Shard shard = lockShardFor(key);
+    int size;
+    try {
+      shard.tree.insert(key, value);
+      size = shard.size = shard.tree.numKeys();
+    } finally {
+      shard.lock.unlock();
+    }
+    this.numKeys.increment();
+    if (size > this.splitSize) {
+      rebalance();
+    }
+  }
+
+  /**
+   * Removes key from the shard whose range holds key.
+   * 
+   * @param key to be removed
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present
+   * @return true if key is successfully removed
+   */
+  @Override
+  public boolean remove(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Shard shard = lockShardFor(key);
+    int size;
+    try {
+      shard.tree.remove(key);
+      size = shard.size = shard.tree.numKeys();
+    } finally {
+      shard.lock.unlock();
+    }
+    this.numKeys.decrement();
+    if (size < this.mergeSize) {
+      rebalance();
+    }
+    return true;
+  }
+
+  /**
+   * Returns value associated with key.
+   * 
+   * @param key whose value is to be returned
+   * @throws IllegalNullKeyException if key is null
+   * @throws KeyNotFoundException    if key is not present
+   * @return value of key
+   */
+  @Override
+  public Value get(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Shard shard = lockShardFor(key);
+    try {
+      return shard.tree.get(key);
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns whether key is present.
+   * 
+   * @param key being searched for
+   * @return true if key is present, false otherwise
+   * @throws IllegalNullKeyException if key is null
+   */
+  @Override
+  public boolean contains(Key key) throws IllegalNullKeyException {
+    if (key == null) {
+      throw new IllegalNullKeyException();
+    }
+    Shard shard = lockShardFor(key);
+    try {
+      return shard.tree.contains(key);
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of keys in all shards.
+   */
+  @Override
+  public int numKeys() {
+    return (int) this.numKeys.sum();
+  }
+
+  /**
+   * Getter for the number of shards the keys are currently spread over.
+   * 
+   * @return number of shards
+   */
+  public int numShards() {
+    return this.shards.size();
+  }
+
+  /**
+   * Returns the number of keys in each shard, in order of their ranges.
+   * 
+   * @return sizes of shards
+   */
+  public List<Integer> shardSizes() {
+    List<Integer> sizes = new ArrayList<Integer>();
+    for (Shard shard : this.shards) {
+      sizes.add(shard.size);
+    }
+    return sizes;
+  }
+
+  /**
+   * Splits and merges shards until none holds more than twice its share of the keys, unless
+   * another thread is already doing so. Each shard being split or merged is locked while its tree
+   * is split or joined and the list of shards is replaced, after which it is retired.
+   */
+  private void rebalance() {
+    if (!this.layoutLock.tryLock()) {
+      return;
+    }
+    try {
+      // Each round splits or merges once; the bound only guards against oscillating
+      for (int round = 0; round < 4 * this.shardCount; ++round) {
+        List<Shard> current = this.shards;
+        long share = this.numKeys.sum() / this.shardCount;
+        int largest = 0;
+        for (int i = 1; i < current.size(); ++i) {
+          if (current.get(i).size > current.get(largest).size) {
+            largest = i;
+          }
+        }
+        // Adjacent pair with the fewest keys, not including the largest shard
+        int pair = -1;
+        for (int i = 0; i + 1 < current.size(); ++i) {
+          if (i != largest && i + 1 != largest && (pair < 0
+              || pairSize(current, i) < pairSize(current, pair))) {
+            pair = i;
+          }
+        }
+        int largestSize = current.get(largest).size;
+        if (current.size() < this.shardCount) {
+          if (largestSize < 2 * MIN_SHARD_SIZE) {
+            break;
+          }
+          split(largest);
+        } else if (current.size() > this.shardCount) {
+          merge(pair < 0 ? 0 : pair);
+        } else if (pair >= 0 && largestSize > 2 * share + MIN_SHARD_SIZE
+            && pairSize(current, pair) < largestSize / 2) {
+          merge(pair);
+        } else {
+          break;
+        }
+      }
+      long share = this.numKeys.sum() / this.shardCount;
+      boolean full = this.shards.size() >= this.shardCount;
+      this.splitSize = full ? (int) Math.min(Integer.MAX_VALUE, 2 * share + MIN_SHARD_SIZE)
+          : 2 * MIN_SHARD_SIZE;
+      this.mergeSize = full && share >= 8 * MIN_SHARD_SIZE ? (int) (share / 8) : -1;
+    } finally {
+      this.layoutLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of keys in the shard at index and the one after it.
+   */
+  private long pairSize(List<Shard> current, int index) {
+    return (long) current.get(index).size + current.get(index + 1).size;
+  }
+
+  /**
+   * Splits the shard at index into two at the key of its tree's root, replacing the list of
+   * shards. Called while layoutLock is held.
+   */
+  private void split(int index) {
+    List<Shard> current = this.shards;
+    Shard shard = current.get(index);
+    shard.lock.lock();
+    try {
+      Key middle = shard.tree.getKeyAtRoot();
+      BALST<Key, Value> upper = shard.tree.splitFrom(middle);
+      List<Shard> replaced = new ArrayList<Shard>(current);
+      replaced.set(index, new Shard(shard.lo, middle, shard.tree));
+      replaced.add(index + 1, new Shard(middle, shard.hi, upper));
+      this.shards = replaced;
+      shard.retired = true;
+    } finally {
+      shard.lock.unlock();
+    }
+  }
+
+  /**
+   * Merges the shard at index with the one after it, replacing the list of shards. Called while
+   * layoutLock is held.
+   */
+  private void merge(int index) {
+    List<Shard> current = this.shards;
+    Shard lower = current.get(index);
+    Shard upper = current.get(index + 1);
+    // Shards are locked in order of their ranges, as writers only ever hold one shard's lock
+    lower.lock.lock();
+    upper.lock.lock();
+    try {
+      lower.tree.absorb(upper.tree);
+      List<Shard> replaced = new ArrayList<Shard>(current);
+      replaced.remove(index + 1);
+      replaced.set(index, new Shard(lower.lo, upper.hi, lower.tree));
+      this.shards = replaced;
+      lower.retired = true;
+      upper.retired = true;
+    } finally {
+      upper.lock.unlock();
+      lower.lock.unlock();
+    }
+  }
+
+  /**
+   * Locks every shard, in order of their ranges, and keeps the list of shards from being replaced
+   * until unlockAll is called.
+   * 
+   * @return shards which are locked
+   */
+  private List<Shard> lockAll() {
+    this.layoutLock.lock();
+    List<Shard> current = this.shards;
+    for (Shard shard : current) {
+      shard.lock.lock();
+    }
+    return current;
+  }
+
+  /**
+   * Unlocks the shards locked by lockAll.
+   * 
+   * @param current shards returned by lockAll
+   */
+  private void unlockAll(List<Shard> current) {
+    for (Shard shard : current) {
+      shard.lock.unlock();
+    }
+    this.layoutLock.unlock();
+  }
+
+  /**
+   * Returns the keys of every shard in order, which is the in-order traversal of all keys as the
+   * shards' ranges are in order.
+   * 
+   * @return list of keys in order
+   */
+  @Override
+  public List<Key> getInOrderTraversal() {
+    List<Shard> current = lockAll();
+    try {
+      List<Key> keys = new ArrayList<Key>(numKeys());
+      for (Shard shard : current) {
+        keys.addAll(shard.tree.getInOrderTraversal());
+      }
+      return keys;
+    } finally {
+      unlockAll(current);
+    }
+  }
+
+  /**
+   * Builds a Red-Black tree holding every key and value of the shards. The keys are inserted in
+   * increasing order, which appends each one at the tree's largest node.
+   * 
+   * @return tree of all keys
+   */
+  BALST<Key, Value> merged() {
+    BALST<Key, Value> tree = newTree();
+    List<Shard> current = lockAll();
+    try {
+      for (Shard shard : current) {
+        Cursor<Key, Value> cursor = shard.tree.cursor();
+        for (boolean valid = cursor.first(); valid; valid = cursor.next()) {
+          tree.insert(cursor.getKey(), cursor.getValue());
+        }
+      }
+    } catch (IllegalNullKeyException | DuplicateKeyException e) {
+      throw new IllegalStateException("Shards hold invalid keys", e);
+    } finally {
+      unlockAll(current);
+    }
+    return tree;
+  }
+
+  @Override
+  public Key getKeyAtRoot() {
+    return merged().getKeyAtRoot();
+  }
+
+  @Override
+  public Key getKeyOfLeftChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return merged().getKeyOfLeftChildOf(key);
+  }
+
+  @Override
+  public Key getKeyOfRightChildOf(Key key) throws IllegalNullKeyException, KeyNotFoundException {
+    return merged().getKeyOfRightChildOf(key);
+  }
+
+  @Override
+  public int getHeight() {
+    return merged().getHeight();
+  }
+
+  @Override
+  public List<Key> getPreOrderTraversal() {
+    return merged().getPreOrderTraversal();
+  }
+
+  @Override
+  public List<Key> getPostOrderTraversal() {
+    return merged().getPostOrderTraversal();
+  }
+
+  @Override
+  public List<Key> getLevelOrderTraversal() {
+    return merged().getLevelOrderTraversal();
+  }
+
+  @Override
+  public void print() {
+    merged().print();
+  }
+}
@@ -0,0 +1,62 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Node for BST which holds only a String key, as in a BALSTSet of Strings, along with the leading
+ * chars of the key packed into a long, so that most comparisons don't need to follow the reference
+ * to the key. Only trees of String keys use these nodes, so that nodes of other trees don't carry
+ * the prefix.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+class StringNode<Key, Value> extends BSTNode<Key, Value> {
+
+  long prefix; // Leading chars of key, set by the tree for faster comparisons
+
+  /**
+   * Bare constructor which only assigns key and parent, and sets others to default value.
+   * 
+   * @param key
+   * @param parent
+   */
+  StringNode(Key key, BSTNode<Key, Value> parent) {
+    super(key, parent);
+  }
+
+  @Override
+  void reuse(Key key, BSTNode<Key, Value> parent) {
+    super.reuse(key, parent);
+    this.prefix = 0;
+  }
+
+  @Override
+  long getPrefix() {
+    return this.prefix;
+  }
+
+  @Override
+  void setPrefix(long prefix) {
+    this.prefix = prefix;
+  }
+}
@@ -0,0 +1,71 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rebalances a BALST as a randomized treap: each node is given a random priority, held in its
+ * rank, and the tree is kept in heap order of priority as well as search order of keys. This makes
+ * its shape that of a binary search tree built by inserting keys in random order, whose expected
+ * height is logarithmic whatever order keys actually arrive in.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+class TreapStrategy implements BalanceStrategy {
+
+  /**
+   * Rotates new node up while its priority is greater than its parent's.
+   */
+  @Override
+  public void inserted(BALST tree, BSTNode node) {
+    tree.recolor(node, "B");
+    node.rank = ThreadLocalRandom.current().nextInt();
+    while (node.getParent() != null && node.rank > node.getParent().rank) {
+      if (node.getParent().getLeftChild() == node) {
+        tree.rotateRight(node.getParent());
+      } else {
+        tree.rotateLeft(node.getParent());
+      }
+    }
+  }
+
+  /**
+   * Rotates node down, lifting its higher priority child above it each time, until it has at most
+   * one child and can be unlinked directly.
+   */
+  @Override
+  public void removing(BALST tree, BSTNode node) {
+    while (node.getLeftChild() != null && node.getRightChild() != null) {
+      if (node.getLeftChild().rank > node.getRightChild().rank) {
+        tree.rotateRight(node);
+      } else {
+        tree.rotateLeft(node);
+      }
+    }
+  }
+
+  /**
+   * Unlinking a node with at most one child keeps heap order, so nothing is left to do.
+   */
+  @Override
+  public void removed(BALST tree, BSTNode removed, BSTNode parent, Child side) {}
+}
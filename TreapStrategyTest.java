@@ -0,0 +1,128 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the BALSTTest suite against a BALST balanced as a randomized treap. As the shape of a
+ * treap depends on its random priorities, tests of specific shapes are overridden to check only
+ * the order of keys.
+ */
+public class TreapStrategyTest extends BALSTTest {
+
+  @Override
+  protected BALSTADT<String, String> createInstance() {
+    return new BALST<String, String>(BalanceStrategy.TREAP);
+  }
+
+  @Override
+  protected BALSTADT<Integer, String> createInstance2() {
+    return new BALST<Integer, String>(BalanceStrategy.TREAP);
+  }
+
+  /**
+   * Returns a bound which a treap's height, expected to be about three times the natural logarithm
+   * of numKeys, exceeds with negligible probability.
+   */
+  @Override
+  protected double maxHeight(int numKeys) {
+    return 6 * Math.log(numKeys + 1) + 1;
+  }
+
+  /**
+   * Inserts three keys in the given order, and checks they are kept in order with a valid root.
+   */
+  private void insertThree(BALSTADT<Integer, String> tree, int... keys) throws Exception {
+    for (int key : keys) {
+      tree.insert(key, Integer.toString(key));
+    }
+    int[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    Assert.assertEquals(Arrays.asList(sorted[0], sorted[1], sorted[2]),
+        tree.getInOrderTraversal());
+    Assert.assertTrue(tree.contains(tree.getKeyAtRoot()));
+    Assert.assertTrue(tree.getHeight() >= 2 && tree.getHeight() <= 3);
+  }
+
+  @Test
+  @Override
+  void testBALST_001_insert_sorted_order_simple() {
+    try {
+      insertThree(balst2, 10, 20, 30);
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Treap 001: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @Override
+  void testBALST_002_insert_reversed_sorted_order_simple() {
+    try {
+      insertThree(balst2, 30, 20, 10);
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Treap 002: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @Override
+  void testBALST_003_insert_smallest_largest_middle_order_simple() {
+    try {
+      insertThree(balst2, 30, 50, 40);
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Treap 003: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @Override
+  void testBALST_004_insert_largest_smallest_middle_order_simple() {
+    try {
+      insertThree(balst2, 60, 20, 30);
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Treap 004: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @Override
+  void testBALST_005_test_height() {
+    try {
+      balst2.insert(60, "60");
+      Assert.assertEquals(balst2.getHeight(), 1);
+      balst2.insert(20, "20");
+      Assert.assertEquals(balst2.getHeight(), 2);
+      balst2.insert(30, "30");
+      Assert.assertTrue(balst2.getHeight() >= 2 && balst2.getHeight() <= 3);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Unexpected exception Treap 005: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,150 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Structural change made to a BALST, as published to its event ring for live visualization.
+ * Replaying a tree's events in order onto a copy of its shape (keys, children and colors) keeps the
+ * copy equal to the tree:
+ * 
+ * INSERTED: a node holding key was attached as the left or right child of the node holding the
+ * related key (or as the root, if it is null), with the given color.
+ * 
+ * REMOVED: the node holding key, which has at most one child, was replaced by that child.
+ * 
+ * REPLACED: the node holding key now holds the related key instead, which was moved into it from
+ * its in-order successor (removed by the preceding REMOVED event).
+ * 
+ * RECOLORED: the node holding key was given the color.
+ * 
+ * ROTATED_LEFT, ROTATED_RIGHT: the subtree rooted at the node holding key was rotated, so that
+ * its right (or left) child took its place.
+ * 
+ * RESET: the tree changed in ways not described by events, by a bulk operation such as
+ * removeRange, or events were lost because the reader fell behind; the copy must be rebuilt
+ * from the tree.
+ * 
+ * Tombstones don't change the tree's shape, so marking and reviving them publish no events.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key> is the generic type of key
+ */
+public final class TreeEvent<Key> {
+
+  /**
+   * Kinds of structural change.
+   */
+  public enum Type {
+    INSERTED, REMOVED, REPLACED, RECOLORED, ROTATED_LEFT, ROTATED_RIGHT, RESET
+  }
+
+  private final long sequence; // Position of event among those published by the tree
+  private final Type type;
+  private final Key key; // Key of node changed, or null for RESET
+  private final Key relatedKey; // Parent's key for INSERTED, moved key for REPLACED, else null
+  private final boolean left; // Whether an INSERTED node is a left child
+  private final String color; // Color of an INSERTED or RECOLORED node, else null
+
+  /**
+   * Constructor for event, which is immutable so that it may be read by other threads.
+   */
+  TreeEvent(long sequence, Type type, Key key, Key relatedKey, boolean left, String color) {
+    this.sequence = sequence;
+    this.type = type;
+    this.key = key;
+    this.relatedKey = relatedKey;
+    this.left = left;
+    this.color = color;
+  }
+
+  /**
+   * Getter for the position of the event among those published by the tree, counting from 0.
+   * 
+   * @return sequence number
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Getter for the kind of change.
+   * 
+   * @return type of event
+   */
+  public Type getType() {
+    return this.type;
+  }
+
+  /**
+   * Getter for the key of the node changed.
+   * 
+   * @return key, or null for RESET
+   */
+  public Key getKey() {
+    return this.key;
+  }
+
+  /**
+   * Getter for the key of the new node's parent, for INSERTED, or of the key moved into the node,
+   * for REPLACED.
+   * 
+   * @return related key, or null for the root and for other types
+   */
+  public Key getRelatedKey() {
+    return this.relatedKey;
+  }
+
+  /**
+   * Getter for whether an inserted node is the left child of its parent.
+   * 
+   * @return true if an INSERTED node is a left child, false otherwise
+   */
+  public boolean isLeftChild() {
+    return this.left;
+  }
+
+  /**
+   * Getter for the color of an inserted or recolored node.
+   * 
+   * @return "R" or "B", or null for other types
+   */
+  public String getColor() {
+    return this.color;
+  }
+
+  @Override
+  public String toString() {
+    switch (this.type) {
+      case INSERTED:
+        return this.sequence + " INSERTED " + this.key + " (" + this.color + ") as "
+            + (this.relatedKey == null ? "root"
+                : (this.left ? "left" : "right") + " child of " + this.relatedKey);
+      case REPLACED:
+        return this.sequence + " REPLACED " + this.key + " with " + this.relatedKey;
+      case RECOLORED:
+        return this.sequence + " RECOLORED " + this.key + " " + this.color;
+      case RESET:
+        return this.sequence + " RESET";
+      default:
+        return this.sequence + " " + this.type + " " + this.key;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+import java.util.function.Consumer;
+
+/**
+ * Reads the events a BALST publishes, in order, from any one thread. The tree's writer never waits
+ * for readers, so a reader which falls more than the ring's capacity behind loses events; it is
+ * then given a RESET event and moved to the newest event, and should rebuild its view from the tree
+ * (which must be read while no other thread is modifying it).
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key> is the generic type of key
+ */
+public class TreeEventReader<Key> {
+
+  private final EventRing<Key> ring;
+  private long position; // Sequence number of the next event to read
+
+  /**
+   * Constructor for reader of the events published after it is created.
+   * 
+   * @param ring of tree's events
+   */
+  TreeEventReader(EventRing<Key> ring) {
+    this.ring = ring;
+    this.position = ring.next();
+  }
+
+  /**
+   * Returns the next event, if it has been published.
+   * 
+   * @return next event, a RESET event if events have been lost, or null if there is no new event
+   */
+  public TreeEvent<Key> poll() {
+    TreeEvent<Key> event = this.ring.slot(this.position);
+    if (event == null || event.getSequence() < this.position) {
+      return null;
+    }
+    if (event.getSequence() > this.position) {
+      // Writer has lapped the reader, so skips to the events still to come
+      long lost = this.position;
+      this.position = this.ring.next();
+      return new TreeEvent<Key>(lost, TreeEvent.Type.RESET, null, null, false, null);
+    }
+    ++this.position;
+    return event;
+  }
+
+  /**
+   * Passes every event published so far, in order, to consumer.
+   * 
+   * @param consumer which replays events, such as onto a rendered view of the tree
+   * @return number of events passed
+   */
+  public int drain(Consumer<? super TreeEvent<Key>> consumer) {
+    int count = 0;
+    for (TreeEvent<Key> event = poll(); event != null; event = poll()) {
+      consumer.accept(event);
+      ++count;
+    }
+    return count;
+  }
+}
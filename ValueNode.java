@@ -0,0 +1,83 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Node for BST which maps its key to a value, as in a BALST.
+ * 
+ * @author Matthew Karrmann
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+class ValueNode<Key, Value> extends BSTNode<Key, Value> {
+
+  Value value; // Value held in node
+  Value aggregate; // Aggregate of values in subtree, if tree has a monoid
+
+  /**
+   * Bare constructor which only assigns key and value, and sets others to default value.
+   * 
+   * @param key
+   * @param value
+   */
+  ValueNode(Key key, Value value) {
+    this(key, value, null);
+  }
+
+  /**
+   * Bare constructor which only assigns key, value, and parent, and sets others to default value.
+   * 
+   * @param key
+   * @param value
+   * @param parent
+   */
+  ValueNode(Key key, Value value, BSTNode<Key, Value> parent) {
+    super(key, parent);
+    this.value = value;
+  }
+
+  @Override
+  void reuse(Key key, BSTNode<Key, Value> parent) {
+    super.reuse(key, parent);
+    this.value = null;
+    this.aggregate = null;
+  }
+
+  @Override
+  Value getValue() {
+    return this.value;
+  }
+
+  @Override
+  void setValue(Value value) {
+    this.value = value;
+  }
+
+  @Override
+  Value getAggregate() {
+    return this.aggregate;
+  }
+
+  @Override
+  void setAggregate(Value aggregate) {
+    this.aggregate = aggregate;
+  }
+}
@@ -0,0 +1,157 @@
+///////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// Title: Red-Black Tree Visualizer
+// Description: Defines a Red-Black Tree which implements interface BALSTADT, and defines JUnit
+// tests. Additionally, includes method for printing tree in order to visualize Red-Black tree.
+// Author: Matthew Karrmann
+// Email: mkarrmann@wisc.edu
+//
+// Note: This is an extension of class project for UW-Madison CS 400. We were assigned to design and
+// implement a Red-Black tree from scratch; all file names and relevant method headers were
+// provided. We were also tasked with printing the information of the tree in console under ideal
+// conditions; however, I was disappointed with the aesthetics and clarity of simple methods or
+// those found online. The algorithm used in the print() method, along with its helper methods, is
+// an algorithm which I developed for visualizing the Red-Black tree as clearly as possible.
+// This clarity comes as the cost of losing compactness (despite my algorithm being a greedy one
+// which displays the tree as compactly as possible while adhering to the desired properties),
+// although I believe my algorithm is the best one for visualizing small-medium trees, which is
+// the intended use-case.
+//
+///////////////////////////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Rebalances a BALST as a weak AVL tree (Haeupler, Sen and Tarjan, "Rank-Balanced Trees"). Each
+ * node's rank is an integer, with leaves at rank 0 and null nodes at rank -1, and the rank
+ * difference between a node and each of its children is 1 or 2; additionally leaves are 1,1 nodes.
+ * 
+ * With only inserts the tree is an AVL tree. Removes are rebalanced with demotions and at most two
+ * rotations, instead of the logarithmic number of rotations an AVL remove can need, and height
+ * stays below twice the logarithm of the number of keys.
+ * 
+ * @author Matthew Karrmann
+ */
+@SuppressWarnings("rawtypes")
+class WAVLStrategy implements BalanceStrategy {
+
+  /**
+   * Returns rank of node. Null nodes have rank -1.
+   */
+  private static int rank(BSTNode node) {
+    return node == null ? -1 : node.rank;
+  }
+
+  /**
+   * Returns the other child of parent.
+   */
+  private static BSTNode sibling(BSTNode parent, BSTNode child) {
+    return parent.getLeftChild() == child ? parent.getRightChild() : parent.getLeftChild();
+  }
+
+  /**
+   * Rebalances after insertion. The new leaf may be a 0-child of its parent: if its sibling is a
+   * 1-child the parent is promoted, moving the problem up; otherwise one or two rotations end it.
+   */
+  @Override
+  public void inserted(BALST tree, BSTNode node) {
+    tree.recolor(node, "B");
+    node.rank = 0;
+    BSTNode parent = node.getParent();
+    while (parent != null && parent.rank == node.rank) {
+      BSTNode sibling = sibling(parent, node);
+      if (parent.rank - rank(sibling) == 1) {
+        ++parent.rank;
+        node = parent;
+        parent = node.getParent();
+        continue;
+      }
+      boolean isLeft = parent.getLeftChild() == node;
+      BSTNode inner = isLeft ? node.getRightChild() : node.getLeftChild();
+      if (inner == null || node.rank - inner.rank == 2) {
+        // Single rotation lifts node above parent
+        if (isLeft) {
+          tree.rotateRight(parent);
+        } else {
+          tree.rotateLeft(parent);
+        }
+        --parent.rank;
+      } else {
+        // Double rotation lifts the inner grandchild above both
+        if (isLeft) {
+          tree.rotateLeft(node);
+          tree.rotateRight(parent);
+        } else {
+          tree.rotateRight(node);
+          tree.rotateLeft(parent);
+        }
+        ++inner.rank;
+        --node.rank;
+        --parent.rank;
+      }
+      return;
+    }
+  }
+
+  /**
+   * Rebalances after removal. The parent may be left as a 2,2 leaf, which is demoted, or with a
+   * 3-child: if the sibling is a 2-child, or a 1-child whose own children are both 2-children,
+   * demotions move the problem up; otherwise one or two rotations end it.
+   */
+  @Override
+  public void removed(BALST tree, BSTNode removed, BSTNode parent, Child side) {
+    if (parent == null) {
+      return;
+    }
+    BSTNode node = side == Child.LEFT ? parent.getLeftChild() : parent.getRightChild();
+    // A leaf must be a 1,1 node, so a 2,2 leaf is demoted
+    if (node == null && parent.getLeftChild() == null && parent.getRightChild() == null
+        && parent.rank == 1) {
+      parent.rank = 0;
+      node = parent;
+      parent = node.getParent();
+    }
+    while (parent != null && parent.rank - rank(node) == 3) {
+      boolean isLeft = parent.getLeftChild() == node;
+      // Sibling must be present, as parent has rank at least 2
+      BSTNode sibling = isLeft ? parent.getRightChild() : parent.getLeftChild();
+      if (parent.rank - sibling.rank == 2) {
+        --parent.rank;
+      } else if (sibling.rank - rank(sibling.getLeftChild()) == 2
+          && sibling.rank - rank(sibling.getRightChild()) == 2) {
+        --parent.rank;
+        --sibling.rank;
+      } else {
+        BSTNode outer = isLeft ? sibling.getRightChild() : sibling.getLeftChild();
+        if (sibling.rank - rank(outer) == 1) {
+          // Single rotation lifts sibling above parent
+          if (isLeft) {
+            tree.rotateLeft(parent);
+          } else {
+            tree.rotateRight(parent);
+          }
+          ++sibling.rank;
+          --parent.rank;
+          // Parent left as a 2,2 leaf is demoted again
+          if (parent.getLeftChild() == null && parent.getRightChild() == null) {
+            --parent.rank;
+          }
+        } else {
+          // Double rotation lifts the sibling's inner child above both
+          BSTNode inner = isLeft ? sibling.getLeftChild() : sibling.getRightChild();
+          if (isLeft) {
+            tree.rotateRight(sibling);
+            tree.rotateLeft(parent);
+          } else {
+            tree.rotateLeft(sibling);
+            tree.rotateRight(parent);
+          }
+          inner.rank += 2;
+          --sibling.rank;
+          parent.rank -= 2;
+        }
+        return;
+      }
+      node = parent;
+      parent = node.getParent();
+    }
+  }
+}